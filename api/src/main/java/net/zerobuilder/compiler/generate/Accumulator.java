@@ -0,0 +1,392 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.DtoRegularParameter.AbstractRegularParameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.anonymousClassBuilder;
+import static com.squareup.javapoet.WildcardTypeName.subtypeOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static net.zerobuilder.compiler.generate.DtoStep.LIST_HIERARCHY;
+import static net.zerobuilder.compiler.generate.Utilities.ClassNames.COLLECTION;
+import static net.zerobuilder.compiler.generate.Utilities.ClassNames.MAP;
+import static net.zerobuilder.compiler.generate.Utilities.ClassNames.SET;
+import static net.zerobuilder.compiler.generate.Utilities.distinctFrom;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.nullCheck;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.rawClassName;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.typeArguments;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Element-wise methods of a collection, map or primitive array step, like
+ * {@code addFoo(element)}, {@code addAllFoo(elements)} and {@code endFoo()}.
+ * The elements are collected in a buffer that belongs to the builder impl.
+ * A recycled impl clears the buffer after the goal was invoked, and keeps it for the next build.
+ * The goal receives a copy of the buffer.
+ */
+abstract class Accumulator {
+
+  /**
+   * Name of the method that adds a single element, e.g. {@code "addFoo"} or {@code "putFoo"}
+   */
+  final String add;
+
+  /**
+   * Name of the methods that add many elements at once, e.g. {@code "addAllFoo"}
+   */
+  final String addAll;
+
+  /**
+   * Name of the method that completes the step with the collected elements, e.g. {@code "endFoo"}
+   */
+  final String end;
+
+  /**
+   * The parameters of {@link #add}: an element, or a key and a value
+   */
+  final List<ParameterSpec> elements;
+
+  /**
+   * For each overload of {@link #addAll}, its parameter
+   */
+  final List<ParameterSpec> bulk;
+
+  private Accumulator(String name, String addPrefix, List<ParameterSpec> elements, List<ParameterSpec> bulk) {
+    this.add = addPrefix + upcase(name);
+    this.addAll = addPrefix + "All" + upcase(name);
+    this.end = "end" + upcase(name);
+    this.elements = elements;
+    this.bulk = bulk;
+  }
+
+  /**
+   * @return the fields of the impl that hold the buffer
+   */
+  abstract List<FieldSpec> buffer();
+
+  /**
+   * @param checkNulls if the elements must not be {@code null}
+   * @return the body of {@link #add}, without the return statement
+   */
+  abstract CodeBlock addElement(boolean checkNulls);
+
+  /**
+   * @param bulk       one of {@link #bulk}
+   * @param checkNulls if the elements must not be {@code null}
+   * @return the body of an overload of {@link #addAll}, without the return statement
+   */
+  abstract CodeBlock addElements(ParameterSpec bulk, boolean checkNulls);
+
+  /**
+   * @return an expression that evaluates to a copy of the buffer
+   */
+  abstract CodeBlock copy();
+
+  /**
+   * @return statements that prepare the buffer for the next build
+   */
+  abstract CodeBlock reset();
+
+  static Optional<Accumulator> create(AbstractRegularParameter parameter) {
+    if (parameter.type instanceof ArrayTypeName) {
+      return ArrayAccumulator.create(parameter.name, (ArrayTypeName) parameter.type);
+    }
+    return CollectionAccumulator.create(parameter.name, parameter.type);
+  }
+
+  /**
+   * Collects the elements of a {@code List}, {@code Set} or {@code Map} step.
+   * The goal receives an unmodifiable copy.
+   */
+  private static final class CollectionAccumulator extends Accumulator {
+
+    private final FieldSpec buffer;
+    private final List<TypeName> typeArguments;
+    private final TypeName bufferType;
+    private final String bufferAdd;
+    private final String bufferAddAll;
+    private final String emptyMethod;
+    private final String unmodifiableMethod;
+
+    private CollectionAccumulator(String name, String addPrefix, List<ParameterSpec> elements, TypeName bulkType,
+                                  ClassName bufferClass, String bufferAdd, String bufferAddAll,
+                                  String emptyMethod, String unmodifiableMethod) {
+      super(name, addPrefix, elements, singletonList(parameterSpec(bulkType, name)));
+      this.typeArguments = transform(elements, element -> element.type);
+      this.bufferType = ParameterizedTypeName.get(bufferClass,
+          typeArguments.toArray(new TypeName[typeArguments.size()]));
+      this.buffer = fieldSpec(bufferType, name + "Buffer", PRIVATE);
+      this.bufferAdd = bufferAdd;
+      this.bufferAddAll = bufferAddAll;
+      this.emptyMethod = emptyMethod;
+      this.unmodifiableMethod = unmodifiableMethod;
+    }
+
+    private static Optional<Accumulator> create(String name, TypeName type) {
+      Optional<ClassName> maybeClassName = rawClassName(type);
+      List<TypeName> types = transform(typeArguments(type), Utilities::elementType);
+      if (!maybeClassName.isPresent() || types.isEmpty()) {
+        return Optional.empty();
+      }
+      ClassName className = maybeClassName.get();
+      if (LIST_HIERARCHY.contains(className)) {
+        TypeName element = types.get(0);
+        return Optional.of(new CollectionAccumulator(name, "add",
+            singletonList(parameterSpec(element, name)),
+            ParameterizedTypeName.get(COLLECTION, subtypeOf(element)),
+            ClassName.get(ArrayList.class), "add", "addAll", "emptyList", "unmodifiableList"));
+      }
+      if (SET.equals(className)) {
+        TypeName element = types.get(0);
+        return Optional.of(new CollectionAccumulator(name, "add",
+            singletonList(parameterSpec(element, name)),
+            ParameterizedTypeName.get(COLLECTION, subtypeOf(element)),
+            ClassName.get(LinkedHashSet.class), "add", "addAll", "emptySet", "unmodifiableSet"));
+      }
+      if (MAP.equals(className)) {
+        TypeName key = types.get(0);
+        TypeName value = types.get(1);
+        return Optional.of(new CollectionAccumulator(name, "put",
+            asList(parameterSpec(key, "key"), parameterSpec(value, "value")),
+            ParameterizedTypeName.get(MAP, subtypeOf(key), subtypeOf(value)),
+            ClassName.get(LinkedHashMap.class), "put", "putAll", "emptyMap", "unmodifiableMap"));
+      }
+      return Optional.empty();
+    }
+
+    @Override
+    List<FieldSpec> buffer() {
+      return singletonList(buffer);
+    }
+
+    @Override
+    CodeBlock addElement(boolean checkNulls) {
+      CodeBlock.Builder builder = CodeBlock.builder();
+      if (checkNulls) {
+        elements.forEach(element -> builder.add(nullCheck(element.name, bulk.get(0).name)));
+      }
+      return builder
+          .add(initBuffer())
+          .addStatement("this.$N.$N($L)", buffer, bufferAdd, elements.stream()
+              .map(element -> element.name)
+              .collect(joining(", ")))
+          .build();
+    }
+
+    @Override
+    CodeBlock addElements(ParameterSpec bulk, boolean checkNulls) {
+      if (!checkNulls) {
+        return CodeBlock.builder()
+            .add(initBuffer())
+            .addStatement("this.$N.$N($N)", buffer, bufferAddAll, bulk)
+            .build();
+      }
+      if (elements.size() == 1) {
+        ParameterSpec element = parameterSpec(elements.get(0).type, distinctFrom("element", bulk.name));
+        return CodeBlock.builder()
+            .beginControlFlow("for ($T $N : $N)", element.type, element, bulk)
+            .addStatement("$N($N)", add, element)
+            .endControlFlow()
+            .build();
+      }
+      TypeName entryType = ParameterizedTypeName.get(ClassName.get(Map.Entry.class),
+          subtypeOf(typeArguments.get(0)), subtypeOf(typeArguments.get(1)));
+      String entry = distinctFrom("entry", bulk.name);
+      return CodeBlock.builder()
+          .beginControlFlow("for ($T $N : $N.entrySet())", entryType, entry, bulk)
+          .addStatement("$N($N.getKey(), $N.getValue())", add, entry, entry)
+          .endControlFlow()
+          .build();
+    }
+
+    private CodeBlock initBuffer() {
+      return CodeBlock.builder()
+          .beginControlFlow("if (this.$N == null)", buffer)
+          .addStatement("this.$N = new $T()", buffer, bufferType)
+          .endControlFlow()
+          .build();
+    }
+
+    @Override
+    CodeBlock copy() {
+      CodeBlock typeParameters = CodeBlock.of(typeArguments.stream()
+          .map(type -> "$T")
+          .collect(joining(", ")), typeArguments.toArray());
+      return CodeBlock.of("this.$N == null || this.$N.isEmpty() ?\n" +
+              "$T.<$L>$N() :\n" +
+              "$T.$N(new $T(this.$N))",
+          buffer, buffer,
+          Collections.class, typeParameters, emptyMethod,
+          Collections.class, unmodifiableMethod, bufferType, buffer);
+    }
+
+    @Override
+    CodeBlock reset() {
+      return CodeBlock.builder()
+          .beginControlFlow("if (this.$N != null)", buffer)
+          .add(statement("this.$N.clear()", buffer))
+          .endControlFlow()
+          .build();
+    }
+  }
+
+  /**
+   * Collects the elements of a primitive array step in a growable array, without boxing.
+   * The goal receives an exact-length copy of the filled part of the array.
+   * If the component type is {@code int}, {@code long} or {@code double},
+   * the elements can also be added from a primitive {@link Spliterator}.
+   */
+  private static final class ArrayAccumulator extends Accumulator {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ArrayTypeName type;
+    private final FieldSpec buffer;
+    private final FieldSpec size;
+
+    private ArrayAccumulator(String name, ArrayTypeName type, List<ParameterSpec> bulk) {
+      super(name, "add", singletonList(parameterSpec(type.componentType, name)), bulk);
+      this.type = type;
+      this.buffer = fieldSpec(type, name + "Buffer", PRIVATE);
+      this.size = fieldSpec(TypeName.INT, name + "Size", PRIVATE);
+    }
+
+    private static Optional<Accumulator> create(String name, ArrayTypeName type) {
+      if (!type.componentType.isPrimitive()) {
+        return Optional.empty();
+      }
+      ParameterSpec array = parameterSpec(type, name);
+      Optional<ClassName> spliterator = spliteratorType(type.componentType);
+      return Optional.of(new ArrayAccumulator(name, type, spliterator.isPresent() ?
+          asList(array, parameterSpec(spliterator.get(), name)) :
+          singletonList(array)));
+    }
+
+    private static Optional<ClassName> spliteratorType(TypeName componentType) {
+      if (componentType.equals(TypeName.INT)) {
+        return Optional.of(ClassName.get(Spliterator.OfInt.class));
+      }
+      if (componentType.equals(TypeName.LONG)) {
+        return Optional.of(ClassName.get(Spliterator.OfLong.class));
+      }
+      if (componentType.equals(TypeName.DOUBLE)) {
+        return Optional.of(ClassName.get(Spliterator.OfDouble.class));
+      }
+      return Optional.empty();
+    }
+
+    private static ClassName consumerType(TypeName componentType) {
+      if (componentType.equals(TypeName.INT)) {
+        return ClassName.get(IntConsumer.class);
+      }
+      if (componentType.equals(TypeName.LONG)) {
+        return ClassName.get(LongConsumer.class);
+      }
+      return ClassName.get(DoubleConsumer.class);
+    }
+
+    @Override
+    List<FieldSpec> buffer() {
+      return asList(buffer, size);
+    }
+
+    @Override
+    CodeBlock addElement(boolean checkNulls) {
+      return CodeBlock.builder()
+          .beginControlFlow("if (this.$N == null)", buffer)
+          .addStatement("this.$N = new $T[$L]", buffer, type.componentType, INITIAL_CAPACITY)
+          .nextControlFlow("else if (this.$N == this.$N.length)", size, buffer)
+          .addStatement("this.$N = $T.copyOf(this.$N, 2 * this.$N)", buffer, Arrays.class, buffer, size)
+          .endControlFlow()
+          .addStatement("this.$N[this.$N++] = $N", buffer, size, elements.get(0))
+          .build();
+    }
+
+    @Override
+    CodeBlock addElements(ParameterSpec bulk, boolean checkNulls) {
+      if (bulk.type.equals(type)) {
+        return CodeBlock.builder()
+            .add(ensureCapacity(bulk.name + ".length"))
+            .addStatement("$T.arraycopy($N, 0, this.$N, this.$N, $N.length)",
+                System.class, bulk, buffer, size, bulk)
+            .addStatement("this.$N += $N.length", size, bulk)
+            .build();
+      }
+      ParameterSpec value = parameterSpec(type.componentType, distinctFrom("value", bulk.name));
+      String known = distinctFrom("known", bulk.name);
+      TypeSpec consumer = anonymousClassBuilder("")
+          .addSuperinterface(consumerType(type.componentType))
+          .addMethod(methodBuilder("accept")
+              .addAnnotation(Override.class)
+              .addModifiers(PUBLIC)
+              .addParameter(value)
+              .addStatement("$N($N)", add, value)
+              .build())
+          .build();
+      return CodeBlock.builder()
+          .addStatement("$T $N = $N.getExactSizeIfKnown()", long.class, known, bulk)
+          .beginControlFlow("if ($N > 0)", known)
+          .add(ensureCapacity("(int) " + known))
+          .endControlFlow()
+          .addStatement("$N.forEachRemaining($L)", bulk, consumer)
+          .build();
+    }
+
+    /**
+     * @param count an expression, the number of elements that will be added
+     * @return code that makes room for {@code count} more elements
+     */
+    private CodeBlock ensureCapacity(String count) {
+      return CodeBlock.builder()
+          .beginControlFlow("if (this.$N == null)", buffer)
+          .addStatement("this.$N = new $T[$T.max($L, $L)]", buffer, type.componentType, Math.class,
+              INITIAL_CAPACITY, count)
+          .nextControlFlow("else if (this.$N.length - this.$N < $L)", buffer, size, count)
+          .addStatement("this.$N = $T.copyOf(this.$N, $T.max(2 * this.$N.length, this.$N + $L))",
+              buffer, Arrays.class, buffer, Math.class, buffer, size, count)
+          .endControlFlow()
+          .build();
+    }
+
+    @Override
+    CodeBlock copy() {
+      return CodeBlock.of("this.$N == null ?\n" +
+              "new $T[0] :\n" +
+              "$T.copyOf(this.$N, this.$N)",
+          buffer, type.componentType, Arrays.class, buffer, size);
+    }
+
+    @Override
+    CodeBlock reset() {
+      return statement("this.$N = 0", size);
+    }
+  }
+}
@@ -15,14 +15,16 @@ import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
-import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.isCompact;
 import static net.zerobuilder.compiler.generate.Step.asStepInterface;
+import static net.zerobuilder.compiler.generate.Utilities.concat;
 import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
 import static net.zerobuilder.compiler.generate.Utilities.transform;
@@ -38,7 +40,7 @@ public final class Builder extends ContractModule {
   }
 
   private final Function<AbstractGoalContext, List<FieldSpec>> fields(BuilderB builderB, BuilderV builderV) {
-    return goalCases(builderV.fieldsV, builderB.fieldsB);
+    return goalCases(builderV.implFieldsV, builderB.fieldsB);
   }
 
   private final Function<AbstractGoalContext, BuilderMethod> goalToBuilder(GeneratorBB generatorBB, GeneratorVB generatorVB) {
@@ -49,21 +51,29 @@ public final class Builder extends ContractModule {
     return classBuilder(implType(goal))
         .addSuperinterfaces(stepInterfaceTypes(goal))
         .addFields(fields(builderB, builderV).apply(goal))
+        .addFields(lifecycleFields(goal))
         .addMethod(builderConstructor.apply(goal))
-        .addMethods(steps(builderB, builderV).apply(goal))
+        .addMethods(checkOwner(goal, steps(builderB, builderV).apply(goal)))
         .addModifiers(STATIC, FINAL)
         .build();
   }
 
-  private TypeSpec defineContract(AbstractGoalContext goal) {
-    return classBuilder(contractType(goal))
+  /**
+   * In compact mode, the step interfaces are not wrapped in a class,
+   * and the same interface may be returned for another goal.
+   */
+  private List<TypeSpec> defineContract(AbstractGoalContext goal) {
+    if (isCompact(goal.steps().get(0))) {
+      return stepInterfaces(goal);
+    }
+    return singletonList(classBuilder(contractType(goal))
         .addTypes(stepInterfaces(goal))
         .addModifiers(PUBLIC, STATIC, FINAL)
         .addMethod(constructorBuilder()
             .addStatement("throw new $T($S)", UnsupportedOperationException.class, "no instances")
             .addModifiers(PRIVATE)
             .build())
-        .build();
+        .build());
   }
 
   private final Function<AbstractGoalContext, MethodSpec> builderConstructor =
@@ -71,10 +81,10 @@ public final class Builder extends ContractModule {
           AbstractRegularGoalContext::builderConstructor,
           bGoal -> constructorBuilder()
               .addModifiers(PRIVATE)
-              .addExceptions(bGoal.context.lifecycle == REUSE_INSTANCES
+              .addExceptions(bGoal.context.lifecycle != NEW_INSTANCE
                   ? Collections.emptyList()
                   : bGoal.thrownTypes)
-              .addCode(bGoal.context.lifecycle == REUSE_INSTANCES
+              .addCode(bGoal.context.lifecycle != NEW_INSTANCE
                   ? emptyCodeBlock
                   : statement("this.$N = new $T()", bGoal.bean(), bGoal.type()))
               .build());
@@ -99,7 +109,7 @@ public final class Builder extends ContractModule {
     GeneratorVB generatorVB = new GeneratorVB(this);
     return new DtoGeneratorOutput.SingleModuleOutput(
         goalToBuilder(generatorBB, generatorVB).apply(goal),
-        asList(defineBuilderImpl(goal, builderB, builderV), defineContract(goal)));
+        concat(defineBuilderImpl(goal, builderB, builderV), defineContract(goal)));
   }
 
   @Override
@@ -26,11 +26,11 @@ import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
 import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.nextType;
 import static net.zerobuilder.compiler.generate.Step.nullCheck;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.ITERABLE;
+import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
 import static net.zerobuilder.compiler.generate.Utilities.flatList;
 import static net.zerobuilder.compiler.generate.Utilities.nullCheck;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
-import static net.zerobuilder.compiler.generate.Utilities.statement;
 
 final class BuilderB {
 
@@ -80,9 +80,10 @@ final class BuilderB {
         .addAnnotation(Override.class)
         .addExceptions(step.accessorPair.setterThrownTypes)
         .returns(nextType(step))
-        .addStatement("$T $N = $L", emptyColl.type, emptyColl, collectionInfo.initializer)
-        .addStatement("this.$N.$L($N)", goal.bean(), step.accessorPair.setterName(), emptyColl)
-        .addCode(regularFinalBlock(goal, isLast))
+        .addCode(regularFinalBlock(goal, isLast, CodeBlock.builder()
+            .addStatement("$T $N = $L", emptyColl.type, emptyColl, collectionInfo.initializer)
+            .addStatement("this.$N.$L($N)", goal.bean(), step.accessorPair.setterName(), emptyColl)
+            .build()))
         .addModifiers(PUBLIC)
         .build());
   }
@@ -97,15 +98,27 @@ final class BuilderB {
     return methodBuilder(step.emptyMethod)
         .addAnnotation(Override.class)
         .returns(nextType(step))
-        .addCode(regularFinalBlock(goal, isLast))
+        .addCode(regularFinalBlock(goal, isLast, emptyCodeBlock))
         .addModifiers(PUBLIC)
         .build();
   }
 
-  private CodeBlock regularFinalBlock(BeanGoalContext goal, boolean isLast) {
+  /**
+   * In the last step, {@code body} runs inside the block that releases the impl,
+   * so that a failing null check or setter does not leave it in use.
+   *
+   * @param body the null check and assignment of the step
+   */
+  private CodeBlock regularFinalBlock(BeanGoalContext goal, boolean isLast, CodeBlock body) {
     return isLast
-        ? statement("return this.$N", goal.bean())
-        : statement("return this");
+        ? builder.releaseAfter(goal, fieldsB.apply(goal), CodeBlock.builder()
+        .add(body)
+        .addStatement("return this.$N", goal.bean())
+        .build())
+        : CodeBlock.builder()
+        .add(body)
+        .addStatement("return this")
+        .build();
   }
 
   private MethodSpec iterateCollection(LoneGetterStep step,
@@ -115,19 +128,16 @@ final class BuilderB {
     ParameterizedTypeName iterable = ParameterizedTypeName.get(ITERABLE,
         subtypeOf(step.loneGetter.iterationType()));
     ParameterSpec parameter = parameterSpec(iterable, name);
-    ParameterSpec iterationVar = step.loneGetter.iterationVar(parameter);
     return methodBuilder(name)
         .addAnnotation(Override.class)
         .returns(nextType(step))
         .addExceptions(step.loneGetter.getterThrownTypes)
         .addParameter(parameter)
-        .addCode(nullCheck(parameter))
-        .beginControlFlow("for ($T $N : $N)",
-            iterationVar.type, iterationVar, parameter)
-        .addStatement("this.$N.$L().add($N)", goal.bean(),
-            step.loneGetter.getter, iterationVar)
-        .endControlFlow()
-        .addCode(regularFinalBlock(goal, isLast))
+        .addCode(regularFinalBlock(goal, isLast, CodeBlock.builder()
+            .add(nullCheck(parameter))
+            .add(step.loneGetter.addAll(
+                CodeBlock.of("this.$N.$L()", goal.bean(), step.loneGetter.getter), parameter))
+            .build()))
         .addModifiers(PUBLIC)
         .build();
   }
@@ -140,8 +150,10 @@ final class BuilderB {
         .addParameter(parameter)
         .addModifiers(PUBLIC)
         .returns(nextType(step))
-        .addCode(nullCheck.apply(step))
-        .addStatement("this.$N.$L($N)", goal.bean(), step.accessorPair.setterName(), parameter)
-        .addCode(regularFinalBlock(goal, isLast)).build();
+        .addCode(regularFinalBlock(goal, isLast, CodeBlock.builder()
+            .add(nullCheck.apply(step))
+            .addStatement("this.$N.$L($N)", goal.bean(), step.accessorPair.setterName(), parameter)
+            .build()))
+        .build();
   }
 }
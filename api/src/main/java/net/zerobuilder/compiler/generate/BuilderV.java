@@ -1,5 +1,6 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
@@ -13,8 +14,10 @@ import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
 import net.zerobuilder.compiler.generate.DtoStep.CollectionInfo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -23,10 +26,16 @@ import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
 import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.nextType;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.stepType;
 import static net.zerobuilder.compiler.generate.Step.nullCheck;
+import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.flatList;
+import static net.zerobuilder.compiler.generate.Utilities.joinCodeBlocks;
+import static net.zerobuilder.compiler.generate.Utilities.nullCheck;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
 
 final class BuilderV {
 
@@ -47,6 +56,32 @@ final class BuilderV {
         .collect(Collectors.toList());
   };
 
+  /**
+   * The buffers of the accumulators are not cleared by {@link DtoModule.ContractModule#releaseAfter},
+   * so that a recycled impl can reuse them.
+   */
+  final Function<AbstractRegularGoalContext, List<FieldSpec>> implFieldsV
+      = goal -> Stream.concat(
+      fieldsV.apply(goal).stream(),
+      accumulators(goal).stream()
+          .map(Accumulator::buffer)
+          .flatMap(List::stream))
+      .collect(Collectors.toList());
+
+  private static List<Accumulator> accumulators(AbstractRegularGoalContext goal) {
+    return goal.regularSteps().stream()
+        .map(AbstractRegularStep::accumulator)
+        .map(Utilities::presentInstances)
+        .collect(flatList());
+  }
+
+  private CodeBlock releaseAfter(AbstractRegularGoalContext goal, CodeBlock invocation) {
+    return builder.releaseAfter(goal, fieldsV.apply(goal), invocation,
+        accumulators(goal).stream()
+            .map(Accumulator::reset)
+            .collect(joinCodeBlocks));
+  }
+
   final Function<AbstractRegularGoalContext, List<MethodSpec>> stepsV
       = goal -> {
     List<AbstractRegularStep> steps = goal.regularSteps();
@@ -63,6 +98,9 @@ final class BuilderV {
     List<MethodSpec> builder = new ArrayList<>();
     builder.add(stepMethod(step, goal, isLast));
     builder.addAll(presentInstances(maybeEmptyCollection(step, goal, isLast)));
+    builder.addAll(presentInstances(maybeVarargs(step, goal, isLast)));
+    step.accumulator().ifPresent(accumulator ->
+        builder.addAll(accumulatorMethods(step, accumulator, goal, isLast)));
     return builder;
   }
 
@@ -74,7 +112,6 @@ final class BuilderV {
         .addAnnotation(Override.class)
         .addParameter(parameter)
         .returns(nextType(step))
-        .addCode(nullCheck.apply(step))
         .addCode(normalAssignment(step, goal, isLast))
         .addModifiers(PUBLIC)
         .addExceptions(step.declaredExceptions())
@@ -96,14 +133,70 @@ final class BuilderV {
         .build());
   }
 
+  /**
+   * The array is wrapped, not copied, just like the plain step stores the caller's list.
+   */
+  private Optional<MethodSpec> maybeVarargs(
+      AbstractRegularStep step, AbstractRegularGoalContext goal, boolean isLast) {
+    Optional<TypeName> maybeElement = step.varargsElement();
+    if (!maybeElement.isPresent()) {
+      return Optional.empty();
+    }
+    String name = step.regularParameter().name;
+    ParameterSpec array = parameterSpec(ArrayTypeName.of(maybeElement.get()),
+        isLast ? arrayName(goal, name) : name);
+    CodeBlock initializer = step.regularParameter().nullPolicy.check() ?
+        CodeBlock.of("$T.asList($N)", Arrays.class, array) :
+        CodeBlock.of("$N == null ? null : $T.asList($N)", array, Arrays.class, array);
+    CodeBlock check = step.regularParameter().nullPolicy.check() ?
+        nullCheck(array, name) :
+        emptyCodeBlock;
+    return Optional.of(methodBuilder(name)
+        .addAnnotation(Override.class)
+        .addParameter(array)
+        .varargs(true)
+        .returns(nextType(step))
+        .addCode(isLast ?
+            releaseAfter(goal, CodeBlock.builder()
+                .add(check)
+                .add(goal.acceptRegular(localInvoke(step, initializer)))
+                .build()) :
+            CodeBlock.builder()
+                .add(check)
+                .addStatement("this.$N = $L", step.field(), initializer)
+                .addStatement("return this")
+                .build())
+        .addModifiers(PUBLIC)
+        .addExceptions(step.declaredExceptions())
+        .build());
+  }
+
+  /**
+   * In the last step, the list is a local variable that has the name of the step.
+   */
+  private static String arrayName(AbstractRegularGoalContext goal, String name) {
+    Set<String> names = goal.regularSteps().stream()
+        .map(step -> step.regularParameter().name)
+        .collect(Collectors.toSet());
+    String arrayName = name + "Array";
+    while (names.contains(arrayName)) {
+      arrayName = 'a' + upcase(arrayName);
+    }
+    return arrayName;
+  }
+
   private CodeBlock normalAssignment(AbstractRegularStep step, AbstractRegularGoalContext goal, boolean isLast) {
     TypeName type = step.regularParameter().type;
     String name = step.regularParameter().name;
     ParameterSpec parameter = parameterSpec(type, name);
     if (isLast) {
-      return regularInvoke.apply(goal);
+      return releaseAfter(goal, CodeBlock.builder()
+          .add(nullCheck.apply(step))
+          .add(regularInvoke.apply(goal))
+          .build());
     } else {
       return CodeBlock.builder()
+          .add(nullCheck.apply(step))
           .addStatement("this.$N = $N", step.field(), parameter)
           .addStatement("return this")
           .build();
@@ -113,7 +206,7 @@ final class BuilderV {
   private CodeBlock emptyCollectionAssignment(AbstractRegularStep step, AbstractRegularGoalContext goal,
                                               CollectionInfo collInfo, boolean isLast) {
     if (isLast) {
-      return goal.acceptRegular(emptyCollectionInvoke(step, collInfo));
+      return releaseAfter(goal, goal.acceptRegular(localInvoke(step, collInfo.initializer)));
     } else {
       return CodeBlock.builder()
           .addStatement("this.$N = $L", step.field(), collInfo.initializer)
@@ -122,14 +215,56 @@ final class BuilderV {
     }
   }
 
+  private List<MethodSpec> accumulatorMethods(AbstractRegularStep step, Accumulator accumulator,
+                                              AbstractRegularGoalContext goal, boolean isLast) {
+    boolean checkNulls = step.regularParameter().nullPolicy.check();
+    List<MethodSpec> methods = new ArrayList<>();
+    methods.add(methodBuilder(accumulator.add)
+        .addAnnotation(Override.class)
+        .addParameters(accumulator.elements)
+        .returns(stepType(step))
+        .addCode(accumulator.addElement(checkNulls))
+        .addStatement("return this")
+        .addModifiers(PUBLIC)
+        .build());
+    for (ParameterSpec bulk : accumulator.bulk) {
+      methods.add(methodBuilder(accumulator.addAll)
+          .addAnnotation(Override.class)
+          .addParameter(bulk)
+          .returns(stepType(step))
+          .addCode(accumulator.addElements(bulk, checkNulls))
+          .addStatement("return this")
+          .addModifiers(PUBLIC)
+          .build());
+    }
+    methods.add(methodBuilder(accumulator.end)
+        .addAnnotation(Override.class)
+        .returns(nextType(step))
+        .addCode(isLast ?
+            releaseAfter(goal, goal.acceptRegular(localInvoke(step, accumulator.copy()))) :
+            CodeBlock.builder()
+                .addStatement("this.$N = $L", step.field(), accumulator.copy())
+                .addStatement("return this")
+                .build())
+        .addModifiers(PUBLIC)
+        .addExceptions(step.declaredExceptions())
+        .build());
+    return methods;
+  }
+
   private final Function<AbstractRegularGoalContext, CodeBlock> regularInvoke =
       regularGoalContextCases(
           goal -> statement("return new $T($L)", goal.type(),
               goal.invocationParameters()),
           goal -> goal.methodGoalInvocation());
 
-  final RegularGoalContextCases<CodeBlock> emptyCollectionInvoke(final AbstractRegularStep step,
-                                                                 final CollectionInfo collectionInfo) {
+  /**
+   * @param step        the last step
+   * @param initializer the value of the last step
+   * @return code that invokes the goal
+   */
+  final RegularGoalContextCases<CodeBlock> localInvoke(final AbstractRegularStep step,
+                                                       final CodeBlock initializer) {
     return new RegularGoalContextCases<CodeBlock>() {
       @Override
       public CodeBlock constructorGoal(AbstractConstructorGoalContext goal) {
@@ -137,7 +272,7 @@ final class BuilderV {
         TypeName type = step.regularParameter().type;
         String name = step.regularParameter().name;
         return CodeBlock.builder()
-            .addStatement("$T $N = $L", type, name, collectionInfo.initializer)
+            .addStatement("$T $N = $L", type, name, initializer)
             .addStatement("return new $T($L)", goal.type(), parameters)
             .build();
       }
@@ -146,7 +281,7 @@ final class BuilderV {
         TypeName type = step.regularParameter().type;
         String name = step.regularParameter().name;
         return CodeBlock.builder()
-            .addStatement("$T $N = $L", type, name, collectionInfo.initializer)
+            .addStatement("$T $N = $L", type, name, initializer)
             .add(goal.methodGoalInvocation())
             .build();
       }
@@ -0,0 +1,339 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
+import net.zerobuilder.compiler.generate.DtoBeanParameter.AccessorPair;
+import net.zerobuilder.compiler.generate.DtoBeanStep.AbstractBeanStep;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+import net.zerobuilder.compiler.generate.DtoProjectionInfo.ProjectionInfo;
+import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
+import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+
+import javax.lang.model.element.Modifier;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Arrays.asList;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
+import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.DtoProjectionInfo.projectionInfoCases;
+import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
+import static net.zerobuilder.compiler.generate.GeneratorVU.thrownByProjections;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates a static {@code fooEncode(foo, buffer)} method, which writes the projections
+ * of a goal to a {@link ByteBuffer}, and a static {@code fooDecode(buffer)} method,
+ * which reads them back and passes them directly to the goal, or to the setters of a bean.
+ * Primitives are written in the byte order of the buffer,
+ * boxed primitives are preceded by a byte that is {@code 0} for {@code null},
+ * and strings are written as UTF-8, preceded by their length in bytes, or {@code -1} for {@code null}.
+ * A string length that is less than {@code -1}, or exceeds the remaining bytes,
+ * is reported as a {@link BufferUnderflowException}, before anything is allocated.
+ * Other types, and instance method goals, are not supported.
+ */
+public final class Codec extends DtoModule.StatelessModule {
+
+  private static final ClassName BYTE_BUFFER = ClassName.get(ByteBuffer.class);
+  private static final ClassName STRING = ClassName.get(String.class);
+
+  /**
+   * The methods of {@link ByteBuffer} that write and read a primitive, except boolean.
+   */
+  static final Map<TypeName, String> PUT = new HashMap<>();
+  static final Map<TypeName, String> GET = new HashMap<>();
+
+  static {
+    for (TypeName type : asList(TypeName.SHORT, TypeName.CHAR, TypeName.INT,
+        TypeName.LONG, TypeName.FLOAT, TypeName.DOUBLE)) {
+      PUT.put(type, "put" + upcase(type.toString()));
+      GET.put(type, "get" + upcase(type.toString()));
+    }
+    PUT.put(TypeName.BYTE, "put");
+    GET.put(TypeName.BYTE, "get");
+  }
+
+  /**
+   * @param type a type
+   * @return {@code true} if values of this type can be encoded
+   */
+  public static boolean isSupported(TypeName type) {
+    return STRING.equals(type)
+        || TypeName.BOOLEAN.equals(type.isBoxedPrimitive() ? type.unbox() : type)
+        || PUT.containsKey(type.isBoxedPrimitive() ? type.unbox() : type);
+  }
+
+  /**
+   * A property of the goal type.
+   */
+  static final class Value {
+    final String name;
+    final TypeName type;
+
+    /**
+     * Reads the property from the encoded instance.
+     */
+    final CodeBlock read;
+
+    Value(String name, TypeName type, CodeBlock read) {
+      if (!isSupported(type)) {
+        throw new IllegalArgumentException("codec: unsupported type " + type + " of " + name);
+      }
+      this.name = name;
+      this.type = type;
+      this.read = read;
+    }
+  }
+
+  /**
+   * Local variable names that don't clash with the names of the steps.
+   */
+  static final class Names {
+    private final Set<String> names;
+
+    private Names(Set<String> names) {
+      this.names = names;
+    }
+
+    static Names of(List<String> stepNames) {
+      return new Names(new HashSet<>(stepNames));
+    }
+
+    /**
+     * @return a copy, so that the locals of one method don't affect the other
+     */
+    Names copy() {
+      return new Names(new HashSet<>(names));
+    }
+
+    String fresh(String name) {
+      while (names.contains(name)) {
+        name = 'a' + upcase(name);
+      }
+      names.add(name);
+      return name;
+    }
+  }
+
+  /**
+   * @param goal       a goal
+   * @param encodeName name of the encode method
+   * @param decodeName name of the decode method
+   * @param modifiers  modifiers of both methods
+   * @return the encode method, followed by the decode method
+   */
+  static List<MethodSpec> codecMethods(AbstractGoalContext goal, String encodeName, String decodeName,
+                                       Modifier... modifiers) {
+    return goalCases(
+        regular -> regularCodec(regular, encodeName, decodeName, modifiers),
+        bean -> beanCodec(bean, encodeName, decodeName, modifiers))
+        .apply(goal);
+  }
+
+  private static List<MethodSpec> regularCodec(AbstractRegularGoalContext goal, String encodeName,
+                                               String decodeName, Modifier[] modifiers) {
+    if (goal.isInstance()) {
+      throw new IllegalArgumentException("codec is not supported for instance method goals");
+    }
+    TypeName goalType = goal.regularDetails().goalType;
+    List<AbstractRegularStep> steps = goal.regularSteps();
+    Names names = Names.of(transform(steps, step -> step.regularParameter().name));
+    ParameterSpec buffer = parameterSpec(BYTE_BUFFER, names.fresh("buffer"));
+    Names encodeNames = names.copy();
+    ParameterSpec source = sourceParameter(goalType, encodeNames);
+    List<Value> values = transform(steps, step -> new Value(
+        step.regularParameter().name,
+        step.regularParameter().type,
+        readProjection.apply(step.regularParameter().projectionInfo().get(), source)));
+    Set<TypeName> decodeThrown = new HashSet<>();
+    steps.forEach(step -> decodeThrown.addAll(step.declaredExceptions()));
+    MethodSpec encode = encodeMethodBuilder(encodeName, modifiers, source, buffer, values, encodeNames)
+        .addExceptions(thrownByProjections(goal))
+        .build();
+    MethodSpec decode = decodeMethodBuilder(decodeName, modifiers, goalType, buffer, values, names)
+        .addExceptions(decodeThrown)
+        .addCode(regularInvoke.apply(goal))
+        .build();
+    return asList(encode, decode);
+  }
+
+  private static List<MethodSpec> beanCodec(BeanGoalContext goal, String encodeName,
+                                            String decodeName, Modifier[] modifiers) {
+    ClassName goalType = goal.details.goalType;
+    List<AccessorPair> properties = transform(goal.steps, accessorPair);
+    Names names = Names.of(transform(properties, AccessorPair::name));
+    ParameterSpec buffer = parameterSpec(BYTE_BUFFER, names.fresh("buffer"));
+    Names encodeNames = names.copy();
+    ParameterSpec source = sourceParameter(goalType, encodeNames);
+    ParameterSpec bean = parameterSpec(goalType, names.fresh(downcase(goalType.simpleName())));
+    List<Value> values = transform(properties, property -> new Value(
+        property.name(),
+        property.type,
+        CodeBlock.of("$N.$N()", source, property.getter)));
+    Set<TypeName> encodeThrown = new HashSet<>();
+    Set<TypeName> decodeThrown = new HashSet<>(goal.thrownTypes);
+    for (AccessorPair property : properties) {
+      encodeThrown.addAll(property.getterThrownTypes);
+      decodeThrown.addAll(property.setterThrownTypes);
+    }
+    MethodSpec encode = encodeMethodBuilder(encodeName, modifiers, source, buffer, values, encodeNames)
+        .addExceptions(encodeThrown)
+        .build();
+    MethodSpec.Builder decode = decodeMethodBuilder(decodeName, modifiers, goalType, buffer, values, names)
+        .addExceptions(decodeThrown)
+        .addStatement("$T $N = new $T()", goalType, bean, goalType);
+    for (AccessorPair property : properties) {
+      decode.addStatement("$N.$N($N)", bean, property.setterName(), property.name());
+    }
+    return asList(encode, decode.addStatement("return $N", bean).build());
+  }
+
+  static ParameterSpec sourceParameter(TypeName goalType, Names names) {
+    String name = downcase(((ClassName) goalType.box()).simpleName());
+    return parameterSpec(goalType, names.fresh(name));
+  }
+
+  private static MethodSpec.Builder encodeMethodBuilder(String name, Modifier[] modifiers, ParameterSpec source,
+                                                        ParameterSpec buffer, List<Value> values, Names names) {
+    MethodSpec.Builder builder = methodBuilder(name)
+        .addParameter(source)
+        .addParameter(buffer)
+        .addModifiers(modifiers);
+    for (Value value : values) {
+      builder.addCode(encode(value, buffer, names));
+    }
+    return builder;
+  }
+
+  private static MethodSpec.Builder decodeMethodBuilder(String name, Modifier[] modifiers, TypeName goalType,
+                                                        ParameterSpec buffer, List<Value> values, Names names) {
+    MethodSpec.Builder builder = methodBuilder(name)
+        .addParameter(buffer)
+        .returns(goalType)
+        .addModifiers(modifiers);
+    for (Value value : values) {
+      builder.addCode(decode(value, buffer, names));
+    }
+    return builder;
+  }
+
+  private static CodeBlock encode(Value value, ParameterSpec buffer, Names names) {
+    if (value.type.isPrimitive()) {
+      return put(value.type, value.read, buffer);
+    }
+    CodeBlock.Builder builder = CodeBlock.builder()
+        .addStatement("$T $N = $L", value.type, value.name, value.read);
+    if (value.type.isBoxedPrimitive()) {
+      return builder.beginControlFlow("if ($N == null)", value.name)
+          .addStatement("$N.put((byte) 0)", buffer)
+          .nextControlFlow("else")
+          .addStatement("$N.put((byte) 1)", buffer)
+          .add(put(value.type.unbox(), CodeBlock.of("$N", value.name), buffer))
+          .endControlFlow()
+          .build();
+    }
+    String bytes = names.fresh(value.name + "Bytes");
+    return builder.beginControlFlow("if ($N == null)", value.name)
+        .addStatement("$N.putInt(-1)", buffer)
+        .nextControlFlow("else")
+        .addStatement("byte[] $N = $N.getBytes($T.UTF_8)", bytes, value.name, StandardCharsets.class)
+        .addStatement("$N.putInt($N.length)", buffer, bytes)
+        .addStatement("$N.put($N)", buffer, bytes)
+        .endControlFlow()
+        .build();
+  }
+
+  private static CodeBlock decode(Value value, ParameterSpec buffer, Names names) {
+    if (value.type.isPrimitive()) {
+      return statement("$T $N = $L", value.type, value.name, get(value.type, buffer));
+    }
+    if (value.type.isBoxedPrimitive()) {
+      return statement("$T $N = $N.get() == 0 ? null : $L",
+          value.type, value.name, buffer, get(value.type.unbox(), buffer));
+    }
+    String length = names.fresh(value.name + "Length");
+    String bytes = names.fresh(value.name + "Bytes");
+    return CodeBlock.builder()
+        .addStatement("int $N = $N.getInt()", length, buffer)
+        .addStatement("$T $N", value.type, value.name)
+        .beginControlFlow("if ($N == -1)", length)
+        .addStatement("$N = null", value.name)
+        .nextControlFlow("else if ($N < -1 || $N > $N.remaining())", length, length, buffer)
+        .addStatement("throw new $T()", BufferUnderflowException.class)
+        .nextControlFlow("else if ($N.hasArray())", buffer)
+        .addStatement("$N = new $T($N.array(), $N.arrayOffset() + $N.position(), $N, $T.UTF_8)",
+            value.name, STRING, buffer, buffer, buffer, length, StandardCharsets.class)
+        .addStatement("$N.position($N.position() + $N)", buffer, buffer, length)
+        .nextControlFlow("else")
+        .addStatement("byte[] $N = new byte[$N]", bytes, length)
+        .addStatement("$N.get($N)", buffer, bytes)
+        .addStatement("$N = new $T($N, $T.UTF_8)", value.name, STRING, bytes, StandardCharsets.class)
+        .endControlFlow()
+        .build();
+  }
+
+  private static CodeBlock put(TypeName type, CodeBlock value, ParameterSpec buffer) {
+    if (TypeName.BOOLEAN.equals(type)) {
+      return statement("$N.put((byte) ($L ? 1 : 0))", buffer, value);
+    }
+    return statement("$N.$N($L)", buffer, PUT.get(type), value);
+  }
+
+  private static CodeBlock get(TypeName type, ParameterSpec buffer) {
+    if (TypeName.BOOLEAN.equals(type)) {
+      return CodeBlock.of("$N.get() != 0", buffer);
+    }
+    return CodeBlock.of("$N.$N()", buffer, GET.get(type));
+  }
+
+  static final BiFunction<ProjectionInfo, ParameterSpec, CodeBlock> readProjection =
+      projectionInfoCases(
+          (projection, source) -> CodeBlock.of("$N.$N()", source, projection.methodName),
+          (projection, source) -> CodeBlock.of("$N.$N", source, projection.fieldName));
+
+  static final Function<AbstractRegularGoalContext, CodeBlock> regularInvoke =
+      regularGoalContextCases(
+          constructor -> statement("return new $T($L)", constructor.type(),
+              constructor.invocationParameters()),
+          method -> method.methodGoalInvocation());
+
+  static final Function<AbstractBeanStep, AccessorPair> accessorPair =
+      beanStepCases(
+          step -> step.accessorPair,
+          step -> {
+            throw new IllegalArgumentException("codec: unsupported type "
+                + step.loneGetter.type + " of " + step.loneGetter.name());
+          });
+
+  @Override
+  public String name() {
+    return "codec";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    List<MethodSpec> methods = codecMethods(goal, goal.name() + "Encode", goal.name() + "Decode",
+        goal.details().access(STATIC));
+    return new StatelessModuleOutput(transform(methods, method -> new BuilderMethod(goal.name(), method)));
+  }
+}
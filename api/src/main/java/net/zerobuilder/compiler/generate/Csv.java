@@ -0,0 +1,728 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.Codec.Names;
+import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
+import net.zerobuilder.compiler.generate.DtoBeanParameter.AccessorPair;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
+import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+import net.zerobuilder.compiler.generate.Json.Kind;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.Codec.accessorPair;
+import static net.zerobuilder.compiler.generate.Codec.regularInvoke;
+import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates a bulk loader {@code FooCsv} for each goal, and static {@code fooCsv(delimiter, header)} methods.
+ * Without a header, the columns are the steps of the goal, in order.
+ * With a header, the first line of the file names the columns, and other columns are ignored.
+ * The file is split into chunks on line boundaries, which are parsed in parallel in a {@link ForkJoinPool}.
+ * Numbers and booleans are parsed from the bytes of the file, without creating a string.
+ * Each line is passed directly to the goal, or to the setters of a bean.
+ * Fields can be quoted, but they must not contain line breaks.
+ * The same types as in {@link Codec} are supported.
+ */
+public final class Csv extends DtoModule.StatelessModule {
+
+  private static final ClassName STRING = ClassName.get(String.class);
+  private static final ClassName FILE_CHANNEL = ClassName.get(FileChannel.class);
+  private static final TypeName BYTES = TypeName.get(byte[].class);
+
+  private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+  /**
+   * Decimals with up to this many digits are parsed exactly, without {@link Double#parseDouble}.
+   */
+  private static final int FAST_DIGITS = 15;
+
+  /**
+   * Like {@link #FAST_DIGITS}, for the 24 bit significand of a float.
+   */
+  private static final int FAST_FLOAT_DIGITS = 7;
+
+  private static final FieldSpec NAMES = FieldSpec.builder(String[].class, "NAMES", PRIVATE, STATIC, FINAL)
+      .build();
+  private static final FieldSpec TRUE = literal("TRUE", "true");
+  private static final FieldSpec FALSE = literal("FALSE", "false");
+  private static final FieldSpec DELIMITER = fieldSpec(TypeName.BYTE, "delimiter", PRIVATE, FINAL);
+  private static final FieldSpec HEADER = fieldSpec(TypeName.BOOLEAN, "header", PRIVATE, FINAL);
+  private static final FieldSpec CHUNK_SIZE = fieldSpec(TypeName.INT, "chunkSize", PRIVATE, FINAL);
+
+  /**
+   * A step of the goal.
+   */
+  private static final class Column {
+    final String name;
+    final TypeName type;
+
+    private Column(String name, TypeName type) {
+      if (!Codec.isSupported(type)) {
+        throw new IllegalArgumentException("csv: unsupported type " + type + " of " + name);
+      }
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  private static StatelessModuleOutput csv(AbstractGoalContext goal) {
+    return goalCases(Csv::regularCsv, Csv::beanCsv).apply(goal);
+  }
+
+  private static StatelessModuleOutput regularCsv(AbstractRegularGoalContext goal) {
+    if (goal.isInstance()) {
+      throw new IllegalArgumentException("csv is not supported for instance method goals");
+    }
+    List<AbstractRegularStep> steps = goal.regularSteps();
+    Names names = Names.of(transform(steps, step -> step.regularParameter().name));
+    List<Column> columns = transform(steps, step -> new Column(
+        step.regularParameter().name,
+        step.regularParameter().type));
+    return output(goal, goal.regularDetails().goalType, columns, names,
+        new HashSet<>(thrownTypes.apply(goal)), regularInvoke.apply(goal));
+  }
+
+  private static StatelessModuleOutput beanCsv(BeanGoalContext goal) {
+    ClassName goalType = goal.details.goalType;
+    List<AccessorPair> properties = transform(goal.steps, accessorPair);
+    Names names = Names.of(transform(properties, AccessorPair::name));
+    List<Column> columns = transform(properties, property -> new Column(property.name(), property.type));
+    Set<TypeName> thrown = new HashSet<>(goal.thrownTypes);
+    properties.forEach(property -> thrown.addAll(property.setterThrownTypes));
+    String bean = names.fresh(downcase(goalType.simpleName()));
+    CodeBlock.Builder invoke = CodeBlock.builder()
+        .addStatement("$T $N = new $T()", goalType, bean, goalType);
+    for (AccessorPair property : properties) {
+      invoke.addStatement("$N.$N($N)", bean, property.setterName(), property.name());
+    }
+    return output(goal, goalType, columns, names, thrown, invoke.addStatement("return $N", bean).build());
+  }
+
+  /**
+   * @param invoke code that invokes the goal, using local variables that have the names of the columns
+   */
+  private static StatelessModuleOutput output(AbstractGoalContext goal, TypeName goalType,
+                                              List<Column> columns, Names names,
+                                              Set<TypeName> thrown, CodeBlock invoke) {
+    ClassName csvType = goal.context().generatedType.nestedClass(upcase(goal.name()) + "Csv");
+    TypeName list = ParameterizedTypeName.get(ClassName.get(List.class), goalType.box());
+    Set<Kind> kinds = new HashSet<>(transform(columns, column -> Kind.of(column.type)));
+    ParameterSpec delimiter = parameterSpec(TypeName.CHAR, "delimiter");
+    ParameterSpec header = parameterSpec(TypeName.BOOLEAN, "header");
+    ParameterSpec chunkSize = parameterSpec(TypeName.INT, "chunkSize");
+    ParameterSpec file = parameterSpec(ClassName.get(Path.class), "file");
+    ParameterSpec pool = parameterSpec(ClassName.get(ForkJoinPool.class), "pool");
+    TypeSpec.Builder type = TypeSpec.classBuilder(csvType)
+        .addField(FieldSpec.builder(TypeName.INT, "DEFAULT_CHUNK_SIZE", PUBLIC, STATIC, FINAL)
+            .initializer("$L << 20", DEFAULT_CHUNK_SIZE >> 20)
+            .build())
+        .addField(NAMES.toBuilder()
+            .initializer("{ $L }", columns.stream()
+                .map(column -> CodeBlock.of("$S", column.name).toString())
+                .collect(joining(", ")))
+            .build());
+    if (kinds.contains(Kind.BOOLEAN)) {
+      type.addFields(asList(TRUE, FALSE));
+    }
+    if (kinds.contains(Kind.FLOAT)) {
+      List<String> powers = new ArrayList<>();
+      for (int i = 0; i <= FAST_FLOAT_DIGITS; i++) {
+        powers.add("1e" + i + "f");
+      }
+      type.addField(FieldSpec.builder(float[].class, "FLOAT_POWERS_OF_TEN", PRIVATE, STATIC, FINAL)
+          .initializer("{ $L }", String.join(", ", powers))
+          .build());
+    }
+    if (kinds.contains(Kind.DOUBLE)) {
+      List<String> powers = new ArrayList<>();
+      for (int i = 0; i <= FAST_DIGITS; i++) {
+        powers.add("1e" + i);
+      }
+      type.addField(FieldSpec.builder(double[].class, "POWERS_OF_TEN", PRIVATE, STATIC, FINAL)
+          .initializer("{ $L }", String.join(", ", powers))
+          .build());
+    }
+    type.addFields(asList(DELIMITER, HEADER, CHUNK_SIZE))
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameters(asList(delimiter, header, chunkSize))
+            .beginControlFlow("if ($N >= 0x80 || $N == '\"' || $N == '\\n' || $N == '\\r')",
+                delimiter, delimiter, delimiter, delimiter)
+            .addStatement("throw new $T($S + $N)", IllegalArgumentException.class, "delimiter: ", delimiter)
+            .endControlFlow()
+            .beginControlFlow("if ($N <= 0)", chunkSize)
+            .addStatement("throw new $T($S)", IllegalArgumentException.class, "chunkSize")
+            .endControlFlow()
+            .addStatement("this.$N = (byte) $N", DELIMITER, delimiter)
+            .addStatement("this.$N = $N", HEADER, header)
+            .addStatement("this.$N = $N", CHUNK_SIZE, chunkSize)
+            .addModifiers(PRIVATE)
+            .build())
+        .addMethod(methodBuilder("load")
+            .addJavadoc("Loads a file in the common pool.\n\n"
+                + "@param $N the file to load\n"
+                + "@return the results of the goal, in the order of the lines\n"
+                + "@throws IOException if the file can not be read\n", file)
+            .addParameter(file)
+            .returns(list)
+            .addException(IOException.class)
+            .addExceptions(thrown)
+            .addStatement("return load($N, $T.commonPool())", file, ForkJoinPool.class)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(load(list, file, pool, thrown))
+        .addMethod(join(list, thrown))
+        .addMethod(parse(list, columns, names, thrown))
+        .addMethod(invoke(goalType, columns, thrown, invoke))
+        .addMethod(columns())
+        .addMethod(nextLine())
+        .addMethod(fieldEnd())
+        .addMethods(valueHelpers(kinds))
+        .addModifiers(PUBLIC, STATIC, FINAL);
+    MethodSpec factory = methodBuilder(goal.name() + "Csv")
+        .addParameters(asList(delimiter, header, chunkSize))
+        .returns(csvType)
+        .addStatement("return new $T($N, $N, $N)", csvType, delimiter, header, chunkSize)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    MethodSpec defaultFactory = methodBuilder(goal.name() + "Csv")
+        .addParameters(asList(delimiter, header))
+        .returns(csvType)
+        .addStatement("return $N($N, $N, $T.DEFAULT_CHUNK_SIZE)", factory, delimiter, header, csvType)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    return new StatelessModuleOutput(
+        asList(new BuilderMethod(goal.name(), defaultFactory), new BuilderMethod(goal.name(), factory)),
+        singletonList(type.build()));
+  }
+
+  /**
+   * The chunk boundaries are found sequentially, by reading ahead to the next line break.
+   */
+  private static MethodSpec load(TypeName list, ParameterSpec file, ParameterSpec pool,
+                                 Set<TypeName> thrown) {
+    TypeName task = ParameterizedTypeName.get(ClassName.get(ForkJoinTask.class), list);
+    return methodBuilder("load")
+        .addJavadoc("@param $N the file to load\n"
+            + "@param $N parses the chunks of the file\n"
+            + "@return the results of the goal, in the order of the lines\n"
+            + "@throws IOException if the file can not be read\n", file, pool)
+        .addParameter(file)
+        .addParameter(pool)
+        .returns(list)
+        .addException(IOException.class)
+        .addExceptions(thrown)
+        .beginControlFlow("try ($T channel = $T.open($N, $T.READ))",
+            FILE_CHANNEL, FILE_CHANNEL, file, StandardOpenOption.class)
+        .addStatement("long size = channel.size()")
+        .addStatement("long start = this.$N ? nextLine(channel, 0) : 0", HEADER)
+        .addStatement("int[] steps = this.$N ? columns(channel, start) : null", HEADER)
+        .addStatement("$T<$T> tasks = new $T<>()", List.class, task, ArrayList.class)
+        .beginControlFlow("while (start < size)")
+        .addStatement("long from = start")
+        .addStatement("long to = size - from <= this.$N ? size : nextLine(channel, from + this.$N - 1)",
+            CHUNK_SIZE, CHUNK_SIZE)
+        .addStatement("tasks.add($N.submit(() -> parse(channel, from, to, steps)))", pool)
+        .addStatement("start = to")
+        .endControlFlow()
+        .addStatement("$T result = new $T<>()", list, ArrayList.class)
+        .beginControlFlow("for ($T task : tasks)", task)
+        .addStatement("result.addAll(join(task))")
+        .endControlFlow()
+        .addStatement("return result")
+        .endControlFlow()
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  /**
+   * The pool wraps checked exceptions, so the cause chain is searched for them.
+   * Unchecked exceptions may be copied, if they were thrown in another thread.
+   */
+  private static MethodSpec join(TypeName list, Set<TypeName> thrown) {
+    ParameterSpec task = parameterSpec(ParameterizedTypeName.get(ClassName.get(ForkJoinTask.class), list), "task");
+    MethodSpec.Builder builder = methodBuilder("join")
+        .addParameter(task)
+        .returns(list)
+        .addException(IOException.class)
+        .addExceptions(thrown)
+        .beginControlFlow("try")
+        .addStatement("return $N.get()", task)
+        .nextControlFlow("catch ($T e)", InterruptedException.class)
+        .addStatement("$T.currentThread().interrupt()", Thread.class)
+        .addStatement("throw new $T()", InterruptedIOException.class)
+        .nextControlFlow("catch ($T e)", ExecutionException.class)
+        .beginControlFlow("for ($T t = e.getCause(); t != null; t = t.getCause())", Throwable.class)
+        .beginControlFlow("if (t instanceof $T)", IOException.class)
+        .addStatement("throw ($T) t", IOException.class)
+        .endControlFlow();
+    for (TypeName exception : thrown) {
+      if (exception.equals(ClassName.get(IOException.class))) {
+        continue;
+      }
+      builder.beginControlFlow("if (t instanceof $T)", exception)
+          .addStatement("throw ($T) t", exception)
+          .endControlFlow();
+    }
+    return builder.endControlFlow()
+        .addStatement("$T cause = e.getCause()", Throwable.class)
+        .beginControlFlow("if (cause != null && cause.getCause() != null && cause.getCause().getClass() == cause.getClass())")
+        .addCode("// the pool may rethrow a copy that wraps the original\n")
+        .addStatement("cause = cause.getCause()")
+        .endControlFlow()
+        .beginControlFlow("if (cause instanceof $T)", RuntimeException.class)
+        .addStatement("throw ($T) cause", RuntimeException.class)
+        .endControlFlow()
+        .beginControlFlow("if (cause instanceof $T)", Error.class)
+        .addStatement("throw ($T) cause", Error.class)
+        .endControlFlow()
+        .addStatement("throw new $T(cause)", IllegalStateException.class)
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec parse(TypeName list, List<Column> columns, Names names, Set<TypeName> thrown) {
+    ParameterSpec channel = parameterSpec(FILE_CHANNEL, names.fresh("channel"));
+    ParameterSpec from = parameterSpec(TypeName.LONG, names.fresh("from"));
+    ParameterSpec to = parameterSpec(TypeName.LONG, names.fresh("to"));
+    ParameterSpec steps = parameterSpec(TypeName.get(int[].class), names.fresh("steps"));
+    String data = names.fresh("data");
+    String buffer = names.fresh("buffer");
+    String result = names.fresh("result");
+    String pos = names.fresh("pos");
+    String line = names.fresh("line");
+    String column = names.fresh("column");
+    String found = names.fresh("found");
+    String end = names.fresh("end");
+    String last = names.fresh("last");
+    String step = names.fresh("step");
+    MethodSpec.Builder builder = methodBuilder("parse")
+        .addJavadoc("@param $N maps columns to steps, or {@code null} if they are the same\n", steps)
+        .addParameters(asList(channel, from, to, steps))
+        .returns(list)
+        .addException(IOException.class)
+        .addExceptions(thrown)
+        .addStatement("byte[] $N = new byte[(int) ($N - $N)]", data, to, from)
+        .addStatement("$T $N = $T.wrap($N)", ByteBuffer.class, buffer, ByteBuffer.class, data)
+        .beginControlFlow("while ($N.hasRemaining())", buffer)
+        .beginControlFlow("if ($N.read($N, $N + $N.position()) < 0)", channel, buffer, from, buffer)
+        .addStatement("throw new $T()", EOFException.class)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("$T $N = new $T<>()", list, result, ArrayList.class)
+        .addStatement("int $N = 0", pos)
+        .beginControlFlow("while ($N < $N.length)", pos, data)
+        .beginControlFlow("if ($N[$N] == '\\n' || $N[$N] == '\\r')", data, pos, data, pos)
+        .addStatement("$N++", pos)
+        .addStatement("continue")
+        .endControlFlow();
+    for (Column c : columns) {
+      builder.addStatement("$T $N = $L", c.type, c.name, defaultValue(c.type));
+    }
+    builder.addStatement("int $N = $N", line, pos)
+        .addStatement("int $N = 0", column)
+        .addStatement("int $N = 0", found)
+        .beginControlFlow("while (true)")
+        .addStatement("int $N = fieldEnd($N, $N)", end, data, pos)
+        .addStatement("int $N = $N > $N && $N[$N - 1] == '\\r' ? $N - 1 : $N", last, end, pos, data, end, end, end)
+        .addStatement("int $N = $N == null ? $N : $N < $N.length ? $N[$N] : -1",
+            step, steps, column, column, steps, steps, column)
+        .beginControlFlow("switch ($N)", step);
+    for (int i = 0; i < columns.size(); i++) {
+      Column c = columns.get(i);
+      builder.addCode("case $L:\n$>", i)
+          .addStatement("$N = $L", c.name, readValue(c.type, data, pos, last))
+          .addStatement("$N++", found)
+          .addStatement("break")
+          .addCode("$<");
+    }
+    return builder.addCode("default:\n$>")
+        .addStatement("break")
+        .addCode("$<")
+        .endControlFlow()
+        .addStatement("$N++", column)
+        .addStatement("$N = $N + 1", pos, end)
+        .beginControlFlow("if ($N == $N.length || $N[$N] == '\\n')", end, data, data, end)
+        .addStatement("break")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if ($N != $L)", found, columns.size())
+        .addStatement("throw new $T($S + ($N + $N))", IllegalArgumentException.class,
+            "missing columns in the line at byte ", from, line)
+        .endControlFlow()
+        .addStatement("$N.add(invoke($L))", result, String.join(", ", transform(columns, c -> c.name)))
+        .endControlFlow()
+        .addStatement("return $N", result)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec invoke(TypeName goalType, List<Column> columns, Set<TypeName> thrown,
+                                   CodeBlock invoke) {
+    return methodBuilder("invoke")
+        .addParameters(transform(columns, column -> parameterSpec(column.type, column.name)))
+        .returns(goalType)
+        .addExceptions(thrown)
+        .addCode(invoke)
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+
+  private static CodeBlock readValue(TypeName type, String data, String start, String end) {
+    if (!type.isPrimitive() && !STRING.equals(type)) {
+      return CodeBlock.of("$N == $N ? null : $L", start, end, readValue(type.unbox(), data, start, end));
+    }
+    switch (Kind.of(type)) {
+      case STRING:
+        return CodeBlock.of("readString($N, $N, $N)", data, start, end);
+      case BOOLEAN:
+        return CodeBlock.of("parseBoolean($N, $N, $N)", data, start, end);
+      case FLOAT:
+        return CodeBlock.of("parseFloat($N, $N, $N)", data, start, end);
+      case DOUBLE:
+        return CodeBlock.of("parseDouble($N, $N, $N)", data, start, end);
+      case CHAR:
+        return CodeBlock.of("readChar($N, $N, $N)", data, start, end);
+      default:
+        TypeName boxed = type.box();
+        CodeBlock range = CodeBlock.of("$T.MIN_VALUE, $T.MAX_VALUE", boxed, boxed);
+        return TypeName.LONG.equals(type) ?
+            CodeBlock.of("parseLong($N, $N, $N, $L)", data, start, end, range) :
+            CodeBlock.of("($T) parseLong($N, $N, $N, $L)", type, data, start, end, range);
+    }
+  }
+
+  private static CodeBlock defaultValue(TypeName type) {
+    if (!type.isPrimitive()) {
+      return CodeBlock.of("null");
+    }
+    if (TypeName.BOOLEAN.equals(type)) {
+      return CodeBlock.of("false");
+    }
+    return TypeName.INT.equals(type) ? CodeBlock.of("0") : CodeBlock.of("($T) 0", type);
+  }
+
+  private static MethodSpec columns() {
+    ParameterSpec channel = parameterSpec(FILE_CHANNEL, "channel");
+    ParameterSpec end = parameterSpec(TypeName.LONG, "end");
+    return methodBuilder("columns")
+        .addJavadoc("@return the step of each column of the header, or {@code -1}\n")
+        .addParameter(channel)
+        .addParameter(end)
+        .returns(int[].class)
+        .addException(IOException.class)
+        .addStatement("$T buffer = $T.allocate((int) $N)", ByteBuffer.class, ByteBuffer.class, end)
+        .beginControlFlow("while (buffer.hasRemaining())")
+        .beginControlFlow("if ($N.read(buffer, buffer.position()) < 0)", channel)
+        .addStatement("throw new $T()", EOFException.class)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("$T[] header = new $T(buffer.array(), $T.UTF_8).trim().split($T.quote($T.valueOf((char) this.$N)), -1)",
+            String.class, String.class, StandardCharsets.class, Pattern.class, String.class, DELIMITER)
+        .addStatement("int[] steps = new int[header.length]")
+        .addStatement("$T.fill(steps, -1)", Arrays.class)
+        .addStatement("boolean[] found = new boolean[$N.length]", NAMES)
+        .beginControlFlow("for (int column = 0; column < header.length; column++)")
+        .addStatement("$T name = header[column].trim()", String.class)
+        .beginControlFlow("if (name.length() >= 2 && name.startsWith(\"\\\"\") && name.endsWith(\"\\\"\"))")
+        .addStatement("name = name.substring(1, name.length() - 1)")
+        .endControlFlow()
+        .beginControlFlow("for (int step = 0; step < $N.length; step++)", NAMES)
+        .beginControlFlow("if (!found[step] && $N[step].equals(name))", NAMES)
+        .addStatement("steps[column] = step")
+        .addStatement("found[step] = true")
+        .endControlFlow()
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("for (int step = 0; step < $N.length; step++)", NAMES)
+        .beginControlFlow("if (!found[step])")
+        .addStatement("throw new $T($S + $N[step])", IllegalArgumentException.class, "missing column: ", NAMES)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return steps")
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec nextLine() {
+    ParameterSpec channel = parameterSpec(FILE_CHANNEL, "channel");
+    ParameterSpec position = parameterSpec(TypeName.LONG, "position");
+    return methodBuilder("nextLine")
+        .addJavadoc("@return the position after the first line break at or after {@code $N},\n"
+            + "or the size of the file\n", position)
+        .addParameter(channel)
+        .addParameter(position)
+        .returns(TypeName.LONG)
+        .addException(IOException.class)
+        .addStatement("$T buffer = $T.allocate(4096)", ByteBuffer.class, ByteBuffer.class)
+        .beginControlFlow("while (true)")
+        .addStatement("buffer.clear()")
+        .beginControlFlow("if ($N.read(buffer, $N) <= 0)", channel, position)
+        .addStatement("return $N.size()", channel)
+        .endControlFlow()
+        .beginControlFlow("for (int i = 0; i < buffer.position(); i++)")
+        .beginControlFlow("if (buffer.get(i) == '\\n')")
+        .addStatement("return $N + i + 1", position)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("$N += buffer.position()", position)
+        .endControlFlow()
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+
+  private static MethodSpec fieldEnd() {
+    ParameterSpec data = parameterSpec(BYTES, "data");
+    ParameterSpec pos = parameterSpec(TypeName.INT, "pos");
+    return methodBuilder("fieldEnd")
+        .addJavadoc("@return the position of the delimiter or line break after the field at {@code $N}\n", pos)
+        .addParameter(data)
+        .addParameter(pos)
+        .returns(TypeName.INT)
+        .beginControlFlow("if ($N < $N.length && $N[$N] == '\"')", pos, data, data, pos)
+        .addStatement("$N++", pos)
+        .beginControlFlow("while ($N < $N.length)", pos, data)
+        .beginControlFlow("if ($N[$N++] == '\"')", data, pos)
+        .beginControlFlow("if ($N == $N.length || $N[$N] != '\"')", pos, data, data, pos)
+        .addStatement("break")
+        .endControlFlow()
+        .addStatement("$N++", pos)
+        .endControlFlow()
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("while ($N < $N.length && $N[$N] != this.$N && $N[$N] != '\\n')",
+            pos, data, data, pos, DELIMITER, data, pos)
+        .addStatement("$N++", pos)
+        .endControlFlow()
+        .addStatement("return $N", pos)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static List<MethodSpec> valueHelpers(Set<Kind> kinds) {
+    ParameterSpec data = parameterSpec(BYTES, "data");
+    ParameterSpec start = parameterSpec(TypeName.INT, "start");
+    ParameterSpec end = parameterSpec(TypeName.INT, "end");
+    List<ParameterSpec> field = asList(data, start, end);
+    CodeBlock text = CodeBlock.of("new $T($N, $N, $N - $N, $T.UTF_8)",
+        String.class, data, start, end, start, StandardCharsets.class);
+    List<MethodSpec> methods = new ArrayList<>();
+    if (kinds.contains(Kind.INTEGRAL)) {
+      ParameterSpec min = parameterSpec(TypeName.LONG, "min");
+      ParameterSpec max = parameterSpec(TypeName.LONG, "max");
+      methods.add(methodBuilder("parseLong")
+          .addJavadoc("Accumulates the negated value, so that {@link $T#MIN_VALUE} can be read.\n", Long.class)
+          .addParameters(field)
+          .addParameter(min)
+          .addParameter(max)
+          .returns(TypeName.LONG)
+          .addStatement("int i = $N", start)
+          .addStatement("boolean negative = i < $N && $N[i] == '-'", end, data)
+          .beginControlFlow("if (i < $N && ($N[i] == '-' || $N[i] == '+'))", end, data, data)
+          .addStatement("i++")
+          .endControlFlow()
+          .beginControlFlow("if (i == $N)", end)
+          .addStatement("throw new $T($S + $L)", NumberFormatException.class, "not a number: ", text)
+          .endControlFlow()
+          .addStatement("long value = 0")
+          .beginControlFlow("for (; i < $N; i++)", end)
+          .addStatement("int digit = $N[i] - '0'", data)
+          .beginControlFlow("if (digit < 0 || digit > 9)")
+          .addStatement("throw new $T($S + $L)", NumberFormatException.class, "not a number: ", text)
+          .endControlFlow()
+          .beginControlFlow("if (value < ($T.MIN_VALUE + digit) / 10)", Long.class)
+          .addStatement("throw new $T($S + $L)", NumberFormatException.class, "out of range: ", text)
+          .endControlFlow()
+          .addStatement("value = 10 * value - digit")
+          .endControlFlow()
+          .beginControlFlow("if (!negative)")
+          .beginControlFlow("if (value == $T.MIN_VALUE)", Long.class)
+          .addStatement("throw new $T($S + $L)", NumberFormatException.class, "out of range: ", text)
+          .endControlFlow()
+          .addStatement("value = -value")
+          .endControlFlow()
+          .beginControlFlow("if (value < $N || value > $N)", min, max)
+          .addStatement("throw new $T($S + $L)", NumberFormatException.class, "out of range: ", text)
+          .endControlFlow()
+          .addStatement("return value")
+          .addModifiers(PRIVATE, STATIC)
+          .build());
+    }
+    if (kinds.contains(Kind.FLOAT)) {
+      methods.add(parseDecimal(field, text, TypeName.FLOAT, Float.class, FAST_FLOAT_DIGITS, "FLOAT_POWERS_OF_TEN"));
+    }
+    if (kinds.contains(Kind.DOUBLE)) {
+      methods.add(parseDecimal(field, text, TypeName.DOUBLE, Double.class, FAST_DIGITS, "POWERS_OF_TEN"));
+    }
+    if (kinds.contains(Kind.BOOLEAN)) {
+      ParameterSpec literal = parameterSpec(BYTES, "literal");
+      methods.add(methodBuilder("parseBoolean")
+          .addParameters(field)
+          .returns(TypeName.BOOLEAN)
+          .beginControlFlow("if (matches($N, $N, $N, $N))", data, start, end, TRUE)
+          .addStatement("return true")
+          .endControlFlow()
+          .beginControlFlow("if (matches($N, $N, $N, $N))", data, start, end, FALSE)
+          .addStatement("return false")
+          .endControlFlow()
+          .addStatement("throw new $T($S + $L)", IllegalArgumentException.class, "not a boolean: ", text)
+          .addModifiers(PRIVATE, STATIC)
+          .build());
+      methods.add(methodBuilder("matches")
+          .addParameters(field)
+          .addParameter(literal)
+          .returns(TypeName.BOOLEAN)
+          .beginControlFlow("if ($N - $N != $N.length)", end, start, literal)
+          .addStatement("return false")
+          .endControlFlow()
+          .beginControlFlow("for (int i = 0; i < $N.length; i++)", literal)
+          .beginControlFlow("if ($N[$N + i] != $N[i])", data, start, literal)
+          .addStatement("return false")
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("return true")
+          .addModifiers(PRIVATE, STATIC)
+          .build());
+    }
+    if (kinds.contains(Kind.CHAR)) {
+      methods.add(methodBuilder("readChar")
+          .addParameters(field)
+          .returns(TypeName.CHAR)
+          .addStatement("$T s = readString($N, $N, $N)", String.class, data, start, end)
+          .beginControlFlow("if (s.length() != 1)")
+          .addStatement("throw new $T($S + s)", IllegalArgumentException.class, "not a char: ")
+          .endControlFlow()
+          .addStatement("return s.charAt(0)")
+          .addModifiers(PRIVATE, STATIC)
+          .build());
+    }
+    if (kinds.contains(Kind.STRING) || kinds.contains(Kind.CHAR)) {
+      methods.add(methodBuilder("readString")
+          .addJavadoc("Removes the quotes of a quoted field, and unescapes doubled quotes.\n")
+          .addParameters(field)
+          .returns(String.class)
+          .beginControlFlow("if ($N - $N >= 2 && $N[$N] == '\"' && $N[$N - 1] == '\"')",
+              end, start, data, start, data, end)
+          .addStatement("return new $T($N, $N + 1, $N - $N - 2, $T.UTF_8).replace(\"\\\"\\\"\", \"\\\"\")",
+              String.class, data, start, end, start, StandardCharsets.class)
+          .endControlFlow()
+          .addStatement("return $L", text)
+          .addModifiers(PRIVATE, STATIC)
+          .build());
+    }
+    return methods;
+  }
+
+  /**
+   * Unlike the codec, the loader does not require projections,
+   * so the steps may not know the exceptions of the goal.
+   */
+  /**
+   * A float column has its own parser, because narrowing a parsed double would round twice.
+   */
+  private static MethodSpec parseDecimal(List<ParameterSpec> field, CodeBlock text, TypeName type,
+                                         Class<?> boxed, int digits, String powers) {
+    ParameterSpec data = field.get(0);
+    ParameterSpec start = field.get(1);
+    ParameterSpec end = field.get(2);
+    String name = "parse" + upcase(type.toString());
+    return methodBuilder(name)
+        .addJavadoc("Plain decimals with up to $L digits are exact $Ls divided by an exact power of ten,\n"
+                + "so the result is correctly rounded. Other numbers are passed to {@link $T#$N}.\n",
+            digits, type, boxed, name)
+        .addParameters(field)
+        .returns(type)
+        .addStatement("int i = $N", start)
+        .addStatement("boolean negative = i < $N && $N[i] == '-'", end, data)
+        .beginControlFlow("if (i < $N && ($N[i] == '-' || $N[i] == '+'))", end, data, data)
+        .addStatement("i++")
+        .endControlFlow()
+        .addStatement("long mantissa = 0")
+        .addStatement("int digits = 0")
+        .addStatement("int decimals = -1")
+        .beginControlFlow("for (; i < $N; i++)", end)
+        .addStatement("byte b = $N[i]", data)
+        .beginControlFlow("if (b == '.' && decimals < 0)")
+        .addStatement("decimals = 0")
+        .addStatement("continue")
+        .endControlFlow()
+        .beginControlFlow("if (b < '0' || b > '9' || ++digits > $L)", digits)
+        .addStatement("return $T.$N($L.trim())", boxed, name, text)
+        .endControlFlow()
+        .addStatement("mantissa = 10 * mantissa + (b - '0')")
+        .beginControlFlow("if (decimals >= 0)")
+        .addStatement("decimals++")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if (digits == 0)")
+        .addStatement("return $T.$N($L.trim())", boxed, name, text)
+        .endControlFlow()
+        .addStatement("$T value = decimals > 0 ? mantissa / $N[decimals] : mantissa", type, powers)
+        .addStatement("return negative ? -value : value")
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+
+  private static final Function<AbstractRegularGoalContext, List<TypeName>> thrownTypes =
+      regularGoalContextCases(
+          constructor -> constructor.thrownTypes,
+          method -> method.thrownTypes);
+
+  private static FieldSpec literal(String name, String value) {
+    return FieldSpec.builder(BYTES, name, PRIVATE, STATIC, FINAL)
+        .initializer("$S.getBytes($T.UTF_8)", value, StandardCharsets.class)
+        .build();
+  }
+
+  @Override
+  public String name() {
+    return "csv";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    return csv(goal);
+  }
+}
@@ -3,6 +3,7 @@ package net.zerobuilder.compiler.generate;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.TypeName;
+import net.zerobuilder.compiler.generate.DtoBeanGoalDescription.CloneMethod;
 import net.zerobuilder.compiler.generate.DtoBeanStep.AbstractBeanStep;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGoal.BeanGoalDetails;
@@ -12,11 +13,12 @@ import net.zerobuilder.compiler.generate.DtoProjectedGoal.ProjectedGoal;
 import net.zerobuilder.compiler.generate.DtoProjectedGoal.ProjectedGoalCases;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
 import static net.zerobuilder.compiler.generate.Utilities.memoize;
@@ -30,6 +32,7 @@ final class DtoBeanGoal {
     final List<AbstractBeanStep> steps;
     final BeanGoalDetails details;
     final List<TypeName> thrownTypes;
+    final Optional<CloneMethod> cloneMethod;
 
     private final Supplier<FieldSpec> bean;
 
@@ -45,20 +48,22 @@ final class DtoBeanGoal {
     BeanGoalContext(BuildersContext context,
                     BeanGoalDetails details,
                     List<AbstractBeanStep> steps,
-                    List<TypeName> thrownTypes) {
+                    List<TypeName> thrownTypes,
+                    Optional<CloneMethod> cloneMethod) {
       this.context = context;
       this.bean = beanSupplier(details.goalType, context);
       this.steps = steps;
       this.details = details;
       this.thrownTypes = thrownTypes;
+      this.cloneMethod = cloneMethod;
     }
 
     private static Supplier<FieldSpec> beanSupplier(ClassName type, BuildersContext context) {
       return memoize(() -> {
         String name = downcase(type.simpleName());
-        return context.lifecycle == REUSE_INSTANCES
-            ? fieldSpec(type, name, PRIVATE)
-            : fieldSpec(type, name, PRIVATE, FINAL);
+        return context.lifecycle == NEW_INSTANCE
+            ? fieldSpec(type, name, PRIVATE, FINAL)
+            : fieldSpec(type, name, PRIVATE);
       });
     }
 
@@ -9,6 +9,7 @@ import net.zerobuilder.compiler.generate.DtoProjectedDescription.ProjectedDescri
 import net.zerobuilder.compiler.generate.DtoProjectedDescription.ProjectedDescriptionCases;
 
 import java.util.List;
+import java.util.Optional;
 
 public final class DtoBeanGoalDescription {
 
@@ -21,18 +22,29 @@ public final class DtoBeanGoalDescription {
     final BeanGoalDetails details;
     final List<AbstractBeanParameter> parameters;
     final List<TypeName> thrownTypes;
+    final Optional<CloneMethod> cloneMethod;
 
     private BeanGoalDescription(BeanGoalDetails details,
                                 List<AbstractBeanParameter> parameters,
-                                List<TypeName> thrownTypes) {
+                                List<TypeName> thrownTypes,
+                                Optional<CloneMethod> cloneMethod) {
       this.details = details;
       this.parameters = parameters;
       this.thrownTypes = thrownTypes;
+      this.cloneMethod = cloneMethod;
     }
 
     public static BeanGoalDescription create(BeanGoalDetails details, List<AbstractBeanParameter> parameters,
                                              List<TypeName> thrownTypes) {
-      return new BeanGoalDescription(details, parameters, thrownTypes);
+      return new BeanGoalDescription(details, parameters, thrownTypes, Optional.empty());
+    }
+
+    /**
+     * @param cloneMethod the updater starts from a copy that is returned by this method
+     * @return a copy of this description
+     */
+    public BeanGoalDescription withCloneMethod(CloneMethod cloneMethod) {
+      return new BeanGoalDescription(details, parameters, thrownTypes, Optional.of(cloneMethod));
     }
 
     @Override
@@ -46,6 +58,27 @@ public final class DtoBeanGoalDescription {
     }
   }
 
+  /**
+   * Describes the {@code clone()} method of a bean.
+   */
+  public static final class CloneMethod {
+
+    /**
+     * The declared return type; may be a supertype of the bean.
+     */
+    final TypeName returnType;
+    final List<TypeName> thrownTypes;
+
+    private CloneMethod(TypeName returnType, List<TypeName> thrownTypes) {
+      this.returnType = returnType;
+      this.thrownTypes = thrownTypes;
+    }
+
+    public static CloneMethod create(TypeName returnType, List<TypeName> thrownTypes) {
+      return new CloneMethod(returnType, thrownTypes);
+    }
+  }
+
   private DtoBeanGoalDescription() {
     throw new UnsupportedOperationException("no instances");
   }
@@ -1,7 +1,9 @@
 package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import net.zerobuilder.NullPolicy;
 import net.zerobuilder.compiler.generate.DtoParameter.AbstractParameter;
@@ -11,6 +13,8 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import static com.squareup.javapoet.ClassName.OBJECT;
+import static com.squareup.javapoet.WildcardTypeName.subtypeOf;
+import static net.zerobuilder.compiler.generate.Utilities.ClassNames.COLLECTION;
 import static net.zerobuilder.compiler.generate.Utilities.distinctFrom;
 import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.memoize;
@@ -117,6 +121,30 @@ public final class DtoBeanParameter {
       return parameterSpec(iterationVar.type, distinctFrom(iterationVar.name, avoid.name));
     }
 
+    /**
+     * Adds the elements of {@code source} to a collection.
+     * If {@code source} is a {@link java.util.Collection} at runtime,
+     * a single {@code addAll} call is used, so that an {@code ArrayList}
+     * grows at most once. Other iterables are copied element by element.
+     *
+     * @param collection the collection that is returned by the getter
+     * @param source     an {@link Iterable} of {@link #iterationType()}
+     * @return code block
+     */
+    CodeBlock addAll(CodeBlock collection, ParameterSpec source) {
+      ParameterSpec iterationVar = iterationVar(source);
+      return CodeBlock.builder()
+          .beginControlFlow("if ($N instanceof $T)", source, COLLECTION)
+          .addStatement("$L.addAll(($T) $N)", collection,
+              ParameterizedTypeName.get(COLLECTION, subtypeOf(iterationType())), source)
+          .nextControlFlow("else")
+          .beginControlFlow("for ($T $N : $N)", iterationVar.type, iterationVar, source)
+          .addStatement("$L.add($N)", collection, iterationVar)
+          .endControlFlow()
+          .endControlFlow()
+          .build();
+    }
+
     private LoneGetter(TypeName type, String getter, NullPolicy nullPolicy, ParameterSpec iterationVar,
                        List<TypeName> getterThrownTypes) {
       super(type, getter, nullPolicy, getterThrownTypes);
@@ -1,25 +1,96 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
 
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeName.INT;
 import static com.squareup.javapoet.TypeSpec.anonymousClassBuilder;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PROTECTED;
+import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.Utilities.ClassNames.ATOMIC_REFERENCE_ARRAY;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.THREAD_LOCAL;
 import static net.zerobuilder.compiler.generate.Utilities.memoize;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 
 public final class DtoContext {
 
+  /**
+   * Initial number of slots per thread in a registry, see {@link #createRegistry(ClassName)}.
+   */
+  private static final int REGISTRY_SIZE = 16;
+
   public enum BuilderLifecycle {
-    REUSE_INSTANCES, NEW_INSTANCE;
+
+    /**
+     * Cache one builder instance per goal and thread in a {@code ThreadLocal}.
+     */
+    REUSE_INSTANCES,
+
+    /**
+     * Create a new builder instance for each invocation of a static builder method.
+     */
+    NEW_INSTANCE,
+
+    /**
+     * Take builder instances from a bounded, lock-free pool that is shared by all threads,
+     * and return them to the pool when the goal is invoked.
+     */
+    POOLED;
+  }
+
+  /**
+   * How the per-thread session is referenced from its {@code ThreadLocal}.
+   * Only used when the lifecycle is
+   * {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES}.
+   */
+  public enum CacheReference {
+
+    /**
+     * The session is kept until the thread dies,
+     * or until {@code releaseThreadCache()} is invoked.
+     */
+    STRONG(Optional.empty()),
+
+    /**
+     * The session can be cleared by the garbage collector
+     * if it has not been used recently and memory is needed.
+     */
+    SOFT(Optional.of(ClassName.get(SoftReference.class))),
+
+    /**
+     * The session can be cleared by any garbage collection.
+     */
+    WEAK(Optional.of(ClassName.get(WeakReference.class)));
+
+    /**
+     * The reference class that wraps the session, or empty for {@link #STRONG}.
+     */
+    final Optional<ClassName> type;
+
+    CacheReference(Optional<ClassName> type) {
+      this.type = type;
+    }
   }
 
   public static final class BuildersContext {
@@ -38,17 +109,256 @@ public final class DtoContext {
     final ClassName type;
 
     /**
-     * An instance of {@code ThreadLocal} that holds an instance of {@link #generatedType}.
+     * An instance of {@code ThreadLocal} that holds an instance of {@link #sessionType()}.
      * Only used when {@link #lifecycle} is
      * {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES}.
      */
     final Supplier<FieldSpec> cache;
 
-    private BuildersContext(BuilderLifecycle lifecycle, ClassName type, ClassName generatedType) {
-      this.lifecycle = lifecycle;
-      this.type = type;
-      this.generatedType = generatedType;
-      this.cache = memoizeCache(generatedType);
+    /**
+     * A generic pool class that is nested in {@link #generatedType}.
+     * Only used when {@link #lifecycle} is
+     * {@link BuilderLifecycle#POOLED POOLED}.
+     */
+    final Supplier<TypeSpec> pool;
+
+    /**
+     * If {@code true}, recycled builder instances set their non-primitive fields to {@code null}
+     * after the goal has been invoked.
+     * Has no effect when {@link #lifecycle} is
+     * {@link BuilderLifecycle#NEW_INSTANCE NEW_INSTANCE}.
+     */
+    final boolean clearReferences;
+
+    /**
+     * A shared per-thread registry, see {@link #createRegistry(ClassName)}.
+     * If present, it replaces {@link #cache}.
+     */
+    final Optional<ClassName> registry;
+
+    /**
+     * A static field that holds the index of {@link #generatedType} in {@link #registry}.
+     * The index is taken from the registry when the generated type is initialized,
+     * so it does not depend on the order of compilation.
+     * Only used when {@link #registry} is present.
+     */
+    final Supplier<FieldSpec> registrySlot;
+
+    final CacheReference cacheReference;
+
+    /**
+     * If {@code true}, recycled builder instances remember the thread that they were handed out to,
+     * and each step fails fast if it is invoked from a different thread,
+     * or after the goal has been invoked.
+     * Has no effect when {@link #lifecycle} is
+     * {@link BuilderLifecycle#NEW_INSTANCE NEW_INSTANCE}.
+     */
+    final boolean checkOwner;
+
+    /**
+     * If {@code true}, the updaters of regular goals keep a reference to their source instance,
+     * and only read the projections that were not updated when the goal is invoked.
+     * If no values were changed, the source instance is returned.
+     * Bean updaters copy the collections of the source when the goal is invoked,
+     * unless they were replaced.
+     */
+    final boolean lazyUpdaters;
+
+    /**
+     * The estimated bytecode size at which a generated method is split into helper methods,
+     * see {@link MethodSplitter}.
+     */
+    final int methodBudget;
+
+    /**
+     * If {@code true}, the step interfaces are generic in the type of the next step,
+     * and shared by all goals of {@link #generatedType}.
+     */
+    final boolean compact;
+
+    /**
+     * If {@code true}, the collection steps of regular goals have methods that add single elements
+     * to a buffer of the builder impl, see {@link Accumulator}.
+     */
+    final boolean accumulators;
+
+    /**
+     * If {@code true}, the {@code List}, {@code Collection} and {@code Iterable} steps of regular goals
+     * have a varargs overload.
+     */
+    final boolean varargs;
+
+    private BuildersContext(Builder builder) {
+      this.lifecycle = builder.lifecycle;
+      this.type = builder.type;
+      this.generatedType = builder.generatedType;
+      this.clearReferences = builder.clearReferences;
+      this.registry = builder.registry;
+      this.cacheReference = builder.cacheReference;
+      this.checkOwner = builder.checkOwner;
+      this.lazyUpdaters = builder.lazyUpdaters;
+      this.methodBudget = builder.methodBudget;
+      this.compact = builder.compact;
+      this.accumulators = builder.accumulators;
+      this.varargs = builder.varargs;
+      this.cache = memoizeCache(sessionType(), cacheReference);
+      this.pool = memoizePool(generatedType);
+      this.registrySlot = memoize(() -> FieldSpec.builder(INT, "SLOT", PRIVATE, STATIC, FINAL)
+          .initializer("$T.slot()", registry.get())
+          .build());
+    }
+
+    /**
+     * Holds the settings while a modified copy of a {@link BuildersContext} is created.
+     * The defaults are those of {@link #createBuildersContext(ClassName, ClassName, BuilderLifecycle, boolean)}.
+     */
+    private static final class Builder {
+      private BuilderLifecycle lifecycle;
+      private ClassName type;
+      private ClassName generatedType;
+      private boolean clearReferences;
+      private Optional<ClassName> registry = Optional.empty();
+      private CacheReference cacheReference = CacheReference.STRONG;
+      private boolean checkOwner;
+      private boolean lazyUpdaters;
+      private int methodBudget = MethodSplitter.DEFAULT_BUDGET;
+      private boolean compact;
+      private boolean accumulators;
+      private boolean varargs;
+
+      private Builder() {
+      }
+
+      private Builder(BuildersContext context) {
+        this.lifecycle = context.lifecycle;
+        this.type = context.type;
+        this.generatedType = context.generatedType;
+        this.clearReferences = context.clearReferences;
+        this.registry = context.registry;
+        this.cacheReference = context.cacheReference;
+        this.checkOwner = context.checkOwner;
+        this.lazyUpdaters = context.lazyUpdaters;
+        this.methodBudget = context.methodBudget;
+        this.compact = context.compact;
+        this.accumulators = context.accumulators;
+        this.varargs = context.varargs;
+      }
+    }
+
+    private BuildersContext with(Consumer<Builder> change) {
+      Builder builder = new Builder(this);
+      change.accept(builder);
+      return new BuildersContext(builder);
+    }
+
+    ClassName poolType() {
+      return generatedType.nestedClass(pool.get().name);
+    }
+
+    /**
+     * A nested class that holds the recycled impl instances.
+     * Only used when {@link #lifecycle} is
+     * {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES}.
+     *
+     * @return type name of the session
+     */
+    ClassName sessionType() {
+      return generatedType.nestedClass("Session");
+    }
+
+    /**
+     * Store the per-thread session in a shared registry,
+     * rather than in a {@code ThreadLocal} of its own.
+     * Only has an effect if the lifecycle is
+     * {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES}.
+     *
+     * @param registry type name of a registry, see {@link #createRegistry(ClassName)}
+     * @return a BuildersContext
+     */
+    public BuildersContext withRegistry(ClassName registry) {
+      return with(builder -> builder.registry = Optional.of(registry));
+    }
+
+    /**
+     * Hold the per-thread session via a soft or weak reference,
+     * so that it does not prevent its class loader from being garbage collected.
+     *
+     * @param cacheReference reference strength
+     * @return a BuildersContext
+     */
+    public BuildersContext withCacheReference(CacheReference cacheReference) {
+      return with(builder -> builder.cacheReference = cacheReference);
+    }
+
+    /**
+     * Make recycled builder instances check that they are only used by the thread
+     * that they were handed out to, and only until the goal has been invoked.
+     *
+     * @param checkOwner check flag
+     * @return a BuildersContext
+     */
+    public BuildersContext withCheckOwner(boolean checkOwner) {
+      return with(builder -> builder.checkOwner = checkOwner);
+    }
+
+    /**
+     * Make the updaters of regular goals read the source projections lazily,
+     * and return the source instance if no values were changed.
+     *
+     * @param lazyUpdaters lazy flag
+     * @return a BuildersContext
+     */
+    public BuildersContext withLazyUpdaters(boolean lazyUpdaters) {
+      return with(builder -> builder.lazyUpdaters = lazyUpdaters);
+    }
+
+    /**
+     * Split generated methods into helper methods when their estimated bytecode size exceeds a budget.
+     * HotSpot does not compile methods that are bigger than 8000 bytes.
+     *
+     * @param methodBudget estimated bytecode size in bytes, must be positive
+     * @return a BuildersContext
+     */
+    public BuildersContext withMethodBudget(int methodBudget) {
+      if (methodBudget <= 0) {
+        throw new IllegalArgumentException("methodBudget: " + methodBudget);
+      }
+      return with(builder -> builder.methodBudget = methodBudget);
+    }
+
+    /**
+     * Make the step interfaces generic in the type of the next step,
+     * so that they can be shared between goals, and don't need a nested class per goal.
+     *
+     * @param compact compact flag
+     * @return a BuildersContext
+     */
+    public BuildersContext withCompact(boolean compact) {
+      return with(builder -> builder.compact = compact);
+    }
+
+    /**
+     * Add element-wise methods like {@code addFoo} to the collection steps of regular goals.
+     *
+     * @param accumulators accumulators flag
+     * @return a BuildersContext
+     */
+    public BuildersContext withAccumulators(boolean accumulators) {
+      return with(builder -> builder.accumulators = accumulators);
+    }
+
+    /**
+     * Add a varargs overload like {@code foo(String... foo)} to the list steps of regular goals.
+     *
+     * @param varargs varargs flag
+     * @return a BuildersContext
+     */
+    public BuildersContext withVarargs(boolean varargs) {
+      return with(builder -> builder.varargs = varargs);
+    }
+
+    BuildersContext withLifecycle(BuilderLifecycle lifecycle) {
+      return with(builder -> builder.lifecycle = lifecycle);
     }
   }
 
@@ -64,18 +374,130 @@ public final class DtoContext {
   public static BuildersContext createBuildersContext(ClassName type,
                                                       ClassName generatedType,
                                                       BuilderLifecycle builderLifecycle) {
-    return new BuildersContext(builderLifecycle, type, generatedType);
+    return createBuildersContext(type, generatedType, builderLifecycle, false);
   }
 
-  private static Supplier<FieldSpec> memoizeCache(ClassName generatedType) {
-    ParameterizedTypeName type = ParameterizedTypeName.get(THREAD_LOCAL, generatedType);
+  /**
+   * Create metadata for goal processing.
+   *
+   * @param type             type that contains the goal methods / constructors;
+   *                         for bean goals, this is just the bean type
+   * @param generatedType    type name that should be generated
+   * @param builderLifecycle lifecycle setting
+   * @param clearReferences  if {@code true}, recycled builders don't retain
+   *                         their non-primitive fields after the goal has been invoked
+   * @return a BuildersContext
+   */
+  public static BuildersContext createBuildersContext(ClassName type,
+                                                      ClassName generatedType,
+                                                      BuilderLifecycle builderLifecycle,
+                                                      boolean clearReferences) {
+    BuildersContext.Builder builder = new BuildersContext.Builder();
+    builder.lifecycle = builderLifecycle;
+    builder.type = type;
+    builder.generatedType = generatedType;
+    builder.clearReferences = clearReferences;
+    return new BuildersContext(builder);
+  }
+
+  /**
+   * <p>Create the definition of a per-thread registry,
+   * that can be shared by all generated types that use the
+   * {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES} lifecycle.
+   * Each type has a slot in a per-thread array, so there is only a single
+   * {@code ThreadLocal} for all of them.</p>
+   * <p>The slots are handed out at runtime, when a generated type is initialized.
+   * The definition does not depend on the generated types,
+   * so separately compiled modules can use the same registry.
+   * The array grows if a slot exceeds its size.</p>
+   *
+   * @param registry type name of the registry
+   * @return type definition
+   * @see BuildersContext#withRegistry(ClassName)
+   */
+  public static TypeSpec createRegistry(ClassName registry) {
+    ArrayTypeName arrayType = ArrayTypeName.of(Object.class);
+    ParameterizedTypeName type = ParameterizedTypeName.get(THREAD_LOCAL, arrayType);
     TypeSpec initializer = anonymousClassBuilder("")
         .addSuperinterface(type)
         .addMethod(methodBuilder("initialValue")
             .addAnnotation(Override.class)
             .addModifiers(PROTECTED)
-            .returns(generatedType)
-            .addStatement("return new $T()", generatedType)
+            .returns(arrayType)
+            .addStatement("return new $T[$L]", Object.class, REGISTRY_SIZE)
+            .build())
+        .build();
+    FieldSpec next = FieldSpec.builder(AtomicInteger.class, "NEXT", PRIVATE, STATIC, FINAL)
+        .initializer("new $T()", AtomicInteger.class)
+        .build();
+    FieldSpec slots = FieldSpec.builder(type, "SLOTS", PRIVATE, STATIC, FINAL)
+        .initializer("$L", initializer)
+        .build();
+    TypeVariableName t = TypeVariableName.get("T");
+    ParameterSpec slot = parameterSpec(INT, "slot");
+    ParameterSpec instance = parameterSpec(t, "instance");
+    ParameterSpec array = parameterSpec(arrayType, "slots");
+    MethodSpec nextSlot = methodBuilder("slot")
+        .returns(INT)
+        .addStatement("return $N.getAndIncrement()", next)
+        .addModifiers(PUBLIC, STATIC)
+        .build();
+    MethodSpec get = methodBuilder("get")
+        .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+            .addMember("value", "$S", "unchecked")
+            .build())
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(slot)
+        .addStatement("$T $N = $N.get()", arrayType, array, slots)
+        .addStatement("return $N < $N.length ? ($T) $N[$N] : null", slot, array, t, array, slot)
+        .addModifiers(PUBLIC, STATIC)
+        .build();
+    MethodSpec set = methodBuilder("set")
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(slot)
+        .addParameter(instance)
+        .addStatement("$T $N = $N.get()", arrayType, array, slots)
+        .beginControlFlow("if ($N >= $N.length)", slot, array)
+        .addStatement("$N = $T.copyOf($N, $T.max(2 * $N.length, $N + 1))", array, Arrays.class, array, Math.class, array, slot)
+        .addStatement("$N.set($N)", slots, array)
+        .endControlFlow()
+        .addStatement("$N[$N] = $N", array, slot, instance)
+        .addStatement("return $N", instance)
+        .addModifiers(PUBLIC, STATIC)
+        .build();
+    return classBuilder(registry)
+        .addField(next)
+        .addField(slots)
+        .addMethod(constructorBuilder()
+            .addStatement("throw new $T($S)", UnsupportedOperationException.class, "no instances")
+            .addModifiers(PRIVATE)
+            .build())
+        .addMethod(nextSlot)
+        .addMethod(get)
+        .addMethod(set)
+        .addModifiers(PUBLIC, FINAL)
+        .build();
+  }
+
+  private static Supplier<FieldSpec> memoizeCache(ClassName sessionType, CacheReference cacheReference) {
+    if (cacheReference.type.isPresent()) {
+      ParameterizedTypeName type = ParameterizedTypeName.get(THREAD_LOCAL,
+          ParameterizedTypeName.get(cacheReference.type.get(), sessionType));
+      return memoize(() -> FieldSpec.builder(type, "INSTANCE")
+          .initializer("new $T()", type)
+          .addModifiers(PRIVATE, STATIC, FINAL)
+          .build());
+    }
+    ParameterizedTypeName type = ParameterizedTypeName.get(THREAD_LOCAL, sessionType);
+    TypeSpec initializer = anonymousClassBuilder("")
+        .addSuperinterface(type)
+        .addMethod(methodBuilder("initialValue")
+            .addAnnotation(Override.class)
+            .addModifiers(PROTECTED)
+            .returns(sessionType)
+            .addStatement("return new $T()", sessionType)
             .build())
         .build();
     return memoize(() -> FieldSpec.builder(type, "INSTANCE")
@@ -84,6 +506,44 @@ public final class DtoContext {
         .build());
   }
 
+  private static Supplier<TypeSpec> memoizePool(ClassName generatedType) {
+    TypeVariableName e = TypeVariableName.get("E");
+    ParameterizedTypeName slotsType = ParameterizedTypeName.get(ATOMIC_REFERENCE_ARRAY, e);
+    FieldSpec size = FieldSpec.builder(INT, "SIZE", PRIVATE, STATIC, FINAL)
+        .initializer("2 * $T.getRuntime().availableProcessors()", Runtime.class)
+        .build();
+    FieldSpec slots = FieldSpec.builder(slotsType, "slots", PRIVATE, FINAL)
+        .initializer("new $T($N)", slotsType, size)
+        .build();
+    ParameterSpec instance = parameterSpec(e, "instance");
+    MethodSpec poll = methodBuilder("poll")
+        .returns(e)
+        .beginControlFlow("for (int i = 0; i < $N.length(); i++)", slots)
+        .addStatement("$T $N = $N.get(i)", e, instance, slots)
+        .beginControlFlow("if ($N != null && $N.compareAndSet(i, $N, null))", instance, slots, instance)
+        .addStatement("return $N", instance)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return null")
+        .build();
+    MethodSpec offer = methodBuilder("offer")
+        .addParameter(instance)
+        .beginControlFlow("for (int i = 0; i < $N.length(); i++)", slots)
+        .beginControlFlow("if ($N.get(i) == null && $N.compareAndSet(i, null, $N))", slots, slots, instance)
+        .addStatement("return")
+        .endControlFlow()
+        .endControlFlow()
+        .build();
+    return memoize(() -> classBuilder(generatedType.nestedClass("Pool"))
+        .addTypeVariable(e)
+        .addField(size)
+        .addField(slots)
+        .addMethod(poll)
+        .addMethod(offer)
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .build());
+  }
+
   private DtoContext() {
     throw new UnsupportedOperationException("no instances");
   }
@@ -72,13 +72,52 @@ public final class DtoGeneratorOutput {
     final ClassName generatedType;
     final BuilderLifecycle lifecycle;
 
+    /**
+     * Static methods that are not tied to a goal, like {@code releaseThreadCache()}.
+     */
+    final List<MethodSpec> lifecycleMethods;
+
+    /**
+     * Number of classes that were saved by sharing step interfaces in compact mode.
+     */
+    private final int classesSaved;
+
+    /**
+     * The shared registry that holds the per-thread session, if any.
+     */
+    private final Optional<ClassName> registry;
+
     public GeneratorOutput(List<BuilderMethod> methods, List<TypeSpec> nestedTypes, List<FieldSpec> fields,
                            ClassName generatedType, BuilderLifecycle lifecycle) {
+      this(methods, nestedTypes, fields, generatedType, lifecycle, emptyList(), 0, empty());
+    }
+
+    GeneratorOutput(List<BuilderMethod> methods, List<TypeSpec> nestedTypes, List<FieldSpec> fields,
+                    ClassName generatedType, BuilderLifecycle lifecycle, List<MethodSpec> lifecycleMethods,
+                    int classesSaved, Optional<ClassName> registry) {
       this.methods = methods;
       this.nestedTypes = nestedTypes;
       this.fields = fields;
       this.generatedType = generatedType;
       this.lifecycle = lifecycle;
+      this.lifecycleMethods = lifecycleMethods;
+      this.classesSaved = classesSaved;
+      this.registry = registry;
+    }
+
+    /**
+     * @return the registry that the generated type uses, if it has a per-thread session
+     * and a registry was configured
+     */
+    public Optional<ClassName> registry() {
+      return registry;
+    }
+
+    /**
+     * @return the number of class files that compact mode saved, compared to the default mode
+     */
+    public int classesSaved() {
+      return classesSaved;
     }
 
     /**
@@ -92,6 +131,7 @@ public final class DtoGeneratorOutput {
           .addFields(fields)
           .addMethod(constructor())
           .addMethods(transform(methods(), getMethod))
+          .addMethods(lifecycleMethods)
           .addAnnotations(generatedAnnotations)
           .addModifiers(PUBLIC, FINAL)
           .addTypes(nestedTypes)
@@ -99,17 +139,15 @@ public final class DtoGeneratorOutput {
     }
 
     private MethodSpec constructor() {
-      return lifecycle == BuilderLifecycle.REUSE_INSTANCES ?
-          Utilities.constructor(PRIVATE) :
-          constructorBuilder()
-              .addStatement("throw new $T($S)", UnsupportedOperationException.class, "no instances")
-              .addModifiers(PRIVATE)
-              .build();
+      return constructorBuilder()
+          .addStatement("throw new $T($S)", UnsupportedOperationException.class, "no instances")
+          .addModifiers(PRIVATE)
+          .build();
     }
 
     /**
-     * All methods in the type returned by {@link #typeSpec(List)}.
-     * Includes static methods. Excludes constructors.
+     * All builder and updater methods in the type returned by {@link #typeSpec(List)}.
+     * Excludes constructors, and static methods that don't belong to a goal.
      *
      * @return list of methods
      */
@@ -171,14 +209,17 @@ public final class DtoGeneratorOutput {
           List<TypeSpec> nestedTypes = new ArrayList<>();
           List<FieldSpec> fields = new ArrayList<>();
           if (context.lifecycle == BuilderLifecycle.REUSE_INSTANCES) {
-            fields.add(context.cache.get());
+            fields.add(context.registry.isPresent() ?
+                context.registrySlot.get() :
+                context.cache.get());
           }
           for (SingleModuleOutputWithField output : outputs) {
             methods.add(output.output.method);
             output.field.ifPresent(fields::add);
             output.output.nestedTypes.forEach(nestedTypes::add);
           }
-          return new GeneratorOutput(methods, nestedTypes, fields, context.generatedType, context.lifecycle);
+          return new GeneratorOutput(methods, nestedTypes, fields, context.generatedType, context.lifecycle,
+              emptyList(), 0, empty());
         };
       }
       @Override
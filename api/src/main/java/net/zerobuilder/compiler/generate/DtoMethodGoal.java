@@ -20,7 +20,7 @@ import static com.squareup.javapoet.TypeName.VOID;
 import static java.util.Collections.unmodifiableList;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoal.GoalMethodType.INSTANCE_METHOD;
 import static net.zerobuilder.compiler.generate.DtoRegularStep.ProjectedRegularStep;
 import static net.zerobuilder.compiler.generate.DtoRegularStep.SimpleRegularStep;
@@ -92,9 +92,9 @@ public final class DtoMethodGoal {
       return memoize(() -> {
         ClassName type = context.type;
         String name = '_' + downcase(type.simpleName());
-        return context.lifecycle == REUSE_INSTANCES
-            ? fieldSpec(type, name, PRIVATE)
-            : fieldSpec(type, name, PRIVATE, FINAL);
+        return context.lifecycle == NEW_INSTANCE
+            ? fieldSpec(type, name, PRIVATE, FINAL)
+            : fieldSpec(type, name, PRIVATE);
       });
     }
 
@@ -1,26 +1,63 @@
 package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
+import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.SingleModuleOutput;
 import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
 import net.zerobuilder.compiler.generate.DtoModuleOutput.ContractModuleOutput;
 import net.zerobuilder.compiler.generate.DtoModuleOutput.SimpleModuleOutput;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
 import net.zerobuilder.compiler.generate.DtoProjectedGoal.ProjectedGoal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
 
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeName.BOOLEAN;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.POOLED;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
 import static net.zerobuilder.compiler.generate.DtoGoalContext.abstractSteps;
 import static net.zerobuilder.compiler.generate.DtoGoalContext.context;
-import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.joinCodeBlocks;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
 import static net.zerobuilder.compiler.generate.Utilities.transform;
 import static net.zerobuilder.compiler.generate.Utilities.upcase;
+import static net.zerobuilder.compiler.generate.Utilities.varName;
 
 public final class DtoModule {
 
+  /**
+   * Set while a thread-local impl instance is handed out,
+   * so that nested use of the same goal on the same thread gets a fresh instance.
+   * The fresh instance replaces the cached one, so that a builder that is never finished
+   * costs one allocation, rather than all further reuse on this thread.
+   */
+  private static final FieldSpec IN_USE = fieldSpec(BOOLEAN, "_inUse", PRIVATE);
+
+  /**
+   * The thread that a recycled impl instance was handed out to,
+   * or {@code null} if the goal has been invoked.
+   * Only present if {@link BuildersContext#checkOwner} is set.
+   */
+  private static final FieldSpec OWNER = fieldSpec(ClassName.get(Thread.class), "_owner", PRIVATE);
+
+  private static final String NOT_OWNER =
+      "This builder was used by another thread, or after its goal was invoked";
+
   public static abstract class Module {
     public abstract String name();
     public abstract <R, P> R accept(ModuleCases<R, P> cases, P p);
@@ -41,15 +78,171 @@ public final class DtoModule {
           .generatedType.nestedClass(contractName);
     }
 
+    /**
+     * A slot in the session type, see {@link BuildersContext#sessionType()}.
+     * It is filled on first use, so that a thread only allocates the impls
+     * of the goals that it actually uses.
+     *
+     * @param goal goal context
+     * @return field spec
+     */
     final FieldSpec cacheField(AbstractGoalContext goal) {
       ClassName type = implType(goal);
-      return FieldSpec.builder(type, downcase(type.simpleName()), PRIVATE, FINAL)
-          .initializer("new $T()", type)
+      return fieldSpec(type, varName(type.simpleName()), PRIVATE);
+    }
+
+    final FieldSpec poolField(AbstractGoalContext goal) {
+      ClassName type = implType(goal);
+      TypeName pool = ParameterizedTypeName.get(context.apply(goal).poolType(), type);
+      return FieldSpec.builder(pool, varName(type.simpleName()) + "Pool", PRIVATE, STATIC, FINAL)
+          .initializer("new $T()", pool)
+          .build();
+    }
+
+    /**
+     * Declares the variable {@code instance} and assigns a recycled impl instance.
+     * Not used if the lifecycle is {@link BuilderLifecycle#NEW_INSTANCE NEW_INSTANCE}.
+     * If the lifecycle is {@link BuilderLifecycle#REUSE_INSTANCES REUSE_INSTANCES},
+     * the code must run in an instance method of the session type.
+     *
+     * @param goal     goal context
+     * @param instance a variable of type {@link #implType(AbstractGoalContext)}
+     * @return declaration and initialization of {@code instance}
+     */
+    final CodeBlock recycledInstance(AbstractGoalContext goal, ParameterSpec instance) {
+      BuildersContext context = goal.context();
+      return CodeBlock.builder()
+          .add(context.lifecycle == POOLED ?
+              pooledInstance(goal, instance) :
+              cachedInstance(goal, instance))
+          .add(context.checkOwner ?
+              statement("$N.$N = $T.currentThread()", instance, OWNER, Thread.class) :
+              emptyCodeBlock)
+          .build();
+    }
+
+    private CodeBlock pooledInstance(AbstractGoalContext goal, ParameterSpec instance) {
+      return CodeBlock.builder()
+          .addStatement("$T $N = $N.poll()", instance.type, instance, poolField(goal))
+          .beginControlFlow("if ($N == null)", instance)
+          .addStatement("$N = new $T()", instance, instance.type)
+          .endControlFlow()
+          .build();
+    }
+
+    private CodeBlock cachedInstance(AbstractGoalContext goal, ParameterSpec instance) {
+      FieldSpec cacheField = cacheField(goal);
+      return CodeBlock.builder()
+          .addStatement("$T $N = this.$N", instance.type, instance, cacheField)
+          .beginControlFlow("if ($N == null || $N.$N)", instance, instance, IN_USE)
+          .addStatement("$N = this.$N = new $T()", instance, cacheField, instance.type)
+          .endControlFlow()
+          .addStatement("$N.$N = true", instance, IN_USE)
           .build();
     }
 
-    final List<ClassName> stepInterfaceTypes(AbstractGoalContext goal) {
-      return transform(steps(goal), step -> contractType(goal).nestedClass(step.thisType));
+    /**
+     * Additional fields of the impl type that the lifecycle requires.
+     *
+     * @param goal goal context
+     * @return fields, possibly empty
+     */
+    final List<FieldSpec> lifecycleFields(AbstractGoalContext goal) {
+      BuildersContext context = goal.context();
+      List<FieldSpec> fields = new ArrayList<>(2);
+      if (context.lifecycle == REUSE_INSTANCES) {
+        fields.add(IN_USE);
+      }
+      if (context.lifecycle != NEW_INSTANCE && context.checkOwner) {
+        fields.add(OWNER);
+      }
+      return fields;
+    }
+
+    /**
+     * If {@link BuildersContext#checkOwner} is set, prepends a check
+     * to each method of a recycled impl type, which fails if the current thread
+     * is not the thread that the instance was handed out to.
+     *
+     * @param goal    goal context
+     * @param methods the methods of the impl type, excluding constructors
+     * @return methods, possibly modified
+     */
+    final List<MethodSpec> checkOwner(AbstractGoalContext goal, List<MethodSpec> methods) {
+      BuildersContext context = goal.context();
+      if (context.lifecycle == NEW_INSTANCE || !context.checkOwner) {
+        return methods;
+      }
+      CodeBlock check = CodeBlock.builder()
+          .beginControlFlow("if (this.$N != $T.currentThread())", OWNER, Thread.class)
+          .addStatement("throw new $T($S)", IllegalStateException.class, NOT_OWNER)
+          .endControlFlow()
+          .build();
+      return transform(methods, method -> methodBuilder(method.name)
+          .addAnnotations(method.annotations)
+          .addModifiers(method.modifiers)
+          .addTypeVariables(method.typeVariables)
+          .returns(method.returnType)
+          .addParameters(method.parameters)
+          .varargs(method.varargs)
+          .addExceptions(method.exceptions)
+          .addCode(check)
+          .addCode(method.code)
+          .build());
+    }
+
+    /**
+     * Wraps the final invocation of a builder or updater,
+     * so that the impl instance is released after the goal has been invoked.
+     *
+     * @param goal       goal context
+     * @param fields     the fields of the impl type
+     * @param invocation code that invokes the goal
+     * @return invocation, followed by the release of {@code this}
+     */
+    final CodeBlock releaseAfter(AbstractGoalContext goal, List<FieldSpec> fields,
+                                 CodeBlock invocation) {
+      return releaseAfter(goal, fields, invocation, emptyCodeBlock);
+    }
+
+    /**
+     * @param goal       goal context
+     * @param fields     the fields of the impl type
+     * @param invocation code that invokes the goal, including the checks of the last step,
+     *                   so that a failing check releases {@code this} as well
+     * @param reset      code that prepares {@code this} for the next build
+     * @return invocation, followed by the release of {@code this}
+     */
+    final CodeBlock releaseAfter(AbstractGoalContext goal, List<FieldSpec> fields,
+                                 CodeBlock invocation, CodeBlock reset) {
+      BuildersContext context = goal.context();
+      BuilderLifecycle lifecycle = context.lifecycle;
+      if (lifecycle == NEW_INSTANCE) {
+        return invocation;
+      }
+      return CodeBlock.builder()
+          .beginControlFlow("try")
+          .add(invocation)
+          .nextControlFlow("finally")
+          .add(context.clearReferences ? clearReferences(fields) : emptyCodeBlock)
+          .add(reset)
+          .add(context.checkOwner ? statement("this.$N = null", OWNER) : emptyCodeBlock)
+          .add(lifecycle == POOLED ?
+              statement("$N.offer(this)", poolField(goal)) :
+              statement("this.$N = false", IN_USE))
+          .endControlFlow()
+          .build();
+    }
+
+    private CodeBlock clearReferences(List<FieldSpec> fields) {
+      return fields.stream()
+          .filter(field -> !field.type.isPrimitive())
+          .map(field -> statement("this.$N = null", field))
+          .collect(joinCodeBlocks);
+    }
+
+    final List<TypeName> stepInterfaceTypes(AbstractGoalContext goal) {
+      return transform(steps(goal), DtoStep.AbstractStep::stepType);
     }
 
     final List<DtoStep.AbstractStep> steps(AbstractGoalContext goal) {
@@ -60,6 +253,7 @@ public final class DtoModule {
   interface ModuleCases<R, P> {
     R simple(SimpleModule module, P p);
     R contract(ContractModule module, P p);
+    R stateless(StatelessModule module, P p);
   }
 
   public static abstract class SimpleModule extends Module {
@@ -88,13 +282,27 @@ public final class DtoModule {
     }
   }
 
+  /**
+   * A module that only generates static methods, and possibly the types that they return.
+   * It has no impl type, so its goals are never recycled.
+   */
+  public static abstract class StatelessModule extends Module {
+    protected abstract StatelessModuleOutput process(AbstractGoalContext goal);
+
+    @Override
+    public final <R, P> R accept(ModuleCases<R, P> cases, P p) {
+      return cases.stateless(this, p);
+    }
+  }
+
   static <R, P> BiFunction<Module, P, R> asFunction(ModuleCases<R, P> cases) {
     return (module, p) -> module.accept(cases, p);
   }
 
   static <R, P> BiFunction<Module, P, R> moduleCases(
       BiFunction<SimpleModule, P, R> simple,
-      BiFunction<ContractModule, P, R> contract) {
+      BiFunction<ContractModule, P, R> contract,
+      BiFunction<StatelessModule, P, R> stateless) {
     return asFunction(new ModuleCases<R, P>() {
       @Override
       public R simple(SimpleModule module, P p) {
@@ -104,6 +312,10 @@ public final class DtoModule {
       public R contract(ContractModule module, P p) {
         return contract.apply(module, p);
       }
+      @Override
+      public R stateless(StatelessModule module, P p) {
+        return stateless.apply(module, p);
+      }
     });
   }
 
@@ -3,8 +3,11 @@ package net.zerobuilder.compiler.generate;
 import com.squareup.javapoet.TypeSpec;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
 
+import java.util.List;
 import java.util.function.Function;
 
+import static java.util.Collections.emptyList;
+
 public final class DtoModuleOutput {
 
   public interface ModuleOutput {
@@ -14,6 +17,7 @@ public final class DtoModuleOutput {
   public interface ModuleOutputCases<R> {
     R simple(SimpleModuleOutput simple);
     R contract(ContractModuleOutput contract);
+    R stateless(StatelessModuleOutput stateless);
   }
 
   public static abstract class AbstractModuleOutput implements ModuleOutput {
@@ -37,9 +41,14 @@ public final class DtoModuleOutput {
   }
 
   public static final class ContractModuleOutput extends AbstractModuleOutput {
-    final TypeSpec contract;
 
-    protected ContractModuleOutput(BuilderMethod method, TypeSpec impl, TypeSpec contract) {
+    /**
+     * Either a single class that holds the step interfaces of the goal,
+     * or the step interfaces themselves, if they are shared with other goals.
+     */
+    final List<TypeSpec> contract;
+
+    protected ContractModuleOutput(BuilderMethod method, TypeSpec impl, List<TypeSpec> contract) {
       super(method, impl);
       this.contract = contract;
     }
@@ -49,13 +58,37 @@ public final class DtoModuleOutput {
     }
   }
 
+  public static final class StatelessModuleOutput implements ModuleOutput {
+    final List<BuilderMethod> methods;
+
+    /**
+     * Nested types that the static methods return, like a flyweight view.
+     * The instances of these types are never recycled.
+     */
+    final List<TypeSpec> types;
+
+    protected StatelessModuleOutput(List<BuilderMethod> methods, List<TypeSpec> types) {
+      this.methods = methods;
+      this.types = types;
+    }
+
+    protected StatelessModuleOutput(List<BuilderMethod> methods) {
+      this(methods, emptyList());
+    }
+    @Override
+    public <R> R accept(ModuleOutputCases<R> cases) {
+      return cases.stateless(this);
+    }
+  }
+
   static <R> Function<ModuleOutput, R> asFunction(ModuleOutputCases<R> cases) {
     return moduleOutput -> moduleOutput.accept(cases);
   }
 
   static <R> Function<ModuleOutput, R> moduleOutputCases(
       Function<SimpleModuleOutput, R> simple,
-      Function<ContractModuleOutput, R> contract) {
+      Function<ContractModuleOutput, R> contract,
+      Function<StatelessModuleOutput, R> stateless) {
     return asFunction(new ModuleOutputCases<R>() {
       @Override
       public R simple(SimpleModuleOutput simpleOutput) {
@@ -65,6 +98,10 @@ public final class DtoModuleOutput {
       public R contract(ContractModuleOutput contractOutput) {
         return contract.apply(contractOutput);
       }
+      @Override
+      public R stateless(StatelessModuleOutput statelessOutput) {
+        return stateless.apply(statelessOutput);
+      }
     });
   }
 
@@ -20,7 +20,7 @@ import java.util.function.Predicate;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static java.util.Optional.empty;
 import static javax.lang.model.element.Modifier.PRIVATE;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoal.GoalMethodType.INSTANCE_METHOD;
 import static net.zerobuilder.compiler.generate.Utilities.asPredicate;
 import static net.zerobuilder.compiler.generate.Utilities.constructor;
@@ -87,7 +87,7 @@ final class DtoRegularGoal {
           cGoal -> constructor(PRIVATE),
           mGoal -> {
             if (!isInstance.test(mGoal)
-                || mGoal.context.lifecycle == REUSE_INSTANCES) {
+                || mGoal.context.lifecycle != NEW_INSTANCE) {
               return constructor(PRIVATE);
             }
             ClassName type = mGoal.context.type;
@@ -12,7 +12,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
-import static java.util.Collections.emptyList;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
 import static net.zerobuilder.compiler.generate.Utilities.memoize;
@@ -29,6 +28,22 @@ public final class DtoRegularStep {
     }
 
     abstract Optional<DtoStep.CollectionInfo> collectionInfo();
+
+    /**
+     * @return the element-wise methods of this step, if {@link BuildersContext#accumulators} is set
+     */
+    abstract Optional<Accumulator> accumulator();
+
+    /**
+     * @return the component type of the varargs overload of this step,
+     * if {@link BuildersContext#varargs} is set
+     */
+    final Optional<TypeName> varargsElement() {
+      return context.varargs ?
+          DtoStep.varargsElement(regularParameter().type) :
+          Optional.empty();
+    }
+
     abstract FieldSpec field();
     abstract AbstractRegularParameter regularParameter();
     abstract List<TypeName> declaredExceptions();
@@ -45,6 +60,7 @@ public final class DtoRegularStep {
 
     private final Supplier<FieldSpec> field;
     private final Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo;
+    private final Supplier<Optional<Accumulator>> accumulator;
 
     private ProjectedRegularStep(String thisType,
                                  Optional<AbstractRegularStep> nextType,
@@ -53,12 +69,14 @@ public final class DtoRegularStep {
                                  ProjectedParameter parameter,
                                  List<TypeName> declaredExceptions,
                                  Supplier<FieldSpec> field,
-                                 Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo) {
+                                 Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo,
+                                 Supplier<Optional<Accumulator>> accumulator) {
       super(thisType, nextType, goalDetails, context);
       this.declaredExceptions = declaredExceptions;
       this.parameter = parameter;
       this.field = field;
       this.collectionInfo = collectionInfo;
+      this.accumulator = accumulator;
     }
 
     static ProjectedRegularStep create(String thisType,
@@ -68,7 +86,7 @@ public final class DtoRegularStep {
                                        ProjectedParameter parameter,
                                        List<TypeName> declaredExceptions) {
       return new ProjectedRegularStep(thisType, Optional.ofNullable(nextType.orElse(null)), goalDetails, context, parameter, declaredExceptions,
-          memoizeField(parameter), memoizeCollectionInfo(parameter));
+          memoizeField(parameter), memoizeCollectionInfo(parameter), memoizeAccumulator(parameter, context));
     }
 
     @Override
@@ -76,6 +94,11 @@ public final class DtoRegularStep {
       return collectionInfo.get();
     }
 
+    @Override
+    Optional<Accumulator> accumulator() {
+      return accumulator.get();
+    }
+
     @Override
     FieldSpec field() {
       return field.get();
@@ -94,30 +117,37 @@ public final class DtoRegularStep {
 
   static final class SimpleRegularStep extends AbstractRegularStep {
     final SimpleParameter parameter;
+    final List<TypeName> declaredExceptions;
 
     private final Supplier<FieldSpec> field;
     private final Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo;
+    private final Supplier<Optional<Accumulator>> accumulator;
 
     private SimpleRegularStep(String thisType,
                               Optional<AbstractRegularStep> nextType,
                               AbstractGoalDetails goalDetails,
                               BuildersContext context,
                               SimpleParameter parameter,
+                              List<TypeName> declaredExceptions,
                               Supplier<FieldSpec> field,
-                              Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo) {
+                              Supplier<Optional<DtoStep.CollectionInfo>> collectionInfo,
+                              Supplier<Optional<Accumulator>> accumulator) {
       super(thisType, nextType, goalDetails, context);
       this.parameter = parameter;
+      this.declaredExceptions = declaredExceptions;
       this.field = field;
       this.collectionInfo = collectionInfo;
+      this.accumulator = accumulator;
     }
 
     static SimpleRegularStep create(String thisType,
                                     Optional<? extends AbstractRegularStep> nextType,
                                     AbstractGoalDetails goalDetails,
                                     BuildersContext context,
-                                    SimpleParameter parameter) {
-      return new SimpleRegularStep(thisType, Optional.ofNullable(nextType.orElse(null)), goalDetails, context, parameter,
-          memoizeField(parameter), memoizeCollectionInfo(parameter));
+                                    SimpleParameter parameter,
+                                    List<TypeName> declaredExceptions) {
+      return new SimpleRegularStep(thisType, Optional.ofNullable(nextType.orElse(null)), goalDetails, context, parameter, declaredExceptions,
+          memoizeField(parameter), memoizeCollectionInfo(parameter), memoizeAccumulator(parameter, context));
     }
 
     @Override
@@ -125,6 +155,11 @@ public final class DtoRegularStep {
       return collectionInfo.get();
     }
 
+    @Override
+    Optional<Accumulator> accumulator() {
+      return accumulator.get();
+    }
+
     @Override
     FieldSpec field() {
       return field.get();
@@ -137,7 +172,7 @@ public final class DtoRegularStep {
 
     @Override
     List<TypeName> declaredExceptions() {
-      return emptyList();
+      return declaredExceptions;
     }
   }
 
@@ -147,6 +182,13 @@ public final class DtoRegularStep {
         DtoStep.CollectionInfo.create(parameter.type, parameter.name));
   }
 
+  private static Supplier<Optional<Accumulator>> memoizeAccumulator(
+      AbstractRegularParameter parameter, BuildersContext context) {
+    return memoize(() -> context.accumulators ?
+        Accumulator.create(parameter) :
+        Optional.empty());
+  }
+
   private static Supplier<FieldSpec> memoizeField(AbstractRegularParameter parameter) {
     return memoize(() ->
         fieldSpec(parameter.type, parameter.name, PRIVATE));
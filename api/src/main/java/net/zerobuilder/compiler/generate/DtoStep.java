@@ -2,6 +2,7 @@ package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import net.zerobuilder.compiler.generate.DtoBeanStep.AbstractBeanStep;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
@@ -13,6 +14,7 @@ import net.zerobuilder.compiler.generate.Utilities.ClassNames;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -20,12 +22,14 @@ import java.util.function.Function;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.COLLECTION;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.ITERABLE;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.SET;
+import static net.zerobuilder.compiler.generate.Utilities.elementType;
 import static net.zerobuilder.compiler.generate.Utilities.rawClassName;
+import static net.zerobuilder.compiler.generate.Utilities.typeArguments;
 import static net.zerobuilder.compiler.generate.Utilities.upcase;
 
 final class DtoStep {
 
-  private static final Set<ClassName> LIST_HIERARCHY
+  static final Set<ClassName> LIST_HIERARCHY
       = new HashSet<>(Arrays.asList(ClassNames.LIST, COLLECTION, ITERABLE));
 
   static final class CollectionInfo {
@@ -70,6 +74,25 @@ final class DtoStep {
     }
   }
 
+  /**
+   * @param type type of a step
+   * @return the component type of the varargs overload,
+   * if the type is a {@code List}, {@code Collection} or {@code Iterable} of a reifiable type
+   */
+  static Optional<TypeName> varargsElement(TypeName type) {
+    Optional<ClassName> maybeClassName = rawClassName(type);
+    List<TypeName> types = typeArguments(type);
+    if (!maybeClassName.isPresent()
+        || !LIST_HIERARCHY.contains(maybeClassName.get())
+        || types.size() != 1) {
+      return Optional.empty();
+    }
+    TypeName element = elementType(types.get(0));
+    return element instanceof ClassName ?
+        Optional.of(element) :
+        Optional.empty();
+  }
+
   public static abstract class AbstractStep {
 
     public final AbstractGoalDetails goalDetails;
@@ -79,13 +102,39 @@ final class DtoStep {
 
     static TypeName nextType(AbstractStep step) {
       if (step.nextStep.isPresent()) {
-        return step.context.generatedType
-            .nestedClass(upcase(step.goalDetails.name + "Builder"))
-            .nestedClass(step.nextStep.get().thisType);
+        return stepType(step.nextStep.get());
       }
       return step.goalDetails.type();
     }
 
+    /**
+     * @param step a step
+     * @return the type of the step interface
+     */
+    static TypeName stepType(AbstractStep step) {
+      if (isCompact(step)) {
+        return ParameterizedTypeName.get(
+            step.context.generatedType.nestedClass(step.thisType),
+            nextType(step));
+      }
+      return step.context.generatedType
+          .nestedClass(upcase(step.goalDetails.name + "Builder"))
+          .nestedClass(step.thisType);
+    }
+
+    /**
+     * @param step a step
+     * @return {@code true} if the step interface is generic in the type of the next step,
+     * and nested directly in the generated type;
+     * the goal type must not be primitive, because it is the type argument of the last step
+     */
+    static boolean isCompact(AbstractStep step) {
+      TypeName goalType = step.goalDetails.type();
+      return step.context.compact
+          && !goalType.isPrimitive()
+          && !goalType.equals(TypeName.VOID);
+    }
+
     AbstractStep(String thisType,
                  Optional<? extends AbstractStep> nextStep,
                  AbstractGoalDetails goalDetails,
@@ -0,0 +1,311 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
+import net.zerobuilder.compiler.generate.DtoBeanParameter.AccessorPair;
+import net.zerobuilder.compiler.generate.DtoBeanStep.AbstractBeanStep;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+import net.zerobuilder.compiler.generate.DtoProjectionInfo.ProjectionInfo;
+import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
+import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
+import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.DtoProjectionInfo.projectionInfoCases;
+import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
+import static net.zerobuilder.compiler.generate.GeneratorVU.thrownByProjections;
+import static net.zerobuilder.compiler.generate.Utilities.constructor;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates a flyweight {@code FooView} for each goal, and a static {@code fooView()} method.
+ * The view reads the primitive properties of a fixed-length binary record
+ * at an offset in a {@link ByteBuffer}, using the same accessor names as the goal type.
+ * It can be moved to the next record with {@code wrap(buffer, offset)}, which allocates nothing,
+ * so that a memory-mapped file can be scanned without creating any objects.
+ * {@code put(foo)} writes a record, and {@code materialize()} invokes the goal.
+ * The properties are laid out from the widest to the narrowest,
+ * so that each of them is aligned if the records start at aligned offsets.
+ * Other types than primitives, and instance method goals, are not supported.
+ */
+public final class Flyweight extends DtoModule.StatelessModule {
+
+  private static final ClassName BYTE_BUFFER = ClassName.get(ByteBuffer.class);
+
+  private static final Map<TypeName, Integer> WIDTH = new HashMap<>();
+
+  static {
+    WIDTH.put(TypeName.BOOLEAN, 1);
+    WIDTH.put(TypeName.BYTE, 1);
+    WIDTH.put(TypeName.SHORT, 2);
+    WIDTH.put(TypeName.CHAR, 2);
+    WIDTH.put(TypeName.INT, 4);
+    WIDTH.put(TypeName.FLOAT, 4);
+    WIDTH.put(TypeName.LONG, 8);
+    WIDTH.put(TypeName.DOUBLE, 8);
+  }
+
+  /**
+   * The methods of the view, which the accessors must not override.
+   */
+  private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+      "wrap", "put", "materialize"));
+
+  private static final FieldSpec BUFFER = fieldSpec(BYTE_BUFFER, "buffer", PRIVATE);
+  private static final FieldSpec OFFSET = fieldSpec(TypeName.INT, "offset", PRIVATE);
+
+  /**
+   * @param type a type
+   * @return {@code true} if values of this type have a fixed width
+   */
+  public static boolean isSupported(TypeName type) {
+    return WIDTH.containsKey(type);
+  }
+
+  /**
+   * A property of the goal type, and its place in the record.
+   */
+  private static final class Slot {
+    final String name;
+    final TypeName type;
+
+    /**
+     * Name of the accessor in the goal type, and in the view.
+     */
+    final String accessor;
+
+    /**
+     * Reads the property from an instance of the goal type.
+     */
+    final CodeBlock read;
+
+    int position;
+
+    private Slot(String name, TypeName type, String accessor, CodeBlock read) {
+      if (!isSupported(type)) {
+        throw new IllegalArgumentException("view: unsupported type " + type + " of " + name);
+      }
+      if (RESERVED.contains(accessor)) {
+        throw new IllegalArgumentException("view: accessor name not allowed: " + accessor);
+      }
+      this.name = name;
+      this.type = type;
+      this.accessor = accessor;
+      this.read = read;
+    }
+
+    int width() {
+      return WIDTH.get(type);
+    }
+  }
+
+  /**
+   * Assigns the positions of the slots, widest first.
+   *
+   * @param slots the properties of the goal type
+   * @return the size of a record, a multiple of the widest property
+   */
+  private static int layout(List<Slot> slots) {
+    List<Slot> sorted = new ArrayList<>(slots);
+    sorted.sort((a, b) -> Integer.compare(b.width(), a.width()));
+    int position = 0;
+    for (Slot slot : sorted) {
+      slot.position = position;
+      position += slot.width();
+    }
+    int alignment = sorted.isEmpty() ? 1 : sorted.get(0).width();
+    return (position + alignment - 1) / alignment * alignment;
+  }
+
+  private static StatelessModuleOutput regularView(AbstractRegularGoalContext goal) {
+    if (goal.isInstance()) {
+      throw new IllegalArgumentException("view is not supported for instance method goals");
+    }
+    TypeName goalType = goal.regularDetails().goalType;
+    ParameterSpec source = parameterSpec(goalType, downcase(((ClassName) goalType.box()).simpleName()));
+    List<AbstractRegularStep> steps = goal.regularSteps();
+    List<Slot> slots = transform(steps, step -> {
+      ProjectionInfo projection = step.regularParameter().projectionInfo().get();
+      return new Slot(step.regularParameter().name, step.regularParameter().type,
+          accessor.apply(projection), readProjection.apply(projection, source));
+    });
+    Set<TypeName> thrownTypes = new HashSet<>();
+    steps.forEach(step -> thrownTypes.addAll(step.declaredExceptions()));
+    MethodSpec materialize = methodBuilder("materialize")
+        .returns(goalType)
+        .addExceptions(thrownTypes)
+        .addCode(invoke(goal, slots))
+        .addModifiers(PUBLIC)
+        .build();
+    return view(goal, source, slots, thrownByProjections(goal), materialize);
+  }
+
+  private static StatelessModuleOutput beanView(BeanGoalContext goal) {
+    ClassName goalType = goal.details.goalType;
+    ParameterSpec source = parameterSpec(goalType, downcase(goalType.simpleName()));
+    List<AccessorPair> properties = transform(goal.steps, accessorPair);
+    List<Slot> slots = transform(properties, property -> new Slot(property.name(), property.type,
+        property.getter, CodeBlock.of("$N.$N()", source, property.getter)));
+    Set<TypeName> getterThrownTypes = new HashSet<>();
+    Set<TypeName> setterThrownTypes = new HashSet<>(goal.thrownTypes);
+    for (AccessorPair property : properties) {
+      getterThrownTypes.addAll(property.getterThrownTypes);
+      setterThrownTypes.addAll(property.setterThrownTypes);
+    }
+    MethodSpec.Builder materialize = methodBuilder("materialize")
+        .returns(goalType)
+        .addExceptions(setterThrownTypes)
+        .addStatement("$T $N = new $T()", goalType, source, goalType);
+    for (int i = 0; i < properties.size(); i++) {
+      materialize.addStatement("$N.$N($N())", source,
+          properties.get(i).setterName(), slots.get(i).accessor);
+    }
+    return view(goal, source, slots, getterThrownTypes,
+        materialize.addStatement("return $N", source).addModifiers(PUBLIC).build());
+  }
+
+  private static StatelessModuleOutput view(AbstractGoalContext goal, ParameterSpec source,
+                                            List<Slot> slots, Set<TypeName> thrownByAccessors,
+                                            MethodSpec materialize) {
+    ClassName viewType = goal.context().generatedType.nestedClass(upcase(goal.name()) + "View");
+    int size = layout(slots);
+    ParameterSpec buffer = parameterSpec(BYTE_BUFFER, "buffer");
+    ParameterSpec offset = parameterSpec(TypeName.INT, "offset");
+    TypeSpec.Builder view = TypeSpec.classBuilder(viewType)
+        .addField(FieldSpec.builder(TypeName.INT, "SIZE", PUBLIC, STATIC, FINAL)
+            .addJavadoc("The size of a record in bytes.\n")
+            .initializer("$L", size)
+            .build())
+        .addField(BUFFER)
+        .addField(OFFSET)
+        .addMethod(constructor(PRIVATE))
+        .addMethod(methodBuilder("wrap")
+            .addParameter(buffer)
+            .addParameter(offset)
+            .returns(viewType)
+            .addStatement("this.$N = $N", BUFFER, buffer)
+            .addStatement("this.$N = $N", OFFSET, offset)
+            .addStatement("return this")
+            .addModifiers(PUBLIC)
+            .build());
+    MethodSpec.Builder put = methodBuilder("put")
+        .addParameter(source)
+        .returns(viewType)
+        .addExceptions(thrownByAccessors)
+        .addModifiers(PUBLIC);
+    for (Slot slot : slots) {
+      view.addMethod(methodBuilder(slot.accessor)
+          .returns(slot.type)
+          .addCode(get(slot))
+          .addModifiers(PUBLIC)
+          .build());
+      put.addCode(put(slot));
+    }
+    view.addMethod(put.addStatement("return this").build())
+        .addMethod(materialize)
+        .addModifiers(PUBLIC, STATIC, FINAL);
+    MethodSpec factory = methodBuilder(goal.name() + "View")
+        .returns(viewType)
+        .addStatement("return new $T()", viewType)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    return new StatelessModuleOutput(
+        singletonList(new BuilderMethod(goal.name(), factory)),
+        singletonList(view.build()));
+  }
+
+  private static CodeBlock position(Slot slot) {
+    return slot.position == 0 ?
+        CodeBlock.of("this.$N", OFFSET) :
+        CodeBlock.of("this.$N + $L", OFFSET, slot.position);
+  }
+
+  private static CodeBlock get(Slot slot) {
+    if (TypeName.BOOLEAN.equals(slot.type)) {
+      return statement("return this.$N.get($L) != 0", BUFFER, position(slot));
+    }
+    return statement("return this.$N.$N($L)", BUFFER, Codec.GET.get(slot.type), position(slot));
+  }
+
+  private static CodeBlock put(Slot slot) {
+    if (TypeName.BOOLEAN.equals(slot.type)) {
+      return statement("this.$N.put($L, (byte) ($L ? 1 : 0))", BUFFER, position(slot), slot.read);
+    }
+    return statement("this.$N.$N($L, $L)", BUFFER, Codec.PUT.get(slot.type), position(slot), slot.read);
+  }
+
+  private static CodeBlock invoke(AbstractRegularGoalContext goal, List<Slot> slots) {
+    String arguments = slots.stream()
+        .map(slot -> slot.accessor + "()")
+        .collect(joining(", "));
+    return regularGoalContextCases(
+        constructor -> statement("return new $T($L)", constructor.type(), arguments),
+        method -> statement("return $T.$N($L)", method.context.type, method.details.methodName, arguments))
+        .apply(goal);
+  }
+
+  private static final BiFunction<ProjectionInfo, ParameterSpec, CodeBlock> readProjection =
+      projectionInfoCases(
+          (projection, source) -> CodeBlock.of("$N.$N()", source, projection.methodName),
+          (projection, source) -> CodeBlock.of("$N.$N", source, projection.fieldName));
+
+  private static final Function<ProjectionInfo, String> accessor =
+      projectionInfoCases(
+          projection -> projection.methodName,
+          projection -> projection.fieldName,
+          () -> {
+            throw new IllegalStateException("projection");
+          });
+
+  private static final Function<AbstractBeanStep, AccessorPair> accessorPair =
+      beanStepCases(
+          step -> step.accessorPair,
+          step -> {
+            throw new IllegalArgumentException("view: unsupported type "
+                + step.loneGetter.type + " of " + step.loneGetter.name());
+          });
+
+  private static final Function<AbstractGoalContext, StatelessModuleOutput> goalToView =
+      goalCases(Flyweight::regularView, Flyweight::beanView);
+
+  @Override
+  public String name() {
+    return "view";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    return goalToView.apply(goal);
+  }
+}
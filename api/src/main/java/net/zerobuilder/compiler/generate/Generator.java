@@ -1,7 +1,13 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.GeneratorOutput;
@@ -15,22 +21,35 @@ import net.zerobuilder.compiler.generate.DtoProjectedGoal.ProjectedGoal;
 import net.zerobuilder.compiler.generate.GeneratorInput.AbstractGoalInput;
 import net.zerobuilder.compiler.generate.GeneratorInput.DescriptionInput;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static java.util.Arrays.asList;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.Kind.INTERFACE;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.POOLED;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
 import static net.zerobuilder.compiler.generate.DtoModule.moduleCases;
 import static net.zerobuilder.compiler.generate.DtoModuleOutput.moduleOutputCases;
 import static net.zerobuilder.compiler.generate.GoalContextFactory.prepare;
 import static net.zerobuilder.compiler.generate.Utilities.concat;
+import static net.zerobuilder.compiler.generate.Utilities.constructor;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.flatList;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
 import static net.zerobuilder.compiler.generate.Utilities.transform;
 import static net.zerobuilder.compiler.generate.Utilities.upcase;
 
@@ -74,12 +93,38 @@ public final class Generator {
 
   private static GeneratorOutput generate(BuildersContext context, List<AbstractGoalInput> goals) {
     List<ModuleOutput> outputs = transform(goals, process);
+    List<BuilderMethod> methods = new ArrayList<>(goals.size());
+    List<AbstractGoalInput> sessionGoals = new ArrayList<>();
+    List<BuilderMethod> sessionMethods = new ArrayList<>();
+    for (int i = 0; i < goals.size(); i++) {
+      AbstractGoalInput goal = goals.get(i);
+      for (BuilderMethod method : builderMethods.apply(outputs.get(i))) {
+        if (lifecycle(goal) == REUSE_INSTANCES) {
+          sessionGoals.add(goal);
+          sessionMethods.add(method);
+          methods.add(sessionLookup(context, method));
+        } else {
+          methods.add(method);
+        }
+      }
+    }
     return new GeneratorOutput(
-        methods(outputs),
-        nestedTypes(outputs),
+        methods,
+        concat(nestedTypes(outputs), lifecycleTypes(context, goals, sessionGoals, sessionMethods)),
         fields(context, goals),
         context.generatedType,
-        context.lifecycle);
+        context.lifecycle,
+        sessionGoals.isEmpty() ?
+            emptyList() :
+            singletonList(releaseThreadCache(context)),
+        classesSaved(outputs),
+        sessionGoals.isEmpty() ?
+            Optional.empty() :
+            context.registry);
+  }
+
+  private static BuilderLifecycle lifecycle(AbstractGoalInput input) {
+    return input.goal.context().lifecycle;
   }
 
   private static Function<AbstractGoalInput, ModuleOutput> process =
@@ -90,57 +135,229 @@ public final class Generator {
     return goal -> Generator.singleBiProcess.apply(module, goal);
   }
 
+  /**
+   * The lifecycle can be different for each goal,
+   * so each goal decides if the fields of its lifecycle are needed.
+   */
   private static List<FieldSpec> fields(BuildersContext context, List<AbstractGoalInput> goals) {
-    return context.lifecycle == NEW_INSTANCE ?
-        emptyList() :
-        concat(
-            context.cache.get(),
-            goals.stream()
-                .map(input -> input.module.cacheField(input.goal))
-                .collect(toList()));
+    List<FieldSpec> fields = new ArrayList<>();
+    if (goals.stream().anyMatch(input -> lifecycle(input) == REUSE_INSTANCES)) {
+      fields.add(context.registry.isPresent() ?
+          context.registrySlot.get() :
+          context.cache.get());
+    }
+    goals.stream()
+        .filter(input -> lifecycle(input) == POOLED)
+        .map(input -> input.module.poolField(input.goal))
+        .forEach(fields::add);
+    return fields;
+  }
+
+  private static List<TypeSpec> lifecycleTypes(BuildersContext context, List<AbstractGoalInput> goals,
+                                               List<AbstractGoalInput> sessionGoals,
+                                               List<BuilderMethod> sessionMethods) {
+    List<TypeSpec> types = new ArrayList<>(2);
+    if (!sessionGoals.isEmpty()) {
+      types.add(session(context, sessionGoals, sessionMethods));
+    }
+    if (goals.stream().anyMatch(input -> lifecycle(input) == POOLED)) {
+      types.add(context.pool.get());
+    }
+    return types;
+  }
+
+  /**
+   * The session holds one impl instance per goal.
+   * It can be used directly, in a single thread,
+   * to avoid the {@code ThreadLocal} lookup of the static methods.
+   */
+  private static TypeSpec session(BuildersContext context, List<AbstractGoalInput> goals,
+                                  List<BuilderMethod> methods) {
+    return classBuilder(context.sessionType())
+        .addFields(transform(goals, input -> input.module.cacheField(input.goal)))
+        .addMethod(constructor(PUBLIC))
+        .addMethods(transform(methods, method -> sessionMethod(method.method())))
+        .addModifiers(PUBLIC, STATIC, FINAL)
+        .build();
+  }
+
+  private static MethodSpec sessionMethod(MethodSpec method) {
+    return methodBuilder(method.name)
+        .addModifiers(method.modifiers.stream()
+            .filter(modifier -> modifier != STATIC)
+            .collect(toList()))
+        .addTypeVariables(method.typeVariables)
+        .returns(method.returnType)
+        .addParameters(method.parameters)
+        .addExceptions(method.exceptions)
+        .addCode(method.code)
+        .build();
+  }
+
+  /**
+   * Replaces a session method with a static method that
+   * delegates to the session of the current thread.
+   */
+  private static BuilderMethod sessionLookup(BuildersContext context, BuilderMethod builderMethod) {
+    MethodSpec method = builderMethod.method();
+    ClassName type = context.sessionType();
+    ParameterSpec session = parameterSpec(type, downcase(type.simpleName()));
+    String arguments = method.parameters.stream()
+        .map(parameter -> parameter.name)
+        .collect(joining(", "));
+    return new BuilderMethod(builderMethod.name(), methodBuilder(method.name)
+        .addModifiers(method.modifiers)
+        .addTypeVariables(method.typeVariables)
+        .returns(method.returnType)
+        .addParameters(method.parameters)
+        .addExceptions(method.exceptions)
+        .addCode(context.cacheReference.type.isPresent() ?
+            referenceLookup(context, session, context.cacheReference.type.get()) :
+            context.registry.isPresent() ?
+                registryLookup(context, session) :
+                statement("$T $N = $N.get()", session.type, session, context.cache.get()))
+        .addStatement("return $N.$N($L)", session, method.name, arguments)
+        .build());
+  }
+
+  private static CodeBlock registryLookup(BuildersContext context, ParameterSpec session) {
+    ClassName registry = context.registry.get();
+    return CodeBlock.builder()
+        .addStatement("$T $N = $T.get($N)", session.type, session,
+            registry, context.registrySlot.get())
+        .beginControlFlow("if ($N == null)", session)
+        .addStatement("$N = $T.set($N, new $T())", session, registry, context.registrySlot.get(), session.type)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Lookup of a session that is held by a soft or weak reference.
+   * A new session is created if the previous one was cleared.
+   */
+  private static CodeBlock referenceLookup(BuildersContext context, ParameterSpec session,
+                                           ClassName referenceType) {
+    ParameterizedTypeName type = ParameterizedTypeName.get(referenceType, session.type);
+    if (context.registry.isPresent()) {
+      ClassName registry = context.registry.get();
+      ParameterSpec reference = parameterSpec(type, "reference");
+      return CodeBlock.builder()
+          .addStatement("$T $N = $T.get($N)", reference.type, reference,
+              registry, context.registrySlot.get())
+          .addStatement("$T $N = $N == null ? null : $N.get()", session.type, session,
+              reference, reference)
+          .beginControlFlow("if ($N == null)", session)
+          .addStatement("$N = new $T()", session, session.type)
+          .addStatement("$T.set($N, new $T($N))", registry, context.registrySlot.get(), type, session)
+          .endControlFlow()
+          .build();
+    }
+    ParameterSpec reference = parameterSpec(type, "reference");
+    return CodeBlock.builder()
+        .addStatement("$T $N = $N.get()", reference.type, reference, context.cache.get())
+        .addStatement("$T $N = $N == null ? null : $N.get()", session.type, session,
+            reference, reference)
+        .beginControlFlow("if ($N == null)", session)
+        .addStatement("$N = new $T()", session, session.type)
+        .addStatement("$N.set(new $T($N))", context.cache.get(), type, session)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Drops the session of the current thread.
+   * The next invocation of a static method creates a new one.
+   */
+  private static MethodSpec releaseThreadCache(BuildersContext context) {
+    return methodBuilder("releaseThreadCache")
+        .addCode(context.registry.isPresent() ?
+            statement("$T.set($N, null)", context.registry.get(), context.registrySlot.get()) :
+            statement("$N.remove()", context.cache.get()))
+        .addModifiers(PUBLIC, STATIC)
+        .build();
   }
 
   private static final BiFunction<Module, AbstractGoalContext, ModuleOutput> biProcess =
       moduleCases(
           (simple, goal) -> simple.process(goal),
-          (contract, goal) -> contract.process(goal));
+          (contract, goal) -> contract.process(goal),
+          (stateless, goal) -> stateless.process(goal));
 
   private static final BiFunction<Module, AbstractGoalContext, SingleModuleOutput> singleBiProcess =
       moduleCases(
           (simple, goal) -> simple.processSingle(goal),
-          (contract, goal) -> contract.processSingle(goal));
+          (contract, goal) -> contract.processSingle(goal),
+          (stateless, goal) -> {
+            throw new IllegalStateException("processSingle");
+          });
 
-  private static final Function<ModuleOutput, BuilderMethod> builderMethod =
+  private static final Function<ModuleOutput, List<BuilderMethod>> builderMethods =
       moduleOutputCases(
-          simple -> simple.method,
-          contract -> contract.method);
+          simple -> singletonList(simple.method),
+          contract -> singletonList(contract.method),
+          stateless -> stateless.methods);
 
   private static final Function<ModuleOutput, List<TypeSpec>> nestedTypes =
       moduleOutputCases(
           simple -> singletonList(simple.impl),
-          contract -> asList(contract.impl, contract.contract));
-
-  private static List<BuilderMethod> methods(List<ModuleOutput> goals) {
-    return transform(goals, builderMethod);
-  }
+          contract -> concat(contract.impl, contract.contract),
+          stateless -> stateless.types);
 
+  /**
+   * Step interfaces that are shared by several goals are only added once.
+   */
   private static List<TypeSpec> nestedTypes(List<ModuleOutput> goals) {
     return goals.stream()
         .map(nestedTypes)
-        .collect(flatList());
+        .collect(flatList())
+        .stream()
+        .distinct()
+        .collect(toList());
+  }
+
+  private static final Function<ModuleOutput, List<TypeSpec>> sharedStepInterfaces =
+      moduleOutputCases(
+          simple -> emptyList(),
+          contract -> contract.contract.stream()
+              .filter(type -> type.kind == INTERFACE)
+              .collect(toList()),
+          stateless -> emptyList());
+
+  /**
+   * Without compact mode, each goal would have a class that holds its step interfaces,
+   * and it would not share any of them with other goals.
+   */
+  private static int classesSaved(List<ModuleOutput> outputs) {
+    List<List<TypeSpec>> shared = transform(outputs, sharedStepInterfaces);
+    int withoutCompact = shared.stream()
+        .filter(types -> !types.isEmpty())
+        .mapToInt(types -> types.size() + 1)
+        .sum();
+    int withCompact = (int) shared.stream()
+        .collect(flatList())
+        .stream()
+        .distinct()
+        .count();
+    return withoutCompact - withCompact;
   }
 
   static final BiFunction<Module, AbstractGoalContext, String> implName =
       moduleCases(
           (simple, goal) -> upcase(goal.name()) + upcase(simple.name()),
-          (contract, goal) -> upcase(goal.name()) + upcase(contract.name()) + "Impl");
+          (contract, goal) -> upcase(goal.name()) + upcase(contract.name()) + "Impl",
+          (stateless, goal) -> {
+            throw new IllegalStateException("implName");
+          });
 
   static final BiFunction<Module, AbstractGoalContext, String> contractName =
       moduleCases(
           (simple, goal) -> {
             throw new IllegalStateException("contractName");
           },
-          (contract, goal) -> upcase(goal.name()) + upcase(contract.name()));
+          (contract, goal) -> upcase(goal.name()) + upcase(contract.name()),
+          (stateless, goal) -> {
+            throw new IllegalStateException("contractName");
+          });
 
   private Generator() {
     throw new UnsupportedOperationException("no instances");
@@ -1,7 +1,6 @@
 package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
@@ -10,10 +9,12 @@ import java.util.Collections;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static javax.lang.model.element.Modifier.STATIC;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
-import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.stepType;
 import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.varName;
 
 final class GeneratorBB {
 
@@ -26,19 +27,18 @@ final class GeneratorBB {
   BuilderMethod goalToBuilderB(BeanGoalContext goal) {
     ClassName builderType = builder.implType(goal);
     String name = goal.details.name;
-    String builder = downcase(builderType.simpleName());
+    String builder = varName(builderType.simpleName());
     ClassName type = goal.details.goalType;
-    FieldSpec cache = goal.context.cache.get();
     MethodSpec method = methodBuilder(this.builder.methodName(goal))
-        .returns(this.builder.contractType(goal).nestedClass(goal.steps().get(0).thisType))
+        .returns(stepType(goal.steps().get(0)))
         .addModifiers(goal.details.access(STATIC))
-        .addExceptions(goal.context.lifecycle == REUSE_INSTANCES
+        .addExceptions(goal.context.lifecycle != NEW_INSTANCE
             ? Collections.emptyList()
             : goal.thrownTypes)
-        .addCode(goal.context.lifecycle == REUSE_INSTANCES
-            ? statement("$T $N = $N.get().$N", builderType, builder, cache, this.builder.cacheField(goal))
+        .addCode(goal.context.lifecycle != NEW_INSTANCE
+            ? this.builder.recycledInstance(goal, parameterSpec(builderType, builder))
             : statement("$T $N = new $T()", builderType, builder, builderType))
-        .addCode(goal.context.lifecycle == REUSE_INSTANCES
+        .addCode(goal.context.lifecycle != NEW_INSTANCE
             ? statement("$N.$N = new $T()", builder, goal.bean(), type)
             : emptyCodeBlock)
         .addStatement("return $N", builder)
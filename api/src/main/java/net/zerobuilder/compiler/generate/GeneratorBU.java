@@ -2,7 +2,6 @@ package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
@@ -12,6 +11,7 @@ import net.zerobuilder.compiler.generate.DtoBeanStep.AbstractBeanStep;
 import net.zerobuilder.compiler.generate.DtoBeanStep.AccessorPairStep;
 import net.zerobuilder.compiler.generate.DtoBeanStep.LoneGetterStep;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.MethodSplitter.Split;
 
 import javax.lang.model.element.Modifier;
 import java.util.HashSet;
@@ -21,17 +21,27 @@ import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Stream.concat;
 import static javax.lang.model.element.Modifier.STATIC;
 import static net.zerobuilder.NullPolicy.ALLOW;
 import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
 import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.MethodSplitter.COLLECTION_COPY_SIZE;
+import static net.zerobuilder.compiler.generate.MethodSplitter.COPY_SIZE;
+import static net.zerobuilder.compiler.generate.MethodSplitter.NULL_CHECK_SIZE;
+import static net.zerobuilder.compiler.generate.MethodSplitter.SizedCode.sized;
+import static net.zerobuilder.compiler.generate.MethodSplitter.split;
+import static net.zerobuilder.compiler.generate.UpdaterB.isLazy;
+import static net.zerobuilder.compiler.generate.UpdaterV.CHANGED;
+import static net.zerobuilder.compiler.generate.UpdaterV.SOURCE;
 import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
 import static net.zerobuilder.compiler.generate.Utilities.flatList;
-import static net.zerobuilder.compiler.generate.Utilities.joinCodeBlocks;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
 
 final class GeneratorBU {
 
@@ -49,16 +59,58 @@ final class GeneratorBU {
     MethodSpec method = methodBuilder(downcase(name + "Updater"))
         .addParameter(parameterSpec(type, downcase(type.simpleName())))
         .returns(this.updater.implType(goal))
-        .addExceptions(thrownTypes(goal, asList(AbstractBeanStep::getterThrownTypes, AbstractBeanStep::setterThrownTypes)))
-        .addCode(goal.steps.stream().map(nullChecks(goal)).collect(joinCodeBlocks))
-        .addCode(initializeUpdater(goal, updater))
-        .addCode(goal.steps.stream().map(copy(goal)).collect(joinCodeBlocks))
+        .addExceptions(thrownTypes(goal))
+        .addCode(splitNullChecks(goal).code)
+        .addCode(goal.cloneMethod.isPresent()
+            ? initializeClone(goal, updater)
+            : initializeUpdater(goal, updater))
+        .addCode(splitCopies(goal).code)
+        .addCode(isLazy(goal) ? initLazy(goal, updater) : emptyCodeBlock)
         .addStatement("return $N", updater)
         .addModifiers(modifiers)
         .build();
     return new BuilderMethod(name, method);
   }
 
+  /**
+   * @param goal a bean goal
+   * @return the helper methods of the updater factory, if it is too big
+   */
+  List<MethodSpec> helperMethods(BeanGoalContext goal) {
+    return concat(splitNullChecks(goal).methods.stream(), splitCopies(goal).methods.stream())
+        .collect(toList());
+  }
+
+  /*
+   * The null checks and the copies share the budget of the updater factory.
+   */
+
+  private Split splitNullChecks(BeanGoalContext goal) {
+    return split(this.updater.implType(goal), "_nullChecks",
+        singletonList(sourceParameter(goal)),
+        thrownTypes(goal),
+        transform(goal.steps, step -> sized(nullChecks(goal).apply(step), NULL_CHECK_SIZE)),
+        goal.context.methodBudget / 2);
+  }
+
+  private Split splitCopies(BeanGoalContext goal) {
+    Function<AbstractBeanStep, CodeBlock> copy = copy(goal);
+    Function<AbstractBeanStep, Integer> size = beanStepCases(
+        step -> COPY_SIZE,
+        step -> COLLECTION_COPY_SIZE);
+    return split(this.updater.implType(goal), "_copy",
+        asList(updaterInstance(goal), sourceParameter(goal)),
+        thrownTypes(goal),
+        transform(goal.steps, step -> sized(copy.apply(step), size.apply(step))),
+        goal.context.methodBudget / 2);
+  }
+
+  private Set<TypeName> thrownTypes(BeanGoalContext goal) {
+    return goal.cloneMethod.isPresent()
+        ? thrownTypes(goal, singletonList(AbstractBeanStep::getterThrownTypes))
+        : thrownTypes(goal, asList(AbstractBeanStep::getterThrownTypes, AbstractBeanStep::setterThrownTypes));
+  }
+
   private Set<TypeName> thrownTypes(BeanGoalContext goal,
                                     List<Function<AbstractBeanStep, List<TypeName>>> functions) {
     Set<TypeName> thrownTypes = new HashSet<>();
@@ -67,16 +119,33 @@ final class GeneratorBU {
           .map(function)
           .collect(flatList()));
     }
-    if (goal.context.lifecycle == NEW_INSTANCE) {
+    if (goal.cloneMethod.isPresent()) {
+      thrownTypes.addAll(goal.cloneMethod.get().thrownTypes);
+    } else if (goal.context.lifecycle == NEW_INSTANCE) {
       thrownTypes.addAll(goal.thrownTypes);
     }
     return thrownTypes;
   }
 
   private Function<AbstractBeanStep, CodeBlock> copy(BeanGoalContext goal) {
+    if (goal.cloneMethod.isPresent()) {
+      return beanStepCases(
+          step -> emptyCodeBlock,
+          step -> checkCloned(goal, step));
+    }
     return beanStepCases(
         step -> copyRegular(goal, step),
-        step -> copyCollection(goal, step));
+        step -> isLazy(goal) ? emptyCodeBlock : copyCollection(goal, step));
+  }
+
+  private CodeBlock initLazy(BeanGoalContext goal, ParameterSpec updater) {
+    ClassName type = goal.details.goalType;
+    return CodeBlock.builder()
+        .addStatement("$N.$N = $N", updater, SOURCE, downcase(type.simpleName()))
+        .add(goal.context.lifecycle != NEW_INSTANCE ?
+            statement("$N.$N = 0", updater, CHANGED) :
+            emptyCodeBlock)
+        .build();
   }
 
   private Function<AbstractBeanStep, CodeBlock> nullChecks(BeanGoalContext goal) {
@@ -90,17 +159,29 @@ final class GeneratorBU {
   private CodeBlock copyCollection(BeanGoalContext goal, LoneGetterStep step) {
     ClassName type = goal.details.goalType;
     ParameterSpec parameter = parameterSpec(type, downcase(type.simpleName()));
-    ParameterSpec iterationVar = step.loneGetter.iterationVar(parameter);
+    return statement("$N.$N.$N().addAll($N.$N())", updaterInstance(goal),
+        downcase(type.simpleName()),
+        step.loneGetter.getter,
+        parameter,
+        step.loneGetter.getter);
+  }
+
+  /**
+   * The clone can not get a fresh collection without a setter,
+   * so make sure that {@code clone()} did not just copy the reference.
+   */
+  private CodeBlock checkCloned(BeanGoalContext goal, LoneGetterStep step) {
+    ClassName type = goal.details.goalType;
+    ParameterSpec parameter = parameterSpec(type, downcase(type.simpleName()));
     return CodeBlock.builder()
-        .beginControlFlow("for ($T $N : $N.$N())",
-            iterationVar.type, iterationVar, parameter,
-            step.loneGetter.getter)
-        .addStatement("$N.$N.$N().add($N)", updaterInstance(goal),
-            downcase(type.simpleName()),
+        .beginControlFlow("if ($N.$N.$N() == $N.$N())", updaterInstance(goal),
+            goal.bean(),
             step.loneGetter.getter,
-            iterationVar)
-        .endControlFlow()
-        .build();
+            parameter,
+            step.loneGetter.getter)
+        .addStatement("throw new $T($S)",
+            IllegalStateException.class, "clone() must copy " + step.loneGetter.name())
+        .endControlFlow().build();
   }
 
   private CodeBlock copyRegular(BeanGoalContext goal, AccessorPairStep step) {
@@ -129,17 +210,38 @@ final class GeneratorBU {
 
   private CodeBlock initializeUpdater(BeanGoalContext goal, ParameterSpec updater) {
     CodeBlock.Builder builder = CodeBlock.builder();
-    FieldSpec cache = goal.context.cache.get();
     ClassName type = goal.details.goalType;
-    builder.add(goal.context.lifecycle == REUSE_INSTANCES
-        ? statement("$T $N = $N.get().$N", updater.type, updater, cache, this.updater.cacheField(goal))
+    builder.add(goal.context.lifecycle != NEW_INSTANCE
+        ? this.updater.recycledInstance(goal, updater)
         : statement("$T $N = new $T()", updater.type, updater, updater.type));
-    builder.add(goal.context.lifecycle == REUSE_INSTANCES
+    builder.add(goal.context.lifecycle != NEW_INSTANCE
         ? statement("$N.$N = new $T()", updater, goal.bean(), type)
         : emptyCodeBlock);
     return builder.build();
   }
 
+  private CodeBlock initializeClone(BeanGoalContext goal, ParameterSpec updater) {
+    return goal.context.lifecycle != NEW_INSTANCE
+        ? CodeBlock.builder()
+        .add(this.updater.recycledInstance(goal, updater))
+        .addStatement("$N.$N = $L", updater, goal.bean(), cloneBean(goal))
+        .build()
+        : statement("$T $N = new $T($L)", updater.type, updater, updater.type, cloneBean(goal));
+  }
+
+  private CodeBlock cloneBean(BeanGoalContext goal) {
+    ClassName type = goal.details.goalType;
+    ParameterSpec parameter = parameterSpec(type, downcase(type.simpleName()));
+    return goal.cloneMethod.get().returnType.equals(type)
+        ? CodeBlock.of("$N.clone()", parameter)
+        : CodeBlock.of("($T) $N.clone()", type, parameter);
+  }
+
+  private ParameterSpec sourceParameter(BeanGoalContext goal) {
+    ClassName type = goal.details.goalType;
+    return parameterSpec(type, downcase(type.simpleName()));
+  }
+
   private ParameterSpec updaterInstance(BeanGoalContext goal) {
     ClassName updaterType = this.updater.implType(goal);
     return parameterSpec(updaterType, "updater");
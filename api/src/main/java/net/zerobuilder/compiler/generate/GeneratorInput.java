@@ -1,18 +1,32 @@
 package net.zerobuilder.compiler.generate;
 
+import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGoalDescription.GoalDescription;
 
 import java.util.List;
+import java.util.Optional;
 
 public final class GeneratorInput {
 
   public static final class DescriptionInput {
     final DtoModule.Module module;
     final GoalDescription description;
-    public DescriptionInput(DtoModule.Module module, GoalDescription description) {
+
+    /**
+     * Overrides the lifecycle of the {@link BuildersContext}, for this goal only.
+     */
+    final Optional<BuilderLifecycle> lifecycle;
+
+    public DescriptionInput(DtoModule.Module module, GoalDescription description,
+                            Optional<BuilderLifecycle> lifecycle) {
       this.module = module;
       this.description = description;
+      this.lifecycle = lifecycle;
+    }
+
+    public DescriptionInput(DtoModule.Module module, GoalDescription description) {
+      this(module, description, Optional.empty());
     }
   }
 
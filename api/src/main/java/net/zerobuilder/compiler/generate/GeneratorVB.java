@@ -2,7 +2,6 @@ package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
@@ -19,12 +18,14 @@ import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static javax.lang.model.element.Modifier.STATIC;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoal.GoalMethodType.INSTANCE_METHOD;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.stepType;
 import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
 import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.varName;
 
 final class GeneratorVB {
 
@@ -38,7 +39,7 @@ final class GeneratorVB {
     AbstractRegularGoalDetails abstractRegularGoalDetails = goal.regularDetails();
     List<AbstractRegularStep> steps = goal.regularSteps();
     MethodSpec.Builder method = methodBuilder(builder.methodName(goal))
-        .returns(builder.contractType(goal).nestedClass(steps.get(0).thisType))
+        .returns(stepType(steps.get(0)))
         .addModifiers(abstractRegularGoalDetails.access(STATIC));
     ParameterSpec builder = builderInstance(goal);
     BuildersContext context = goal.context();
@@ -63,9 +64,8 @@ final class GeneratorVB {
     return constructor -> {
       BuildersContext context = constructor.context;
       TypeName type = builder.type;
-      FieldSpec cache = context.cache.get();
-      return context.lifecycle == REUSE_INSTANCES ?
-          statement("$T $N = $N.get().$N", type, builder, cache, this.builder.cacheField(constructor)) :
+      return context.lifecycle != NEW_INSTANCE ?
+          this.builder.recycledInstance(constructor, builder) :
           statement("$T $N = new $T()", type, builder, type);
     };
   }
@@ -81,10 +81,9 @@ final class GeneratorVB {
       AbstractMethodGoalContext method, ParameterSpec builder, ParameterSpec instance) {
     BuildersContext context = method.context;
     TypeName type = builder.type;
-    FieldSpec cache = context.cache.get();
-    return context.lifecycle == REUSE_INSTANCES ?
+    return context.lifecycle != NEW_INSTANCE ?
         CodeBlock.builder()
-            .addStatement("$T $N = $N.get().$N", type, builder, cache, this.builder.cacheField(method))
+            .add(this.builder.recycledInstance(method, builder))
             .addStatement("$N.$N = $N", builder, method.field(), instance)
             .build() :
         statement("$T $N = new $T($N)", type, builder, type, instance);
@@ -94,14 +93,13 @@ final class GeneratorVB {
       AbstractMethodGoalContext method, ParameterSpec builder) {
     BuildersContext context = method.context;
     TypeName type = builder.type;
-    FieldSpec cache = context.cache.get();
-    return context.lifecycle == REUSE_INSTANCES ?
-        statement("$T $N = $N.get().$N", type, builder, cache, this.builder.cacheField(method)) :
+    return context.lifecycle != NEW_INSTANCE ?
+        this.builder.recycledInstance(method, builder) :
         statement("$T $N = new $T()", type, builder, type);
   }
 
   private ParameterSpec builderInstance(AbstractRegularGoalContext goal) {
     ClassName type = builder.implType(goal);
-    return parameterSpec(type, downcase(type.simpleName()));
+    return parameterSpec(type, varName(type.simpleName()));
   }
 }
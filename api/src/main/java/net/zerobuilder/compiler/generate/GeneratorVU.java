@@ -2,7 +2,6 @@ package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
@@ -16,7 +15,10 @@ import net.zerobuilder.compiler.generate.DtoProjectionInfo.ProjectionMethod;
 import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
 import net.zerobuilder.compiler.generate.DtoRegularParameter.AbstractRegularParameter;
 import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+import net.zerobuilder.compiler.generate.MethodSplitter.SizedCode;
+import net.zerobuilder.compiler.generate.MethodSplitter.Split;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,17 +26,31 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Stream.concat;
 import static javax.lang.model.element.Modifier.STATIC;
 import static net.zerobuilder.NullPolicy.ALLOW;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoProjectionInfo.projectionInfoCases;
 import static net.zerobuilder.compiler.generate.DtoProjectionInfo.thrownTypes;
+import static net.zerobuilder.compiler.generate.MethodSplitter.COPY_SIZE;
+import static net.zerobuilder.compiler.generate.MethodSplitter.NULL_CHECK_SIZE;
+import static net.zerobuilder.compiler.generate.MethodSplitter.SizedCode.sized;
+import static net.zerobuilder.compiler.generate.MethodSplitter.split;
+import static net.zerobuilder.compiler.generate.UpdaterV.CHANGED;
+import static net.zerobuilder.compiler.generate.UpdaterV.SOURCE;
+import static net.zerobuilder.compiler.generate.UpdaterV.isLazy;
 import static net.zerobuilder.compiler.generate.Utilities.downcase;
 import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.nullCheck;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
 
 final class GeneratorVU {
 
@@ -47,34 +63,77 @@ final class GeneratorVU {
   BuilderMethod goalToUpdaterV(AbstractRegularGoalContext goal) {
     AbstractRegularGoalDetails details = goal.regularDetails();
     ParameterSpec updater = varUpdater(goal);
+    if (isLazy(goal)) {
+      return lazyUpdater(goal, updater);
+    }
     MethodSpec method = methodBuilder(this.updater.methodName(goal))
         .addExceptions(thrownByProjections(goal))
         .addParameter(toBuilderParameter(goal))
         .returns(updater.type)
-        .addCode(nullCheckingBlock(goal))
+        .addCode(splitNullChecks(goal).code)
         .addCode(initUpdater(goal, updater))
-        .addCode(copyBlock(goal))
+        .addCode(splitCopies(goal).code)
         .addStatement("return $N", updater)
         .addModifiers(details.access(STATIC))
         .build();
     return new BuilderMethod(details.name, method);
   }
-  ;
 
-  private CodeBlock copyBlock(AbstractRegularGoalContext goal) {
-    return goal.regularSteps().stream()
-        .map(copyField(goal))
-        .collect(Utilities.joinCodeBlocks);
+  private BuilderMethod lazyUpdater(AbstractRegularGoalContext goal, ParameterSpec updater) {
+    AbstractRegularGoalDetails details = goal.regularDetails();
+    ParameterSpec parameter = toBuilderParameter(goal);
+    MethodSpec method = methodBuilder(this.updater.methodName(goal))
+        .addParameter(parameter)
+        .returns(updater.type)
+        .addCode(nullCheck(parameter))
+        .addCode(initUpdater(goal, updater))
+        .addStatement("$N.$N = $N", updater, SOURCE, parameter)
+        .addCode(goal.context().lifecycle != NEW_INSTANCE ?
+            statement("$N.$N = 0", updater, CHANGED) :
+            emptyCodeBlock)
+        .addStatement("return $N", updater)
+        .addModifiers(details.access(STATIC))
+        .build();
+    return new BuilderMethod(details.name, method);
+  }
+
+  /**
+   * @param goal a regular goal
+   * @return the helper methods of the updater factory, if it is too big
+   */
+  List<MethodSpec> helperMethods(AbstractRegularGoalContext goal) {
+    if (isLazy(goal)) {
+      return emptyList();
+    }
+    return concat(splitNullChecks(goal).methods.stream(), splitCopies(goal).methods.stream())
+        .collect(toList());
+  }
+
+  /*
+   * The null checks and the copies share the budget of the updater factory.
+   */
+
+  private Split splitCopies(AbstractRegularGoalContext goal) {
+    Function<AbstractRegularStep, CodeBlock> copy = copyField(goal);
+    return split(updater.implType(goal), "_copy",
+        asList(varUpdater(goal), toBuilderParameter(goal)),
+        thrownByProjections(goal),
+        transform(goal.regularSteps(), step -> sized(copy.apply(step), COPY_SIZE)),
+        goal.context().methodBudget / 2);
   }
 
-  private CodeBlock nullCheckingBlock(AbstractRegularGoalContext goal) {
+  private Split splitNullChecks(AbstractRegularGoalContext goal) {
     ProjectionInfoCases<CodeBlock, AbstractRegularStep> nullChecks = nullChecks(goal);
-    CodeBlock.Builder builder = CodeBlock.builder();
+    List<SizedCode> statements = new ArrayList<>();
     for (AbstractRegularStep step : goal.regularSteps()) {
       Optional<ProjectionInfo> projectionInfo = step.regularParameter().projectionInfo();
-      builder.add(projectionInfo.get().accept(nullChecks, step));
+      statements.add(sized(projectionInfo.get().accept(nullChecks, step), NULL_CHECK_SIZE));
     }
-    return builder.build();
+    return split(updater.implType(goal), "_nullChecks",
+        singletonList(toBuilderParameter(goal)),
+        thrownByProjections(goal),
+        statements,
+        goal.context().methodBudget / 2);
   }
 
   private Function<AbstractRegularStep, CodeBlock> copyField(AbstractRegularGoalContext goal) {
@@ -141,11 +200,8 @@ final class GeneratorVU {
 
   private CodeBlock initUpdater(AbstractRegularGoalContext goal, ParameterSpec updater) {
     BuildersContext context = goal.context();
-    if (context.lifecycle == REUSE_INSTANCES) {
-      FieldSpec cache = context.cache.get();
-      FieldSpec updaterField = this.updater.cacheField(goal);
-      return statement("$T $N = $N.get().$N",
-          updater.type, updater, cache, updaterField);
+    if (context.lifecycle != NEW_INSTANCE) {
+      return this.updater.recycledInstance(goal, updater);
     } else {
       return statement("$T $N = new $T()",
           updater.type, updater, updater.type);
@@ -157,7 +213,7 @@ final class GeneratorVU {
     return parameterSpec(updaterType, "updater");
   }
 
-  private Set<TypeName> thrownByProjections(AbstractRegularGoalContext goal) {
+  static Set<TypeName> thrownByProjections(AbstractRegularGoalContext goal) {
     return goal.regularSteps().stream()
         .map(AbstractRegularStep::regularParameter)
         .map(AbstractRegularParameter::projectionInfo)
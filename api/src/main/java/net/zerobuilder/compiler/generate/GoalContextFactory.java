@@ -1,6 +1,8 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
 import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
 import net.zerobuilder.compiler.generate.DtoBeanGoalDescription.BeanGoalDescription;
 import net.zerobuilder.compiler.generate.DtoBeanParameter.AbstractBeanParameter;
@@ -12,6 +14,7 @@ import net.zerobuilder.compiler.generate.DtoBeanStep.AccessorPairStep;
 import net.zerobuilder.compiler.generate.DtoBeanStep.LoneGetterStep;
 import net.zerobuilder.compiler.generate.DtoConstructorGoal.ProjectedConstructorGoalContext;
 import net.zerobuilder.compiler.generate.DtoConstructorGoal.SimpleConstructorGoalContext;
+import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGoal.AbstractGoalDetails;
 import net.zerobuilder.compiler.generate.DtoGoal.ConstructorGoalDetails;
@@ -20,6 +23,7 @@ import net.zerobuilder.compiler.generate.DtoGoal.RegularGoalCases;
 import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
 import net.zerobuilder.compiler.generate.DtoGoalDescription.GoalDescription;
 import net.zerobuilder.compiler.generate.DtoMethodGoal.ProjectedMethodGoalContext;
+import net.zerobuilder.compiler.generate.DtoModule.Module;
 import net.zerobuilder.compiler.generate.DtoMethodGoal.SimpleMethodGoalContext;
 import net.zerobuilder.compiler.generate.DtoParameter.AbstractParameter;
 import net.zerobuilder.compiler.generate.DtoProjectedDescription.ProjectedDescription;
@@ -36,13 +40,23 @@ import net.zerobuilder.compiler.generate.GeneratorInput.AbstractGoalInput;
 import net.zerobuilder.compiler.generate.GeneratorInput.DescriptionInput;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoalDescription.goalDescriptionCases;
+import static net.zerobuilder.compiler.generate.DtoModule.moduleCases;
 import static net.zerobuilder.compiler.generate.DtoParameter.parameterName;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.isCompact;
+import static net.zerobuilder.compiler.generate.Step.asStepInterface;
 import static net.zerobuilder.compiler.generate.Utilities.reverse;
 import static net.zerobuilder.compiler.generate.Utilities.upcase;
 
@@ -50,23 +64,27 @@ final class GoalContextFactory {
 
   private static BeanGoalContext prepareBean(
       BuildersContext context,
+      StepNames stepNames,
       BeanGoalDescription goal) {
     List<AbstractBeanStep> steps = steps(
         goal,
         context,
+        stepNames,
         goal.parameters,
         beanFactory);
-    return new BeanGoalContext(context, goal.details, steps, goal.thrownTypes);
+    return new BeanGoalContext(context, goal.details, steps, goal.thrownTypes, goal.cloneMethod);
   }
 
   private static AbstractRegularGoalContext prepareRegular(
       BuildersContext context,
+      StepNames stepNames,
       AbstractRegularGoalDescription description) {
     return DtoRegularGoalDescription.regularGoalDescriptionCases(
         simple -> {
           List<SimpleRegularStep> steps = steps(
               description,
               context,
+              stepNames,
               simple.parameters,
               simpleRegularFactory);
           return description.details.accept(new RegularGoalCases<AbstractRegularGoalContext>() {
@@ -84,6 +102,7 @@ final class GoalContextFactory {
           List<ProjectedRegularStep> steps = steps(
               description,
               context,
+              stepNames,
               projected.parameters,
               projectedRegularFactory);
           return description.details.accept(new RegularGoalCases<AbstractRegularGoalContext>() {
@@ -102,10 +121,12 @@ final class GoalContextFactory {
 
   private static ProjectedGoal prepareProjectedRegular(
       BuildersContext context,
+      StepNames stepNames,
       ProjectedRegularGoalDescription description) {
     List<ProjectedRegularStep> steps = steps(
         description,
         context,
+        stepNames,
         description.parameters,
         projectedRegularFactory);
     return description.details.accept(new RegularGoalCases<ProjectedGoal>() {
@@ -123,6 +144,7 @@ final class GoalContextFactory {
   private static <P extends AbstractParameter, S extends AbstractStep> List<S> steps(
       GoalDescription goal,
       BuildersContext context,
+      StepNames stepNames,
       List<P> parameters,
       Function<P, StepFactory<S>> factoryFactory) {
     AbstractGoalDetails details = goal.details();
@@ -138,6 +160,14 @@ final class GoalContextFactory {
           details,
           context,
           thrownTypes);
+      for (int i = 2; !stepNames.register(step); i++) {
+        step = factory.create(
+            thisType + i,
+            nextStep,
+            details,
+            context,
+            thrownTypes);
+      }
       builder.add(step);
       thrownTypes = emptyList();
       nextStep = Optional.of(step);
@@ -145,6 +175,50 @@ final class GoalContextFactory {
     return reverse(builder);
   }
 
+  /**
+   * In compact mode, the step interfaces of all goals are nested directly in the generated type.
+   * A step interface can be shared between goals if it is equal to an existing one.
+   * Otherwise its name must be unique.
+   */
+  private static final class StepNames {
+
+    private final Map<String, TypeSpec> stepInterfaces = new HashMap<>();
+    private final Set<String> reserved;
+
+    private StepNames(BuildersContext context) {
+      this.reserved = new HashSet<>(asList(
+          context.generatedType.simpleName(),
+          context.sessionType().simpleName(),
+          context.poolType().simpleName()));
+    }
+
+    /**
+     * @param step a step
+     * @return {@code false} if the name of the step interface is not available
+     */
+    boolean register(AbstractStep step) {
+      if (!isCompact(step)) {
+        return true;
+      }
+      if (isReserved(step)) {
+        return false;
+      }
+      TypeSpec stepInterface = asStepInterface.apply(step);
+      TypeSpec existing = stepInterfaces.putIfAbsent(step.thisType, stepInterface);
+      return existing == null || existing.equals(stepInterface);
+    }
+
+    private boolean isReserved(AbstractStep step) {
+      String name = step.thisType;
+      TypeName goalType = step.goalDetails.type();
+      return reserved.contains(name)
+          || goalType instanceof ClassName && ((ClassName) goalType).simpleName().equals(name)
+          || name.endsWith("Builder")
+          || name.endsWith("Updater")
+          || name.endsWith("Impl");
+    }
+  }
+
   private static abstract class StepFactory<S extends AbstractStep> {
     abstract S create(String thisType,
                       Optional<S> nextType,
@@ -193,7 +267,8 @@ final class GoalContextFactory {
               nextType,
               goalDetails,
               context,
-              regularParameter);
+              regularParameter,
+              thrownTypes);
         }
       };
 
@@ -211,21 +286,37 @@ final class GoalContextFactory {
         }
       };
 
-  static Function<DescriptionInput, AbstractGoalInput> prepare(BuildersContext context) {
-    return input -> new AbstractGoalInput(
-        input.module,
-        goalDescriptionCases(
-            goal -> GoalContextFactory.prepareRegular(
-                context, goal),
-            goal -> GoalContextFactory.prepareBean(
-                context, goal)).apply(input.description));
+  /**
+   * Stateless modules have no impl instances that could be recycled.
+   */
+  private static final BiFunction<Module, Optional<BuilderLifecycle>, Optional<BuilderLifecycle>> lifecycle =
+      moduleCases(
+          (simple, lifecycle) -> lifecycle,
+          (contract, lifecycle) -> lifecycle,
+          (stateless, lifecycle) -> Optional.of(NEW_INSTANCE));
+
+  static Function<DescriptionInput, AbstractGoalInput> prepare(BuildersContext buildersContext) {
+    StepNames stepNames = new StepNames(buildersContext);
+    return input -> {
+      BuildersContext context = lifecycle.apply(input.module, input.lifecycle)
+          .map(buildersContext::withLifecycle)
+          .orElse(buildersContext);
+      return new AbstractGoalInput(
+          input.module,
+          goalDescriptionCases(
+              goal -> GoalContextFactory.prepareRegular(
+                  context, stepNames, goal),
+              goal -> GoalContextFactory.prepareBean(
+                  context, stepNames, goal)).apply(input.description));
+    };
   }
 
   static Function<ProjectedDescription, ProjectedGoal> prepareProjected(BuildersContext context) {
+    StepNames stepNames = new StepNames(context);
     return DtoProjectedDescription.projectedDescriptionCases(
         goal -> GoalContextFactory.prepareProjectedRegular(
-            context, goal),
+            context, stepNames, goal),
         goal -> GoalContextFactory.prepareBean(
-            context, goal));
+            context, stepNames, goal));
   }
 }
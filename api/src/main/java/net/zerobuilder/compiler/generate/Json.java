@@ -0,0 +1,906 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.Codec.Names;
+import net.zerobuilder.compiler.generate.Codec.Value;
+import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
+import net.zerobuilder.compiler.generate.DtoBeanParameter.AccessorPair;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
+import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.Codec.accessorPair;
+import static net.zerobuilder.compiler.generate.Codec.readProjection;
+import static net.zerobuilder.compiler.generate.Codec.regularInvoke;
+import static net.zerobuilder.compiler.generate.Codec.sourceParameter;
+import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.GeneratorVU.thrownByProjections;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates a JSON writer and reader {@code FooJson} for each goal, and a static {@code fooJson()} method.
+ * The writer appends the projections to a reusable byte array,
+ * using precomputed UTF-8 bytes for the quoted field names, and hands it to an {@link OutputStream}.
+ * The reader dispatches on the length of a field name, then compares its bytes to the same constants,
+ * so that field names are never decoded to strings.
+ * Unknown fields are skipped. {@code read(json)} requires all fields,
+ * while {@code update(foo, json)} takes missing fields from {@code foo}.
+ * Both pass the values directly to the goal, or to the setters of a bean.
+ * The same types as in {@link Codec} are supported.
+ */
+public final class Json extends DtoModule.StatelessModule {
+
+  private static final ClassName STRING = ClassName.get(String.class);
+  private static final TypeName BYTES = TypeName.get(byte[].class);
+
+  private static final int BUFFER_SIZE = 256;
+
+  private static final FieldSpec NULL = literal("NULL", "null");
+  private static final FieldSpec TRUE = literal("TRUE", "true");
+  private static final FieldSpec FALSE = literal("FALSE", "false");
+  private static final FieldSpec HEX = literal("HEX", "0123456789abcdef");
+
+  private static final FieldSpec BUFFER = FieldSpec.builder(BYTES, "buffer", PRIVATE)
+      .initializer("new byte[$L]", BUFFER_SIZE)
+      .build();
+  private static final FieldSpec COUNT = fieldSpec(TypeName.INT, "count", PRIVATE);
+  private static final FieldSpec IN = fieldSpec(BYTES, "in", PRIVATE);
+  private static final FieldSpec POS = fieldSpec(TypeName.INT, "pos", PRIVATE);
+
+  /**
+   * The kinds of values, each of which needs its own helper methods.
+   */
+  enum Kind {
+    INTEGRAL, FLOAT, DOUBLE, BOOLEAN, CHAR, STRING;
+
+    static Kind of(TypeName type) {
+      TypeName unboxed = type.isBoxedPrimitive() ? type.unbox() : type;
+      if (Json.STRING.equals(unboxed)) {
+        return Kind.STRING;
+      }
+      if (TypeName.BOOLEAN.equals(unboxed)) {
+        return BOOLEAN;
+      }
+      if (TypeName.CHAR.equals(unboxed)) {
+        return CHAR;
+      }
+      if (TypeName.FLOAT.equals(unboxed)) {
+        return FLOAT;
+      }
+      if (TypeName.DOUBLE.equals(unboxed)) {
+        return DOUBLE;
+      }
+      return INTEGRAL;
+    }
+  }
+
+  /**
+   * A value, and the constant that holds its quoted name, preceded by the separator.
+   */
+  private static final class Field {
+    final Value value;
+    final FieldSpec name;
+
+    /**
+     * Length of the name in UTF-8 bytes.
+     */
+    final int length;
+
+    private Field(Value value, FieldSpec name, int length) {
+      this.value = value;
+      this.name = name;
+      this.length = length;
+    }
+  }
+
+  private static StatelessModuleOutput json(AbstractGoalContext goal) {
+    return goalCases(Json::regularJson, Json::beanJson).apply(goal);
+  }
+
+  private static StatelessModuleOutput regularJson(AbstractRegularGoalContext goal) {
+    if (goal.isInstance()) {
+      throw new IllegalArgumentException("json is not supported for instance method goals");
+    }
+    TypeName goalType = goal.regularDetails().goalType;
+    List<AbstractRegularStep> steps = goal.regularSteps();
+    Names names = Names.of(transform(steps, step -> step.regularParameter().name));
+    ParameterSpec source = sourceParameter(goalType, names);
+    List<Value> values = transform(steps, step -> new Value(
+        step.regularParameter().name,
+        step.regularParameter().type,
+        readProjection.apply(step.regularParameter().projectionInfo().get(), source)));
+    Set<TypeName> decodeThrown = new HashSet<>();
+    steps.forEach(step -> decodeThrown.addAll(step.declaredExceptions()));
+    return output(goal, source, values, names, thrownByProjections(goal), decodeThrown,
+        regularInvoke.apply(goal));
+  }
+
+  private static StatelessModuleOutput beanJson(BeanGoalContext goal) {
+    ClassName goalType = goal.details.goalType;
+    List<AccessorPair> properties = transform(goal.steps, accessorPair);
+    Names names = Names.of(transform(properties, AccessorPair::name));
+    ParameterSpec source = sourceParameter(goalType, names);
+    List<Value> values = transform(properties, property -> new Value(
+        property.name(),
+        property.type,
+        CodeBlock.of("$N.$N()", source, property.getter)));
+    Set<TypeName> encodeThrown = new HashSet<>();
+    Set<TypeName> decodeThrown = new HashSet<>(goal.thrownTypes);
+    for (AccessorPair property : properties) {
+      encodeThrown.addAll(property.getterThrownTypes);
+      decodeThrown.addAll(property.setterThrownTypes);
+    }
+    String bean = names.fresh(downcase(goalType.simpleName()));
+    CodeBlock.Builder invoke = CodeBlock.builder()
+        .addStatement("$T $N = new $T()", goalType, bean, goalType);
+    for (AccessorPair property : properties) {
+      invoke.addStatement("$N.$N($N)", bean, property.setterName(), property.name());
+    }
+    return output(goal, source, values, names, encodeThrown, decodeThrown,
+        invoke.addStatement("return $N", bean).build());
+  }
+
+  /**
+   * @param source the parameter of {@code write} and {@code update}, which the values are read from
+   * @param invoke code that invokes the goal, using local variables that have the names of the values
+   */
+  private static StatelessModuleOutput output(AbstractGoalContext goal, ParameterSpec source,
+                                              List<Value> values, Names names,
+                                              Set<TypeName> encodeThrown, Set<TypeName> decodeThrown,
+                                              CodeBlock invoke) {
+    ClassName jsonType = goal.context().generatedType.nestedClass(upcase(goal.name()) + "Json");
+    TypeName goalType = source.type;
+    Set<String> constants = new HashSet<>(asList(NULL.name, TRUE.name, FALSE.name, HEX.name));
+    List<Field> fields = new ArrayList<>(values.size());
+    for (Value value : values) {
+      String constant = upperSnake(value.name) + "_NAME";
+      while (!constants.add(constant)) {
+        constant = 'A' + constant;
+      }
+      String prefix = fields.isEmpty() ? "{" : ",";
+      fields.add(new Field(value, literal(constant, prefix + '"' + value.name + "\":"),
+          value.name.getBytes(StandardCharsets.UTF_8).length));
+    }
+    Set<Kind> kinds = new HashSet<>(transform(values, value -> Kind.of(value.type)));
+    ParameterSpec json = parameterSpec(BYTES, names.fresh("json"));
+    MethodSpec parse = parse(goalType, source, json, fields, names, decodeThrown, encodeThrown, invoke);
+    TypeSpec.Builder type = TypeSpec.classBuilder(jsonType)
+        .addFields(transform(fields, field -> field.name));
+    if (values.stream().anyMatch(value -> !value.type.isPrimitive())) {
+      type.addField(NULL);
+    }
+    if (kinds.contains(Kind.BOOLEAN)) {
+      type.addFields(asList(TRUE, FALSE));
+    }
+    if (kinds.contains(Kind.STRING) || kinds.contains(Kind.CHAR)) {
+      type.addField(HEX);
+    }
+    type.addFields(asList(BUFFER, COUNT, IN, POS))
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+        .addMethod(write(source, fields, names, encodeThrown))
+        .addMethod(methodBuilder("read")
+            .addJavadoc("Reads a document that contains all fields.\n\n"
+                + "@param $N a JSON object in UTF-8\n"
+                + "@return the result of the goal\n"
+                + "@throws IllegalArgumentException if the document is malformed, or a field is missing\n", json)
+            .addParameter(json)
+            .returns(goalType)
+            .addExceptions(decodeThrown)
+            .addStatement("return $N($N, null)", parse, json)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(methodBuilder("update")
+            .addJavadoc("Reads a document that may omit fields.\n\n"
+                + "@param $N provides the missing fields\n"
+                + "@param $N a JSON object in UTF-8\n"
+                + "@return the result of the goal\n"
+                + "@throws IllegalArgumentException if the document is malformed\n", source, json)
+            .addParameter(source)
+            .addParameter(json)
+            .returns(goalType)
+            .addExceptions(decodeThrown)
+            .addExceptions(encodeThrown)
+            .beginControlFlow("if ($N == null)", source)
+            .addStatement("throw new $T($S)", NullPointerException.class, source.name)
+            .endControlFlow()
+            .addStatement("return $N($N, $N)", parse, json, source)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(parse)
+        .addMethods(writeHelpers(kinds))
+        .addMethods(readHelpers(kinds))
+        .addModifiers(PUBLIC, STATIC, FINAL);
+    MethodSpec factory = methodBuilder(goal.name() + "Json")
+        .returns(jsonType)
+        .addStatement("return new $T()", jsonType)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    return new StatelessModuleOutput(
+        singletonList(new BuilderMethod(goal.name(), factory)),
+        singletonList(type.build()));
+  }
+
+  private static MethodSpec write(ParameterSpec source, List<Field> fields, Names names,
+                                  Set<TypeName> encodeThrown) {
+    Names writeNames = names.copy();
+    ParameterSpec out = parameterSpec(ClassName.get(OutputStream.class), writeNames.fresh("out"));
+    MethodSpec.Builder builder = methodBuilder("write")
+        .addJavadoc("Writes a JSON object in UTF-8.\n\n"
+            + "@param $N the value to write\n"
+            + "@param $N receives the object in a single write\n"
+            + "@throws IOException if the stream throws it\n", source, out)
+        .addParameter(source)
+        .addParameter(out)
+        .addException(IOException.class)
+        .addExceptions(encodeThrown)
+        .addStatement("this.$N = 0", COUNT);
+    for (Field field : fields) {
+      builder.addStatement("append($N)", field.name);
+      Value value = field.value;
+      if (value.type.isPrimitive()) {
+        builder.addStatement("$L", appendValue(value.type, value.read));
+      } else {
+        CodeBlock local = CodeBlock.of("$N", value.name);
+        builder.addStatement("$T $N = $L", value.type, value.name, value.read)
+            .beginControlFlow("if ($N == null)", value.name)
+            .addStatement("append($N)", NULL)
+            .nextControlFlow("else")
+            .addStatement("$L", appendValue(value.type.isBoxedPrimitive() ? value.type.unbox() : value.type, local))
+            .endControlFlow();
+      }
+    }
+    return builder.addStatement("append((byte) '}')")
+        .addStatement("$N.write(this.$N, 0, this.$N)", out, BUFFER, COUNT)
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private static CodeBlock appendValue(TypeName type, CodeBlock value) {
+    switch (Kind.of(type)) {
+      case BOOLEAN:
+        return CodeBlock.of("append($L ? $N : $N)", value, TRUE, FALSE);
+      case FLOAT:
+        return CodeBlock.of("appendFloat($L)", value);
+      case DOUBLE:
+        return CodeBlock.of("appendDouble($L)", value);
+      case CHAR:
+        return CodeBlock.of("appendChar($L)", value);
+      case STRING:
+        return CodeBlock.of("appendString($L)", value);
+      default:
+        return CodeBlock.of("appendLong($L)", value);
+    }
+  }
+
+  private static CodeBlock readValue(TypeName type) {
+    if (!type.isPrimitive() && !STRING.equals(type)) {
+      return CodeBlock.of("match($N) ? null : $L", NULL, readValue(type.unbox()));
+    }
+    if (STRING.equals(type)) {
+      return CodeBlock.of("match($N) ? null : readString()", NULL);
+    }
+    switch (Kind.of(type)) {
+      case BOOLEAN:
+        return CodeBlock.of("readBoolean()");
+      case FLOAT:
+        return CodeBlock.of("readFloat()");
+      case DOUBLE:
+        return CodeBlock.of("readDouble()");
+      case CHAR:
+        return CodeBlock.of("readChar()");
+      default:
+        TypeName boxed = type.box();
+        CodeBlock range = CodeBlock.of("$T.MIN_VALUE, $T.MAX_VALUE", boxed, boxed);
+        return TypeName.LONG.equals(type) ?
+            CodeBlock.of("readLong($L)", range) :
+            CodeBlock.of("($T) readLong($L)", type, range);
+    }
+  }
+
+  private static MethodSpec parse(TypeName goalType, ParameterSpec source, ParameterSpec json,
+                                  List<Field> fields, Names names,
+                                  Set<TypeName> decodeThrown, Set<TypeName> encodeThrown,
+                                  CodeBlock invoke) {
+    List<String> seen = new ArrayList<>();
+    for (int i = 0; i < fields.size(); i += 64) {
+      seen.add(names.fresh(i == 0 ? "seen" : "seen" + i / 64));
+    }
+    String more = names.fresh("more");
+    String start = names.fresh("start");
+    String length = names.fresh("length");
+    MethodSpec.Builder builder = methodBuilder("parse")
+        .addJavadoc("@param $N the source of missing fields, or {@code null} if all fields are required\n", source)
+        .addParameter(json)
+        .addParameter(source)
+        .returns(goalType)
+        .addExceptions(decodeThrown)
+        .addExceptions(encodeThrown)
+        .addStatement("this.$N = $N", IN, json)
+        .addStatement("this.$N = 0", POS);
+    for (Field field : fields) {
+      Value value = field.value;
+      builder.addStatement("$T $N = $N == null ? $L : $L", value.type, value.name, source,
+          defaultValue(value.type), value.read);
+    }
+    for (String s : seen) {
+      builder.addStatement("long $N = 0", s);
+    }
+    builder.addStatement("boolean $N = beginObject()", more)
+        .beginControlFlow("while ($N)", more)
+        .addStatement("int $N = scanString()", start)
+        .addStatement("int $N = this.$N - 1 - $N", length, POS, start)
+        .addStatement("expect(':')")
+        .beginControlFlow("switch ($N)", length);
+    List<Integer> lengths = new ArrayList<>(new TreeSet<>(transform(fields, field -> field.length)));
+    for (int fieldLength : lengths) {
+      builder.addCode("case $L:\n$>", fieldLength);
+      for (int i = 0; i < fields.size(); i++) {
+        Field field = fields.get(i);
+        if (field.length != fieldLength) {
+          continue;
+        }
+        builder.beginControlFlow("if (nameEquals($N, $N))", start, field.name)
+            .addStatement("$N = $L", field.value.name, readValue(field.value.type))
+            .addStatement("$N |= $LL", seen.get(i / 64), bit(i))
+            .addStatement("break")
+            .endControlFlow();
+      }
+      builder.addStatement("skipValue()")
+          .addStatement("break")
+          .addCode("$<");
+    }
+    builder.addCode("default:\n$>")
+        .addStatement("skipValue()")
+        .addCode("$<")
+        .endControlFlow()
+        .addStatement("$N = nextField()", more)
+        .endControlFlow()
+        .addStatement("expectEnd()")
+        .beginControlFlow("if ($N == null)", source);
+    for (int i = 0; i < fields.size(); i++) {
+      builder.beginControlFlow("if (($N & $LL) == 0)", seen.get(i / 64), bit(i))
+          .addStatement("throw new $T($S)", IllegalArgumentException.class,
+              "missing field: " + fields.get(i).value.name)
+          .endControlFlow();
+    }
+    return builder.endControlFlow()
+        .addCode(invoke)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static String bit(int i) {
+    return "0x" + Long.toHexString(1L << (i % 64));
+  }
+
+  private static CodeBlock defaultValue(TypeName type) {
+    if (!type.isPrimitive()) {
+      return CodeBlock.of("null");
+    }
+    if (TypeName.BOOLEAN.equals(type)) {
+      return CodeBlock.of("false");
+    }
+    return TypeName.INT.equals(type) ? CodeBlock.of("0") : CodeBlock.of("($T) 0", type);
+  }
+
+  private static List<MethodSpec> writeHelpers(Set<Kind> kinds) {
+    ParameterSpec b = parameterSpec(TypeName.BYTE, "b");
+    ParameterSpec bytes = parameterSpec(BYTES, "bytes");
+    ParameterSpec n = parameterSpec(TypeName.INT, "n");
+    List<MethodSpec> methods = new ArrayList<>();
+    methods.add(methodBuilder("ensure")
+        .addParameter(n)
+        .beginControlFlow("if (this.$N + $N > this.$N.length)", COUNT, n, BUFFER)
+        .addStatement("this.$N = $T.copyOf(this.$N, $T.max(2 * this.$N.length, this.$N + $N))",
+            BUFFER, Arrays.class, BUFFER, Math.class, BUFFER, COUNT, n)
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("append")
+        .addParameter(b)
+        .addStatement("ensure(1)")
+        .addStatement("this.$N[this.$N++] = $N", BUFFER, COUNT, b)
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("append")
+        .addParameter(bytes)
+        .addStatement("ensure($N.length)", bytes)
+        .addStatement("$T.arraycopy($N, 0, this.$N, this.$N, $N.length)", System.class, bytes, BUFFER, COUNT, bytes)
+        .addStatement("this.$N += $N.length", COUNT, bytes)
+        .addModifiers(PRIVATE)
+        .build());
+    if (kinds.contains(Kind.INTEGRAL)) {
+      ParameterSpec value = parameterSpec(TypeName.LONG, "value");
+      methods.add(methodBuilder("appendLong")
+          .addJavadoc("Works with negative numbers, so that {@link $T#MIN_VALUE} needs no special case.\n",
+              Long.class)
+          .addParameter(value)
+          .addStatement("ensure(20)")
+          .beginControlFlow("if ($N < 0)", value)
+          .addStatement("this.$N[this.$N++] = '-'", BUFFER, COUNT)
+          .nextControlFlow("else")
+          .addStatement("$N = -$N", value, value)
+          .endControlFlow()
+          .addStatement("int start = this.$N", COUNT)
+          .beginControlFlow("do")
+          .addStatement("this.$N[this.$N++] = (byte) ('0' - $N % 10)", BUFFER, COUNT, value)
+          .addStatement("$N /= 10", value)
+          .endControlFlow("while ($N != 0)", value)
+          .beginControlFlow("for (int i = start, j = this.$N - 1; i < j; i++, j--)", COUNT)
+          .addStatement("byte b = this.$N[i]", BUFFER)
+          .addStatement("this.$N[i] = this.$N[j]", BUFFER, BUFFER)
+          .addStatement("this.$N[j] = b", BUFFER)
+          .endControlFlow()
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.FLOAT)) {
+      methods.add(appendDecimal(TypeName.FLOAT, Float.class));
+    }
+    if (kinds.contains(Kind.DOUBLE)) {
+      methods.add(appendDecimal(TypeName.DOUBLE, Double.class));
+    }
+    if (kinds.contains(Kind.FLOAT) || kinds.contains(Kind.DOUBLE)) {
+      ParameterSpec s = parameterSpec(STRING, "s");
+      methods.add(methodBuilder("appendAscii")
+          .addParameter(s)
+          .addStatement("ensure($N.length())", s)
+          .beginControlFlow("for (int i = 0; i < $N.length(); i++)", s)
+          .addStatement("this.$N[this.$N++] = (byte) $N.charAt(i)", BUFFER, COUNT, s)
+          .endControlFlow()
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.CHAR)) {
+      ParameterSpec c = parameterSpec(TypeName.CHAR, "c");
+      methods.add(methodBuilder("appendChar")
+          .addParameter(c)
+          .addStatement("appendString($T.valueOf($N))", String.class, c)
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.STRING) || kinds.contains(Kind.CHAR)) {
+      methods.add(appendString());
+    }
+    return methods;
+  }
+
+  private static MethodSpec appendDecimal(TypeName type, Class<?> boxed) {
+    ParameterSpec value = parameterSpec(type, "value");
+    return methodBuilder("append" + upcase(type.toString()))
+        .addParameter(value)
+        .beginControlFlow("if (!$T.isFinite($N))", boxed, value)
+        .addStatement("throw new $T($S + $N)", IllegalArgumentException.class, "not a JSON number: ", value)
+        .endControlFlow()
+        .addStatement("appendAscii($T.toString($N))", boxed, value)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  /**
+   * Encodes UTF-8 directly, so that no intermediate byte array is needed.
+   * An unpaired surrogate has no UTF-8 encoding, so it is written as a six-character escape.
+   */
+  private static MethodSpec appendString() {
+    ParameterSpec s = parameterSpec(STRING, "s");
+    return methodBuilder("appendString")
+        .addParameter(s)
+        .addStatement("ensure(6 * $N.length() + 2)", s)
+        .addStatement("byte[] buffer = this.$N", BUFFER)
+        .addStatement("int count = this.$N", COUNT)
+        .addStatement("buffer[count++] = '\"'")
+        .beginControlFlow("for (int i = 0; i < $N.length(); i++)", s)
+        .addStatement("char c = $N.charAt(i)", s)
+        .beginControlFlow("if (c == '\"' || c == '\\\\')")
+        .addStatement("buffer[count++] = '\\\\'")
+        .addStatement("buffer[count++] = (byte) c")
+        .nextControlFlow("else if (c < 0x20)")
+        .addStatement("buffer[count++] = '\\\\'")
+        .addStatement("buffer[count++] = 'u'")
+        .addStatement("buffer[count++] = '0'")
+        .addStatement("buffer[count++] = '0'")
+        .addStatement("buffer[count++] = $N[c >> 4]", HEX)
+        .addStatement("buffer[count++] = $N[c & 0xf]", HEX)
+        .nextControlFlow("else if (c < 0x80)")
+        .addStatement("buffer[count++] = (byte) c")
+        .nextControlFlow("else if (c < 0x800)")
+        .addStatement("buffer[count++] = (byte) (0xc0 | c >> 6)")
+        .addStatement("buffer[count++] = (byte) (0x80 | c & 0x3f)")
+        .nextControlFlow("else if ($T.isHighSurrogate(c) && i + 1 < $N.length() && $T.isLowSurrogate($N.charAt(i + 1)))",
+            Character.class, s, Character.class, s)
+        .addStatement("int codePoint = $T.toCodePoint(c, $N.charAt(++i))", Character.class, s)
+        .addStatement("buffer[count++] = (byte) (0xf0 | codePoint >> 18)")
+        .addStatement("buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f)")
+        .addStatement("buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f)")
+        .addStatement("buffer[count++] = (byte) (0x80 | codePoint & 0x3f)")
+        .nextControlFlow("else if ($T.isSurrogate(c))", Character.class)
+        .addStatement("buffer[count++] = '\\\\'")
+        .addStatement("buffer[count++] = 'u'")
+        .addStatement("buffer[count++] = $N[c >> 12]", HEX)
+        .addStatement("buffer[count++] = $N[c >> 8 & 0xf]", HEX)
+        .addStatement("buffer[count++] = $N[c >> 4 & 0xf]", HEX)
+        .addStatement("buffer[count++] = $N[c & 0xf]", HEX)
+        .nextControlFlow("else")
+        .addStatement("buffer[count++] = (byte) (0xe0 | c >> 12)")
+        .addStatement("buffer[count++] = (byte) (0x80 | c >> 6 & 0x3f)")
+        .addStatement("buffer[count++] = (byte) (0x80 | c & 0x3f)")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("buffer[count++] = '\"'")
+        .addStatement("this.$N = count", COUNT)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static List<MethodSpec> readHelpers(Set<Kind> kinds) {
+    ParameterSpec c = parameterSpec(TypeName.CHAR, "c");
+    ParameterSpec literal = parameterSpec(BYTES, "literal");
+    ParameterSpec start = parameterSpec(TypeName.INT, "start");
+    ParameterSpec name = parameterSpec(BYTES, "name");
+    List<MethodSpec> methods = new ArrayList<>();
+    methods.add(methodBuilder("skipWhitespace")
+        .beginControlFlow("while (this.$N < this.$N.length)", POS, IN)
+        .addStatement("byte b = this.$N[this.$N]", IN, POS)
+        .beginControlFlow("if (b != ' ' && b != '\\n' && b != '\\r' && b != '\\t')")
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("this.$N++", POS)
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("peek")
+        .returns(TypeName.BYTE)
+        .addStatement("skipWhitespace()")
+        .beginControlFlow("if (this.$N >= this.$N.length)", POS, IN)
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .addStatement("return this.$N[this.$N]", IN, POS)
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("unexpected")
+        .returns(IllegalArgumentException.class)
+        .addStatement("return new $T($S + this.$N)", IllegalArgumentException.class,
+            "unexpected input at position ", POS)
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("expect")
+        .addParameter(c)
+        .beginControlFlow("if (peek() != $N)", c)
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .addStatement("this.$N++", POS)
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("expectEnd")
+        .addStatement("skipWhitespace()")
+        .beginControlFlow("if (this.$N != this.$N.length)", POS, IN)
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("beginObject")
+        .addJavadoc("@return {@code true} if the object is not empty\n")
+        .returns(TypeName.BOOLEAN)
+        .addStatement("expect('{')")
+        .beginControlFlow("if (peek() == '}')")
+        .addStatement("this.$N++", POS)
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("return true")
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("nextField")
+        .addJavadoc("@return {@code true} if another field follows\n")
+        .returns(TypeName.BOOLEAN)
+        .beginControlFlow("if (peek() == ',')")
+        .addStatement("this.$N++", POS)
+        .addStatement("return true")
+        .endControlFlow()
+        .addStatement("expect('}')")
+        .addStatement("return false")
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("match")
+        .addParameter(literal)
+        .returns(TypeName.BOOLEAN)
+        .addStatement("skipWhitespace()")
+        .beginControlFlow("if (this.$N + $N.length > this.$N.length)", POS, literal, IN)
+        .addStatement("return false")
+        .endControlFlow()
+        .beginControlFlow("for (int i = 0; i < $N.length; i++)", literal)
+        .beginControlFlow("if (this.$N[this.$N + i] != $N[i])", IN, POS, literal)
+        .addStatement("return false")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("this.$N += $N.length", POS, literal)
+        .addStatement("return true")
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("scanString")
+        .addJavadoc("Moves past a string, without decoding it.\n\n"
+            + "@return the position of the first byte after the opening quote\n")
+        .returns(TypeName.INT)
+        .addStatement("expect('\"')")
+        .addStatement("int start = this.$N", POS)
+        .beginControlFlow("while (this.$N < this.$N.length)", POS, IN)
+        .addStatement("byte b = this.$N[this.$N++]", IN, POS)
+        .beginControlFlow("if (b == '\"')")
+        .addStatement("return start")
+        .endControlFlow()
+        .beginControlFlow("if (b == '\\\\')")
+        .addStatement("this.$N++", POS)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("throw unexpected()")
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(methodBuilder("nameEquals")
+        .addJavadoc("@param $N the separator, the quoted name and the colon\n", name)
+        .addParameter(start)
+        .addParameter(name)
+        .returns(TypeName.BOOLEAN)
+        .beginControlFlow("for (int i = 2; i < $N.length - 2; i++)", name)
+        .beginControlFlow("if (this.$N[$N + i - 2] != $N[i])", IN, start, name)
+        .addStatement("return false")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return true")
+        .addModifiers(PRIVATE)
+        .build());
+    methods.add(skipValue());
+    if (kinds.contains(Kind.INTEGRAL)) {
+      methods.add(readLong());
+      methods.add(methodBuilder("outOfRange")
+          .addParameter(start)
+          .returns(IllegalArgumentException.class)
+          .addStatement("return new $T($S + $N)", IllegalArgumentException.class,
+              "number out of range at position ", start)
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.FLOAT) || kinds.contains(Kind.DOUBLE)) {
+      methods.add(methodBuilder("readNumber")
+          .addJavadoc("@return the number token, to be parsed at its own precision\n")
+          .returns(STRING)
+          .addStatement("skipWhitespace()")
+          .addStatement("int start = this.$N", POS)
+          .beginControlFlow("while (this.$N < this.$N.length)", POS, IN)
+          .addStatement("byte b = this.$N[this.$N]", IN, POS)
+          .beginControlFlow("if ((b < '0' || b > '9') && b != '-' && b != '+' && b != '.' && b != 'e' && b != 'E')")
+          .addStatement("break")
+          .endControlFlow()
+          .addStatement("this.$N++", POS)
+          .endControlFlow()
+          .beginControlFlow("if (this.$N == start)", POS)
+          .addStatement("throw unexpected()")
+          .endControlFlow()
+          .addStatement("return new $T(this.$N, start, this.$N - start, $T.US_ASCII)",
+              String.class, IN, POS, StandardCharsets.class)
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.FLOAT)) {
+      methods.add(methodBuilder("readFloat")
+          .returns(TypeName.FLOAT)
+          .addStatement("return $T.parseFloat(readNumber())", Float.class)
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.DOUBLE)) {
+      methods.add(methodBuilder("readDouble")
+          .returns(TypeName.DOUBLE)
+          .addStatement("return $T.parseDouble(readNumber())", Double.class)
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.BOOLEAN)) {
+      methods.add(methodBuilder("readBoolean")
+          .returns(TypeName.BOOLEAN)
+          .beginControlFlow("if (match($N))", TRUE)
+          .addStatement("return true")
+          .endControlFlow()
+          .beginControlFlow("if (match($N))", FALSE)
+          .addStatement("return false")
+          .endControlFlow()
+          .addStatement("throw unexpected()")
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.CHAR)) {
+      methods.add(methodBuilder("readChar")
+          .returns(TypeName.CHAR)
+          .addStatement("$T s = readString()", String.class)
+          .beginControlFlow("if (s.length() != 1)")
+          .addStatement("throw new $T($S + s)", IllegalArgumentException.class, "not a char: ")
+          .endControlFlow()
+          .addStatement("return s.charAt(0)")
+          .addModifiers(PRIVATE)
+          .build());
+    }
+    if (kinds.contains(Kind.STRING) || kinds.contains(Kind.CHAR)) {
+      methods.add(readString());
+    }
+    return methods;
+  }
+
+  private static MethodSpec skipValue() {
+    return methodBuilder("skipValue")
+        .addStatement("byte b = peek()")
+        .beginControlFlow("if (b == '\"')")
+        .addStatement("scanString()")
+        .nextControlFlow("else if (b == '{' || b == '[')")
+        .addStatement("int depth = 0")
+        .beginControlFlow("do")
+        .addStatement("b = peek()")
+        .beginControlFlow("if (b == '\"')")
+        .addStatement("scanString()")
+        .addStatement("continue")
+        .endControlFlow()
+        .addStatement("this.$N++", POS)
+        .beginControlFlow("if (b == '{' || b == '[')")
+        .addStatement("depth++")
+        .nextControlFlow("else if (b == '}' || b == ']')")
+        .addStatement("depth--")
+        .endControlFlow()
+        .endControlFlow("while (depth > 0)")
+        .nextControlFlow("else")
+        .addStatement("int start = this.$N", POS)
+        .beginControlFlow("while (this.$N < this.$N.length)", POS, IN)
+        .addStatement("b = this.$N[this.$N]", IN, POS)
+        .beginControlFlow("if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\\n' || b == '\\r' || b == '\\t')")
+        .addStatement("break")
+        .endControlFlow()
+        .addStatement("this.$N++", POS)
+        .endControlFlow()
+        .beginControlFlow("if (this.$N == start)", POS)
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  /**
+   * Accumulates the negated value, so that {@link Long#MIN_VALUE} can be read.
+   */
+  private static MethodSpec readLong() {
+    ParameterSpec min = parameterSpec(TypeName.LONG, "min");
+    ParameterSpec max = parameterSpec(TypeName.LONG, "max");
+    return methodBuilder("readLong")
+        .addParameter(min)
+        .addParameter(max)
+        .returns(TypeName.LONG)
+        .addStatement("boolean negative = peek() == '-'")
+        .beginControlFlow("if (negative)")
+        .addStatement("this.$N++", POS)
+        .endControlFlow()
+        .addStatement("int start = this.$N", POS)
+        .addStatement("long value = 0")
+        .beginControlFlow("while (this.$N < this.$N.length && this.$N[this.$N] >= '0' && this.$N[this.$N] <= '9')",
+            POS, IN, IN, POS, IN, POS)
+        .addStatement("int digit = this.$N[this.$N++] - '0'", IN, POS)
+        .beginControlFlow("if (value < ($T.MIN_VALUE + digit) / 10)", Long.class)
+        .addStatement("throw outOfRange(start)")
+        .endControlFlow()
+        .addStatement("value = 10 * value - digit")
+        .endControlFlow()
+        .beginControlFlow("if (this.$N == start)", POS)
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .beginControlFlow("if (!negative)")
+        .beginControlFlow("if (value == $T.MIN_VALUE)", Long.class)
+        .addStatement("throw outOfRange(start)")
+        .endControlFlow()
+        .addStatement("value = -value")
+        .endControlFlow()
+        .beginControlFlow("if (value < $N || value > $N)", min, max)
+        .addStatement("throw outOfRange(start)")
+        .endControlFlow()
+        .addStatement("return value")
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  /**
+   * Decodes the bytes between escape sequences in one piece.
+   */
+  private static MethodSpec readString() {
+    return methodBuilder("readString")
+        .returns(String.class)
+        .addStatement("int start = scanString()")
+        .addStatement("int end = this.$N - 1", POS)
+        .addStatement("$T builder = null", StringBuilder.class)
+        .addStatement("int run = start")
+        .addStatement("int i = start")
+        .beginControlFlow("while (i < end)")
+        .beginControlFlow("if (this.$N[i] != '\\\\')", IN)
+        .addStatement("i++")
+        .addStatement("continue")
+        .endControlFlow()
+        .beginControlFlow("if (builder == null)")
+        .addStatement("builder = new $T(end - start)", StringBuilder.class)
+        .endControlFlow()
+        .addStatement("builder.append(new $T(this.$N, run, i - run, $T.UTF_8))", String.class, IN,
+            StandardCharsets.class)
+        .addStatement("byte c = this.$N[i + 1]", IN)
+        .beginControlFlow("if (c == 'u')")
+        .beginControlFlow("if (i + 6 > end)")
+        .addStatement("throw unexpected()")
+        .endControlFlow()
+        .addStatement("builder.append((char) $T.parseInt(new $T(this.$N, i + 2, 4, $T.US_ASCII), 16))",
+            Integer.class, String.class, IN, StandardCharsets.class)
+        .addStatement("i += 6")
+        .nextControlFlow("else")
+        .addStatement("builder.append(c == 'b' ? '\\b' : c == 'f' ? '\\f' : c == 'n' ? '\\n' : "
+            + "c == 'r' ? '\\r' : c == 't' ? '\\t' : (char) c)")
+        .addStatement("i += 2")
+        .endControlFlow()
+        .addStatement("run = i")
+        .endControlFlow()
+        .beginControlFlow("if (builder == null)")
+        .addStatement("return new $T(this.$N, start, end - start, $T.UTF_8)", String.class, IN,
+            StandardCharsets.class)
+        .endControlFlow()
+        .addStatement("return builder.append(new $T(this.$N, run, end - run, $T.UTF_8)).toString()",
+            String.class, IN, StandardCharsets.class)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static FieldSpec literal(String name, String value) {
+    return FieldSpec.builder(BYTES, name, PRIVATE, STATIC, FINAL)
+        .initializer("$S.getBytes($T.UTF_8)", value, StandardCharsets.class)
+        .build();
+  }
+
+  private static String upperSnake(String name) {
+    StringBuilder sb = new StringBuilder(name.length() + 4);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (i > 0 && Character.isUpperCase(c)) {
+        sb.append('_');
+      }
+      sb.append(Character.toUpperCase(c));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String name() {
+    return "json";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    return json(goal);
+  }
+}
@@ -0,0 +1,484 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.WildcardTypeName.supertypeOf;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.Codec.codecMethods;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates an append-only log {@code FooLog} for each goal, and static {@code fooLog(directory)} methods.
+ * The records are written in the format of {@link Codec}, preceded by a CRC32 checksum and their length,
+ * to numbered segment files of a fixed maximum size.
+ * The checksum covers the length and the record.
+ * Appends are collected in a direct buffer, which is written when it is full,
+ * on {@code flush()}, and on {@code sync()}.
+ * If {@code syncEvery} is positive, {@code sync()} also runs after every {@code syncEvery} appends.
+ * The position of each record is kept in an index of type {@code long[]}.
+ * When the log is opened, the existing segments are scanned to rebuild the index,
+ * and the segment is cut off at the first record whose checksum does not match,
+ * such as a record that was not completely written, or a zero-filled tail.
+ * {@code replay(consumer)} and {@code get(n)} decode the records by invoking the goal.
+ */
+public final class LogStore extends DtoModule.StatelessModule {
+
+  private static final ClassName PATH = ClassName.get(Path.class);
+  private static final ClassName BYTE_BUFFER = ClassName.get(ByteBuffer.class);
+  private static final ClassName FILE_CHANNEL = ClassName.get(FileChannel.class);
+
+  private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+  private static final int BATCH_SIZE = 1 << 16;
+  private static final int INDEX_SIZE = 1024;
+
+  /**
+   * The checksum and the length of a record.
+   */
+  private static final int HEADER_SIZE = 8;
+
+  private static final FieldSpec DIRECTORY = fieldSpec(PATH, "directory", PRIVATE, FINAL);
+  private static final FieldSpec SEGMENT_SIZE = fieldSpec(TypeName.INT, "segmentSize", PRIVATE, FINAL);
+  private static final FieldSpec SYNC_EVERY = fieldSpec(TypeName.INT, "syncEvery", PRIVATE, FINAL);
+  private static final FieldSpec BATCH = FieldSpec.builder(BYTE_BUFFER, "batch", PRIVATE)
+      .initializer("$T.allocateDirect($L)", BYTE_BUFFER, BATCH_SIZE)
+      .build();
+  private static final FieldSpec INDEX = FieldSpec.builder(long[].class, "index", PRIVATE)
+      .initializer("new long[$L]", INDEX_SIZE)
+      .build();
+  private static final FieldSpec SIZE = fieldSpec(TypeName.INT, "size", PRIVATE);
+  private static final FieldSpec SEGMENT = fieldSpec(TypeName.INT, "segment", PRIVATE);
+  private static final FieldSpec CHANNEL = fieldSpec(FILE_CHANNEL, "channel", PRIVATE);
+  private static final FieldSpec POSITION = fieldSpec(TypeName.LONG, "position", PRIVATE);
+  private static final FieldSpec UNSYNCED = fieldSpec(TypeName.INT, "unsynced", PRIVATE);
+  private static final FieldSpec CRC = FieldSpec.builder(CRC32.class, "crc", PRIVATE, FINAL)
+      .initializer("new $T()", CRC32.class)
+      .build();
+  private static final FieldSpec CLOSED = fieldSpec(TypeName.BOOLEAN, "closed", PRIVATE);
+
+  private static final String ENCODE = "encode";
+  private static final String DECODE = "decode";
+
+  private static StatelessModuleOutput log(AbstractGoalContext goal) {
+    ClassName logType = goal.context().generatedType.nestedClass(upcase(goal.name()) + "Log");
+    TypeName goalType = goal.goalType();
+    List<MethodSpec> codec = codecMethods(goal, ENCODE, DECODE, PRIVATE, STATIC);
+    MethodSpec encode = codec.get(0);
+    MethodSpec decode = codec.get(1);
+    ParameterSpec directory = parameterSpec(PATH, "directory");
+    ParameterSpec segmentSize = parameterSpec(TypeName.INT, "segmentSize");
+    ParameterSpec syncEvery = parameterSpec(TypeName.INT, "syncEvery");
+    TypeSpec log = TypeSpec.classBuilder(logType)
+        .addSuperinterface(Closeable.class)
+        .addField(FieldSpec.builder(TypeName.INT, "DEFAULT_SEGMENT_SIZE", PUBLIC, STATIC, FINAL)
+            .initializer("$L << 20", DEFAULT_SEGMENT_SIZE >> 20)
+            .build())
+        .addFields(asList(DIRECTORY, SEGMENT_SIZE, SYNC_EVERY, BATCH, INDEX, SIZE,
+            SEGMENT, CHANNEL, POSITION, UNSYNCED, CRC, CLOSED))
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameters(asList(directory, segmentSize, syncEvery))
+            .addException(IOException.class)
+            .beginControlFlow("if ($N <= 0)", segmentSize)
+            .addStatement("throw new $T($S)", IllegalArgumentException.class, "segmentSize")
+            .endControlFlow()
+            .addStatement("this.$N = $N", DIRECTORY, directory)
+            .addStatement("this.$N = $N", SEGMENT_SIZE, segmentSize)
+            .addStatement("this.$N = $N", SYNC_EVERY, syncEvery)
+            .addStatement("$T.createDirectories($N)", Files.class, directory)
+            .addStatement("recover()")
+            .addModifiers(PRIVATE)
+            .build())
+        .addMethod(append(encode))
+        .addMethod(tryEncode(encode))
+        .addMethod(methodBuilder("flush")
+            .addJavadoc("Writes the appended records to the current segment, without fsync.\n")
+            .addException(IOException.class)
+            .addStatement("write(this.$N.position())", BATCH)
+            .addStatement("this.$N.clear()", BATCH)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(methodBuilder("sync")
+            .addJavadoc("Writes the appended records to the current segment, and forces them to disk.\n")
+            .addException(IOException.class)
+            .addStatement("flush()")
+            .addStatement("this.$N.force(false)", CHANNEL)
+            .addStatement("this.$N = 0", UNSYNCED)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(methodBuilder("size")
+            .returns(TypeName.INT)
+            .addStatement("return this.$N", SIZE)
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(get(goalType, decode))
+        .addMethod(replay(goalType, decode))
+        .addMethod(methodBuilder("close")
+            .addJavadoc("Syncs and closes the log. Further calls have no effect.\n")
+            .addAnnotation(Override.class)
+            .addException(IOException.class)
+            .beginControlFlow("if (this.$N)", CLOSED)
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("this.$N = true", CLOSED)
+            .beginControlFlow("try")
+            .addStatement("sync()")
+            .nextControlFlow("finally")
+            .addStatement("this.$N.close()", CHANNEL)
+            .endControlFlow()
+            .addModifiers(PUBLIC)
+            .build())
+        .addMethod(write())
+        .addMethod(roll())
+        .addMethod(recover())
+        .addMethod(checksum())
+        .addMethod(addIndex())
+        .addMethod(segmentPath())
+        .addMethod(readFully())
+        .addMethod(encode)
+        .addMethod(decode)
+        .addModifiers(PUBLIC, STATIC, FINAL)
+        .build();
+    MethodSpec factory = methodBuilder(goal.name() + "Log")
+        .addParameters(asList(directory, segmentSize, syncEvery))
+        .returns(logType)
+        .addException(IOException.class)
+        .addStatement("return new $T($N, $N, $N)", logType, directory, segmentSize, syncEvery)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    MethodSpec defaultFactory = methodBuilder(goal.name() + "Log")
+        .addParameter(directory)
+        .returns(logType)
+        .addException(IOException.class)
+        .addStatement("return $N($N, $T.DEFAULT_SEGMENT_SIZE, 0)", factory, directory, logType)
+        .addModifiers(goal.details().access(STATIC))
+        .build();
+    return new StatelessModuleOutput(
+        asList(new BuilderMethod(goal.name(), defaultFactory), new BuilderMethod(goal.name(), factory)),
+        singletonList(log));
+  }
+
+  private static MethodSpec append(MethodSpec encode) {
+    ParameterSpec value = encode.parameters.get(0);
+    return methodBuilder("append")
+        .addParameter(value)
+        .addException(IOException.class)
+        .addExceptions(encode.exceptions)
+        .addStatement("int start = this.$N.position()", BATCH)
+        .beginControlFlow("while (!tryEncode($N, start))", value)
+        .beginControlFlow("if (start > 0)")
+        .addStatement("write(start)")
+        .addStatement("this.$N.clear()", BATCH)
+        .addStatement("start = 0")
+        .nextControlFlow("else")
+        .addStatement("this.$N = $T.allocateDirect(2 * this.$N.capacity())", BATCH, BYTE_BUFFER, BATCH)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("int end = this.$N.position()", BATCH)
+        .beginControlFlow("if (this.$N + end > this.$N && this.$N + start > 0)",
+            POSITION, SEGMENT_SIZE, POSITION)
+        .addCode("// the record goes to the next segment\n")
+        .addStatement("write(start)")
+        .addStatement("this.$N.limit(end)", BATCH)
+        .addStatement("this.$N.compact()", BATCH)
+        .addStatement("roll()")
+        .addStatement("end -= start")
+        .addStatement("start = 0")
+        .endControlFlow()
+        .addStatement("this.$N.putInt(start + 4, end - start - $L)", BATCH, HEADER_SIZE)
+        .addStatement("this.$N.limit(end)", BATCH)
+        .addStatement("this.$N.position(start + 4)", BATCH)
+        .addStatement("this.$N.reset()", CRC)
+        .addStatement("this.$N.update(this.$N)", CRC, BATCH)
+        .addStatement("this.$N.limit(this.$N.capacity())", BATCH, BATCH)
+        .addStatement("this.$N.putInt(start, (int) this.$N.getValue())", BATCH, CRC)
+        .addStatement("addIndex(this.$N, this.$N + start)", SEGMENT, POSITION)
+        .beginControlFlow("if (this.$N > 0 && ++this.$N >= this.$N)", SYNC_EVERY, UNSYNCED, SYNC_EVERY)
+        .addStatement("sync()")
+        .endControlFlow()
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private static MethodSpec tryEncode(MethodSpec encode) {
+    ParameterSpec value = encode.parameters.get(0);
+    ParameterSpec start = parameterSpec(TypeName.INT, "start");
+    return methodBuilder("tryEncode")
+        .addParameter(value)
+        .addParameter(start)
+        .returns(TypeName.BOOLEAN)
+        .addExceptions(encode.exceptions)
+        .beginControlFlow("if ($N + $L > this.$N.capacity())", start, HEADER_SIZE, BATCH)
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("this.$N.position($N + $L)", BATCH, start, HEADER_SIZE)
+        .beginControlFlow("try")
+        .addStatement("$N($N, this.$N)", encode, value, BATCH)
+        .addStatement("return true")
+        .nextControlFlow("catch ($T e)", BufferOverflowException.class)
+        .addStatement("return false")
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec get(TypeName goalType, MethodSpec decode) {
+    ParameterSpec n = parameterSpec(TypeName.INT, "n");
+    return methodBuilder("get")
+        .addJavadoc("Reads a single record.\n\n@param $N the number of the record\n@return the record\n", n)
+        .addParameter(n)
+        .returns(goalType)
+        .addException(IOException.class)
+        .addExceptions(decode.exceptions)
+        .beginControlFlow("if ($N < 0 || $N >= this.$N)", n, n, SIZE)
+        .addStatement("throw new $T($T.toString($N))", IndexOutOfBoundsException.class, Integer.class, n)
+        .endControlFlow()
+        .addStatement("flush()")
+        .addStatement("long entry = this.$N[$N]", INDEX, n)
+        .addStatement("int segment = (int) (entry >>> 32)")
+        .addStatement("long offset = entry & 0xffffffffL")
+        .addStatement("$T channel = segment == this.$N ? this.$N : $T.open(segmentPath(segment), $T.READ)",
+            FILE_CHANNEL, SEGMENT, CHANNEL, FILE_CHANNEL, READ.getDeclaringClass())
+        .beginControlFlow("try")
+        .addStatement("$T header = $T.allocate(4)", BYTE_BUFFER, BYTE_BUFFER)
+        .addStatement("readFully(channel, header, offset + 4)")
+        .addStatement("$T record = $T.allocate(header.getInt(0))", BYTE_BUFFER, BYTE_BUFFER)
+        .addStatement("readFully(channel, record, offset + $L)", HEADER_SIZE)
+        .addStatement("record.flip()")
+        .addStatement("return $N(record)", decode)
+        .nextControlFlow("finally")
+        .beginControlFlow("if (channel != this.$N)", CHANNEL)
+        .addStatement("channel.close()")
+        .endControlFlow()
+        .endControlFlow()
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private static MethodSpec replay(TypeName goalType, MethodSpec decode) {
+    ParameterSpec consumer = parameterSpec(
+        ParameterizedTypeName.get(ClassName.get(Consumer.class), supertypeOf(goalType.box())), "consumer");
+    return methodBuilder("replay")
+        .addJavadoc("Decodes all records in order.\n\n@param $N receives the records\n", consumer)
+        .addParameter(consumer)
+        .addException(IOException.class)
+        .addExceptions(decode.exceptions)
+        .addStatement("flush()")
+        .addStatement("$T in = $T.allocate($L)", BYTE_BUFFER, BYTE_BUFFER, BATCH_SIZE)
+        .beginControlFlow("for (int segment = 0; segment <= this.$N; segment++)", SEGMENT)
+        .beginControlFlow("try ($T channel = $T.open(segmentPath(segment), $T.READ))",
+            FILE_CHANNEL, FILE_CHANNEL, READ.getDeclaringClass())
+        .addStatement("in.clear()")
+        .addStatement("boolean eof = false")
+        .beginControlFlow("while (!eof)")
+        .addStatement("eof = channel.read(in) < 0")
+        .addStatement("in.flip()")
+        .beginControlFlow("while (in.remaining() >= $L && in.remaining() - $L >= in.getInt(in.position() + 4))",
+            HEADER_SIZE, HEADER_SIZE)
+        .addStatement("int end = in.position() + $L + in.getInt(in.position() + 4)", HEADER_SIZE)
+        .addStatement("int limit = in.limit()")
+        .addStatement("in.position(in.position() + $L)", HEADER_SIZE)
+        .addStatement("in.limit(end)")
+        .addStatement("$N.accept($N(in))", consumer, decode)
+        .addStatement("in.limit(limit)")
+        .addStatement("in.position(end)")
+        .endControlFlow()
+        .beginControlFlow("if (in.remaining() >= $L && in.getInt(in.position() + 4) + $L > in.capacity())",
+            HEADER_SIZE, HEADER_SIZE)
+        .addStatement("$T larger = $T.allocate(2 * (in.getInt(in.position() + 4) + $L))",
+            BYTE_BUFFER, BYTE_BUFFER, HEADER_SIZE)
+        .addStatement("larger.put(in)")
+        .addStatement("in = larger")
+        .nextControlFlow("else")
+        .addStatement("in.compact()")
+        .endControlFlow()
+        .endControlFlow()
+        .endControlFlow()
+        .endControlFlow()
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  /**
+   * The buffer is left in an undefined state.
+   */
+  private static MethodSpec write() {
+    ParameterSpec end = parameterSpec(TypeName.INT, "end");
+    return methodBuilder("write")
+        .addParameter(end)
+        .addException(IOException.class)
+        .addStatement("this.$N.limit($N)", BATCH, end)
+        .addStatement("this.$N.position(0)", BATCH)
+        .beginControlFlow("while (this.$N.hasRemaining())", BATCH)
+        .addStatement("this.$N += this.$N.write(this.$N, this.$N)", POSITION, CHANNEL, BATCH, POSITION)
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec roll() {
+    return methodBuilder("roll")
+        .addException(IOException.class)
+        .addStatement("this.$N.force(false)", CHANNEL)
+        .addStatement("this.$N.close()", CHANNEL)
+        .addStatement("this.$N++", SEGMENT)
+        .addStatement("this.$N = $L", CHANNEL, open(CodeBlock.of("this.$N", SEGMENT)))
+        .addStatement("this.$N = 0", POSITION)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec recover() {
+    return methodBuilder("recover")
+        .addException(IOException.class)
+        .addStatement("int last = 0")
+        .beginControlFlow("while ($T.exists(segmentPath(last + 1)))", Files.class)
+        .addStatement("last++")
+        .endControlFlow()
+        .addStatement("$T header = $T.allocate($L)", BYTE_BUFFER, BYTE_BUFFER, HEADER_SIZE)
+        .addStatement("$T chunk = $T.allocate($L)", BYTE_BUFFER, BYTE_BUFFER, BATCH_SIZE)
+        .beginControlFlow("for (int segment = 0; segment <= last; segment++)")
+        .addStatement("$T channel = $L", FILE_CHANNEL, open(CodeBlock.of("segment")))
+        .addStatement("long length = channel.size()")
+        .addStatement("long offset = 0")
+        .beginControlFlow("while (offset + $L <= length)", HEADER_SIZE)
+        .addStatement("header.clear()")
+        .addStatement("readFully(channel, header, offset)")
+        .addStatement("int recordLength = header.getInt(4)")
+        .beginControlFlow("if (recordLength < 0 || offset + $L + recordLength > length\n    "
+            + "|| checksum(channel, chunk, offset + 4, 4 + recordLength) != header.getInt(0))", HEADER_SIZE)
+        .addStatement("break")
+        .endControlFlow()
+        .addStatement("addIndex(segment, offset)")
+        .addStatement("offset += $L + recordLength", HEADER_SIZE)
+        .endControlFlow()
+        .beginControlFlow("if (offset < length)")
+        .addCode("// cut off a record that was not completely written, and anything after it\n")
+        .addStatement("channel.truncate(offset)")
+        .endControlFlow()
+        .beginControlFlow("if (segment < last)")
+        .addStatement("channel.close()")
+        .nextControlFlow("else")
+        .addStatement("this.$N = segment", SEGMENT)
+        .addStatement("this.$N = channel", CHANNEL)
+        .addStatement("this.$N = offset", POSITION)
+        .endControlFlow()
+        .endControlFlow()
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  /**
+   * Reads the bytes in chunks, so that a corrupt length does not allocate a large buffer.
+   */
+  private static MethodSpec checksum() {
+    ParameterSpec channel = parameterSpec(FILE_CHANNEL, "channel");
+    ParameterSpec chunk = parameterSpec(BYTE_BUFFER, "chunk");
+    ParameterSpec position = parameterSpec(TypeName.LONG, "position");
+    ParameterSpec length = parameterSpec(TypeName.INT, "length");
+    return methodBuilder("checksum")
+        .addParameters(asList(channel, chunk, position, length))
+        .returns(TypeName.INT)
+        .addException(IOException.class)
+        .addStatement("this.$N.reset()", CRC)
+        .addStatement("long end = $N + $N", position, length)
+        .beginControlFlow("while ($N < end)", position)
+        .addStatement("$N.clear()", chunk)
+        .addStatement("$N.limit((int) $T.min($N.capacity(), end - $N))", chunk, Math.class, chunk, position)
+        .addStatement("readFully($N, $N, $N)", channel, chunk, position)
+        .addStatement("this.$N.update($N.array(), 0, $N.position())", CRC, chunk, chunk)
+        .addStatement("$N += $N.position()", position, chunk)
+        .endControlFlow()
+        .addStatement("return (int) this.$N.getValue()", CRC)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec addIndex() {
+    ParameterSpec segment = parameterSpec(TypeName.INT, "segment");
+    ParameterSpec offset = parameterSpec(TypeName.LONG, "offset");
+    return methodBuilder("addIndex")
+        .addParameter(segment)
+        .addParameter(offset)
+        .beginControlFlow("if (this.$N == this.$N.length)", SIZE, INDEX)
+        .addStatement("this.$N = $T.copyOf(this.$N, 2 * this.$N)", INDEX, Arrays.class, INDEX, SIZE)
+        .endControlFlow()
+        .addStatement("this.$N[this.$N++] = (long) $N << 32 | $N", INDEX, SIZE, segment, offset)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec segmentPath() {
+    ParameterSpec segment = parameterSpec(TypeName.INT, "segment");
+    return methodBuilder("segmentPath")
+        .addParameter(segment)
+        .returns(PATH)
+        .addStatement("return this.$N.resolve($T.format($S, $N))", DIRECTORY, String.class, "%08d.log", segment)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private static MethodSpec readFully() {
+    ParameterSpec channel = parameterSpec(FILE_CHANNEL, "channel");
+    ParameterSpec buffer = parameterSpec(BYTE_BUFFER, "buffer");
+    ParameterSpec position = parameterSpec(TypeName.LONG, "position");
+    return methodBuilder("readFully")
+        .addParameters(asList(channel, buffer, position))
+        .addException(IOException.class)
+        .beginControlFlow("while ($N.hasRemaining())", buffer)
+        .beginControlFlow("if ($N.read($N, $N + $N.position()) < 0)", channel, buffer, position, buffer)
+        .addStatement("throw new $T()", EOFException.class)
+        .endControlFlow()
+        .endControlFlow()
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+
+  private static CodeBlock open(CodeBlock segment) {
+    Class<?> options = CREATE.getDeclaringClass();
+    return CodeBlock.of("$T.open(segmentPath($L), $T.$L, $T.$L, $T.$L)", FILE_CHANNEL, segment,
+        options, CREATE, options, READ, options, WRITE);
+  }
+
+  @Override
+  public String name() {
+    return "log";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    return log(goal);
+  }
+}
@@ -0,0 +1,142 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.Utilities.joinCodeBlocks;
+
+/**
+ * Moves long sequences of generated statements into helper methods.
+ * HotSpot does not compile methods that are bigger than 8000 bytes ({@code -XX:HugeMethodLimit}),
+ * so without this, the updater of a very wide goal would always run in the interpreter.
+ * The sizes are rough upper bounds of the bytecode that javac emits for each kind of statement.
+ */
+final class MethodSplitter {
+
+  /**
+   * Leaves room for the statements that are not split.
+   */
+  static final int DEFAULT_BUDGET = 6000;
+
+  /**
+   * {@code if (source.getFoo() == null) throw new NullPointerException("foo");}
+   */
+  static final int NULL_CHECK_SIZE = 24;
+
+  /**
+   * {@code updater.foo = source.getFoo();} or {@code updater.bean.setFoo(source.getFoo());}
+   */
+  static final int COPY_SIZE = 16;
+
+  /**
+   * {@code updater.bean.getFoo().addAll(source.getFoo());}, or the check that
+   * {@code clone()} did not share the collection
+   */
+  static final int COLLECTION_COPY_SIZE = 28;
+
+  static final class SizedCode {
+    final CodeBlock code;
+    final int size;
+
+    private SizedCode(CodeBlock code, int size) {
+      this.code = code;
+      this.size = size;
+    }
+
+    static SizedCode sized(CodeBlock code, int size) {
+      return new SizedCode(code, code.isEmpty() ? 0 : size);
+    }
+  }
+
+  static final class Split {
+
+    /**
+     * Either the statements themselves, or invocations of {@link #methods}.
+     */
+    final CodeBlock code;
+    final List<MethodSpec> methods;
+
+    private Split(CodeBlock code, List<MethodSpec> methods) {
+      this.code = code;
+      this.methods = methods;
+    }
+  }
+
+  /**
+   * @param owner       the class where the helper methods are added
+   * @param name        name prefix of the helper methods
+   * @param parameters  the variables that the statements use
+   * @param thrownTypes checked exceptions of the statements
+   * @param statements  statements with their estimated size
+   * @param budget      maximum estimated size of the statements in a single method
+   * @return the statements if they fit in the budget, otherwise invocations of helper methods
+   */
+  static Split split(ClassName owner, String name, List<ParameterSpec> parameters,
+                     Collection<TypeName> thrownTypes, List<SizedCode> statements, int budget) {
+    if (size(statements) <= budget) {
+      return new Split(statements.stream()
+          .map(statement -> statement.code)
+          .collect(joinCodeBlocks), emptyList());
+    }
+    String arguments = parameters.stream()
+        .map(parameter -> parameter.name)
+        .collect(joining(", "));
+    List<MethodSpec> methods = new ArrayList<>();
+    CodeBlock.Builder invocations = CodeBlock.builder();
+    CodeBlock.Builder chunk = CodeBlock.builder();
+    int chunkSize = 0;
+    for (SizedCode statement : statements) {
+      if (chunkSize > 0 && chunkSize + statement.size > budget) {
+        invocations.add(helper(owner, name + methods.size(), arguments));
+        methods.add(helperMethod(name + methods.size(), parameters, thrownTypes, chunk.build()));
+        chunk = CodeBlock.builder();
+        chunkSize = 0;
+      }
+      chunk.add(statement.code);
+      chunkSize += statement.size;
+    }
+    if (chunkSize > 0) {
+      invocations.add(helper(owner, name + methods.size(), arguments));
+      methods.add(helperMethod(name + methods.size(), parameters, thrownTypes, chunk.build()));
+    }
+    return new Split(invocations.build(), methods);
+  }
+
+  private static int size(List<SizedCode> statements) {
+    int size = 0;
+    for (SizedCode statement : statements) {
+      size += statement.size;
+    }
+    return size;
+  }
+
+  private static CodeBlock helper(ClassName owner, String name, String arguments) {
+    return CodeBlock.builder().addStatement("$T.$N($L)", owner, name, arguments).build();
+  }
+
+  private static MethodSpec helperMethod(String name, List<ParameterSpec> parameters,
+                                         Collection<TypeName> thrownTypes, CodeBlock code) {
+    return methodBuilder(name)
+        .addModifiers(PRIVATE, STATIC)
+        .addParameters(parameters)
+        .addExceptions(thrownTypes)
+        .addCode(code)
+        .build();
+  }
+
+  private MethodSplitter() {
+    throw new UnsupportedOperationException("no instances");
+  }
+}
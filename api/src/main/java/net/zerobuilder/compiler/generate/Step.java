@@ -1,13 +1,21 @@
 package net.zerobuilder.compiler.generate;
 
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
 import net.zerobuilder.compiler.generate.DtoParameter.AbstractParameter;
 import net.zerobuilder.compiler.generate.DtoStep.AbstractStep;
 
 import java.util.function.Function;
 
+import static com.squareup.javapoet.TypeSpec.interfaceBuilder;
+import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.zerobuilder.compiler.generate.DtoParameter.parameterName;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.isCompact;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.nextType;
+import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.stepType;
 import static net.zerobuilder.compiler.generate.DtoStep.always;
 import static net.zerobuilder.compiler.generate.DtoStep.asFunction;
 import static net.zerobuilder.compiler.generate.DtoStep.stepCases;
@@ -28,6 +36,35 @@ final class Step {
     return nullCheck(name, name);
   });
 
+  /**
+   * Type parameter of a compact step interface, see {@link AbstractStep#isCompact(AbstractStep)}.
+   */
+  private static final TypeVariableName NEXT = TypeVariableName.get("NEXT");
+
+  static TypeSpec.Builder stepInterfaceBuilder(AbstractStep step) {
+    TypeSpec.Builder builder = interfaceBuilder(step.thisType)
+        .addModifiers(PUBLIC);
+    return isCompact(step) ? builder.addTypeVariable(NEXT) : builder;
+  }
+
+  /**
+   * @param step a step
+   * @return the return type of the methods of the step interface
+   */
+  static TypeName stepReturnType(AbstractStep step) {
+    return isCompact(step) ? NEXT : nextType(step);
+  }
+
+  /**
+   * @param step a step
+   * @return the type of the step interface, as it is used in its own declaration
+   */
+  static TypeName stepSelfType(AbstractStep step) {
+    return isCompact(step) ?
+        ParameterizedTypeName.get(step.context.generatedType.nestedClass(step.thisType), NEXT) :
+        stepType(step);
+  }
+
   static final Function<AbstractStep, TypeSpec> asStepInterface
       = asFunction(stepCases(regularStepInterface, beanStepInterface));
 
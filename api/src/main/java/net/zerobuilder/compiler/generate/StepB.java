@@ -12,14 +12,14 @@ import java.util.Optional;
 import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
-import static com.squareup.javapoet.TypeSpec.interfaceBuilder;
 import static com.squareup.javapoet.WildcardTypeName.subtypeOf;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
 import static net.zerobuilder.compiler.generate.DtoParameter.parameterName;
-import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.nextType;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.ITERABLE;
+import static net.zerobuilder.compiler.generate.Step.stepInterfaceBuilder;
+import static net.zerobuilder.compiler.generate.Step.stepReturnType;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
 
@@ -27,15 +27,13 @@ final class StepB {
 
   static final Function<AbstractBeanStep, TypeSpec> beanStepInterface
       = beanStepCases(
-      step -> interfaceBuilder(step.thisType)
+      step -> stepInterfaceBuilder(step)
           .addMethod(regularMethod(step))
           .addMethods(presentInstances(emptyCollection(step)))
-          .addModifiers(PUBLIC)
           .build(),
-      step -> interfaceBuilder(step.thisType)
+      step -> stepInterfaceBuilder(step)
           .addMethod(iterateCollection(step))
           .addMethod(emptyCollection(step))
-          .addModifiers(PUBLIC)
           .build());
 
   private static MethodSpec regularMethod(AccessorPairStep step) {
@@ -43,7 +41,7 @@ final class StepB {
     String name = parameterName.apply(parameter);
     TypeName type = parameter.type;
     return methodBuilder(name)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addParameter(parameterSpec(type, name))
         .addExceptions(step.accessorPair.setterThrownTypes)
         .addModifiers(PUBLIC, ABSTRACT)
@@ -57,7 +55,7 @@ final class StepB {
     }
     DtoStep.CollectionInfo collectionInfo = maybeEmptyOption.get();
     return Optional.of(methodBuilder(collectionInfo.name)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addExceptions(step.accessorPair.setterThrownTypes)
         .addModifiers(PUBLIC, ABSTRACT)
         .build());
@@ -65,7 +63,7 @@ final class StepB {
 
   private static MethodSpec emptyCollection(LoneGetterStep step) {
     return methodBuilder(step.emptyMethod)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addExceptions(step.loneGetter.getterThrownTypes)
         .addModifiers(PUBLIC, ABSTRACT)
         .build();
@@ -78,7 +76,7 @@ final class StepB {
     return methodBuilder(name)
         .addParameter(parameterSpec(type, name))
         .addExceptions(step.loneGetter.getterThrownTypes)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addModifiers(PUBLIC, ABSTRACT)
         .build();
   }
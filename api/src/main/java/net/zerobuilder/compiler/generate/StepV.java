@@ -1,30 +1,37 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import net.zerobuilder.compiler.generate.DtoParameter.AbstractParameter;
 import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
-import static com.squareup.javapoet.TypeSpec.interfaceBuilder;
+import static java.util.Collections.emptyList;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.zerobuilder.compiler.generate.DtoParameter.parameterName;
-import static net.zerobuilder.compiler.generate.DtoStep.AbstractStep.nextType;
+import static net.zerobuilder.compiler.generate.Step.stepInterfaceBuilder;
+import static net.zerobuilder.compiler.generate.Step.stepReturnType;
+import static net.zerobuilder.compiler.generate.Step.stepSelfType;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
 
 final class StepV {
 
   static final Function<AbstractRegularStep, TypeSpec> regularStepInterface
-      = step -> interfaceBuilder(step.thisType)
+      = step -> stepInterfaceBuilder(step)
       .addMethod(regularStepMethod(step))
       .addMethods(presentInstances(emptyCollection(step)))
-      .addModifiers(PUBLIC)
+      .addMethods(presentInstances(varargs(step)))
+      .addMethods(accumulatorMethods(step))
       .build();
 
   private static MethodSpec regularStepMethod(AbstractRegularStep step) {
@@ -32,7 +39,7 @@ final class StepV {
     String name = parameterName.apply(parameter);
     TypeName type = parameter.type;
     return methodBuilder(name)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addParameter(parameterSpec(type, name))
         .addExceptions(step.declaredExceptions())
         .addModifiers(PUBLIC, ABSTRACT)
@@ -46,11 +53,54 @@ final class StepV {
     }
     DtoStep.CollectionInfo collectionInfo = maybeEmptyOption.get();
     return Optional.of(methodBuilder(collectionInfo.name)
-        .returns(nextType(step))
+        .returns(stepReturnType(step))
         .addModifiers(PUBLIC, ABSTRACT)
         .build());
   }
 
+  private static Optional<MethodSpec> varargs(AbstractRegularStep step) {
+    Optional<TypeName> maybeElement = step.varargsElement();
+    if (!maybeElement.isPresent()) {
+      return Optional.empty();
+    }
+    String name = step.regularParameter().name;
+    return Optional.of(methodBuilder(name)
+        .returns(stepReturnType(step))
+        .addParameter(parameterSpec(ArrayTypeName.of(maybeElement.get()), name))
+        .varargs(true)
+        .addExceptions(step.declaredExceptions())
+        .addModifiers(PUBLIC, ABSTRACT)
+        .build());
+  }
+
+  private static List<MethodSpec> accumulatorMethods(AbstractRegularStep step) {
+    Optional<Accumulator> maybeAccumulator = step.accumulator();
+    if (!maybeAccumulator.isPresent()) {
+      return emptyList();
+    }
+    Accumulator accumulator = maybeAccumulator.get();
+    TypeName selfType = stepSelfType(step);
+    List<MethodSpec> methods = new ArrayList<>();
+    methods.add(methodBuilder(accumulator.add)
+        .returns(selfType)
+        .addParameters(accumulator.elements)
+        .addModifiers(PUBLIC, ABSTRACT)
+        .build());
+    for (ParameterSpec bulk : accumulator.bulk) {
+      methods.add(methodBuilder(accumulator.addAll)
+          .returns(selfType)
+          .addParameter(bulk)
+          .addModifiers(PUBLIC, ABSTRACT)
+          .build());
+    }
+    methods.add(methodBuilder(accumulator.end)
+        .returns(stepReturnType(step))
+        .addExceptions(step.declaredExceptions())
+        .addModifiers(PUBLIC, ABSTRACT)
+        .build());
+    return methods;
+  }
+
   private StepV() {
     throw new UnsupportedOperationException("no instances");
   }
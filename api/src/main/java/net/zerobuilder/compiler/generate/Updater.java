@@ -3,6 +3,8 @@ package net.zerobuilder.compiler.generate;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import net.zerobuilder.compiler.generate.DtoBeanGoal.BeanGoalContext;
 import net.zerobuilder.compiler.generate.DtoGeneratorOutput.SingleModuleOutput;
@@ -12,20 +14,24 @@ import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalConte
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
-import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.REUSE_INSTANCES;
+import static net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle.NEW_INSTANCE;
 import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
 import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
+import static net.zerobuilder.compiler.generate.GeneratorVU.thrownByProjections;
 import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.statement;
 
 public final class Updater extends DtoModule.SimpleModule {
@@ -43,39 +49,58 @@ public final class Updater extends DtoModule.SimpleModule {
     return goalCases(generatorVU::goalToUpdaterV, generatorBU::goalToUpdaterB);
   }
 
-  private MethodSpec buildMethod(AbstractGoalContext goal) {
+  private MethodSpec buildMethod(AbstractGoalContext goal, UpdaterB updaterB, UpdaterV updaterV) {
     return methodBuilder("done")
         .addModifiers(PUBLIC)
         .returns(goal.goalType())
-        .addCode(invoke.apply(goal))
+        .addExceptions(doneExceptions.apply(goal))
+        .addCode(releaseAfter(goal, fields(updaterB, updaterV).apply(goal), invoke(updaterB, updaterV).apply(goal)))
         .build();
   }
 
-  private TypeSpec defineUpdater(AbstractGoalContext goal) {
+  private Function<AbstractGoalContext, List<MethodSpec>> helperMethods(
+      GeneratorBU generatorBU, GeneratorVU generatorVU) {
+    return goalCases(generatorVU::helperMethods, generatorBU::helperMethods);
+  }
+
+  private TypeSpec defineUpdater(AbstractGoalContext goal, GeneratorBU generatorBU, GeneratorVU generatorVU) {
     UpdaterB updaterB = new UpdaterB(this);
     UpdaterV updaterV = new UpdaterV(this);
     return classBuilder(implType(goal))
         .addFields(fields(updaterB, updaterV).apply(goal))
-        .addMethods(updateMethods(updaterB, updaterV).apply(goal))
-        .addMethod(buildMethod(goal))
+        .addFields(lifecycleFields(goal))
+        .addMethods(checkOwner(goal, updateMethods(updaterB, updaterV).apply(goal)))
+        .addMethods(checkOwner(goal, singletonList(buildMethod(goal, updaterB, updaterV))))
         .addModifiers(PUBLIC, STATIC, FINAL)
         .addMethod(builderConstructor.apply(goal))
+        .addMethods(helperMethods(generatorBU, generatorVU).apply(goal))
         .build();
   }
 
   private static final Function<AbstractGoalContext, MethodSpec> builderConstructor =
       goalCases(
           AbstractRegularGoalContext::builderConstructor,
-          bGoal -> constructorBuilder()
+          bGoal -> bGoal.context.lifecycle == NEW_INSTANCE && bGoal.cloneMethod.isPresent()
+              ? cloneConstructor(bGoal)
+              : constructorBuilder()
               .addModifiers(PRIVATE)
-              .addExceptions(bGoal.context.lifecycle == REUSE_INSTANCES
+              .addExceptions(bGoal.context.lifecycle != NEW_INSTANCE
                   ? Collections.emptyList()
                   : bGoal.thrownTypes)
-              .addCode(bGoal.context.lifecycle == REUSE_INSTANCES
+              .addCode(bGoal.context.lifecycle != NEW_INSTANCE
                   ? emptyCodeBlock
                   : statement("this.$N = new $T()", bGoal.bean(), bGoal.type()))
               .build());
 
+  private static MethodSpec cloneConstructor(BeanGoalContext goal) {
+    ParameterSpec bean = parameterSpec(goal.type(), goal.bean().name);
+    return constructorBuilder()
+        .addModifiers(PRIVATE)
+        .addParameter(bean)
+        .addStatement("this.$N = $N", goal.bean(), bean)
+        .build();
+  }
+
   private static final Function<AbstractRegularGoalContext, CodeBlock> regularInvoke =
       regularGoalContextCases(
           goal -> statement("return new $T($L)", goal.type(),
@@ -86,8 +111,24 @@ public final class Updater extends DtoModule.SimpleModule {
   private static final Function<BeanGoalContext, CodeBlock> returnBean
       = goal -> statement("return this.$N", goal.bean());
 
-  private static final Function<AbstractGoalContext, CodeBlock> invoke
-      = goalCases(regularInvoke, returnBean);
+  private static Function<AbstractGoalContext, CodeBlock> invoke(UpdaterB updaterB, UpdaterV updaterV) {
+    return goalCases(
+        goal -> UpdaterV.isLazy(goal) ?
+            updaterV.lazyInvoke(goal, regularInvoke.apply(goal)) :
+            regularInvoke.apply(goal),
+        goal -> UpdaterB.isLazy(goal) ?
+            updaterB.lazyInvoke(goal) :
+            returnBean.apply(goal));
+  }
+
+  private static final Function<AbstractGoalContext, Set<TypeName>> doneExceptions
+      = goalCases(
+      goal -> UpdaterV.isLazy(goal) ?
+          thrownByProjections(goal) :
+          emptySet(),
+      goal -> UpdaterB.isLazy(goal) ?
+          UpdaterB.lazyThrownTypes(goal) :
+          emptySet());
 
   @Override
   public String name() {
@@ -100,7 +141,7 @@ public final class Updater extends DtoModule.SimpleModule {
     GeneratorVU generatorVU = new GeneratorVU(this);
     return new SimpleModuleOutput(
         goalToUpdater(generatorBU, generatorVU).apply(goal),
-        defineUpdater(goal));
+        defineUpdater(goal, generatorBU, generatorVU));
   }
 
   @Override
@@ -109,6 +150,6 @@ public final class Updater extends DtoModule.SimpleModule {
     GeneratorVU generatorVU = new GeneratorVU(this);
     return new SingleModuleOutput(
         goalToUpdater(generatorBU, generatorVU).apply(goal),
-        singletonList(defineUpdater(goal)));
+        singletonList(defineUpdater(goal, generatorBU, generatorVU)));
   }
 }
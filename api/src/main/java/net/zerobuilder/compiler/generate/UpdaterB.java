@@ -13,20 +13,31 @@ import net.zerobuilder.compiler.generate.DtoBeanStep.LoneGetterStep;
 import net.zerobuilder.compiler.generate.DtoStep.CollectionInfo;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.WildcardTypeName.subtypeOf;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.zerobuilder.compiler.generate.DtoBeanStep.beanStepCases;
+import static net.zerobuilder.compiler.generate.UpdaterV.CHANGED;
+import static net.zerobuilder.compiler.generate.UpdaterV.MAX_LAZY_STEPS;
+import static net.zerobuilder.compiler.generate.UpdaterV.SOURCE;
+import static net.zerobuilder.compiler.generate.UpdaterV.changedType;
 import static net.zerobuilder.compiler.generate.Utilities.ClassNames.ITERABLE;
+import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
+import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
 import static net.zerobuilder.compiler.generate.Utilities.flatList;
 import static net.zerobuilder.compiler.generate.Utilities.nullCheck;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
 
 final class UpdaterB {
 
@@ -37,7 +48,14 @@ final class UpdaterB {
   }
 
   final Function<BeanGoalContext, List<FieldSpec>> fieldsB
-      = goal -> singletonList(goal.bean());
+      = goal -> {
+    if (!isLazy(goal)) {
+      return singletonList(goal.bean());
+    }
+    return asList(goal.bean(),
+        fieldSpec(goal.details.goalType, SOURCE, PRIVATE),
+        fieldSpec(changedType(loneGetters(goal).size()), CHANGED, PRIVATE));
+  };
 
   final Function<BeanGoalContext, List<MethodSpec>> updateMethodsB = goal ->
       goal.steps.stream()
@@ -103,17 +121,15 @@ final class UpdaterB {
         subtypeOf(step.loneGetter.iterationType()));
     String name = step.loneGetter.name();
     ParameterSpec parameter = parameterSpec(iterable, name);
-    ParameterSpec iterationVar = step.loneGetter.iterationVar(parameter);
     return methodBuilder(name)
         .returns(updater.implType(goal))
         .addParameter(parameter)
         .addExceptions(step.loneGetter.getterThrownTypes)
         .addCode(nullCheck(name, name))
         .addCode(clearCollection(goal, step))
-        .beginControlFlow("for ($T $N : $N)", iterationVar.type, iterationVar, name)
-        .addStatement("this.$N.$N().add($N)",
-            goal.bean(), step.loneGetter.getter, iterationVar)
-        .endControlFlow()
+        .addCode(step.loneGetter.addAll(
+            CodeBlock.of("this.$N.$N()", goal.bean(), step.loneGetter.getter), parameter))
+        .addCode(markChanged(goal, step))
         .addStatement("return this")
         .addModifiers(PUBLIC)
         .build();
@@ -124,6 +140,7 @@ final class UpdaterB {
         .returns(updater.implType(goal))
         .addExceptions(step.loneGetter.getterThrownTypes)
         .addCode(clearCollection(goal, step))
+        .addCode(markChanged(goal, step))
         .addStatement("return this")
         .addModifiers(PUBLIC)
         .build();
@@ -133,4 +150,67 @@ final class UpdaterB {
     return CodeBlock.builder().addStatement("this.$N.$N().clear()",
         goal.bean(), step.loneGetter.getter).build();
   }
+
+  private CodeBlock markChanged(BeanGoalContext goal, LoneGetterStep step) {
+    if (!isLazy(goal)) {
+      return emptyCodeBlock;
+    }
+    return statement("this.$N |= $L", CHANGED, bit(goal, step));
+  }
+
+  /**
+   * Body of the {@code done} method of a lazy bean updater.
+   * Copies the collections that were not replaced by a step.
+   *
+   * @param goal a lazy goal
+   * @return method body
+   */
+  CodeBlock lazyInvoke(BeanGoalContext goal) {
+    CodeBlock.Builder builder = CodeBlock.builder();
+    for (LoneGetterStep step : loneGetters(goal)) {
+      builder.beginControlFlow("if ((this.$N & $L) == 0)", CHANGED, bit(goal, step))
+          .addStatement("this.$N.$N().addAll(this.$N.$N())",
+              goal.bean(), step.loneGetter.getter, SOURCE, step.loneGetter.getter)
+          .endControlFlow();
+    }
+    return builder.addStatement("return this.$N", goal.bean()).build();
+  }
+
+  /**
+   * @param goal a bean goal
+   * @return {@code true} if the updater of this goal should copy the collections of the source
+   * when the goal is invoked, rather than when the updater is created;
+   * {@code false} if the updater starts from a clone, which already contains the collections
+   */
+  static boolean isLazy(BeanGoalContext goal) {
+    int size = loneGetters(goal).size();
+    return goal.context.lazyUpdaters
+        && !goal.cloneMethod.isPresent()
+        && size > 0
+        && size <= MAX_LAZY_STEPS;
+  }
+
+  /**
+   * @param goal a lazy goal
+   * @return the exceptions of the getters that are invoked by {@link #lazyInvoke(BeanGoalContext)}
+   */
+  static Set<TypeName> lazyThrownTypes(BeanGoalContext goal) {
+    return new HashSet<>(loneGetters(goal).stream()
+        .map(step -> step.loneGetter.getterThrownTypes)
+        .collect(flatList()));
+  }
+
+  private static List<LoneGetterStep> loneGetters(BeanGoalContext goal) {
+    return goal.steps.stream()
+        .map(beanStepCases(
+            step -> Optional.<LoneGetterStep>empty(),
+            Optional::of))
+        .map(Utilities::presentInstances)
+        .collect(flatList());
+  }
+
+  private static String bit(BeanGoalContext goal, LoneGetterStep step) {
+    List<LoneGetterStep> loneGetters = loneGetters(goal);
+    return UpdaterV.bit(loneGetters.indexOf(step), loneGetters.size());
+  }
 }
@@ -1,9 +1,11 @@
 package net.zerobuilder.compiler.generate;
 
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
+import net.zerobuilder.compiler.generate.DtoProjectionInfo.ProjectionInfo;
 import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
 import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
 import net.zerobuilder.compiler.generate.DtoStep.CollectionInfo;
@@ -11,6 +13,7 @@ import net.zerobuilder.compiler.generate.DtoStep.CollectionInfo;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -18,14 +21,29 @@ import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static java.util.stream.Collectors.toList;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static net.zerobuilder.compiler.generate.DtoProjectionInfo.projectionInfoCases;
 import static net.zerobuilder.compiler.generate.Step.nullCheck;
+import static net.zerobuilder.compiler.generate.Utilities.emptyCodeBlock;
 import static net.zerobuilder.compiler.generate.Utilities.fieldSpec;
 import static net.zerobuilder.compiler.generate.Utilities.flatList;
 import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
 import static net.zerobuilder.compiler.generate.Utilities.presentInstances;
+import static net.zerobuilder.compiler.generate.Utilities.statement;
 
 final class UpdaterV {
 
+  /**
+   * Name of the field that holds the source instance of a lazy updater.
+   */
+  static final String SOURCE = "_source";
+
+  /**
+   * Name of the field that holds the bitmask of updated steps.
+   */
+  static final String CHANGED = "_changed";
+
+  static final int MAX_LAZY_STEPS = 64;
+
   private final Updater updater;
 
   UpdaterV(Updater updater) {
@@ -41,6 +59,10 @@ final class UpdaterV {
       TypeName type = step.regularParameter().type;
       builder.add(fieldSpec(type, name, PRIVATE));
     }
+    if (isLazy(goal)) {
+      builder.add(fieldSpec(goal.regularDetails().goalType, SOURCE, PRIVATE));
+      builder.add(fieldSpec(changedType(goal), CHANGED, PRIVATE));
+    }
     return builder;
   };
 
@@ -68,6 +90,7 @@ final class UpdaterV {
         .returns(updater.implType(goal))
         .addStatement("this.$N = $L",
             step.field(), collectionInfo.initializer)
+        .addCode(markChanged(goal, step))
         .addStatement("return this")
         .addModifiers(PUBLIC)
         .build());
@@ -82,8 +105,109 @@ final class UpdaterV {
         .addParameter(parameter)
         .addCode(nullCheck.apply(step))
         .addStatement("this.$N = $N", step.field(), parameter)
+        .addCode(markChanged(goal, step))
         .addStatement("return this")
         .addModifiers(PUBLIC)
         .build();
   }
+
+  private CodeBlock markChanged(AbstractRegularGoalContext goal, AbstractRegularStep step) {
+    if (!isLazy(goal)) {
+      return emptyCodeBlock;
+    }
+    return statement("this.$N |= $L", CHANGED, bit(goal, step));
+  }
+
+  /**
+   * Body of the {@code done} method of a lazy updater.
+   * Reads the projections of the steps that were not invoked,
+   * and returns the source instance if no value was changed.
+   *
+   * @param goal       a lazy goal
+   * @param invocation goal invocation
+   * @return method body
+   */
+  CodeBlock lazyInvoke(AbstractRegularGoalContext goal, CodeBlock invocation) {
+    CodeBlock.Builder builder = CodeBlock.builder()
+        .beginControlFlow("if (this.$N == 0)", CHANGED)
+        .addStatement("return this.$N", SOURCE)
+        .endControlFlow();
+    CodeBlock.Builder unchanged = CodeBlock.builder();
+    for (AbstractRegularStep step : goal.regularSteps()) {
+      String name = step.regularParameter().name;
+      TypeName type = step.regularParameter().type;
+      CodeBlock projection = readProjection.apply(step.regularParameter().projectionInfo().get(), step);
+      builder.addStatement("$T $N = (this.$N & $L) != 0 ? this.$N : $L",
+          type, name, CHANGED, bit(goal, step), name, projection);
+      builder.add(nullCheck.apply(step));
+      if (step != goal.regularSteps().get(0)) {
+        unchanged.add("\n    && ");
+      }
+      unchanged.add("((this.$N & $L) == 0 || $L)",
+          CHANGED, bit(goal, step), sameValue(type, name, projection));
+    }
+    return builder
+        .beginControlFlow("if ($L)", unchanged.build())
+        .addStatement("return this.$N", SOURCE)
+        .endControlFlow()
+        .add(invocation)
+        .build();
+  }
+
+  /**
+   * Floating point values are compared by their bits, because {@code ==} treats
+   * {@code 0.0} and {@code -0.0} as equal, and would discard the new value.
+   */
+  private static CodeBlock sameValue(TypeName type, String name, CodeBlock projection) {
+    if (type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("$T.floatToRawIntBits($N) == $T.floatToRawIntBits($L)",
+          Float.class, name, Float.class, projection);
+    }
+    if (type.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of("$T.doubleToRawLongBits($N) == $T.doubleToRawLongBits($L)",
+          Double.class, name, Double.class, projection);
+    }
+    return CodeBlock.of("$N == $L", name, projection);
+  }
+
+  private static final BiFunction<ProjectionInfo, AbstractRegularStep, CodeBlock> readProjection =
+      projectionInfoCases(
+          (projection, step) -> CodeBlock.of("this.$N.$N()", SOURCE, projection.methodName),
+          (projection, step) -> CodeBlock.of("this.$N.$N", SOURCE, projection.fieldName));
+
+  /**
+   * @param goal a regular goal
+   * @return {@code true} if the updater of this goal should read the source projections lazily
+   */
+  static boolean isLazy(AbstractRegularGoalContext goal) {
+    return goal.context().lazyUpdaters
+        && goal.regularSteps().size() <= MAX_LAZY_STEPS;
+  }
+
+  private static TypeName changedType(AbstractRegularGoalContext goal) {
+    return changedType(goal.regularSteps().size());
+  }
+
+  private static String bit(AbstractRegularGoalContext goal, AbstractRegularStep step) {
+    return bit(goal.regularSteps().indexOf(step), goal.regularSteps().size());
+  }
+
+  /**
+   * @param size number of tracked steps, at most {@link #MAX_LAZY_STEPS}
+   * @return type of the {@link #CHANGED} field
+   */
+  static TypeName changedType(int size) {
+    return size <= Integer.SIZE ? TypeName.INT : TypeName.LONG;
+  }
+
+  /**
+   * @param index index of a tracked step
+   * @param size  number of tracked steps
+   * @return a literal of type {@link #changedType(int)} that has only the bit {@code index} set
+   */
+  static String bit(int index, int size) {
+    return changedType(size) == TypeName.INT ?
+        "0x" + Integer.toHexString(1 << index) :
+        "0x" + Long.toHexString(1L << index) + "L";
+  }
 }
@@ -7,6 +7,7 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
 
 import javax.lang.model.element.Modifier;
 import java.util.ArrayList;
@@ -15,8 +16,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
@@ -38,8 +41,10 @@ final class Utilities {
     static final ClassName COLLECTION = ClassName.get(Collection.class);
     static final ClassName LIST = ClassName.get(List.class);
     static final ClassName SET = ClassName.get(Set.class);
+    static final ClassName MAP = ClassName.get(Map.class);
     static final ClassName ITERABLE = ClassName.get(Iterable.class);
     static final ClassName THREAD_LOCAL = ClassName.get(ThreadLocal.class);
+    static final ClassName ATOMIC_REFERENCE_ARRAY = ClassName.get(AtomicReferenceArray.class);
 
     private ClassNames() {
       throw new UnsupportedOperationException("no instances");
@@ -74,6 +79,17 @@ final class Utilities {
     return lowered;
   }
 
+  /**
+   * Unlike {@link #downcase(String)}, this always lowercases the first character,
+   * so that a variable never has the same name as its type, as in {@code BUpdater BUpdater}.
+   *
+   * @param typeName simple name of a generated type
+   * @return a variable name
+   */
+  static String varName(String typeName) {
+    return Character.toLowerCase(typeName.charAt(0)) + typeName.substring(1);
+  }
+
   static CodeBlock statement(String format, Object... args) {
     return CodeBlock.builder().addStatement(format, args).build();
   }
@@ -144,6 +160,22 @@ final class Utilities {
     }
   }
 
+  /**
+   * A variable of type {@code List<Number>} can be passed for {@code List<? extends Number>}.
+   *
+   * @param typeName a type argument
+   * @return the bound of a wildcard, or the type argument itself
+   */
+  static TypeName elementType(TypeName typeName) {
+    if (!(typeName instanceof WildcardTypeName)) {
+      return typeName;
+    }
+    WildcardTypeName wildcard = (WildcardTypeName) typeName;
+    return wildcard.lowerBounds.isEmpty() ?
+        wildcard.upperBounds.get(0) :
+        wildcard.lowerBounds.get(0);
+  }
+
   static <X, E> List<E> transform(Collection<X> input, Function<X, E> function) {
     return input.stream().map(function).collect(toList());
   }
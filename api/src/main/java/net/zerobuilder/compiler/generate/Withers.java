@@ -0,0 +1,123 @@
+package net.zerobuilder.compiler.generate;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import net.zerobuilder.compiler.generate.DtoGeneratorOutput.BuilderMethod;
+import net.zerobuilder.compiler.generate.DtoGoal.AbstractRegularGoalDetails;
+import net.zerobuilder.compiler.generate.DtoGoalContext.AbstractGoalContext;
+import net.zerobuilder.compiler.generate.DtoModuleOutput.StatelessModuleOutput;
+import net.zerobuilder.compiler.generate.DtoProjectionInfo.ProjectionInfo;
+import net.zerobuilder.compiler.generate.DtoRegularGoal.AbstractRegularGoalContext;
+import net.zerobuilder.compiler.generate.DtoRegularStep.AbstractRegularStep;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.zerobuilder.compiler.generate.DtoGoalContext.goalCases;
+import static net.zerobuilder.compiler.generate.DtoProjectionInfo.projectionInfoCases;
+import static net.zerobuilder.compiler.generate.DtoRegularGoal.regularGoalContextCases;
+import static net.zerobuilder.compiler.generate.GeneratorVU.thrownByProjections;
+import static net.zerobuilder.compiler.generate.Step.nullCheck;
+import static net.zerobuilder.compiler.generate.Utilities.distinctFrom;
+import static net.zerobuilder.compiler.generate.Utilities.downcase;
+import static net.zerobuilder.compiler.generate.Utilities.parameterSpec;
+import static net.zerobuilder.compiler.generate.Utilities.transform;
+import static net.zerobuilder.compiler.generate.Utilities.upcase;
+
+/**
+ * Generates a static {@code withFoo(source, foo)} method for each step of a regular goal.
+ * The goal is invoked directly, with the projections of the other steps as arguments,
+ * so the result is the only allocation.
+ * Bean goals and instance method goals are not supported.
+ */
+public final class Withers extends DtoModule.StatelessModule {
+
+  private static List<BuilderMethod> withers(AbstractRegularGoalContext goal) {
+    if (goal.isInstance()) {
+      throw new IllegalArgumentException("withers are not supported for instance method goals");
+    }
+    return transform(goal.regularSteps(), step -> wither(goal, step));
+  }
+
+  private static BuilderMethod wither(AbstractRegularGoalContext goal, AbstractRegularStep step) {
+    AbstractRegularGoalDetails details = goal.regularDetails();
+    String name = step.regularParameter().name;
+    ParameterSpec source = sourceParameter(goal, name);
+    ParameterSpec value = parameterSpec(step.regularParameter().type, name);
+    CodeBlock arguments = CodeBlock.of(goal.regularSteps().stream()
+        .map(other -> other == step ?
+            CodeBlock.of("$N", value) :
+            readProjection.apply(other.regularParameter().projectionInfo().get(), source))
+        .map(CodeBlock::toString)
+        .collect(joining(", ")));
+    MethodSpec method = methodBuilder("with" + upcase(name))
+        .addParameter(source)
+        .addParameter(value)
+        .returns(details.goalType)
+        .addExceptions(thrownTypes(goal))
+        .addCode(nullCheck.apply(step))
+        .addCode(invoke.apply(goal, arguments))
+        .addModifiers(details.access(STATIC))
+        .build();
+    return new BuilderMethod(details.name, method);
+  }
+
+  private static ParameterSpec sourceParameter(AbstractRegularGoalContext goal, String stepName) {
+    TypeName goalType = goal.regularDetails().goalType;
+    String name = downcase(((ClassName) goalType.box()).simpleName());
+    return parameterSpec(goalType, distinctFrom(name, stepName));
+  }
+
+  private static final BiFunction<ProjectionInfo, ParameterSpec, CodeBlock> readProjection =
+      projectionInfoCases(
+          (projection, source) -> CodeBlock.of("$N.$N()", source, projection.methodName),
+          (projection, source) -> CodeBlock.of("$N.$N", source, projection.fieldName));
+
+  private static final BiFunction<AbstractRegularGoalContext, CodeBlock, CodeBlock> invoke =
+      (goal, arguments) -> regularGoalContextCases(
+          constructor -> CodeBlock.builder()
+              .addStatement("return new $T($L)", constructor.type(), arguments)
+              .build(),
+          method -> CodeBlock.builder()
+              .addStatement("return $T.$N($L)", method.context.type, method.details.methodName, arguments)
+              .build())
+          .apply(goal);
+
+  /**
+   * @param goal a regular goal
+   * @return the exceptions of the goal, and of the projections
+   */
+  private static Set<TypeName> thrownTypes(AbstractRegularGoalContext goal) {
+    Set<TypeName> thrownTypes = new HashSet<>(thrownByProjections(goal));
+    goal.regularSteps().stream()
+        .map(AbstractRegularStep::declaredExceptions)
+        .forEach(thrownTypes::addAll);
+    return thrownTypes;
+  }
+
+  private static final Function<AbstractGoalContext, List<BuilderMethod>> goalToWithers =
+      goalCases(
+          Withers::withers,
+          bean -> {
+            throw new IllegalArgumentException("withers are not supported for bean goals");
+          });
+
+  @Override
+  public String name() {
+    return "withers";
+  }
+
+  @Override
+  protected StatelessModuleOutput process(AbstractGoalContext goal) {
+    return new StatelessModuleOutput(goalToWithers.apply(goal));
+  }
+}
@@ -0,0 +1,32 @@
+package net.zerobuilder.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled,
+ * so that each result reports {@code gc.alloc.rate.norm} (bytes/op) next to ns/op.
+ * Accepts the usual JMH command line options, e.g. a benchmark regex.
+ */
+public final class Main {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.CSV)
+        .result("target/benchmarks.csv")
+        .build();
+    new Runner(options).run();
+  }
+
+  private Main() {
+    throw new UnsupportedOperationException("no instances");
+  }
+}
@@ -0,0 +1,129 @@
+package net.zerobuilder.benchmarks.beans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.zerobuilder.benchmarks.beans.ManagerBuilders.managerBuilder;
+import static net.zerobuilder.benchmarks.beans.ManagerBuilders.managerUpdater;
+import static net.zerobuilder.benchmarks.beans.PooledManagerBuilders.pooledManagerBuilder;
+import static net.zerobuilder.benchmarks.beans.PooledManagerBuilders.pooledManagerUpdater;
+import static net.zerobuilder.benchmarks.beans.RecycledManagerBuilders.recycledManagerBuilder;
+import static net.zerobuilder.benchmarks.beans.PooledManagerBuilders.pooledManagerBuilder;
+import static net.zerobuilder.benchmarks.beans.PooledManagerBuilders.pooledManagerUpdater;
+import static net.zerobuilder.benchmarks.beans.RecycledManagerBuilders.recycledManagerUpdater;
+
+// bean goals; the bean itself is always allocated, only the builder may be recycled
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagerBenchmark {
+
+  private int id;
+  private int salary;
+  private String name;
+  private Employee boss;
+
+  private Manager manager;
+  private RecycledManager recycledManager;
+  private PooledManager pooledManager;
+
+  @Setup
+  public void setup() {
+    id = 12;
+    salary = 10;
+    name = "Bob";
+    boss = new Employee();
+    boss.setName("Alice");
+    manager = setters();
+    recycledManager = recycledManagerBuilder()
+        .name(name)
+        .boss(boss)
+        .id(id)
+        .salary(salary);
+    pooledManager = pooledManagerBuilder()
+        .name(name)
+        .boss(boss)
+        .id(id)
+        .salary(salary);
+  }
+
+  @Benchmark
+  public Manager setters() {
+    Manager manager = new Manager();
+    manager.setName(name);
+    manager.setBoss(boss);
+    manager.setId(id);
+    manager.setSalary(salary);
+    return manager;
+  }
+
+  @Benchmark
+  public Manager builderNewInstance() {
+    return managerBuilder()
+        .name(name)
+        .boss(boss)
+        .id(id)
+        .salary(salary);
+  }
+
+  @Benchmark
+  public RecycledManager builderReuseInstances() {
+    return recycledManagerBuilder()
+        .name(name)
+        .boss(boss)
+        .id(id)
+        .salary(salary);
+  }
+
+  @Benchmark
+  public PooledManager builderPooled() {
+    return pooledManagerBuilder()
+        .name(name)
+        .boss(boss)
+        .id(id)
+        .salary(salary);
+  }
+
+  @Benchmark
+  public Manager copySetters() {
+    Manager copy = new Manager();
+    copy.setName(manager.getName());
+    copy.setBoss(manager.getBoss());
+    copy.setId(manager.getId());
+    copy.setSalary(salary + 1);
+    return copy;
+  }
+
+  @Benchmark
+  public Manager updaterNewInstance() {
+    return managerUpdater(manager)
+        .salary(salary + 1)
+        .done();
+  }
+
+  @Benchmark
+  public RecycledManager updaterReuseInstances() {
+    return recycledManagerUpdater(recycledManager)
+        .salary(salary + 1)
+        .done();
+  }
+
+  @Benchmark
+  public PooledManager updaterPooled() {
+    return pooledManagerUpdater(pooledManager)
+        .salary(salary + 1)
+        .done();
+  }
+}
@@ -0,0 +1,20 @@
+package net.zerobuilder.benchmarks.beans;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Lifecycle;
+
+@Builders(lifecycle = Lifecycle.POOLED)
+@Goal(updater = true)
+public class PooledManager extends Employee {
+
+  private Employee boss;
+
+  public Employee getBoss() {
+    return boss;
+  }
+
+  public void setBoss(Employee boss) {
+    this.boss = boss;
+  }
+}
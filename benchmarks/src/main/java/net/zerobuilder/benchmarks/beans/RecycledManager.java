@@ -0,0 +1,19 @@
+package net.zerobuilder.benchmarks.beans;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+@Builders(recycle = true)
+@Goal(updater = true)
+public class RecycledManager extends Employee {
+
+  private Employee boss;
+
+  public Employee getBoss() {
+    return boss;
+  }
+
+  public void setBoss(Employee boss) {
+    this.boss = boss;
+  }
+}
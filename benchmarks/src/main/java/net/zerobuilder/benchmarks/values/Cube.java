@@ -0,0 +1,36 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// static factory, projections: getters
+@Builders
+public final class Cube {
+
+  private final double height;
+  private final double length;
+  private final double width;
+
+  private Cube(double height, double length, double width) {
+    this.height = height;
+    this.length = length;
+    this.width = width;
+  }
+
+  @Goal(name = "cuboid", updater = true, withers = true)
+  static Cube create(double height, double length, double width) {
+    return new Cube(height, length, width);
+  }
+
+  double getHeight() {
+    return height;
+  }
+
+  double getLength() {
+    return length;
+  }
+
+  double getWidth() {
+    return width;
+  }
+}
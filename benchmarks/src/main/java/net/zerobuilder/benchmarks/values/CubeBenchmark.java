@@ -0,0 +1,119 @@
+package net.zerobuilder.benchmarks.values;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+// static factory, primitive parameters, getter projections
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CubeBenchmark {
+
+  private double height;
+  private double length;
+  private double width;
+
+  private Cube cube;
+  private RecycledCube recycledCube;
+  private PooledCube pooledCube;
+  private RecycledCubeBuilders.Session session;
+
+  @Setup
+  public void setup() {
+    height = 2;
+    length = 3;
+    width = 4;
+    cube = Cube.create(height, length, width);
+    recycledCube = RecycledCube.create(height, length, width);
+    pooledCube = PooledCube.create(height, length, width);
+    session = new RecycledCubeBuilders.Session();
+  }
+
+  @Benchmark
+  public Cube factory() {
+    return Cube.create(height, length, width);
+  }
+
+  @Benchmark
+  public Cube builderNewInstance() {
+    return CubeBuilders.cuboidBuilder()
+        .height(height)
+        .length(length)
+        .width(width);
+  }
+
+  @Benchmark
+  public RecycledCube builderReuseInstances() {
+    return RecycledCubeBuilders.cuboidBuilder()
+        .height(height)
+        .length(length)
+        .width(width);
+  }
+
+  @Benchmark
+  public RecycledCube builderSession() {
+    return session.cuboidBuilder()
+        .height(height)
+        .length(length)
+        .width(width);
+  }
+
+  @Benchmark
+  public PooledCube builderPooled() {
+    return PooledCubeBuilders.cuboidBuilder()
+        .height(height)
+        .length(length)
+        .width(width);
+  }
+
+  @Benchmark
+  public Cube copyFactory() {
+    return Cube.create(cube.getHeight(), cube.getLength(), width);
+  }
+
+  @Benchmark
+  public Cube wither() {
+    return CubeBuilders.withWidth(cube, width);
+  }
+
+  @Benchmark
+  public Cube updaterNewInstance() {
+    return CubeBuilders.cuboidUpdater(cube)
+        .width(width)
+        .done();
+  }
+
+  @Benchmark
+  public RecycledCube updaterReuseInstances() {
+    return RecycledCubeBuilders.cuboidUpdater(recycledCube)
+        .width(width)
+        .done();
+  }
+
+  @Benchmark
+  public RecycledCube updaterSession() {
+    return session.cuboidUpdater(recycledCube)
+        .width(width)
+        .done();
+  }
+
+  @Benchmark
+  public PooledCube updaterPooled() {
+    return PooledCubeBuilders.cuboidUpdater(pooledCube)
+        .width(width)
+        .done();
+  }
+}
@@ -0,0 +1,108 @@
+package net.zerobuilder.benchmarks.values;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.zerobuilder.benchmarks.values.MessageBuilders.messageBuilder;
+import static net.zerobuilder.benchmarks.values.MessageBuilders.messageUpdater;
+import static net.zerobuilder.benchmarks.values.PooledMessageBuilders.pooledMessageBuilder;
+import static net.zerobuilder.benchmarks.values.PooledMessageBuilders.pooledMessageUpdater;
+import static net.zerobuilder.benchmarks.values.RecycledMessageBuilders.recycledMessageBuilder;
+import static net.zerobuilder.benchmarks.values.RecycledMessageBuilders.recycledMessageUpdater;
+
+// four reference parameters
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+  private String sender;
+  private String body;
+  private String recipient;
+  private String subject;
+
+  private Message message;
+  private RecycledMessage recycledMessage;
+  private PooledMessage pooledMessage;
+
+  @Setup
+  public void setup() {
+    sender = "Alice";
+    body = "Hi";
+    recipient = "Bob";
+    subject = "test";
+    message = new Message(sender, body, recipient, subject);
+    recycledMessage = new RecycledMessage(sender, body, recipient, subject);
+    pooledMessage = new PooledMessage(sender, body, recipient, subject);
+  }
+
+  @Benchmark
+  public Message constructor() {
+    return new Message(sender, body, recipient, subject);
+  }
+
+  @Benchmark
+  public Message builderNewInstance() {
+    return messageBuilder()
+        .sender(sender)
+        .body(body)
+        .recipient(recipient)
+        .subject(subject);
+  }
+
+  @Benchmark
+  public RecycledMessage builderReuseInstances() {
+    return recycledMessageBuilder()
+        .sender(sender)
+        .body(body)
+        .recipient(recipient)
+        .subject(subject);
+  }
+
+  @Benchmark
+  public PooledMessage builderPooled() {
+    return pooledMessageBuilder()
+        .sender(sender)
+        .body(body)
+        .recipient(recipient)
+        .subject(subject);
+  }
+
+  @Benchmark
+  public Message copyConstructor() {
+    return new Message(message.sender, subject, message.recipient, message.subject);
+  }
+
+  @Benchmark
+  public Message updaterNewInstance() {
+    return messageUpdater(message)
+        .body(subject)
+        .done();
+  }
+
+  @Benchmark
+  public RecycledMessage updaterReuseInstances() {
+    return recycledMessageUpdater(recycledMessage)
+        .body(subject)
+        .done();
+  }
+
+  @Benchmark
+  public PooledMessage updaterPooled() {
+    return pooledMessageUpdater(pooledMessage)
+        .body(subject)
+        .done();
+  }
+}
@@ -0,0 +1,37 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Lifecycle;
+
+// static factory, projections: getters
+@Builders(lifecycle = Lifecycle.POOLED)
+public final class PooledCube {
+
+  private final double height;
+  private final double length;
+  private final double width;
+
+  private PooledCube(double height, double length, double width) {
+    this.height = height;
+    this.length = length;
+    this.width = width;
+  }
+
+  @Goal(name = "cuboid", updater = true)
+  static PooledCube create(double height, double length, double width) {
+    return new PooledCube(height, length, width);
+  }
+
+  double getHeight() {
+    return height;
+  }
+
+  double getLength() {
+    return length;
+  }
+
+  double getWidth() {
+    return width;
+  }
+}
@@ -0,0 +1,23 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Lifecycle;
+
+// direct field access
+@Builders(lifecycle = Lifecycle.POOLED)
+public final class PooledMessage {
+
+  final String sender;
+  final String body;
+  final String recipient;
+  final String subject;
+
+  @Goal(updater = true)
+  PooledMessage(String sender, String body, String recipient, String subject) {
+    this.sender = sender;
+    this.body = body;
+    this.recipient = recipient;
+    this.subject = subject;
+  }
+}
@@ -0,0 +1,22 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Lifecycle;
+import net.zerobuilder.Step;
+
+// mixed primitive and reference parameters, changed step order
+@Builders(lifecycle = Lifecycle.POOLED)
+public final class PooledSpaghetti {
+
+  final String cheese;
+  final String sauce;
+  final boolean alDente;
+
+  @Goal(updater = true)
+  PooledSpaghetti(String cheese, @Step(0) String sauce, boolean alDente) {
+    this.cheese = cheese;
+    this.sauce = sauce;
+    this.alDente = alDente;
+  }
+}
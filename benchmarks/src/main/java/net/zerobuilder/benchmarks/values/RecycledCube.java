@@ -0,0 +1,36 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// static factory, projections: getters
+@Builders(recycle = true)
+public final class RecycledCube {
+
+  private final double height;
+  private final double length;
+  private final double width;
+
+  private RecycledCube(double height, double length, double width) {
+    this.height = height;
+    this.length = length;
+    this.width = width;
+  }
+
+  @Goal(name = "cuboid", updater = true)
+  static RecycledCube create(double height, double length, double width) {
+    return new RecycledCube(height, length, width);
+  }
+
+  double getHeight() {
+    return height;
+  }
+
+  double getLength() {
+    return length;
+  }
+
+  double getWidth() {
+    return width;
+  }
+}
@@ -0,0 +1,22 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// direct field access
+@Builders(recycle = true)
+public final class RecycledMessage {
+
+  final String sender;
+  final String body;
+  final String recipient;
+  final String subject;
+
+  @Goal(updater = true)
+  RecycledMessage(String sender, String body, String recipient, String subject) {
+    this.sender = sender;
+    this.body = body;
+    this.recipient = recipient;
+    this.subject = subject;
+  }
+}
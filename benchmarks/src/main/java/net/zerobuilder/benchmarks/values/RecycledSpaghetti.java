@@ -0,0 +1,21 @@
+package net.zerobuilder.benchmarks.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Step;
+
+// mixed primitive and reference parameters, changed step order
+@Builders(recycle = true)
+public final class RecycledSpaghetti {
+
+  final String cheese;
+  final String sauce;
+  final boolean alDente;
+
+  @Goal(updater = true)
+  RecycledSpaghetti(String cheese, @Step(0) String sauce, boolean alDente) {
+    this.cheese = cheese;
+    this.sauce = sauce;
+    this.alDente = alDente;
+  }
+}
@@ -0,0 +1,105 @@
+package net.zerobuilder.benchmarks.values;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static net.zerobuilder.benchmarks.values.PooledSpaghettiBuilders.pooledSpaghettiBuilder;
+import static net.zerobuilder.benchmarks.values.PooledSpaghettiBuilders.pooledSpaghettiUpdater;
+import static net.zerobuilder.benchmarks.values.RecycledSpaghettiBuilders.recycledSpaghettiBuilder;
+import static net.zerobuilder.benchmarks.values.PooledSpaghettiBuilders.pooledSpaghettiBuilder;
+import static net.zerobuilder.benchmarks.values.PooledSpaghettiBuilders.pooledSpaghettiUpdater;
+import static net.zerobuilder.benchmarks.values.RecycledSpaghettiBuilders.recycledSpaghettiUpdater;
+import static net.zerobuilder.benchmarks.values.SpaghettiBuilders.spaghettiBuilder;
+import static net.zerobuilder.benchmarks.values.SpaghettiBuilders.spaghettiUpdater;
+
+// reference and primitive parameters
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpaghettiBenchmark {
+
+  private String cheese;
+  private String sauce;
+  private boolean alDente;
+
+  private Spaghetti spaghetti;
+  private RecycledSpaghetti recycledSpaghetti;
+  private PooledSpaghetti pooledSpaghetti;
+
+  @Setup
+  public void setup() {
+    cheese = "reggiano";
+    sauce = "tomato";
+    alDente = true;
+    spaghetti = new Spaghetti(cheese, sauce, alDente);
+    recycledSpaghetti = new RecycledSpaghetti(cheese, sauce, alDente);
+    pooledSpaghetti = new PooledSpaghetti(cheese, sauce, alDente);
+  }
+
+  @Benchmark
+  public Spaghetti constructor() {
+    return new Spaghetti(cheese, sauce, alDente);
+  }
+
+  @Benchmark
+  public Spaghetti builderNewInstance() {
+    return spaghettiBuilder()
+        .sauce(sauce)
+        .cheese(cheese)
+        .alDente(alDente);
+  }
+
+  @Benchmark
+  public RecycledSpaghetti builderReuseInstances() {
+    return recycledSpaghettiBuilder()
+        .sauce(sauce)
+        .cheese(cheese)
+        .alDente(alDente);
+  }
+
+  @Benchmark
+  public PooledSpaghetti builderPooled() {
+    return pooledSpaghettiBuilder()
+        .sauce(sauce)
+        .cheese(cheese)
+        .alDente(alDente);
+  }
+
+  @Benchmark
+  public Spaghetti copyConstructor() {
+    return new Spaghetti(spaghetti.cheese, spaghetti.sauce, !spaghetti.alDente);
+  }
+
+  @Benchmark
+  public Spaghetti updaterNewInstance() {
+    return spaghettiUpdater(spaghetti)
+        .alDente(!alDente)
+        .done();
+  }
+
+  @Benchmark
+  public RecycledSpaghetti updaterReuseInstances() {
+    return recycledSpaghettiUpdater(recycledSpaghetti)
+        .alDente(!alDente)
+        .done();
+  }
+
+  @Benchmark
+  public PooledSpaghetti updaterPooled() {
+    return pooledSpaghettiUpdater(pooledSpaghetti)
+        .alDente(!alDente)
+        .done();
+  }
+}
@@ -24,13 +24,135 @@ import static net.zerobuilder.AccessLevel.PUBLIC;
 public @interface Builders {
 
   /**
-   * When the {@code recycle} flag is set to {@code true},
-   * the generated code will cache builder instances in a {@link ThreadLocal}.
+   * <p>When the {@code recycle} flag is set to {@code true},
+   * the generated code will cache builder instances in a {@link ThreadLocal}.</p>
+   * <p>The cached instance is taken until the goal is invoked.
+   * Nested use of the same goal on the same thread, for example while building an argument
+   * of the same type, gets a new instance instead.
+   * A builder that is abandoned before the goal is invoked is replaced in the cache
+   * by the next call on that thread, so it costs one allocation.
+   * The cached instance is also released if the last step throws.</p>
    *
    * @return recycle flag
    */
   boolean recycle() default false;
 
+  /**
+   * <p>Selects how builder instances are allocated and reused.
+   * If this is not {@link Lifecycle#UNSPECIFIED UNSPECIFIED},
+   * it takes precedence over the {@link #recycle()} flag.</p>
+   * <p>This is the default for all goals, and can be overridden in {@link Goal#lifecycle()}.</p>
+   *
+   * @return lifecycle setting
+   */
+  Lifecycle lifecycle() default Lifecycle.UNSPECIFIED;
+
+  /**
+   * <p>If {@code true}, a recycled builder or updater sets its non-primitive fields
+   * to {@code null} when the goal has been invoked,
+   * so that it doesn't keep the last goal's arguments reachable.
+   * For instance method goals, this includes the receiver.</p>
+   * <p>This has no effect if builder instances are not recycled.</p>
+   *
+   * @return clear references flag
+   * @see #recycle()
+   * @see #lifecycle()
+   */
+  boolean clearReferences() default false;
+
+  /**
+   * <p>Selects how the per-thread builder instances are referenced.
+   * With {@link CacheReference#SOFT SOFT} or {@link CacheReference#WEAK WEAK},
+   * they don't prevent the class loader of the generated class from being unloaded,
+   * and they can be dropped by the garbage collector when they are idle.</p>
+   * <p>In any case, the generated class has a static {@code releaseThreadCache()} method,
+   * which drops the builder instances of the current thread.</p>
+   * <p>This has no effect if builder instances are not cached in a {@link ThreadLocal}.</p>
+   *
+   * @return cache reference setting
+   * @see #recycle()
+   * @see #lifecycle()
+   */
+  CacheReference cacheReference() default CacheReference.STRONG;
+
+  /**
+   * <p>If {@code true}, a recycled builder or updater remembers the thread that it was handed out to.
+   * Each step then throws an {@link IllegalStateException} if it is invoked by another thread,
+   * or after the goal has been invoked.
+   * The check is cheap enough for load tests in a staging environment.</p>
+   * <p>A step reference that is kept until the same thread starts a new builder of the same goal
+   * can not be detected, because it is the same instance.</p>
+   * <p>This has no effect if builder instances are not recycled.</p>
+   *
+   * @return check flag
+   * @see #recycle()
+   * @see #lifecycle()
+   */
+  boolean checkOwner() default false;
+
+  /**
+   * <p>If {@code true}, the updater of a goal that is not a bean goal keeps a reference to its source instance.
+   * Only the projections of the values that were not updated are read,
+   * when the goal is invoked.
+   * If no value was updated, or each updated value is identical to the source value,
+   * the updater returns the source instance, without invoking the goal.</p>
+   * <p>Because of this, the goal should not have side effects,
+   * and the source instance should be immutable.
+   * This has no effect on goals with more than 64 parameters.</p>
+   * <p>The updater of a bean goal copies each collection that has no setter
+   * when the goal is invoked, unless it was replaced by an update step.
+   * The other properties are still copied when the updater is created.</p>
+   *
+   * @return lazy updaters flag
+   * @see Goal#updater()
+   */
+  boolean lazyUpdaters() default false;
+
+  /**
+   * <p>If {@code true}, the step interfaces of the builders are generic in the type of the next step,
+   * like {@code Height<NEXT>}, and they are nested directly in the generated class.
+   * A builder method then returns a type like {@code Height<Length<Width<Cube>>>}.</p>
+   * <p>The step ordering is still type safe, but there is no extra class per goal
+   * that holds its step interfaces,
+   * and goals that have an equal step share the same interface.
+   * The compiler reports the number of classes that were saved.</p>
+   * <p>This has no effect on goals that return a primitive type or {@code void}.</p>
+   *
+   * @return compact flag
+   * @see Goal#builder()
+   */
+  boolean compact() default false;
+
+  /**
+   * <p>If {@code true}, the builder steps of {@code List}, {@code Set}, {@code Map}
+   * and primitive array parameters of constructor and method goals get element-wise methods,
+   * like {@code addFoo(element)}, {@code addAllFoo(elements)} and {@code endFoo()},
+   * or {@code putFoo(key, value)} and {@code putAllFoo(map)}.</p>
+   * <p>The elements are collected in a buffer that belongs to the builder.
+   * A recycled builder keeps its buffers, so that the only garbage per build
+   * is the copy that {@code endFoo()} passes to the goal:
+   * an unmodifiable collection, or an array of the exact length.
+   * Primitive elements are not boxed, and the steps of {@code int[]}, {@code long[]}
+   * and {@code double[]} parameters also accept a primitive {@link java.util.Spliterator}.</p>
+   * <p>Element-wise methods are not generated for bean goals,
+   * or for collection parameters that don't have type arguments.</p>
+   *
+   * @return accumulators flag
+   * @see #recycle()
+   */
+  boolean accumulators() default false;
+
+  /**
+   * <p>If {@code true}, the steps of {@code List}, {@code Collection} and {@code Iterable} parameters
+   * of constructor and method goals also accept varargs, like {@code foo(String... foo)}.</p>
+   * <p>The array is wrapped with {@link java.util.Arrays#asList(Object[])}, not copied.
+   * The varargs overload makes a call like {@code foo(null)} ambiguous, so it is not generated by default.
+   * It is also not generated for bean goals, or if the element type is generic.</p>
+   *
+   * @return varargs flag
+   */
+  boolean varargs() default false;
+
   /**
    * <p>Sets the default access level of the generated static methods.
    * If necessary, this can be overridden on the goal level.</p>
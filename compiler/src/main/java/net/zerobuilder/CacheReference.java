@@ -0,0 +1,42 @@
+package net.zerobuilder;
+
+import net.zerobuilder.compiler.generate.DtoContext;
+
+public enum CacheReference {
+
+  /**
+   * Keep the per-thread builder instances until the thread dies,
+   * or until the generated {@code releaseThreadCache()} method is invoked.
+   */
+  STRONG {
+    @Override
+    public DtoContext.CacheReference cacheReference() {
+      return DtoContext.CacheReference.STRONG;
+    }
+  },
+
+  /**
+   * Hold the per-thread builder instances via a {@link java.lang.ref.SoftReference}.
+   * The garbage collector clears them if they have not been used for a while
+   * and memory is needed; see the {@code -XX:SoftRefLRUPolicyMSPerMB} option of the JVM.
+   */
+  SOFT {
+    @Override
+    public DtoContext.CacheReference cacheReference() {
+      return DtoContext.CacheReference.SOFT;
+    }
+  },
+
+  /**
+   * Hold the per-thread builder instances via a {@link java.lang.ref.WeakReference}.
+   * They are cleared on any garbage collection.
+   */
+  WEAK {
+    @Override
+    public DtoContext.CacheReference cacheReference() {
+      return DtoContext.CacheReference.WEAK;
+    }
+  };
+
+  public abstract DtoContext.CacheReference cacheReference();
+}
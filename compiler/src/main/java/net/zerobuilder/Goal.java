@@ -56,6 +56,123 @@ public @interface Goal {
    */
   boolean updater() default false;
 
+  /**
+   * <p>If {@code true}, declares that a {@code static withFoo(source, foo)} method
+   * should be generated for each parameter {@code foo} of this goal.
+   * Each of these methods invokes the goal directly,
+   * using the projections of {@code source} for the other parameters.
+   * </p><p>
+   * In this case, the goal may be a constructor or static method,
+   * but not a beanGoal or instance method.
+   * </p>
+   *
+   * @return withers flag, defaults to {@code false}
+   */
+  boolean withers() default false;
+
+  /**
+   * <p>If {@code true}, declares that a static {@code fooEncode(foo, buffer)} method
+   * and a static {@code fooDecode(buffer)} method should be generated for this goal.
+   * They write the projections of {@code foo} to a {@link java.nio.ByteBuffer},
+   * and read them back into a new instance, without reflection.
+   * </p><p>
+   * In this case, the goal may be a constructor, beanGoal or static method,
+   * but not an instance method.
+   * The parameters, or properties of the beanGoal, must be primitives,
+   * boxed primitives or strings.
+   * </p>
+   *
+   * @return codec flag, defaults to {@code false}
+   */
+  boolean codec() default false;
+
+  /**
+   * <p>If {@code true}, declares that a static {@code fooView()} method should be generated
+   * for this goal. It returns a flyweight that reads the properties of {@code foo}
+   * from a fixed-length record in a {@link java.nio.ByteBuffer}, such as a memory-mapped file.
+   * The flyweight has the same accessor methods as {@code foo},
+   * and it can be moved to another record without allocating.
+   * Its {@code materialize()} method invokes the goal.
+   * </p><p>
+   * In this case, the goal may be a constructor, beanGoal or static method,
+   * but not an instance method.
+   * The parameters, or properties of the beanGoal, must be primitives.
+   * </p>
+   *
+   * @return view flag, defaults to {@code false}
+   */
+  boolean view() default false;
+
+  /**
+   * <p>If {@code true}, declares that static {@code fooLog(directory)} methods should be generated
+   * for this goal. They open an append-only log of {@code foo} instances,
+   * which is stored in numbered segment files in the given directory.
+   * The records are written in the format of the {@link #codec},
+   * and the log can be replayed after a restart.
+   * </p><p>
+   * In this case, the goal may be a constructor, beanGoal or static method,
+   * but not an instance method.
+   * The parameters, or properties of the beanGoal, must be primitives,
+   * boxed primitives or strings.
+   * </p>
+   *
+   * @return log flag, defaults to {@code false}
+   */
+  boolean log() default false;
+
+  /**
+   * <p>If {@code true}, declares that a static {@code fooJson()} method should be generated
+   * for this goal. It returns a reusable writer and reader of JSON objects,
+   * which have one field per parameter of the goal, in UTF-8.
+   * The reader passes the fields directly to the goal,
+   * and can take missing fields from an existing {@code foo}.
+   * </p><p>
+   * In this case, the goal may be a constructor, beanGoal or static method,
+   * but not an instance method.
+   * The parameters, or properties of the beanGoal, must be primitives,
+   * boxed primitives or strings.
+   * </p>
+   *
+   * @return json flag, defaults to {@code false}
+   */
+  boolean json() default false;
+
+  /**
+   * <p>If {@code true}, declares that static {@code fooCsv(delimiter, header)} methods should be generated
+   * for this goal. They return a bulk loader, which parses a delimited file in parallel
+   * and invokes the goal once per line.
+   * The columns are mapped to the parameters of the goal by position,
+   * or by the names in the first line of the file.
+   * </p><p>
+   * In this case, the goal may be a constructor, beanGoal or static method,
+   * but not an instance method.
+   * The parameters, or properties of the beanGoal, must be primitives,
+   * boxed primitives or strings.
+   * </p>
+   *
+   * @return csv flag, defaults to {@code false}
+   */
+  boolean csv() default false;
+
+  /**
+   * <p>If {@code true}, the updater of this beanGoal starts from a copy
+   * that is obtained by invoking the bean's {@code clone()} method,
+   * rather than from a new instance that is populated via the setters.
+   * </p><p>
+   * In this case, the bean must implement {@link Cloneable},
+   * and it must override {@code clone()} with a method that is visible from its package.
+   * Since the properties that don't have a setter can not be replaced in the copy,
+   * {@code clone()} must give the copy its own instances of these collections.
+   * The updater checks this, and throws an {@link IllegalStateException} otherwise.
+   * </p><p>
+   * If {@link #updater} is not set to {@code true}, or this goal is not a beanGoal,
+   * then this setting has no effect.
+   * </p>
+   *
+   * @return clone flag, defaults to {@code false}
+   */
+  boolean useClone() default false;
+
   /**
    * <p>Set to {@code false} if no {@code static builder} method
    * should be generated for this goal.</p>
@@ -92,4 +209,69 @@ public @interface Goal {
    * @see Builders#access()
    */
   AccessLevel updaterAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static wither methods.</p>
+   * <p>If {@link #withers} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return withers access level
+   * @see Builders#access()
+   */
+  AccessLevel withersAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static codec methods.</p>
+   * <p>If {@link #codec} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return codec access level
+   * @see Builders#access()
+   */
+  AccessLevel codecAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static view method.</p>
+   * <p>If {@link #view} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return view access level
+   * @see Builders#access()
+   */
+  AccessLevel viewAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static log methods.</p>
+   * <p>If {@link #log} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return log access level
+   * @see Builders#access()
+   */
+  AccessLevel logAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static json method.</p>
+   * <p>If {@link #json} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return json access level
+   * @see Builders#access()
+   */
+  AccessLevel jsonAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the default access level of the generated static csv methods.</p>
+   * <p>If {@link #csv} is not set to {@code true}, then this setting has no effect.</p>
+   *
+   * @return csv access level
+   * @see Builders#access()
+   */
+  AccessLevel csvAccess() default UNSPECIFIED;
+
+  /**
+   * <p>A handle to override the lifecycle of the builder and updater of this goal.</p>
+   * <p>For example, goals that are used in hot loops can be recycled,
+   * while rarely used goals do not keep per-thread instances alive.</p>
+   *
+   * @return lifecycle setting
+   * @see Builders#lifecycle()
+   * @see Builders#recycle()
+   */
+  Lifecycle lifecycle() default Lifecycle.UNSPECIFIED;
 }
@@ -0,0 +1,59 @@
+package net.zerobuilder;
+
+import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
+
+import java.util.Optional;
+
+public enum Lifecycle {
+
+  /**
+   * Allocate a new builder instance for each invocation of a static builder method.
+   */
+  NEW_INSTANCE {
+    @Override
+    public Optional<BuilderLifecycle> lifecycle() {
+      return Optional.of(BuilderLifecycle.NEW_INSTANCE);
+    }
+  },
+
+  /**
+   * Cache builder instances in a {@link ThreadLocal};
+   * same as {@link Builders#recycle()} {@code = true}.
+   */
+  THREAD_LOCAL {
+    @Override
+    public Optional<BuilderLifecycle> lifecycle() {
+      return Optional.of(BuilderLifecycle.REUSE_INSTANCES);
+    }
+  },
+
+  /**
+   * Take builder instances from a bounded lock-free pool that is shared by all threads.
+   * An instance goes back to the pool when the goal is invoked.
+   * Unlike {@link #THREAD_LOCAL}, this provides reuse even when there are many
+   * short-lived threads, for example virtual threads.
+   */
+  POOLED {
+    @Override
+    public Optional<BuilderLifecycle> lifecycle() {
+      return Optional.of(BuilderLifecycle.POOLED);
+    }
+  },
+
+  /**
+   * Use {@link #THREAD_LOCAL} if {@link Builders#recycle()} is set,
+   * otherwise {@link #NEW_INSTANCE}.
+   * In {@link Goal#lifecycle()}, use the lifecycle of the {@link Builders} class.
+   */
+  UNSPECIFIED {
+    @Override
+    public Optional<BuilderLifecycle> lifecycle() {
+      return Optional.empty();
+    }
+  };
+
+  /**
+   * @return the lifecycle, or empty for {@link #UNSPECIFIED}
+   */
+  public abstract Optional<BuilderLifecycle> lifecycle();
+}
@@ -101,6 +101,49 @@ public final class Messages {
     public static final String IGNORE_ON_SETTER
         = "The @Ignore annotation goes on getters, not setters.";
 
+    public static final String BEAN_NOT_CLONEABLE
+        = "The annotated class must implement Cloneable if useClone is set.";
+
+    public static final String BEAN_NO_CLONE_METHOD
+        = "Could not find an accessible clone() method. " +
+        "Override clone() with a public method, or a method that is visible from this package.";
+
+    public static final String WITHERS_BEAN
+        = "Withers can not be generated for a bean goal.";
+
+    public static final String WITHERS_INSTANCE_METHOD
+        = "Withers can not be generated for an instance method goal.";
+
+    public static final String CODEC_INSTANCE_METHOD
+        = "A codec can not be generated for an instance method goal.";
+
+    public static final String CODEC_UNSUPPORTED_TYPE
+        = "A codec can only encode primitives, boxed primitives and strings.";
+
+    public static final String VIEW_INSTANCE_METHOD
+        = "A view can not be generated for an instance method goal.";
+
+    public static final String VIEW_UNSUPPORTED_TYPE
+        = "A view can only hold primitives.";
+
+    public static final String LOG_INSTANCE_METHOD
+        = "A log can not be generated for an instance method goal.";
+
+    public static final String LOG_UNSUPPORTED_TYPE
+        = "A log can only store primitives, boxed primitives and strings.";
+
+    public static final String JSON_INSTANCE_METHOD
+        = "A json module can not be generated for an instance method goal.";
+
+    public static final String JSON_UNSUPPORTED_TYPE
+        = "A json module can only read primitives, boxed primitives and strings.";
+
+    public static final String CSV_INSTANCE_METHOD
+        = "A csv loader can not be generated for an instance method goal.";
+
+    public static final String CSV_UNSUPPORTED_TYPE
+        = "A csv loader can only read primitives, boxed primitives and strings.";
+
     public static final String BEAN_NO_ACCESSOR_PAIRS
         = "No accessor pairs found." + POJO_HINT;
 
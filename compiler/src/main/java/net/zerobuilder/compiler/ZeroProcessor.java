@@ -13,6 +13,7 @@ import net.zerobuilder.compiler.generate.Generator;
 import net.zerobuilder.compiler.generate.GeneratorInput;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -22,10 +23,12 @@ import javax.lang.model.util.Elements;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -34,12 +37,64 @@ import static javax.lang.model.util.ElementFilter.constructorsIn;
 import static javax.lang.model.util.ElementFilter.methodsIn;
 import static javax.lang.model.util.ElementFilter.typesIn;
 import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.NOTE;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.GOAL_NOT_IN_BUILD;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.GOAL_WITHOUT_BUILDERS;
 import static net.zerobuilder.compiler.Messages.JavadocMessages.generatedAnnotations;
+import static net.zerobuilder.compiler.generate.DtoContext.createRegistry;
 
 public final class ZeroProcessor extends AbstractProcessor {
 
+  /**
+   * Processor option: fully qualified name of a shared per-thread registry.
+   * If present, recycled instances are stored in this registry,
+   * instead of one {@code ThreadLocal} per generated type.
+   */
+  static final String REGISTRY_OPTION = "zerobuilder.registry";
+
+  /**
+   * Processor option: estimated bytecode size in bytes,
+   * at which the generated methods are split into smaller helper methods.
+   * The default leaves enough room to stay below HotSpot's {@code HugeMethodLimit}.
+   */
+  static final String METHOD_BUDGET_OPTION = "zerobuilder.methodBudget";
+
+  /**
+   * Processor option: if {@code true}, print a note for each generated type
+   * that shows how many classes compact mode saved.
+   */
+  static final String VERBOSE_OPTION = "zerobuilder.verbose";
+
+  private boolean registryWritten = false;
+
+  /**
+   * The value of {@link #METHOD_BUDGET_OPTION}, if it is present and valid.
+   */
+  private OptionalInt methodBudget = OptionalInt.empty();
+
+  private boolean verbose = false;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    verbose = Boolean.parseBoolean(processingEnv.getOptions().get(VERBOSE_OPTION));
+    String budget = processingEnv.getOptions().get(METHOD_BUDGET_OPTION);
+    if (budget == null || budget.isEmpty()) {
+      return;
+    }
+    try {
+      int value = Integer.parseInt(budget.trim());
+      if (value > 0) {
+        methodBudget = OptionalInt.of(value);
+        return;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    processingEnv.getMessager().printMessage(ERROR,
+        "-A" + METHOD_BUDGET_OPTION + " must be a positive integer, but was: " + budget);
+  }
+
   @Override
   public Set<String> getSupportedAnnotationTypes() {
     return new HashSet<>(Arrays.asList(
@@ -47,6 +102,11 @@ public final class ZeroProcessor extends AbstractProcessor {
         Builders.class.getName()));
   }
 
+  @Override
+  public Set<String> getSupportedOptions() {
+    return new HashSet<>(Arrays.asList(REGISTRY_OPTION, METHOD_BUDGET_OPTION, VERBOSE_OPTION));
+  }
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -61,11 +121,17 @@ public final class ZeroProcessor extends AbstractProcessor {
     Elements elements = processingEnv.getElementUtils();
     List<AnnotationSpec> generatedAnnotations = generatedAnnotations(elements);
     Set<TypeElement> types = typesIn(env.getElementsAnnotatedWith(Builders.class));
+    Optional<ClassName> registry = registry();
+    List<TypeElement> registryUsers = new ArrayList<>();
     for (TypeElement annotatedType : types) {
       try {
-        GeneratorInput generatorInput = Analyser.analyse(annotatedType);
+        GeneratorInput generatorInput = withMethodBudget(
+            withRegistry(Analyser.analyse(annotatedType), registry));
         GeneratorOutput generatorOutput = Generator.generate(generatorInput);
         TypeSpec typeSpec = generatorOutput.typeSpec(generatedAnnotations);
+        if (generatorOutput.registry().isPresent()) {
+          registryUsers.add(annotatedType);
+        }
         try {
           write(generatorOutput.generatedType(), typeSpec);
         } catch (IOException e) {
@@ -74,6 +140,12 @@ public final class ZeroProcessor extends AbstractProcessor {
           processingEnv.getMessager().printMessage(ERROR, message, annotatedType);
           return false;
         }
+        int classesSaved = generatorOutput.classesSaved();
+        if (verbose && classesSaved > 0) {
+          processingEnv.getMessager().printMessage(NOTE,
+              "compact mode saved " + classesSaved + (classesSaved == 1 ? " class in " : " classes in ")
+                  + generatorOutput.generatedType(), annotatedType);
+        }
       } catch (ValidationException e) {
         processingEnv.getMessager().printMessage(e.kind, e.getMessage(), e.about);
       } catch (RuntimeException e) {
@@ -83,9 +155,50 @@ public final class ZeroProcessor extends AbstractProcessor {
         return false;
       }
     }
+    if (registry.isPresent() && !registryWritten && !registryUsers.isEmpty()) {
+      TypeSpec.Builder registryType = createRegistry(registry.get()).toBuilder()
+          .addAnnotations(generatedAnnotations);
+      registryUsers.forEach(registryType::addOriginatingElement);
+      try {
+        write(registry.get(), registryType.build());
+        registryWritten = true;
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(ERROR,
+            "Error writing " + registry.get() + ": " + e.getMessage());
+      }
+    }
     return false;
   }
 
+  private Optional<ClassName> registry() {
+    String name = processingEnv.getOptions().get(REGISTRY_OPTION);
+    if (name == null || name.isEmpty()) {
+      return Optional.empty();
+    }
+    int dot = name.lastIndexOf('.');
+    return Optional.of(dot < 0 ?
+        ClassName.get("", name) :
+        ClassName.get(name.substring(0, dot), name.substring(dot + 1)));
+  }
+
+  private GeneratorInput withRegistry(GeneratorInput input, Optional<ClassName> registry) {
+    if (!registry.isPresent()) {
+      return input;
+    }
+    return GeneratorInput.create(
+        input.context.withRegistry(registry.get()),
+        input.goals);
+  }
+
+  private GeneratorInput withMethodBudget(GeneratorInput input) {
+    if (!methodBudget.isPresent()) {
+      return input;
+    }
+    return GeneratorInput.create(
+        input.context.withMethodBudget(methodBudget.getAsInt()),
+        input.goals);
+  }
+
   private Optional<? extends Element> goalNotInBuild(RoundEnvironment env) {
     Set<? extends Element> elements = env.getElementsAnnotatedWith(Goal.class);
     Stream<ExecutableElement> methods = methodsIn(elements).stream();
@@ -1,6 +1,7 @@
 package net.zerobuilder.compiler.analyse;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
 import net.zerobuilder.AccessLevel;
 import net.zerobuilder.Builders;
 import net.zerobuilder.Goal;
@@ -8,33 +9,56 @@ import net.zerobuilder.compiler.analyse.DtoGoalElement.AbstractGoalElement;
 import net.zerobuilder.compiler.analyse.DtoGoalElement.BeanGoalElement;
 import net.zerobuilder.compiler.analyse.DtoGoalElement.RegularGoalElement;
 import net.zerobuilder.compiler.generate.Builder;
+import net.zerobuilder.compiler.generate.Codec;
+import net.zerobuilder.compiler.generate.Csv;
 import net.zerobuilder.compiler.generate.DtoContext.BuilderLifecycle;
 import net.zerobuilder.compiler.generate.DtoContext.BuildersContext;
 import net.zerobuilder.compiler.generate.DtoGoalDescription.GoalDescription;
 import net.zerobuilder.compiler.generate.DtoModule;
 import net.zerobuilder.compiler.generate.DtoModule.Module;
+import net.zerobuilder.compiler.generate.Flyweight;
 import net.zerobuilder.compiler.generate.GeneratorInput;
+import net.zerobuilder.compiler.generate.Json;
+import net.zerobuilder.compiler.generate.LogStore;
 import net.zerobuilder.compiler.generate.Updater;
+import net.zerobuilder.compiler.generate.Withers;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 import static javax.lang.model.element.ElementKind.CONSTRUCTOR;
 import static javax.lang.model.element.ElementKind.METHOD;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
 import static javax.tools.Diagnostic.Kind.WARNING;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.CODEC_INSTANCE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.CODEC_UNSUPPORTED_TYPE;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.CSV_INSTANCE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.CSV_UNSUPPORTED_TYPE;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.JSON_INSTANCE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.JSON_UNSUPPORTED_TYPE;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.LOG_INSTANCE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.LOG_UNSUPPORTED_TYPE;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.NOT_ENOUGH_PARAMETERS;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.NO_GOALS;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.PRIVATE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.VIEW_INSTANCE_METHOD;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.VIEW_UNSUPPORTED_TYPE;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.WITHERS_BEAN;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.WITHERS_INSTANCE_METHOD;
 import static net.zerobuilder.compiler.analyse.DtoGoalElement.goalName;
 import static net.zerobuilder.compiler.analyse.DtoGoalElement.goalType;
 import static net.zerobuilder.compiler.analyse.GoalnameValidator.checkNameConflict;
 import static net.zerobuilder.compiler.analyse.ProjectionValidator.skip;
 import static net.zerobuilder.compiler.analyse.ProjectionValidator.validate;
+import static net.zerobuilder.compiler.analyse.ProjectionValidatorB.getters;
 import static net.zerobuilder.compiler.analyse.TypeValidator.validateBuildersClass;
 import static net.zerobuilder.compiler.analyse.Utilities.appendSuffix;
 import static net.zerobuilder.compiler.common.LessElements.asExecutable;
@@ -44,6 +68,12 @@ public final class Analyser {
 
   private static final Builder MODULE_BUILDER = new Builder();
   private static final Updater MODULE_UPDATER = new Updater();
+  private static final Withers MODULE_WITHERS = new Withers();
+  private static final Codec MODULE_CODEC = new Codec();
+  private static final Flyweight MODULE_VIEW = new Flyweight();
+  private static final LogStore MODULE_LOG = new LogStore();
+  private static final Json MODULE_JSON = new Json();
+  private static final Csv MODULE_CSV = new Csv();
 
   // only for validation
   static final class NameElement {
@@ -58,12 +88,18 @@ public final class Analyser {
   }
 
   public static GeneratorInput analyse(TypeElement buildersAnnotatedClass) throws ValidationException {
-    BuilderLifecycle lifecycle = buildersAnnotatedClass.getAnnotation(Builders.class).recycle()
-        ? BuilderLifecycle.REUSE_INSTANCES
-        : BuilderLifecycle.NEW_INSTANCE;
+    Builders buildersAnnotation = buildersAnnotatedClass.getAnnotation(Builders.class);
+    BuilderLifecycle lifecycle = lifecycle(buildersAnnotation);
     ClassName type = ClassName.get(buildersAnnotatedClass);
     ClassName generatedType = appendSuffix(type, "Builders");
-    BuildersContext context = createBuildersContext(type, generatedType, lifecycle);
+    BuildersContext context = createBuildersContext(type, generatedType, lifecycle,
+        buildersAnnotation.clearReferences())
+        .withCacheReference(buildersAnnotation.cacheReference().cacheReference())
+        .withCheckOwner(buildersAnnotation.checkOwner())
+        .withLazyUpdaters(buildersAnnotation.lazyUpdaters())
+        .withCompact(buildersAnnotation.compact())
+        .withAccumulators(buildersAnnotation.accumulators())
+        .withVarargs(buildersAnnotation.varargs());
     List<AbstractGoalElement> goalElements = goals(buildersAnnotatedClass);
     checkNameConflict(names(buildersAnnotatedClass));
     validateBuildersClass(buildersAnnotatedClass);
@@ -71,21 +107,59 @@ public final class Analyser {
     for (AbstractGoalElement goalElement : goalElements) {
       descriptions.add(new GeneratorInput.DescriptionInput(
           goalElement.module,
-          goalElement.goalAnnotation.updater() ?
+          goalElement.goalAnnotation.updater() || goalElement.goalAnnotation.withers()
+              || goalElement.goalAnnotation.codec() || goalElement.goalAnnotation.view()
+              || goalElement.goalAnnotation.log() || goalElement.goalAnnotation.json() ?
               validate.apply(goalElement) :
-              skip.apply(goalElement)));
+              skip.apply(goalElement),
+          lifecycle(goalElement.goalAnnotation)));
     }
     return GeneratorInput.create(context, descriptions);
   }
 
+  /**
+   * An unspecified lifecycle is resolved from the {@link Builders#recycle()} flag.
+   */
+  private static BuilderLifecycle lifecycle(Builders buildersAnnotation) {
+    return buildersAnnotation.lifecycle().lifecycle()
+        .orElse(buildersAnnotation.recycle()
+            ? BuilderLifecycle.REUSE_INSTANCES
+            : BuilderLifecycle.NEW_INSTANCE);
+  }
+
+  /**
+   * An unspecified lifecycle is inherited from the {@link Builders} class.
+   */
+  private static Optional<BuilderLifecycle> lifecycle(Goal goalAnnotation) {
+    return goalAnnotation.lifecycle().lifecycle();
+  }
+
   static List<? extends Module> modules(Goal goalAnnotation) {
-    ArrayList<Module> modules = new ArrayList<>(2);
+    ArrayList<Module> modules = new ArrayList<>(3);
     if (goalAnnotation.builder()) {
       modules.add(MODULE_BUILDER);
     }
     if (goalAnnotation.updater()) {
       modules.add(MODULE_UPDATER);
     }
+    if (goalAnnotation.withers()) {
+      modules.add(MODULE_WITHERS);
+    }
+    if (goalAnnotation.codec()) {
+      modules.add(MODULE_CODEC);
+    }
+    if (goalAnnotation.view()) {
+      modules.add(MODULE_VIEW);
+    }
+    if (goalAnnotation.log()) {
+      modules.add(MODULE_LOG);
+    }
+    if (goalAnnotation.json()) {
+      modules.add(MODULE_JSON);
+    }
+    if (goalAnnotation.csv()) {
+      modules.add(MODULE_CSV);
+    }
     return modules;
   }
 
@@ -122,6 +196,25 @@ public final class Analyser {
     List<AbstractGoalElement> builder = new ArrayList<>();
     AccessLevel defaultAccess = buildersAnnotation.access();
     if (buildElement.getAnnotation(Goal.class) != null) {
+      Goal goalAnnotation = buildElement.getAnnotation(Goal.class);
+      if (goalAnnotation.withers()) {
+        throw new ValidationException(WITHERS_BEAN, buildElement);
+      }
+      if (goalAnnotation.codec()) {
+        validateBean(buildElement, Codec::isSupported, CODEC_UNSUPPORTED_TYPE);
+      }
+      if (goalAnnotation.view()) {
+        validateBean(buildElement, Flyweight::isSupported, VIEW_UNSUPPORTED_TYPE);
+      }
+      if (goalAnnotation.log()) {
+        validateBean(buildElement, Codec::isSupported, LOG_UNSUPPORTED_TYPE);
+      }
+      if (goalAnnotation.json()) {
+        validateBean(buildElement, Codec::isSupported, JSON_UNSUPPORTED_TYPE);
+      }
+      if (goalAnnotation.csv()) {
+        validateBean(buildElement, Codec::isSupported, CSV_UNSUPPORTED_TYPE);
+      }
       builder.addAll(BeanGoalElement.create(buildElement, defaultAccess));
     }
     for (Element element : buildElement.getEnclosedElements()) {
@@ -135,6 +228,26 @@ public final class Analyser {
           if (executableElement.getParameters().isEmpty()) {
             throw new ValidationException(NOT_ENOUGH_PARAMETERS, buildElement);
           }
+          if (kind == METHOD
+              && !executableElement.getModifiers().contains(STATIC)
+              && element.getAnnotation(Goal.class).withers()) {
+            throw new ValidationException(WITHERS_INSTANCE_METHOD, executableElement);
+          }
+          if (element.getAnnotation(Goal.class).codec()) {
+            validateCodec(executableElement, CODEC_INSTANCE_METHOD, CODEC_UNSUPPORTED_TYPE);
+          }
+          if (element.getAnnotation(Goal.class).view()) {
+            validateView(executableElement);
+          }
+          if (element.getAnnotation(Goal.class).log()) {
+            validateCodec(executableElement, LOG_INSTANCE_METHOD, LOG_UNSUPPORTED_TYPE);
+          }
+          if (element.getAnnotation(Goal.class).json()) {
+            validateCodec(executableElement, JSON_INSTANCE_METHOD, JSON_UNSUPPORTED_TYPE);
+          }
+          if (element.getAnnotation(Goal.class).csv()) {
+            validateCodec(executableElement, CSV_INSTANCE_METHOD, CSV_UNSUPPORTED_TYPE);
+          }
           builder.addAll(RegularGoalElement.create(executableElement, defaultAccess));
         }
       }
@@ -145,6 +258,44 @@ public final class Analyser {
     return builder;
   }
 
+  /**
+   * The log, the json module and the csv loader support the same types as the codec.
+   */
+  private static void validateCodec(ExecutableElement goal, String instanceMethod, String unsupportedType)
+      throws ValidationException {
+    if (goal.getKind() == METHOD && !goal.getModifiers().contains(STATIC)) {
+      throw new ValidationException(instanceMethod, goal);
+    }
+    for (VariableElement parameter : goal.getParameters()) {
+      if (!Codec.isSupported(TypeName.get(parameter.asType()))) {
+        throw new ValidationException(unsupportedType, parameter);
+      }
+    }
+  }
+
+  private static void validateView(ExecutableElement goal) throws ValidationException {
+    if (goal.getKind() == METHOD && !goal.getModifiers().contains(STATIC)) {
+      throw new ValidationException(VIEW_INSTANCE_METHOD, goal);
+    }
+    for (VariableElement parameter : goal.getParameters()) {
+      if (!Flyweight.isSupported(TypeName.get(parameter.asType()))) {
+        throw new ValidationException(VIEW_UNSUPPORTED_TYPE, parameter);
+      }
+    }
+  }
+
+  /**
+   * The properties of a bean goal are checked like the parameters of the other goals.
+   */
+  private static void validateBean(TypeElement beanType, Predicate<TypeName> isSupported, String unsupportedType)
+      throws ValidationException {
+    for (ExecutableElement getter : getters(beanType)) {
+      if (!isSupported.test(TypeName.get(getter.getReturnType()))) {
+        throw new ValidationException(unsupportedType, getter);
+      }
+    }
+  }
+
   private Analyser() {
     throw new UnsupportedOperationException("no instances");
   }
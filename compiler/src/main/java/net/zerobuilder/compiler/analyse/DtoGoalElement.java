@@ -6,13 +6,19 @@ import net.zerobuilder.AccessLevel;
 import net.zerobuilder.Goal;
 import net.zerobuilder.compiler.generate.Access;
 import net.zerobuilder.compiler.generate.Builder;
+import net.zerobuilder.compiler.generate.Codec;
+import net.zerobuilder.compiler.generate.Csv;
 import net.zerobuilder.compiler.generate.DtoGoal.AbstractRegularGoalDetails;
 import net.zerobuilder.compiler.generate.DtoGoal.BeanGoalDetails;
 import net.zerobuilder.compiler.generate.DtoGoal.ConstructorGoalDetails;
 import net.zerobuilder.compiler.generate.DtoGoal.GoalMethodType;
 import net.zerobuilder.compiler.generate.DtoGoal.MethodGoalDetails;
 import net.zerobuilder.compiler.generate.DtoModule.Module;
+import net.zerobuilder.compiler.generate.Flyweight;
+import net.zerobuilder.compiler.generate.Json;
+import net.zerobuilder.compiler.generate.LogStore;
 import net.zerobuilder.compiler.generate.Updater;
+import net.zerobuilder.compiler.generate.Withers;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
@@ -174,11 +180,35 @@ final class DtoGoalElement {
   }
 
   private static List<ModuledOption> goalOptions(Goal goalAnnotation, AccessLevel defaultAccess) {
-    List<ModuledOption> options = new ArrayList<>(2);
+    List<ModuledOption> options = new ArrayList<>(3);
     if (goalAnnotation.updater()) {
       options.add(ModuledOption.create(
           accessLevelOverride(goalAnnotation.updaterAccess(), defaultAccess), new Updater()));
     }
+    if (goalAnnotation.withers()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.withersAccess(), defaultAccess), new Withers()));
+    }
+    if (goalAnnotation.codec()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.codecAccess(), defaultAccess), new Codec()));
+    }
+    if (goalAnnotation.view()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.viewAccess(), defaultAccess), new Flyweight()));
+    }
+    if (goalAnnotation.log()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.logAccess(), defaultAccess), new LogStore()));
+    }
+    if (goalAnnotation.json()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.jsonAccess(), defaultAccess), new Json()));
+    }
+    if (goalAnnotation.csv()) {
+      options.add(ModuledOption.create(
+          accessLevelOverride(goalAnnotation.csvAccess(), defaultAccess), new Csv()));
+    }
     if (goalAnnotation.builder()) {
       options.add(ModuledOption.create(
           accessLevelOverride(goalAnnotation.builderAccess(), defaultAccess), new Builder()));
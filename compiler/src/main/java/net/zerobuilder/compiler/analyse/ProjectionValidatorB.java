@@ -10,12 +10,15 @@ import net.zerobuilder.compiler.analyse.DtoGoalElement.BeanGoalElement;
 import net.zerobuilder.compiler.analyse.ProjectionValidator.TmpAccessorPair;
 import net.zerobuilder.compiler.generate.DtoBeanGoalDescription;
 import net.zerobuilder.compiler.generate.DtoBeanGoalDescription.BeanGoalDescription;
+import net.zerobuilder.compiler.generate.DtoBeanGoalDescription.CloneMethod;
 import net.zerobuilder.compiler.generate.DtoBeanParameter;
 import net.zerobuilder.compiler.generate.DtoBeanParameter.AbstractBeanParameter;
 import net.zerobuilder.compiler.generate.DtoGoalDescription.GoalDescription;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -31,6 +34,7 @@ import java.util.stream.Collectors;
 import static com.squareup.javapoet.ClassName.OBJECT;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
 import static javax.lang.model.type.TypeKind.DECLARED;
 import static javax.lang.model.util.ElementFilter.constructorsIn;
@@ -38,6 +42,8 @@ import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_ABSTRACT_CLAS
 import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_COULD_NOT_FIND_SETTER;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_IGNORE_AND_STEP;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_NO_ACCESSOR_PAIRS;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_NOT_CLONEABLE;
+import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_NO_CLONE_METHOD;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_NO_DEFAULT_CONSTRUCTOR;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.BEAN_PRIVATE_CLASS;
 import static net.zerobuilder.compiler.Messages.ErrorMessages.IGNORE_ON_SETTER;
@@ -46,6 +52,7 @@ import static net.zerobuilder.compiler.analyse.ProjectionValidator.TmpAccessorPa
 import static net.zerobuilder.compiler.analyse.ProjectionValidator.TmpAccessorPair.toValidParameter;
 import static net.zerobuilder.compiler.analyse.ProjectionValidator.TmpValidParameter.nullPolicy;
 import static net.zerobuilder.compiler.analyse.ProjectionValidator.shuffledParameters;
+import static net.zerobuilder.compiler.analyse.Utilities.ClassNames.CLONEABLE;
 import static net.zerobuilder.compiler.analyse.Utilities.ClassNames.COLLECTION;
 import static net.zerobuilder.compiler.analyse.Utilities.sortedCopy;
 import static net.zerobuilder.compiler.analyse.Utilities.thrownTypes;
@@ -83,6 +90,14 @@ final class ProjectionValidatorB {
           && !method.getReturnType().getKind().equals(TypeKind.VOID)
           && IS_GETTER_NAME.test(method.getSimpleName().toString());
 
+  private static final Predicate<ExecutableElement> LOOKS_LIKE_CLONE = method ->
+      method.getKind() == ElementKind.METHOD
+          && method.getParameters().isEmpty()
+          && !method.getModifiers().contains(PRIVATE)
+          && !method.getModifiers().contains(STATIC)
+          && !method.getModifiers().contains(ABSTRACT)
+          && "clone".equals(method.getSimpleName().toString());
+
   static final Function<BeanGoalElement, GoalDescription> validateBean
       = goal -> {
     validateBeanType(goal.beanType);
@@ -135,9 +150,17 @@ final class ProjectionValidatorB {
   }
 
   private static Collection<ExecutableElement> getters(BeanGoalElement goal) {
+    return getters(goal.beanType);
+  }
+
+  /**
+   * @param beanType a class that carries the {@link Goal} annotation
+   * @return the getters that define the properties of the bean
+   */
+  static Collection<ExecutableElement> getters(TypeElement beanType) {
     Predicate<ExecutableElement> filter = LOOKS_LIKE_GETTER
         .and(IS_NOT_IGNORED);
-    return getLocalAndInheritedMethods(goal.beanType, filter).values();
+    return getLocalAndInheritedMethods(beanType, filter).values();
   }
 
   private static Map<String, ExecutableElement> setters(TypeElement beanType,
@@ -224,8 +247,39 @@ final class ProjectionValidatorB {
     List<TmpAccessorPair> sorted = sortedCopy(tmpAccessorPairs, ALPHABETIC_SORT);
     List<AbstractBeanParameter> validBeanParameters
         = transform(shuffledParameters(sorted), toValidParameter);
-    return BeanGoalDescription.create(goal.details, validBeanParameters,
+    BeanGoalDescription description = BeanGoalDescription.create(goal.details, validBeanParameters,
         beanConstructorExceptions(goal));
+    return goal.goalAnnotation.updater() && goal.goalAnnotation.useClone()
+        ? description.withCloneMethod(cloneMethod(goal.beanType))
+        : description;
+  }
+
+  private static CloneMethod cloneMethod(TypeElement beanType) {
+    if (!isCloneable(beanType)) {
+      throw new ValidationException(BEAN_NOT_CLONEABLE, beanType);
+    }
+    ExecutableElement method = getLocalAndInheritedMethods(beanType, LOOKS_LIKE_CLONE).get("clone");
+    if (method == null
+        || (!method.getModifiers().contains(PUBLIC)
+        && !getPackage(method).equals(getPackage(beanType)))) {
+      throw new ValidationException(BEAN_NO_CLONE_METHOD, beanType);
+    }
+    return CloneMethod.create(TypeName.get(method.getReturnType()), thrownTypes(method));
+  }
+
+  private static boolean isCloneable(TypeElement type) {
+    if (implementationOf(type, CLONEABLE)) {
+      return true;
+    }
+    return type.getSuperclass().getKind() == DECLARED
+        && isCloneable(asTypeElement(type.getSuperclass()));
+  }
+
+  private static PackageElement getPackage(Element element) {
+    while (element.getKind() != ElementKind.PACKAGE) {
+      element = element.getEnclosingElement();
+    }
+    return (PackageElement) element;
   }
 
   private static List<TypeName> beanConstructorExceptions(BeanGoalElement goal) {
@@ -26,6 +26,7 @@ final class Utilities {
   static final class ClassNames {
 
     static final ClassName COLLECTION = ClassName.get(Collection.class);
+    static final ClassName CLONEABLE = ClassName.get(Cloneable.class);
 
     private ClassNames() {
       throw new UnsupportedOperationException("no instances");
@@ -0,0 +1,435 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class AccumulatorTest {
+
+  @Test
+  public void accumulators() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "import java.util.Map;",
+        "",
+        "@Builders(recycle = true, accumulators = true)",
+        "final class Cube {",
+        "  @Goal(name = \"cube\")",
+        "  Cube(@Step(nullPolicy = NullPolicy.REJECT) List<String> tags, Map<String, Integer> sizes) {",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.util.ArrayList;",
+            "import java.util.Collection;",
+            "import java.util.Collections;",
+            "import java.util.LinkedHashMap;",
+            "import java.util.List;",
+            "import java.util.Map;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  };",
+            "",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static CubeBuilder.Tags cubeBuilder() {",
+            "    Session session = INSTANCE.get();",
+            "    return session.cubeBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  static final class CubeBuilderImpl implements CubeBuilder.Tags, CubeBuilder.Sizes {",
+            "    private List<String> tags;",
+            "",
+            "    private ArrayList<String> tagsBuffer;",
+            "",
+            "    private LinkedHashMap<String, Integer> sizesBuffer;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private CubeBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Sizes tags(List<String> tags) {",
+            "      if (tags == null) {",
+            "        throw new NullPointerException(\"tags\");",
+            "      }",
+            "      this.tags = tags;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Sizes emptyTags() {",
+            "      this.tags = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Tags addTags(String tags) {",
+            "      if (tags == null) {",
+            "        throw new NullPointerException(\"tags\");",
+            "      }",
+            "      if (this.tagsBuffer == null) {",
+            "        this.tagsBuffer = new ArrayList<String>();",
+            "      }",
+            "      this.tagsBuffer.add(tags);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Tags addAllTags(Collection<? extends String> tags) {",
+            "      for (String element : tags) {",
+            "        addTags(element);",
+            "      }",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Sizes endTags() {",
+            "      this.tags = this.tagsBuffer == null || this.tagsBuffer.isEmpty() ?",
+            "          Collections.<String>emptyList() :",
+            "          Collections.unmodifiableList(new ArrayList<String>(this.tagsBuffer));",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Cube sizes(Map<String, Integer> sizes) {",
+            "      try {",
+            "        return new Cube(tags, sizes);",
+            "      } finally {",
+            "        if (this.tagsBuffer != null) {",
+            "          this.tagsBuffer.clear();",
+            "        }",
+            "        if (this.sizesBuffer != null) {",
+            "          this.sizesBuffer.clear();",
+            "        }",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Sizes putSizes(String key, Integer value) {",
+            "      if (this.sizesBuffer == null) {",
+            "        this.sizesBuffer = new LinkedHashMap<String, Integer>();",
+            "      }",
+            "      this.sizesBuffer.put(key, value);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public CubeBuilder.Sizes putAllSizes(Map<? extends String, ? extends Integer> sizes) {",
+            "      if (this.sizesBuffer == null) {",
+            "        this.sizesBuffer = new LinkedHashMap<String, Integer>();",
+            "      }",
+            "      this.sizesBuffer.putAll(sizes);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Cube endSizes() {",
+            "      try {",
+            "        Map<String, Integer> sizes = this.sizesBuffer == null || this.sizesBuffer.isEmpty() ?",
+            "            Collections.<String, Integer>emptyMap() :",
+            "            Collections.unmodifiableMap(new LinkedHashMap<String, Integer>(this.sizesBuffer));",
+            "        return new Cube(tags, sizes);",
+            "      } finally {",
+            "        if (this.tagsBuffer != null) {",
+            "          this.tagsBuffer.clear();",
+            "        }",
+            "        if (this.sizesBuffer != null) {",
+            "          this.sizesBuffer.clear();",
+            "        }",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class CubeBuilder {",
+            "    private CubeBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface Tags {",
+            "      Sizes tags(List<String> tags);",
+            "",
+            "      Sizes emptyTags();",
+            "",
+            "      Tags addTags(String tags);",
+            "",
+            "      Tags addAllTags(Collection<? extends String> tags);",
+            "",
+            "      Sizes endTags();",
+            "    }",
+            "",
+            "    public interface Sizes {",
+            "      Cube sizes(Map<String, Integer> sizes);",
+            "",
+            "      Sizes putSizes(String key, Integer value);",
+            "",
+            "      Sizes putAllSizes(Map<? extends String, ? extends Integer> sizes);",
+            "",
+            "      Cube endSizes();",
+            "    }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private CubeBuilderImpl cubeBuilderImpl;",
+            "",
+            "    public Session() {",
+            "    }",
+            "",
+            "    public CubeBuilder.Tags cubeBuilder() {",
+            "      CubeBuilderImpl cubeBuilderImpl = this.cubeBuilderImpl;",
+            "      if (cubeBuilderImpl == null || cubeBuilderImpl._inUse) {",
+            "        cubeBuilderImpl = this.cubeBuilderImpl = new CubeBuilderImpl();",
+            "      }",
+            "      cubeBuilderImpl._inUse = true;",
+            "      return cubeBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+
+  @Test
+  public void primitiveArrays() {
+    JavaFileObject sample = forSourceLines("tele.Sample",
+        "package tele;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true, accumulators = true)",
+        "final class Sample {",
+        "  @Goal(name = \"sample\")",
+        "  Sample(double[] samples, byte[] flags) {",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("tele.SampleBuilders",
+            "package tele;",
+            "",
+            "import java.util.Arrays;",
+            "import java.util.Spliterator;",
+            "import java.util.function.DoubleConsumer;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SampleBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  };",
+            "",
+            "  private SampleBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static SampleBuilder.Samples sampleBuilder() {",
+            "    Session session = INSTANCE.get();",
+            "    return session.sampleBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  static final class SampleBuilderImpl implements SampleBuilder.Samples, SampleBuilder.Flags {",
+            "    private double[] samples;",
+            "",
+            "    private double[] samplesBuffer;",
+            "",
+            "    private int samplesSize;",
+            "",
+            "    private byte[] flagsBuffer;",
+            "",
+            "    private int flagsSize;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private SampleBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Flags samples(double[] samples) {",
+            "      this.samples = samples;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Samples addSamples(double samples) {",
+            "      if (this.samplesBuffer == null) {",
+            "        this.samplesBuffer = new double[16];",
+            "      } else if (this.samplesSize == this.samplesBuffer.length) {",
+            "        this.samplesBuffer = Arrays.copyOf(this.samplesBuffer, 2 * this.samplesSize);",
+            "      }",
+            "      this.samplesBuffer[this.samplesSize++] = samples;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Samples addAllSamples(double[] samples) {",
+            "      if (this.samplesBuffer == null) {",
+            "        this.samplesBuffer = new double[Math.max(16, samples.length)];",
+            "      } else if (this.samplesBuffer.length - this.samplesSize < samples.length) {",
+            "        this.samplesBuffer = Arrays.copyOf(this.samplesBuffer, Math.max(2 * this.samplesBuffer.length, this.samplesSize + samples.length));",
+            "      }",
+            "      System.arraycopy(samples, 0, this.samplesBuffer, this.samplesSize, samples.length);",
+            "      this.samplesSize += samples.length;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Samples addAllSamples(Spliterator.OfDouble samples) {",
+            "      long known = samples.getExactSizeIfKnown();",
+            "      if (known > 0) {",
+            "        if (this.samplesBuffer == null) {",
+            "          this.samplesBuffer = new double[Math.max(16, (int) known)];",
+            "        } else if (this.samplesBuffer.length - this.samplesSize < (int) known) {",
+            "          this.samplesBuffer = Arrays.copyOf(this.samplesBuffer, Math.max(2 * this.samplesBuffer.length, this.samplesSize + (int) known));",
+            "        }",
+            "      }",
+            "      samples.forEachRemaining(new DoubleConsumer() {",
+            "        @Override",
+            "        public void accept(double value) {",
+            "          addSamples(value);",
+            "        }",
+            "      });",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Flags endSamples() {",
+            "      this.samples = this.samplesBuffer == null ?",
+            "          new double[0] :",
+            "          Arrays.copyOf(this.samplesBuffer, this.samplesSize);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Sample flags(byte[] flags) {",
+            "      try {",
+            "        return new Sample(samples, flags);",
+            "      } finally {",
+            "        this.samplesSize = 0;",
+            "        this.flagsSize = 0;",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Flags addFlags(byte flags) {",
+            "      if (this.flagsBuffer == null) {",
+            "        this.flagsBuffer = new byte[16];",
+            "      } else if (this.flagsSize == this.flagsBuffer.length) {",
+            "        this.flagsBuffer = Arrays.copyOf(this.flagsBuffer, 2 * this.flagsSize);",
+            "      }",
+            "      this.flagsBuffer[this.flagsSize++] = flags;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public SampleBuilder.Flags addAllFlags(byte[] flags) {",
+            "      if (this.flagsBuffer == null) {",
+            "        this.flagsBuffer = new byte[Math.max(16, flags.length)];",
+            "      } else if (this.flagsBuffer.length - this.flagsSize < flags.length) {",
+            "        this.flagsBuffer = Arrays.copyOf(this.flagsBuffer, Math.max(2 * this.flagsBuffer.length, this.flagsSize + flags.length));",
+            "      }",
+            "      System.arraycopy(flags, 0, this.flagsBuffer, this.flagsSize, flags.length);",
+            "      this.flagsSize += flags.length;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Sample endFlags() {",
+            "      try {",
+            "        byte[] flags = this.flagsBuffer == null ?",
+            "            new byte[0] :",
+            "            Arrays.copyOf(this.flagsBuffer, this.flagsSize);",
+            "        return new Sample(samples, flags);",
+            "      } finally {",
+            "        this.samplesSize = 0;",
+            "        this.flagsSize = 0;",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class SampleBuilder {",
+            "    private SampleBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface Samples {",
+            "      Flags samples(double[] samples);",
+            "",
+            "      Samples addSamples(double samples);",
+            "",
+            "      Samples addAllSamples(double[] samples);",
+            "",
+            "      Samples addAllSamples(Spliterator.OfDouble samples);",
+            "",
+            "      Flags endSamples();",
+            "    }",
+            "",
+            "    public interface Flags {",
+            "      Sample flags(byte[] flags);",
+            "",
+            "      Flags addFlags(byte flags);",
+            "",
+            "      Flags addAllFlags(byte[] flags);",
+            "",
+            "      Sample endFlags();",
+            "    }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private SampleBuilderImpl sampleBuilderImpl;",
+            "",
+            "    public Session() {",
+            "    }",
+            "",
+            "    public SampleBuilder.Samples sampleBuilder() {",
+            "      SampleBuilderImpl sampleBuilderImpl = this.sampleBuilderImpl;",
+            "      if (sampleBuilderImpl == null || sampleBuilderImpl._inUse) {",
+            "        sampleBuilderImpl = this.sampleBuilderImpl = new SampleBuilderImpl();",
+            "      }",
+            "      sampleBuilderImpl._inUse = true;",
+            "      return sampleBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(sample))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
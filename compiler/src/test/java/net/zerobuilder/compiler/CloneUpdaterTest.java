@@ -0,0 +1,108 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class CloneUpdaterTest {
+
+  @Test
+  public void cloneUpdater() {
+    JavaFileObject employee = forSourceLines("beans.Employee",
+        "package beans;",
+        "import net.zerobuilder.*;",
+        "import java.util.ArrayList;",
+        "import java.util.List;",
+        "",
+        "@Builders",
+        "@Goal(updater = true, useClone = true, builder = false)",
+        "public class Employee implements Cloneable {",
+        "  private String name;",
+        "  private List<String> notes = new ArrayList<>();",
+        "  public String getName() { return name; }",
+        "  public void setName(String name) { this.name = name; }",
+        "  public List<String> getNotes() { return notes; }",
+        "  @Override",
+        "  public Employee clone() {",
+        "    try {",
+        "      Employee employee = (Employee) super.clone();",
+        "      employee.notes = new ArrayList<>(notes);",
+        "      return employee;",
+        "    } catch (CloneNotSupportedException e) {",
+        "      throw new AssertionError(e);",
+        "    }",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("beans.EmployeeBuilders",
+            "package beans;",
+            "",
+            "import java.util.Collection;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class EmployeeBuilders {",
+            "  private EmployeeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static EmployeeUpdater employeeUpdater(Employee employee) {",
+            "    if (employee.getNotes() == null) {",
+            "      throw new NullPointerException(\"notes\");",
+            "    }",
+            "    EmployeeUpdater updater = new EmployeeUpdater(employee.clone());",
+            "    if (updater.employee.getNotes() == employee.getNotes()) {",
+            "      throw new IllegalStateException(\"clone() must copy notes\");",
+            "    }",
+            "    return updater;",
+            "  }",
+            "",
+            "  public static final class EmployeeUpdater {",
+            "    private final Employee employee;",
+            "",
+            "    private EmployeeUpdater(Employee employee) {",
+            "      this.employee = employee;",
+            "    }",
+            "",
+            "    public EmployeeUpdater name(String name) {",
+            "      this.employee.setName(name);",
+            "      return this;",
+            "    }",
+            "",
+            "    public EmployeeUpdater notes(Iterable<? extends String> notes) {",
+            "      if (notes == null) {",
+            "        throw new NullPointerException(\"notes\");",
+            "      }",
+            "      this.employee.getNotes().clear();",
+            "      if (notes instanceof Collection) {",
+            "        this.employee.getNotes().addAll((Collection<? extends String>) notes);",
+            "      } else {",
+            "        for (String string : notes) {",
+            "          this.employee.getNotes().add(string);",
+            "        }",
+            "      }",
+            "      return this;",
+            "    }",
+            "",
+            "    public EmployeeUpdater emptyNotes() {",
+            "      this.employee.getNotes().clear();",
+            "      return this;",
+            "    }",
+            "",
+            "    public Employee done() {",
+            "      return this.employee;",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(employee))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
@@ -0,0 +1,90 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class CodecTest {
+
+  @Test
+  public void codec() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "abstract class Cube {",
+        "  abstract boolean solid();",
+        "  abstract Integer length();",
+        "  abstract String label();",
+        "  @Goal(codec = true, builder = false)",
+        "  static Cube create(boolean solid, Integer length, String label) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.nio.BufferUnderflowException;",
+            "import java.nio.ByteBuffer;",
+            "import java.nio.charset.StandardCharsets;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static void cubeEncode(Cube cube, ByteBuffer buffer) {",
+            "    buffer.put((byte) (cube.solid() ? 1 : 0));",
+            "    Integer length = cube.length();",
+            "    if (length == null) {",
+            "      buffer.put((byte) 0);",
+            "    } else {",
+            "      buffer.put((byte) 1);",
+            "      buffer.putInt(length);",
+            "    }",
+            "    String label = cube.label();",
+            "    if (label == null) {",
+            "      buffer.putInt(-1);",
+            "    } else {",
+            "      byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);",
+            "      buffer.putInt(labelBytes.length);",
+            "      buffer.put(labelBytes);",
+            "    }",
+            "  }",
+            "",
+            "  public static Cube cubeDecode(ByteBuffer buffer) {",
+            "    boolean solid = buffer.get() != 0;",
+            "    Integer length = buffer.get() == 0 ? null : buffer.getInt();",
+            "    int labelLength = buffer.getInt();",
+            "    String label;",
+            "    if (labelLength == -1) {",
+            "      label = null;",
+            "    } else if (labelLength < -1 || labelLength > buffer.remaining()) {",
+            "      throw new BufferUnderflowException();",
+            "    } else if (buffer.hasArray()) {",
+            "      label = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), labelLength, StandardCharsets.UTF_8);",
+            "      buffer.position(buffer.position() + labelLength);",
+            "    } else {",
+            "      byte[] labelBytes = new byte[labelLength];",
+            "      buffer.get(labelBytes);",
+            "      label = new String(labelBytes, StandardCharsets.UTF_8);",
+            "    }",
+            "    return Cube.create(solid, length, label);",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
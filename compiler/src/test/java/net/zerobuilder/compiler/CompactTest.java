@@ -0,0 +1,170 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class CompactTest {
+
+  @Test
+  public void sharedStepInterfaces() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(compact = true)",
+        "final class Cube {",
+        "  @Goal(name = \"cube\")",
+        "  Cube(double height, double length, double width) {",
+        "  }",
+        "  @Goal(name = \"flat\")",
+        "  static Cube flat(String label, double length, double width) {",
+        "    return null;",
+        "  }",
+        "  @Goal(name = \"area\")",
+        "  static double area(double length, double width) {",
+        "    return length * width;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static Height<Length<Width<Cube>>> cubeBuilder() {",
+            "    CubeBuilderImpl cubeBuilderImpl = new CubeBuilderImpl();",
+            "    return cubeBuilderImpl;",
+            "  }",
+            "",
+            "  public static Label<Length<Width<Cube>>> flatBuilder() {",
+            "    FlatBuilderImpl flatBuilderImpl = new FlatBuilderImpl();",
+            "    return flatBuilderImpl;",
+            "  }",
+            "",
+            "  public static AreaBuilder.Length areaBuilder() {",
+            "    AreaBuilderImpl areaBuilderImpl = new AreaBuilderImpl();",
+            "    return areaBuilderImpl;",
+            "  }",
+            "",
+            "  static final class CubeBuilderImpl implements Height<Length<Width<Cube>>>, Length<Width<Cube>>, Width<Cube> {",
+            "    private double height;",
+            "",
+            "    private double length;",
+            "",
+            "    private CubeBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public Length<Width<Cube>> height(double height) {",
+            "      this.height = height;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Width<Cube> length(double length) {",
+            "      this.length = length;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Cube width(double width) {",
+            "      return new Cube(height, length, width);",
+            "    }",
+            "  }",
+            "",
+            "  public interface Height<NEXT> {",
+            "    NEXT height(double height);",
+            "  }",
+            "",
+            "  public interface Length<NEXT> {",
+            "    NEXT length(double length);",
+            "  }",
+            "",
+            "  public interface Width<NEXT> {",
+            "    NEXT width(double width);",
+            "  }",
+            "",
+            "  static final class FlatBuilderImpl implements Label<Length<Width<Cube>>>, Length<Width<Cube>>, Width<Cube> {",
+            "    private String label;",
+            "",
+            "    private double length;",
+            "",
+            "    private FlatBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public Length<Width<Cube>> label(String label) {",
+            "      this.label = label;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Width<Cube> length(double length) {",
+            "      this.length = length;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Cube width(double width) {",
+            "      return Cube.flat(label, length, width);",
+            "    }",
+            "  }",
+            "",
+            "  public interface Label<NEXT> {",
+            "    NEXT label(String label);",
+            "  }",
+            "",
+            "  static final class AreaBuilderImpl implements AreaBuilder.Length, AreaBuilder.Width {",
+            "    private double length;",
+            "",
+            "    private AreaBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public AreaBuilder.Width length(double length) {",
+            "      this.length = length;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public double width(double width) {",
+            "      return Cube.area(length, width);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class AreaBuilder {",
+            "    private AreaBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface Length {",
+            "      Width length(double length);",
+            "    }",
+            "",
+            "    public interface Width {",
+            "      double width(double width);",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .withCompilerOptions("-Azerobuilder.verbose=true")
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .withNoteContaining("compact mode saved 4 classes in cube.CubeBuilders").in(cube).onLine(5)
+        .and().and().generatesSources(expected);
+  }
+}
@@ -0,0 +1,334 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class CsvTest {
+
+  @Test
+  public void csv() {
+    JavaFileObject item = forSourceLines("cube.Item",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "final class Item {",
+        "  @Goal(csv = true, builder = false)",
+        "  static Item create(String name, int count) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.ItemBuilders",
+            "package cube;",
+            "",
+            "import java.io.EOFException;",
+            "import java.io.IOException;",
+            "import java.io.InterruptedIOException;",
+            "import java.nio.ByteBuffer;",
+            "import java.nio.channels.FileChannel;",
+            "import java.nio.charset.StandardCharsets;",
+            "import java.nio.file.Path;",
+            "import java.nio.file.StandardOpenOption;",
+            "import java.util.ArrayList;",
+            "import java.util.Arrays;",
+            "import java.util.List;",
+            "import java.util.concurrent.ExecutionException;",
+            "import java.util.concurrent.ForkJoinPool;",
+            "import java.util.concurrent.ForkJoinTask;",
+            "import java.util.regex.Pattern;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class ItemBuilders {",
+            "  private ItemBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static ItemCsv itemCsv(char delimiter, boolean header) {",
+            "    return itemCsv(delimiter, header, ItemCsv.DEFAULT_CHUNK_SIZE);",
+            "  }",
+            "",
+            "  public static ItemCsv itemCsv(char delimiter, boolean header, int chunkSize) {",
+            "    return new ItemCsv(delimiter, header, chunkSize);",
+            "  }",
+            "",
+            "  public static final class ItemCsv {",
+            "    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;",
+            "",
+            "    private static final String[] NAMES = { \"name\", \"count\" };",
+            "",
+            "    private final byte delimiter;",
+            "",
+            "    private final boolean header;",
+            "",
+            "    private final int chunkSize;",
+            "",
+            "    private ItemCsv(char delimiter, boolean header, int chunkSize) {",
+            "      if (delimiter >= 0x80 || delimiter == '\"' || delimiter == '\\n' || delimiter == '\\r') {",
+            "        throw new IllegalArgumentException(\"delimiter: \" + delimiter);",
+            "      }",
+            "      if (chunkSize <= 0) {",
+            "        throw new IllegalArgumentException(\"chunkSize\");",
+            "      }",
+            "      this.delimiter = (byte) delimiter;",
+            "      this.header = header;",
+            "      this.chunkSize = chunkSize;",
+            "    }",
+            "",
+            "    /**",
+            "     * Loads a file in the common pool.",
+            "     *",
+            "     * @param file the file to load",
+            "     * @return the results of the goal, in the order of the lines",
+            "     * @throws IOException if the file can not be read",
+            "     */",
+            "    public List<Item> load(Path file) throws IOException {",
+            "      return load(file, ForkJoinPool.commonPool());",
+            "    }",
+            "",
+            "    /**",
+            "     * @param file the file to load",
+            "     * @param pool parses the chunks of the file",
+            "     * @return the results of the goal, in the order of the lines",
+            "     * @throws IOException if the file can not be read",
+            "     */",
+            "    public List<Item> load(Path file, ForkJoinPool pool) throws IOException {",
+            "      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {",
+            "        long size = channel.size();",
+            "        long start = this.header ? nextLine(channel, 0) : 0;",
+            "        int[] steps = this.header ? columns(channel, start) : null;",
+            "        List<ForkJoinTask<List<Item>>> tasks = new ArrayList<>();",
+            "        while (start < size) {",
+            "          long from = start;",
+            "          long to = size - from <= this.chunkSize ? size : nextLine(channel, from + this.chunkSize - 1);",
+            "          tasks.add(pool.submit(() -> parse(channel, from, to, steps)));",
+            "          start = to;",
+            "        }",
+            "        List<Item> result = new ArrayList<>();",
+            "        for (ForkJoinTask<List<Item>> task : tasks) {",
+            "          result.addAll(join(task));",
+            "        }",
+            "        return result;",
+            "      }",
+            "    }",
+            "",
+            "    private List<Item> join(ForkJoinTask<List<Item>> task) throws IOException {",
+            "      try {",
+            "        return task.get();",
+            "      } catch (InterruptedException e) {",
+            "        Thread.currentThread().interrupt();",
+            "        throw new InterruptedIOException();",
+            "      } catch (ExecutionException e) {",
+            "        for (Throwable t = e.getCause(); t != null; t = t.getCause()) {",
+            "          if (t instanceof IOException) {",
+            "            throw (IOException) t;",
+            "          }",
+            "        }",
+            "        Throwable cause = e.getCause();",
+            "        if (cause != null && cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {",
+            "          // the pool may rethrow a copy that wraps the original",
+            "          cause = cause.getCause();",
+            "        }",
+            "        if (cause instanceof RuntimeException) {",
+            "          throw (RuntimeException) cause;",
+            "        }",
+            "        if (cause instanceof Error) {",
+            "          throw (Error) cause;",
+            "        }",
+            "        throw new IllegalStateException(cause);",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * @param steps maps columns to steps, or {@code null} if they are the same",
+            "     */",
+            "    private List<Item> parse(FileChannel channel, long from, long to, int[] steps) throws IOException {",
+            "      byte[] data = new byte[(int) (to - from)];",
+            "      ByteBuffer buffer = ByteBuffer.wrap(data);",
+            "      while (buffer.hasRemaining()) {",
+            "        if (channel.read(buffer, from + buffer.position()) < 0) {",
+            "          throw new EOFException();",
+            "        }",
+            "      }",
+            "      List<Item> result = new ArrayList<>();",
+            "      int pos = 0;",
+            "      while (pos < data.length) {",
+            "        if (data[pos] == '\\n' || data[pos] == '\\r') {",
+            "          pos++;",
+            "          continue;",
+            "        }",
+            "        String name = null;",
+            "        int count = 0;",
+            "        int line = pos;",
+            "        int column = 0;",
+            "        int found = 0;",
+            "        while (true) {",
+            "          int end = fieldEnd(data, pos);",
+            "          int last = end > pos && data[end - 1] == '\\r' ? end - 1 : end;",
+            "          int step = steps == null ? column : column < steps.length ? steps[column] : -1;",
+            "          switch (step) {",
+            "            case 0:",
+            "              name = readString(data, pos, last);",
+            "              found++;",
+            "              break;",
+            "            case 1:",
+            "              count = (int) parseLong(data, pos, last, Integer.MIN_VALUE, Integer.MAX_VALUE);",
+            "              found++;",
+            "              break;",
+            "            default:",
+            "              break;",
+            "          }",
+            "          column++;",
+            "          pos = end + 1;",
+            "          if (end == data.length || data[end] == '\\n') {",
+            "            break;",
+            "          }",
+            "        }",
+            "        if (found != 2) {",
+            "          throw new IllegalArgumentException(\"missing columns in the line at byte \" + (from + line));",
+            "        }",
+            "        result.add(invoke(name, count));",
+            "      }",
+            "      return result;",
+            "    }",
+            "",
+            "    private static Item invoke(String name, int count) {",
+            "      return Item.create(name, count);",
+            "    }",
+            "",
+            "    /**",
+            "     * @return the step of each column of the header, or {@code -1}",
+            "     */",
+            "    private int[] columns(FileChannel channel, long end) throws IOException {",
+            "      ByteBuffer buffer = ByteBuffer.allocate((int) end);",
+            "      while (buffer.hasRemaining()) {",
+            "        if (channel.read(buffer, buffer.position()) < 0) {",
+            "          throw new EOFException();",
+            "        }",
+            "      }",
+            "      String[] header = new String(buffer.array(), StandardCharsets.UTF_8).trim().split(Pattern.quote(String.valueOf((char) this.delimiter)), -1);",
+            "      int[] steps = new int[header.length];",
+            "      Arrays.fill(steps, -1);",
+            "      boolean[] found = new boolean[NAMES.length];",
+            "      for (int column = 0; column < header.length; column++) {",
+            "        String name = header[column].trim();",
+            "        if (name.length() >= 2 && name.startsWith(\"\\\"\") && name.endsWith(\"\\\"\")) {",
+            "          name = name.substring(1, name.length() - 1);",
+            "        }",
+            "        for (int step = 0; step < NAMES.length; step++) {",
+            "          if (!found[step] && NAMES[step].equals(name)) {",
+            "            steps[column] = step;",
+            "            found[step] = true;",
+            "          }",
+            "        }",
+            "      }",
+            "      for (int step = 0; step < NAMES.length; step++) {",
+            "        if (!found[step]) {",
+            "          throw new IllegalArgumentException(\"missing column: \" + NAMES[step]);",
+            "        }",
+            "      }",
+            "      return steps;",
+            "    }",
+            "",
+            "    /**",
+            "     * @return the position after the first line break at or after {@code position},",
+            "     * or the size of the file",
+            "     */",
+            "    private static long nextLine(FileChannel channel, long position) throws IOException {",
+            "      ByteBuffer buffer = ByteBuffer.allocate(4096);",
+            "      while (true) {",
+            "        buffer.clear();",
+            "        if (channel.read(buffer, position) <= 0) {",
+            "          return channel.size();",
+            "        }",
+            "        for (int i = 0; i < buffer.position(); i++) {",
+            "          if (buffer.get(i) == '\\n') {",
+            "            return position + i + 1;",
+            "          }",
+            "        }",
+            "        position += buffer.position();",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * @return the position of the delimiter or line break after the field at {@code pos}",
+            "     */",
+            "    private int fieldEnd(byte[] data, int pos) {",
+            "      if (pos < data.length && data[pos] == '\"') {",
+            "        pos++;",
+            "        while (pos < data.length) {",
+            "          if (data[pos++] == '\"') {",
+            "            if (pos == data.length || data[pos] != '\"') {",
+            "              break;",
+            "            }",
+            "            pos++;",
+            "          }",
+            "        }",
+            "      }",
+            "      while (pos < data.length && data[pos] != this.delimiter && data[pos] != '\\n') {",
+            "        pos++;",
+            "      }",
+            "      return pos;",
+            "    }",
+            "",
+            "    /**",
+            "     * Accumulates the negated value, so that {@link Long#MIN_VALUE} can be read.",
+            "     */",
+            "    private static long parseLong(byte[] data, int start, int end, long min, long max) {",
+            "      int i = start;",
+            "      boolean negative = i < end && data[i] == '-';",
+            "      if (i < end && (data[i] == '-' || data[i] == '+')) {",
+            "        i++;",
+            "      }",
+            "      if (i == end) {",
+            "        throw new NumberFormatException(\"not a number: \" + new String(data, start, end - start, StandardCharsets.UTF_8));",
+            "      }",
+            "      long value = 0;",
+            "      for (; i < end; i++) {",
+            "        int digit = data[i] - '0';",
+            "        if (digit < 0 || digit > 9) {",
+            "          throw new NumberFormatException(\"not a number: \" + new String(data, start, end - start, StandardCharsets.UTF_8));",
+            "        }",
+            "        if (value < (Long.MIN_VALUE + digit) / 10) {",
+            "          throw new NumberFormatException(\"out of range: \" + new String(data, start, end - start, StandardCharsets.UTF_8));",
+            "        }",
+            "        value = 10 * value - digit;",
+            "      }",
+            "      if (!negative) {",
+            "        if (value == Long.MIN_VALUE) {",
+            "          throw new NumberFormatException(\"out of range: \" + new String(data, start, end - start, StandardCharsets.UTF_8));",
+            "        }",
+            "        value = -value;",
+            "      }",
+            "      if (value < min || value > max) {",
+            "        throw new NumberFormatException(\"out of range: \" + new String(data, start, end - start, StandardCharsets.UTF_8));",
+            "      }",
+            "      return value;",
+            "    }",
+            "",
+            "    /**",
+            "     * Removes the quotes of a quoted field, and unescapes doubled quotes.",
+            "     */",
+            "    private static String readString(byte[] data, int start, int end) {",
+            "      if (end - start >= 2 && data[start] == '\"' && data[end - 1] == '\"') {",
+            "        return new String(data, start + 1, end - start - 2, StandardCharsets.UTF_8).replace(\"\\\"\\\"\", \"\\\"\");",
+            "      }",
+            "      return new String(data, start, end - start, StandardCharsets.UTF_8);",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(item))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
@@ -73,4 +73,146 @@ public class FailTest {
         .onLine(line + 1);
   }
 
+  @Test
+  public void withersOnInstanceMethod() {
+    String badLine = "  @Goal(withers = true) Centipede create(int a) { return null; }";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders class Centipede {",
+        "  int a;",
+        badLine,
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Centipede", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("instance method goal")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void useCloneWithoutCloneable() {
+    String badLine = "@Builders @Goal(updater = true, useClone = true) class Centipede {";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        badLine,
+        "  private int a;",
+        "  public int getA() { return a; }",
+        "  public void setA(int a) { this.a = a; }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Centipede", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("must implement Cloneable")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void codecUnsupportedType() {
+    String badLine = "  @Goal(codec = true) Centipede(int a, java.util.List<String> legs) {}";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders class Centipede {",
+        "  final int a = 0;",
+        "  final java.util.List<String> legs = null;",
+        badLine,
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Centipede", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("primitives, boxed primitives and strings")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void beanCodecUnsupportedType() {
+    String badLine = "  public java.util.Date getWhen() { return when; }";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders @Goal(codec = true)",
+        "public class Bean {",
+        "  private java.util.Date when;",
+        badLine,
+        "  public void setWhen(java.util.Date when) { this.when = when; }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Bean", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("A codec can only encode primitives, boxed primitives and strings")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void beanViewUnsupportedType() {
+    String badLine = "  public Integer getCount() { return count; }";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders @Goal(view = true)",
+        "public class Bean {",
+        "  private Integer count;",
+        badLine,
+        "  public void setCount(Integer count) { this.count = count; }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Bean", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("A view can only hold primitives")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void beanCsvUnsupportedType() {
+    String badLine = "  public java.util.List<String> getTags() { return tags; }";
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders @Goal(csv = true)",
+        "public class Bean {",
+        "  private java.util.List<String> tags;",
+        badLine,
+        "  public void setTags(java.util.List<String> tags) { this.tags = tags; }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Bean", sourceLines);
+    int line = sourceLines.indexOf(badLine);
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("A csv loader can only read primitives, boxed primitives and strings")
+        .in(javaFile)
+        .onLine(line + 1);
+  }
+
+  @Test
+  public void methodBudgetNotPositive() {
+    JavaFileObject javaFile = forSourceLines("test.Centipede",
+        "package test;",
+        "import net.zerobuilder.*;",
+        "@Builders class Centipede {",
+        "  @Goal Centipede(int a) {}",
+        "}");
+    assertAbout(javaSources()).that(ImmutableList.of(javaFile))
+        .withCompilerOptions("-Azerobuilder.methodBudget=-1")
+        .processedWith(new ZeroProcessor())
+        .failsToCompile()
+        .withErrorContaining("-Azerobuilder.methodBudget must be a positive integer, but was: -1");
+  }
 }
@@ -0,0 +1,153 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class GoalLifecycleTest {
+
+  @Test
+  public void goalLifecycle() {
+    JavaFileObject sum = forSourceLines("cube.Sum",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "final class Sum {",
+        "  @Goal(name = \"hot\", lifecycle = Lifecycle.THREAD_LOCAL)",
+        "  static int hot(int a, int b) { return a + b; }",
+        "  @Goal(name = \"cold\")",
+        "  static int cold(int a, int b) { return a + b; }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.SumBuilders",
+            "package cube;",
+            "",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SumBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  };",
+            "",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static HotBuilder.A hotBuilder() {",
+            "    Session session = INSTANCE.get();",
+            "    return session.hotBuilder();",
+            "  }",
+            "",
+            "  public static ColdBuilder.A coldBuilder() {",
+            "    ColdBuilderImpl coldBuilderImpl = new ColdBuilderImpl();",
+            "    return coldBuilderImpl;",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  static final class HotBuilderImpl implements HotBuilder.A, HotBuilder.B {",
+            "    private int a;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private HotBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public HotBuilder.B a(int a) {",
+            "      this.a = a;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public int b(int b) {",
+            "      try {",
+            "        return Sum.hot(a, b);",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class HotBuilder {",
+            "    private HotBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface A {",
+            "      B a(int a);",
+            "    }",
+            "",
+            "    public interface B {",
+            "      int b(int b);",
+            "    }",
+            "  }",
+            "",
+            "  static final class ColdBuilderImpl implements ColdBuilder.A, ColdBuilder.B {",
+            "    private int a;",
+            "",
+            "    private ColdBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public ColdBuilder.B a(int a) {",
+            "      this.a = a;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public int b(int b) {",
+            "      return Sum.cold(a, b);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class ColdBuilder {",
+            "    private ColdBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface A {",
+            "      B a(int a);",
+            "    }",
+            "",
+            "    public interface B {",
+            "      int b(int b);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private HotBuilderImpl hotBuilderImpl;",
+            "",
+            "    public Session() {",
+            "    }",
+            "",
+            "    public HotBuilder.A hotBuilder() {",
+            "      HotBuilderImpl hotBuilderImpl = this.hotBuilderImpl;",
+            "      if (hotBuilderImpl == null || hotBuilderImpl._inUse) {",
+            "        hotBuilderImpl = this.hotBuilderImpl = new HotBuilderImpl();",
+            "      }",
+            "      hotBuilderImpl._inUse = true;",
+            "      return hotBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(sum))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
@@ -0,0 +1,225 @@
+package net.zerobuilder.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+import static javax.tools.StandardLocation.SOURCE_OUTPUT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiles very wide goals, and checks that none of the generated methods
+ * is too big to be compiled by the JIT.
+ */
+public class HugeMethodTest {
+
+  /**
+   * HotSpot's default {@code -XX:HugeMethodLimit}.
+   */
+  private static final int HUGE_METHOD_LIMIT = 8000;
+
+  private static final List<String> BUILDERS_OPTIONS = asList(
+      "@Builders",
+      "@Builders(recycle = true)",
+      "@Builders(lazyUpdaters = true)");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void wideBean() throws IOException {
+    for (String buildersAnnotation : BUILDERS_OPTIONS) {
+      List<String> lines = new ArrayList<>(asList(
+          "package beans;",
+          "import net.zerobuilder.*;",
+          "import java.util.ArrayList;",
+          "import java.util.List;",
+          buildersAnnotation,
+          "@Goal(updater = true, nullPolicy = NullPolicy.REJECT)",
+          "public class Wide {"));
+      for (int i = 0; i < 200; i++) {
+        lines.addAll(asList(
+            "  private String foo" + i + ";",
+            "  private final List<String> bar" + i + " = new ArrayList<>();",
+            "  public String getFoo" + i + "() { return foo" + i + "; }",
+            "  public void setFoo" + i + "(String foo" + i + ") { this.foo" + i + " = foo" + i + "; }",
+            "  public List<String> getBar" + i + "() { return bar" + i + "; }"));
+      }
+      lines.add("}");
+      assertNoHugeMethods(buildersAnnotation, "beans.Wide", lines);
+    }
+  }
+
+  @Test
+  public void wideValue() throws IOException {
+    for (String buildersAnnotation : BUILDERS_OPTIONS) {
+      List<String> parameters = new ArrayList<>();
+      List<String> lines = new ArrayList<>(asList(
+          "package cube;",
+          "import net.zerobuilder.*;",
+          buildersAnnotation,
+          "final class Wide {"));
+      for (int i = 0; i < 250; i++) {
+        lines.add("  final String foo" + i + " = null;");
+        parameters.add("String foo" + i);
+      }
+      lines.add("  @Goal(updater = true, nullPolicy = NullPolicy.REJECT)");
+      lines.add("  static Wide create(" + String.join(", ", parameters) + ") { return null; }");
+      lines.add("}");
+      assertNoHugeMethods(buildersAnnotation, "cube.Wide", lines);
+    }
+  }
+
+  private void assertNoHugeMethods(String message, String className, List<String> lines) throws IOException {
+    File out = temporaryFolder.newFolder();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, UTF_8);
+    fileManager.setLocation(CLASS_OUTPUT, singletonList(out));
+    fileManager.setLocation(SOURCE_OUTPUT, singletonList(out));
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+        null, null, singletonList(forSourceLines(className, lines)));
+    task.setProcessors(singletonList(new ZeroProcessor()));
+    assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+    List<String> hugeMethods = new ArrayList<>();
+    int classFiles = 0;
+    for (File file : listFiles(out)) {
+      if (file.getName().endsWith(".class")) {
+        classFiles++;
+        hugeMethods.addAll(hugeMethods(file));
+      }
+    }
+    assertTrue(classFiles > 1);
+    assertEquals(message, new ArrayList<String>(), hugeMethods);
+  }
+
+  private static List<File> listFiles(File directory) {
+    List<File> files = new ArrayList<>();
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return files;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        files.addAll(listFiles(child));
+      } else {
+        files.add(child);
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Reads the code length of each method in a class file.
+   *
+   * @param classFile a class file
+   * @return the methods that exceed {@link #HUGE_METHOD_LIMIT}
+   * @throws IOException if the file can not be read
+   */
+  private static List<String> hugeMethods(File classFile) throws IOException {
+    List<String> hugeMethods = new ArrayList<>();
+    try (DataInputStream in = new DataInputStream(new FileInputStream(classFile))) {
+      in.readInt(); // magic
+      in.readUnsignedShort(); // minor_version
+      in.readUnsignedShort(); // major_version
+      int constantPoolCount = in.readUnsignedShort();
+      String[] utf8 = new String[constantPoolCount];
+      for (int i = 1; i < constantPoolCount; i++) {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1:
+            utf8[i] = in.readUTF();
+            break;
+          case 5:
+          case 6:
+            in.readLong();
+            i++;
+            break;
+          case 7:
+          case 8:
+          case 16:
+            in.readUnsignedShort();
+            break;
+          case 15:
+            in.readUnsignedByte();
+            in.readUnsignedShort();
+            break;
+          case 3:
+          case 4:
+          case 9:
+          case 10:
+          case 11:
+          case 12:
+          case 18:
+            in.readInt();
+            break;
+          default:
+            throw new IllegalStateException("unknown constant pool tag: " + tag);
+        }
+      }
+      in.readUnsignedShort(); // access_flags
+      in.readUnsignedShort(); // this_class
+      in.readUnsignedShort(); // super_class
+      int interfacesCount = in.readUnsignedShort();
+      for (int i = 0; i < interfacesCount; i++) {
+        in.readUnsignedShort();
+      }
+      int fieldsCount = in.readUnsignedShort();
+      for (int i = 0; i < fieldsCount; i++) {
+        in.readUnsignedShort(); // access_flags
+        in.readUnsignedShort(); // name_index
+        in.readUnsignedShort(); // descriptor_index
+        skipAttributes(in);
+      }
+      int methodsCount = in.readUnsignedShort();
+      for (int i = 0; i < methodsCount; i++) {
+        in.readUnsignedShort(); // access_flags
+        String name = utf8[in.readUnsignedShort()];
+        in.readUnsignedShort(); // descriptor_index
+        int attributesCount = in.readUnsignedShort();
+        for (int j = 0; j < attributesCount; j++) {
+          String attributeName = utf8[in.readUnsignedShort()];
+          int length = in.readInt();
+          if ("Code".equals(attributeName)) {
+            in.readUnsignedShort(); // max_stack
+            in.readUnsignedShort(); // max_locals
+            int codeLength = in.readInt();
+            if (codeLength > HUGE_METHOD_LIMIT) {
+              hugeMethods.add(classFile.getName() + "#" + name + ": " + codeLength);
+            }
+            in.skipBytes(length - 8);
+          } else {
+            in.skipBytes(length);
+          }
+        }
+      }
+    }
+    return hugeMethods;
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributesCount = in.readUnsignedShort();
+    for (int i = 0; i < attributesCount; i++) {
+      in.readUnsignedShort(); // attribute_name_index
+      in.skipBytes(in.readInt());
+    }
+  }
+}
@@ -0,0 +1,468 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class JsonTest {
+
+  @Test
+  public void json() {
+    JavaFileObject item = forSourceLines("cube.Item",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "final class Item {",
+        "  final String name;",
+        "  final int count;",
+        "  Item(String name, int count) {",
+        "    this.name = name;",
+        "    this.count = count;",
+        "  }",
+        "  @Goal(json = true, builder = false)",
+        "  static Item create(String name, int count) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.ItemBuilders",
+            "package cube;",
+            "",
+            "import java.io.IOException;",
+            "import java.io.OutputStream;",
+            "import java.nio.charset.StandardCharsets;",
+            "import java.util.Arrays;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class ItemBuilders {",
+            "  private ItemBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static ItemJson itemJson() {",
+            "    return new ItemJson();",
+            "  }",
+            "",
+            "  public static final class ItemJson {",
+            "    private static final byte[] NAME_NAME = \"{\\\"name\\\":\".getBytes(StandardCharsets.UTF_8);",
+            "",
+            "    private static final byte[] COUNT_NAME = \",\\\"count\\\":\".getBytes(StandardCharsets.UTF_8);",
+            "",
+            "    private static final byte[] NULL = \"null\".getBytes(StandardCharsets.UTF_8);",
+            "",
+            "    private static final byte[] HEX = \"0123456789abcdef\".getBytes(StandardCharsets.UTF_8);",
+            "",
+            "    private byte[] buffer = new byte[256];",
+            "",
+            "    private int count;",
+            "",
+            "    private byte[] in;",
+            "",
+            "    private int pos;",
+            "",
+            "    private ItemJson() {",
+            "    }",
+            "",
+            "    /**",
+            "     * Writes a JSON object in UTF-8.",
+            "     *",
+            "     * @param item the value to write",
+            "     * @param out receives the object in a single write",
+            "     * @throws IOException if the stream throws it",
+            "     */",
+            "    public void write(Item item, OutputStream out) throws IOException {",
+            "      this.count = 0;",
+            "      append(NAME_NAME);",
+            "      String name = item.name;",
+            "      if (name == null) {",
+            "        append(NULL);",
+            "      } else {",
+            "        appendString(name);",
+            "      }",
+            "      append(COUNT_NAME);",
+            "      appendLong(item.count);",
+            "      append((byte) '}');",
+            "      out.write(this.buffer, 0, this.count);",
+            "    }",
+            "",
+            "    /**",
+            "     * Reads a document that contains all fields.",
+            "     *",
+            "     * @param json a JSON object in UTF-8",
+            "     * @return the result of the goal",
+            "     * @throws IllegalArgumentException if the document is malformed, or a field is missing",
+            "     */",
+            "    public Item read(byte[] json) {",
+            "      return parse(json, null);",
+            "    }",
+            "",
+            "    /**",
+            "     * Reads a document that may omit fields.",
+            "     *",
+            "     * @param item provides the missing fields",
+            "     * @param json a JSON object in UTF-8",
+            "     * @return the result of the goal",
+            "     * @throws IllegalArgumentException if the document is malformed",
+            "     */",
+            "    public Item update(Item item, byte[] json) {",
+            "      if (item == null) {",
+            "        throw new NullPointerException(\"item\");",
+            "      }",
+            "      return parse(json, item);",
+            "    }",
+            "",
+            "    /**",
+            "     * @param item the source of missing fields, or {@code null} if all fields are required",
+            "     */",
+            "    private Item parse(byte[] json, Item item) {",
+            "      this.in = json;",
+            "      this.pos = 0;",
+            "      String name = item == null ? null : item.name;",
+            "      int count = item == null ? 0 : item.count;",
+            "      long seen = 0;",
+            "      boolean more = beginObject();",
+            "      while (more) {",
+            "        int start = scanString();",
+            "        int length = this.pos - 1 - start;",
+            "        expect(':');",
+            "        switch (length) {",
+            "          case 4:",
+            "            if (nameEquals(start, NAME_NAME)) {",
+            "              name = match(NULL) ? null : readString();",
+            "              seen |= 0x1L;",
+            "              break;",
+            "            }",
+            "            skipValue();",
+            "            break;",
+            "          case 5:",
+            "            if (nameEquals(start, COUNT_NAME)) {",
+            "              count = (int) readLong(Integer.MIN_VALUE, Integer.MAX_VALUE);",
+            "              seen |= 0x2L;",
+            "              break;",
+            "            }",
+            "            skipValue();",
+            "            break;",
+            "          default:",
+            "            skipValue();",
+            "        }",
+            "        more = nextField();",
+            "      }",
+            "      expectEnd();",
+            "      if (item == null) {",
+            "        if ((seen & 0x1L) == 0) {",
+            "          throw new IllegalArgumentException(\"missing field: name\");",
+            "        }",
+            "        if ((seen & 0x2L) == 0) {",
+            "          throw new IllegalArgumentException(\"missing field: count\");",
+            "        }",
+            "      }",
+            "      return Item.create(name, count);",
+            "    }",
+            "",
+            "    private void ensure(int n) {",
+            "      if (this.count + n > this.buffer.length) {",
+            "        this.buffer = Arrays.copyOf(this.buffer, Math.max(2 * this.buffer.length, this.count + n));",
+            "      }",
+            "    }",
+            "",
+            "    private void append(byte b) {",
+            "      ensure(1);",
+            "      this.buffer[this.count++] = b;",
+            "    }",
+            "",
+            "    private void append(byte[] bytes) {",
+            "      ensure(bytes.length);",
+            "      System.arraycopy(bytes, 0, this.buffer, this.count, bytes.length);",
+            "      this.count += bytes.length;",
+            "    }",
+            "",
+            "    /**",
+            "     * Works with negative numbers, so that {@link Long#MIN_VALUE} needs no special case.",
+            "     */",
+            "    private void appendLong(long value) {",
+            "      ensure(20);",
+            "      if (value < 0) {",
+            "        this.buffer[this.count++] = '-';",
+            "      } else {",
+            "        value = -value;",
+            "      }",
+            "      int start = this.count;",
+            "      do {",
+            "        this.buffer[this.count++] = (byte) ('0' - value % 10);",
+            "        value /= 10;",
+            "      } while (value != 0);",
+            "      for (int i = start, j = this.count - 1; i < j; i++, j--) {",
+            "        byte b = this.buffer[i];",
+            "        this.buffer[i] = this.buffer[j];",
+            "        this.buffer[j] = b;",
+            "      }",
+            "    }",
+            "",
+            "    private void appendString(String s) {",
+            "      ensure(6 * s.length() + 2);",
+            "      byte[] buffer = this.buffer;",
+            "      int count = this.count;",
+            "      buffer[count++] = '\"';",
+            "      for (int i = 0; i < s.length(); i++) {",
+            "        char c = s.charAt(i);",
+            "        if (c == '\"' || c == '\\\\') {",
+            "          buffer[count++] = '\\\\';",
+            "          buffer[count++] = (byte) c;",
+            "        } else if (c < 0x20) {",
+            "          buffer[count++] = '\\\\';",
+            "          buffer[count++] = 'u';",
+            "          buffer[count++] = '0';",
+            "          buffer[count++] = '0';",
+            "          buffer[count++] = HEX[c >> 4];",
+            "          buffer[count++] = HEX[c & 0xf];",
+            "        } else if (c < 0x80) {",
+            "          buffer[count++] = (byte) c;",
+            "        } else if (c < 0x800) {",
+            "          buffer[count++] = (byte) (0xc0 | c >> 6);",
+            "          buffer[count++] = (byte) (0x80 | c & 0x3f);",
+            "        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {",
+            "          int codePoint = Character.toCodePoint(c, s.charAt(++i));",
+            "          buffer[count++] = (byte) (0xf0 | codePoint >> 18);",
+            "          buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);",
+            "          buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);",
+            "          buffer[count++] = (byte) (0x80 | codePoint & 0x3f);",
+            "        } else if (Character.isSurrogate(c)) {",
+            "          buffer[count++] = '\\\\';",
+            "          buffer[count++] = 'u';",
+            "          buffer[count++] = HEX[c >> 12];",
+            "          buffer[count++] = HEX[c >> 8 & 0xf];",
+            "          buffer[count++] = HEX[c >> 4 & 0xf];",
+            "          buffer[count++] = HEX[c & 0xf];",
+            "        } else {",
+            "          buffer[count++] = (byte) (0xe0 | c >> 12);",
+            "          buffer[count++] = (byte) (0x80 | c >> 6 & 0x3f);",
+            "          buffer[count++] = (byte) (0x80 | c & 0x3f);",
+            "        }",
+            "      }",
+            "      buffer[count++] = '\"';",
+            "      this.count = count;",
+            "    }",
+            "",
+            "    private void skipWhitespace() {",
+            "      while (this.pos < this.in.length) {",
+            "        byte b = this.in[this.pos];",
+            "        if (b != ' ' && b != '\\n' && b != '\\r' && b != '\\t') {",
+            "          return;",
+            "        }",
+            "        this.pos++;",
+            "      }",
+            "    }",
+            "",
+            "    private byte peek() {",
+            "      skipWhitespace();",
+            "      if (this.pos >= this.in.length) {",
+            "        throw unexpected();",
+            "      }",
+            "      return this.in[this.pos];",
+            "    }",
+            "",
+            "    private IllegalArgumentException unexpected() {",
+            "      return new IllegalArgumentException(\"unexpected input at position \" + this.pos);",
+            "    }",
+            "",
+            "    private void expect(char c) {",
+            "      if (peek() != c) {",
+            "        throw unexpected();",
+            "      }",
+            "      this.pos++;",
+            "    }",
+            "",
+            "    private void expectEnd() {",
+            "      skipWhitespace();",
+            "      if (this.pos != this.in.length) {",
+            "        throw unexpected();",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * @return {@code true} if the object is not empty",
+            "     */",
+            "    private boolean beginObject() {",
+            "      expect('{');",
+            "      if (peek() == '}') {",
+            "        this.pos++;",
+            "        return false;",
+            "      }",
+            "      return true;",
+            "    }",
+            "",
+            "    /**",
+            "     * @return {@code true} if another field follows",
+            "     */",
+            "    private boolean nextField() {",
+            "      if (peek() == ',') {",
+            "        this.pos++;",
+            "        return true;",
+            "      }",
+            "      expect('}');",
+            "      return false;",
+            "    }",
+            "",
+            "    private boolean match(byte[] literal) {",
+            "      skipWhitespace();",
+            "      if (this.pos + literal.length > this.in.length) {",
+            "        return false;",
+            "      }",
+            "      for (int i = 0; i < literal.length; i++) {",
+            "        if (this.in[this.pos + i] != literal[i]) {",
+            "          return false;",
+            "        }",
+            "      }",
+            "      this.pos += literal.length;",
+            "      return true;",
+            "    }",
+            "",
+            "    /**",
+            "     * Moves past a string, without decoding it.",
+            "     *",
+            "     * @return the position of the first byte after the opening quote",
+            "     */",
+            "    private int scanString() {",
+            "      expect('\"');",
+            "      int start = this.pos;",
+            "      while (this.pos < this.in.length) {",
+            "        byte b = this.in[this.pos++];",
+            "        if (b == '\"') {",
+            "          return start;",
+            "        }",
+            "        if (b == '\\\\') {",
+            "          this.pos++;",
+            "        }",
+            "      }",
+            "      throw unexpected();",
+            "    }",
+            "",
+            "    /**",
+            "     * @param name the separator, the quoted name and the colon",
+            "     */",
+            "    private boolean nameEquals(int start, byte[] name) {",
+            "      for (int i = 2; i < name.length - 2; i++) {",
+            "        if (this.in[start + i - 2] != name[i]) {",
+            "          return false;",
+            "        }",
+            "      }",
+            "      return true;",
+            "    }",
+            "",
+            "    private void skipValue() {",
+            "      byte b = peek();",
+            "      if (b == '\"') {",
+            "        scanString();",
+            "      } else if (b == '{' || b == '[') {",
+            "        int depth = 0;",
+            "        do {",
+            "          b = peek();",
+            "          if (b == '\"') {",
+            "            scanString();",
+            "            continue;",
+            "          }",
+            "          this.pos++;",
+            "          if (b == '{' || b == '[') {",
+            "            depth++;",
+            "          } else if (b == '}' || b == ']') {",
+            "            depth--;",
+            "          }",
+            "        } while (depth > 0);",
+            "      } else {",
+            "        int start = this.pos;",
+            "        while (this.pos < this.in.length) {",
+            "          b = this.in[this.pos];",
+            "          if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\\n' || b == '\\r' || b == '\\t') {",
+            "            break;",
+            "          }",
+            "          this.pos++;",
+            "        }",
+            "        if (this.pos == start) {",
+            "          throw unexpected();",
+            "        }",
+            "      }",
+            "    }",
+            "",
+            "    private long readLong(long min, long max) {",
+            "      boolean negative = peek() == '-';",
+            "      if (negative) {",
+            "        this.pos++;",
+            "      }",
+            "      int start = this.pos;",
+            "      long value = 0;",
+            "      while (this.pos < this.in.length && this.in[this.pos] >= '0' && this.in[this.pos] <= '9') {",
+            "        int digit = this.in[this.pos++] - '0';",
+            "        if (value < (Long.MIN_VALUE + digit) / 10) {",
+            "          throw outOfRange(start);",
+            "        }",
+            "        value = 10 * value - digit;",
+            "      }",
+            "      if (this.pos == start) {",
+            "        throw unexpected();",
+            "      }",
+            "      if (!negative) {",
+            "        if (value == Long.MIN_VALUE) {",
+            "          throw outOfRange(start);",
+            "        }",
+            "        value = -value;",
+            "      }",
+            "      if (value < min || value > max) {",
+            "        throw outOfRange(start);",
+            "      }",
+            "      return value;",
+            "    }",
+            "",
+            "    private IllegalArgumentException outOfRange(int start) {",
+            "      return new IllegalArgumentException(\"number out of range at position \" + start);",
+            "    }",
+            "",
+            "    private String readString() {",
+            "      int start = scanString();",
+            "      int end = this.pos - 1;",
+            "      StringBuilder builder = null;",
+            "      int run = start;",
+            "      int i = start;",
+            "      while (i < end) {",
+            "        if (this.in[i] != '\\\\') {",
+            "          i++;",
+            "          continue;",
+            "        }",
+            "        if (builder == null) {",
+            "          builder = new StringBuilder(end - start);",
+            "        }",
+            "        builder.append(new String(this.in, run, i - run, StandardCharsets.UTF_8));",
+            "        byte c = this.in[i + 1];",
+            "        if (c == 'u') {",
+            "          if (i + 6 > end) {",
+            "            throw unexpected();",
+            "          }",
+            "          builder.append((char) Integer.parseInt(new String(this.in, i + 2, 4, StandardCharsets.US_ASCII), 16));",
+            "          i += 6;",
+            "        } else {",
+            "          builder.append(c == 'b' ? '\\b' : c == 'f' ? '\\f' : c == 'n' ? '\\n' : c == 'r' ? '\\r' : c == 't' ? '\\t' : (char) c);",
+            "          i += 2;",
+            "        }",
+            "        run = i;",
+            "      }",
+            "      if (builder == null) {",
+            "        return new String(this.in, start, end - start, StandardCharsets.UTF_8);",
+            "      }",
+            "      return builder.append(new String(this.in, run, end - run, StandardCharsets.UTF_8)).toString();",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(item))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
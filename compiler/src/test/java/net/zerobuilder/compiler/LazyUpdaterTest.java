@@ -0,0 +1,248 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class LazyUpdaterTest {
+
+  @Test
+  public void lazyUpdater() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "",
+        "@Builders(lazyUpdaters = true)",
+        "abstract class Cube {",
+        "  abstract double height();",
+        "  abstract List<String> length();",
+        "  abstract String width();",
+        "  @Goal(name = \"cuboid\", updater = true, builder = false)",
+        "  static Cube create(double height, List<String> length, @Step(nullPolicy = NullPolicy.REJECT) String width) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.util.Collections;",
+            "import java.util.List;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static CuboidUpdater cuboidUpdater(Cube cube) {",
+            "    if (cube == null) {",
+            "      throw new NullPointerException(\"cube\");",
+            "    }",
+            "    CuboidUpdater updater = new CuboidUpdater();",
+            "    updater._source = cube;",
+            "    return updater;",
+            "  }",
+            "",
+            "  public static final class CuboidUpdater {",
+            "    private double height;",
+            "",
+            "    private List<String> length;",
+            "",
+            "    private String width;",
+            "",
+            "    private Cube _source;",
+            "",
+            "    private int _changed;",
+            "",
+            "    private CuboidUpdater() {",
+            "    }",
+            "",
+            "    public CuboidUpdater height(double height) {",
+            "      this.height = height;",
+            "      this._changed |= 0x1;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CuboidUpdater length(List<String> length) {",
+            "      this.length = length;",
+            "      this._changed |= 0x2;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CuboidUpdater emptyLength() {",
+            "      this.length = Collections.emptyList();",
+            "      this._changed |= 0x2;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CuboidUpdater width(String width) {",
+            "      if (width == null) {",
+            "        throw new NullPointerException(\"width\");",
+            "      }",
+            "      this.width = width;",
+            "      this._changed |= 0x4;",
+            "      return this;",
+            "    }",
+            "",
+            "    public Cube done() {",
+            "      if (this._changed == 0) {",
+            "        return this._source;",
+            "      }",
+            "      double height = (this._changed & 0x1) != 0 ? this.height : this._source.height();",
+            "      List<String> length = (this._changed & 0x2) != 0 ? this.length : this._source.length();",
+            "      String width = (this._changed & 0x4) != 0 ? this.width : this._source.width();",
+            "      if (width == null) {",
+            "        throw new NullPointerException(\"width\");",
+            "      }",
+            "      if (((this._changed & 0x1) == 0 || Double.doubleToRawLongBits(height) == Double.doubleToRawLongBits(this._source.height()))",
+            "          && ((this._changed & 0x2) == 0 || length == this._source.length())",
+            "          && ((this._changed & 0x4) == 0 || width == this._source.width())) {",
+            "        return this._source;",
+            "      }",
+            "      return Cube.create(height, length, width);",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+
+  @Test
+  public void lazyBeanUpdater() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "import java.util.ArrayList;",
+        "",
+        "@Builders(lazyUpdaters = true)",
+        "@Goal(updater = true, builder = false)",
+        "public class Cube {",
+        "  private String name;",
+        "  private List<String> notes;",
+        "  private List<Integer> sizes;",
+        "  public String getName() { return name; }",
+        "  public void setName(String name) { this.name = name; }",
+        "  public List<String> getNotes() {",
+        "    if (notes == null) notes = new ArrayList<>();",
+        "    return notes;",
+        "  }",
+        "  public List<Integer> getSizes() {",
+        "    if (sizes == null) sizes = new ArrayList<>();",
+        "    return sizes;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.util.Collection;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static CubeUpdater cubeUpdater(Cube cube) {",
+            "    if (cube.getNotes() == null) {",
+            "      throw new NullPointerException(\"notes\");",
+            "    }",
+            "    if (cube.getSizes() == null) {",
+            "      throw new NullPointerException(\"sizes\");",
+            "    }",
+            "    CubeUpdater updater = new CubeUpdater();",
+            "    updater.cube.setName(cube.getName());",
+            "    updater._source = cube;",
+            "    return updater;",
+            "  }",
+            "",
+            "  public static final class CubeUpdater {",
+            "    private final Cube cube;",
+            "",
+            "    private Cube _source;",
+            "",
+            "    private int _changed;",
+            "",
+            "    private CubeUpdater() {",
+            "      this.cube = new Cube();",
+            "    }",
+            "",
+            "    public CubeUpdater name(String name) {",
+            "      this.cube.setName(name);",
+            "      return this;",
+            "    }",
+            "",
+            "    public CubeUpdater notes(Iterable<? extends String> notes) {",
+            "      if (notes == null) {",
+            "        throw new NullPointerException(\"notes\");",
+            "      }",
+            "      this.cube.getNotes().clear();",
+            "      if (notes instanceof Collection) {",
+            "        this.cube.getNotes().addAll((Collection<? extends String>) notes);",
+            "      } else {",
+            "        for (String string : notes) {",
+            "          this.cube.getNotes().add(string);",
+            "        }",
+            "      }",
+            "      this._changed |= 0x1;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CubeUpdater emptyNotes() {",
+            "      this.cube.getNotes().clear();",
+            "      this._changed |= 0x1;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CubeUpdater sizes(Iterable<? extends Integer> sizes) {",
+            "      if (sizes == null) {",
+            "        throw new NullPointerException(\"sizes\");",
+            "      }",
+            "      this.cube.getSizes().clear();",
+            "      if (sizes instanceof Collection) {",
+            "        this.cube.getSizes().addAll((Collection<? extends Integer>) sizes);",
+            "      } else {",
+            "        for (Integer integer : sizes) {",
+            "          this.cube.getSizes().add(integer);",
+            "        }",
+            "      }",
+            "      this._changed |= 0x2;",
+            "      return this;",
+            "    }",
+            "",
+            "    public CubeUpdater emptySizes() {",
+            "      this.cube.getSizes().clear();",
+            "      this._changed |= 0x2;",
+            "      return this;",
+            "    }",
+            "",
+            "    public Cube done() {",
+            "      if ((this._changed & 0x1) == 0) {",
+            "        this.cube.getNotes().addAll(this._source.getNotes());",
+            "      }",
+            "      if ((this._changed & 0x2) == 0) {",
+            "        this.cube.getSizes().addAll(this._source.getSizes());",
+            "      }",
+            "      return this.cube;",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
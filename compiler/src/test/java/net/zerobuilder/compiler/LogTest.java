@@ -0,0 +1,351 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class LogTest {
+
+  @Test
+  public void log() {
+    JavaFileObject event = forSourceLines("cube.Event",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "final class Event {",
+        "  final long time;",
+        "  Event(long time) {",
+        "    this.time = time;",
+        "  }",
+        "  @Goal(log = true, builder = false)",
+        "  static Event create(long time) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.EventBuilders",
+            "package cube;",
+            "",
+            "import java.io.Closeable;",
+            "import java.io.EOFException;",
+            "import java.io.IOException;",
+            "import java.nio.BufferOverflowException;",
+            "import java.nio.ByteBuffer;",
+            "import java.nio.channels.FileChannel;",
+            "import java.nio.file.Files;",
+            "import java.nio.file.Path;",
+            "import java.nio.file.StandardOpenOption;",
+            "import java.util.Arrays;",
+            "import java.util.function.Consumer;",
+            "import java.util.zip.CRC32;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class EventBuilders {",
+            "  private EventBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static EventLog eventLog(Path directory) throws IOException {",
+            "    return eventLog(directory, EventLog.DEFAULT_SEGMENT_SIZE, 0);",
+            "  }",
+            "",
+            "  public static EventLog eventLog(Path directory, int segmentSize, int syncEvery) throws IOException {",
+            "    return new EventLog(directory, segmentSize, syncEvery);",
+            "  }",
+            "",
+            "  public static final class EventLog implements Closeable {",
+            "    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;",
+            "",
+            "    private final Path directory;",
+            "",
+            "    private final int segmentSize;",
+            "",
+            "    private final int syncEvery;",
+            "",
+            "    private ByteBuffer batch = ByteBuffer.allocateDirect(65536);",
+            "",
+            "    private long[] index = new long[1024];",
+            "",
+            "    private int size;",
+            "",
+            "    private int segment;",
+            "",
+            "    private FileChannel channel;",
+            "",
+            "    private long position;",
+            "",
+            "    private int unsynced;",
+            "",
+            "    private final CRC32 crc = new CRC32();",
+            "",
+            "    private boolean closed;",
+            "",
+            "    private EventLog(Path directory, int segmentSize, int syncEvery) throws IOException {",
+            "      if (segmentSize <= 0) {",
+            "        throw new IllegalArgumentException(\"segmentSize\");",
+            "      }",
+            "      this.directory = directory;",
+            "      this.segmentSize = segmentSize;",
+            "      this.syncEvery = syncEvery;",
+            "      Files.createDirectories(directory);",
+            "      recover();",
+            "    }",
+            "",
+            "    public void append(Event event) throws IOException {",
+            "      int start = this.batch.position();",
+            "      while (!tryEncode(event, start)) {",
+            "        if (start > 0) {",
+            "          write(start);",
+            "          this.batch.clear();",
+            "          start = 0;",
+            "        } else {",
+            "          this.batch = ByteBuffer.allocateDirect(2 * this.batch.capacity());",
+            "        }",
+            "      }",
+            "      int end = this.batch.position();",
+            "      if (this.position + end > this.segmentSize && this.position + start > 0) {",
+            "        // the record goes to the next segment",
+            "        write(start);",
+            "        this.batch.limit(end);",
+            "        this.batch.compact();",
+            "        roll();",
+            "        end -= start;",
+            "        start = 0;",
+            "      }",
+            "      this.batch.putInt(start + 4, end - start - 8);",
+            "      this.batch.limit(end);",
+            "      this.batch.position(start + 4);",
+            "      this.crc.reset();",
+            "      this.crc.update(this.batch);",
+            "      this.batch.limit(this.batch.capacity());",
+            "      this.batch.putInt(start, (int) this.crc.getValue());",
+            "      addIndex(this.segment, this.position + start);",
+            "      if (this.syncEvery > 0 && ++this.unsynced >= this.syncEvery) {",
+            "        sync();",
+            "      }",
+            "    }",
+            "",
+            "    private boolean tryEncode(Event event, int start) {",
+            "      if (start + 8 > this.batch.capacity()) {",
+            "        return false;",
+            "      }",
+            "      this.batch.position(start + 8);",
+            "      try {",
+            "        encode(event, this.batch);",
+            "        return true;",
+            "      } catch (BufferOverflowException e) {",
+            "        return false;",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * Writes the appended records to the current segment, without fsync.",
+            "     */",
+            "    public void flush() throws IOException {",
+            "      write(this.batch.position());",
+            "      this.batch.clear();",
+            "    }",
+            "",
+            "    /**",
+            "     * Writes the appended records to the current segment, and forces them to disk.",
+            "     */",
+            "    public void sync() throws IOException {",
+            "      flush();",
+            "      this.channel.force(false);",
+            "      this.unsynced = 0;",
+            "    }",
+            "",
+            "    public int size() {",
+            "      return this.size;",
+            "    }",
+            "",
+            "    /**",
+            "     * Reads a single record.",
+            "     *",
+            "     * @param n the number of the record",
+            "     * @return the record",
+            "     */",
+            "    public Event get(int n) throws IOException {",
+            "      if (n < 0 || n >= this.size) {",
+            "        throw new IndexOutOfBoundsException(Integer.toString(n));",
+            "      }",
+            "      flush();",
+            "      long entry = this.index[n];",
+            "      int segment = (int) (entry >>> 32);",
+            "      long offset = entry & 0xffffffffL;",
+            "      FileChannel channel = segment == this.segment ? this.channel : FileChannel.open(segmentPath(segment), StandardOpenOption.READ);",
+            "      try {",
+            "        ByteBuffer header = ByteBuffer.allocate(4);",
+            "        readFully(channel, header, offset + 4);",
+            "        ByteBuffer record = ByteBuffer.allocate(header.getInt(0));",
+            "        readFully(channel, record, offset + 8);",
+            "        record.flip();",
+            "        return decode(record);",
+            "      } finally {",
+            "        if (channel != this.channel) {",
+            "          channel.close();",
+            "        }",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * Decodes all records in order.",
+            "     *",
+            "     * @param consumer receives the records",
+            "     */",
+            "    public void replay(Consumer<? super Event> consumer) throws IOException {",
+            "      flush();",
+            "      ByteBuffer in = ByteBuffer.allocate(65536);",
+            "      for (int segment = 0; segment <= this.segment; segment++) {",
+            "        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {",
+            "          in.clear();",
+            "          boolean eof = false;",
+            "          while (!eof) {",
+            "            eof = channel.read(in) < 0;",
+            "            in.flip();",
+            "            while (in.remaining() >= 8 && in.remaining() - 8 >= in.getInt(in.position() + 4)) {",
+            "              int end = in.position() + 8 + in.getInt(in.position() + 4);",
+            "              int limit = in.limit();",
+            "              in.position(in.position() + 8);",
+            "              in.limit(end);",
+            "              consumer.accept(decode(in));",
+            "              in.limit(limit);",
+            "              in.position(end);",
+            "            }",
+            "            if (in.remaining() >= 8 && in.getInt(in.position() + 4) + 8 > in.capacity()) {",
+            "              ByteBuffer larger = ByteBuffer.allocate(2 * (in.getInt(in.position() + 4) + 8));",
+            "              larger.put(in);",
+            "              in = larger;",
+            "            } else {",
+            "              in.compact();",
+            "            }",
+            "          }",
+            "        }",
+            "      }",
+            "    }",
+            "",
+            "    /**",
+            "     * Syncs and closes the log. Further calls have no effect.",
+            "     */",
+            "    @Override",
+            "    public void close() throws IOException {",
+            "      if (this.closed) {",
+            "        return;",
+            "      }",
+            "      this.closed = true;",
+            "      try {",
+            "        sync();",
+            "      } finally {",
+            "        this.channel.close();",
+            "      }",
+            "    }",
+            "",
+            "    private void write(int end) throws IOException {",
+            "      this.batch.limit(end);",
+            "      this.batch.position(0);",
+            "      while (this.batch.hasRemaining()) {",
+            "        this.position += this.channel.write(this.batch, this.position);",
+            "      }",
+            "    }",
+            "",
+            "    private void roll() throws IOException {",
+            "      this.channel.force(false);",
+            "      this.channel.close();",
+            "      this.segment++;",
+            "      this.channel = FileChannel.open(segmentPath(this.segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);",
+            "      this.position = 0;",
+            "    }",
+            "",
+            "    private void recover() throws IOException {",
+            "      int last = 0;",
+            "      while (Files.exists(segmentPath(last + 1))) {",
+            "        last++;",
+            "      }",
+            "      ByteBuffer header = ByteBuffer.allocate(8);",
+            "      ByteBuffer chunk = ByteBuffer.allocate(65536);",
+            "      for (int segment = 0; segment <= last; segment++) {",
+            "        FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);",
+            "        long length = channel.size();",
+            "        long offset = 0;",
+            "        while (offset + 8 <= length) {",
+            "          header.clear();",
+            "          readFully(channel, header, offset);",
+            "          int recordLength = header.getInt(4);",
+            "          if (recordLength < 0 || offset + 8 + recordLength > length",
+            "              || checksum(channel, chunk, offset + 4, 4 + recordLength) != header.getInt(0)) {",
+            "            break;",
+            "          }",
+            "          addIndex(segment, offset);",
+            "          offset += 8 + recordLength;",
+            "        }",
+            "        if (offset < length) {",
+            "          // cut off a record that was not completely written, and anything after it",
+            "          channel.truncate(offset);",
+            "        }",
+            "        if (segment < last) {",
+            "          channel.close();",
+            "        } else {",
+            "          this.segment = segment;",
+            "          this.channel = channel;",
+            "          this.position = offset;",
+            "        }",
+            "      }",
+            "    }",
+            "",
+            "    private int checksum(FileChannel channel, ByteBuffer chunk, long position, int length) throws IOException {",
+            "      this.crc.reset();",
+            "      long end = position + length;",
+            "      while (position < end) {",
+            "        chunk.clear();",
+            "        chunk.limit((int) Math.min(chunk.capacity(), end - position));",
+            "        readFully(channel, chunk, position);",
+            "        this.crc.update(chunk.array(), 0, chunk.position());",
+            "        position += chunk.position();",
+            "      }",
+            "      return (int) this.crc.getValue();",
+            "    }",
+            "",
+            "    private void addIndex(int segment, long offset) {",
+            "      if (this.size == this.index.length) {",
+            "        this.index = Arrays.copyOf(this.index, 2 * this.size);",
+            "      }",
+            "      this.index[this.size++] = (long) segment << 32 | offset;",
+            "    }",
+            "",
+            "    private Path segmentPath(int segment) {",
+            "      return this.directory.resolve(String.format(\"%08d.log\", segment));",
+            "    }",
+            "",
+            "    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {",
+            "      while (buffer.hasRemaining()) {",
+            "        if (channel.read(buffer, position + buffer.position()) < 0) {",
+            "          throw new EOFException();",
+            "        }",
+            "      }",
+            "    }",
+            "",
+            "    private static void encode(Event event, ByteBuffer buffer) {",
+            "      buffer.putLong(event.time);",
+            "    }",
+            "",
+            "    private static Event decode(ByteBuffer buffer) {",
+            "      long time = buffer.getLong();",
+            "      return Event.create(time);",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(event))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
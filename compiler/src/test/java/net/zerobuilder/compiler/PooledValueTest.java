@@ -0,0 +1,174 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class PooledValueTest {
+
+  @Test
+  public void simpleCube() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "",
+        "@Builders(lifecycle = Lifecycle.POOLED)",
+        "abstract class Cube {",
+        "  abstract double height();",
+        "  abstract List<String> length();",
+        "  abstract String width();",
+        "  @Goal(name = \"cuboid\", updater = true, updaterAccess = AccessLevel.PACKAGE)",
+        "  static Cube create(double height, List<String> length, @Step(nullPolicy = NullPolicy.REJECT) String width) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.util.Collections;",
+            "import java.util.List;",
+            "import java.util.concurrent.atomic.AtomicReferenceArray;",
+            "import javax.annotation.Generated;",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private static final Pool<CuboidUpdater> cuboidUpdaterPool = new Pool<CuboidUpdater>();",
+            "  private static final Pool<CuboidBuilderImpl> cuboidBuilderImplPool = new Pool<CuboidBuilderImpl>();",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "  static CuboidUpdater cuboidUpdater(Cube cube) {",
+            "    if (cube.width() == null) {",
+            "      throw new NullPointerException(\"width\");",
+            "    }",
+            "    CuboidUpdater updater = cuboidUpdaterPool.poll();",
+            "    if (updater == null) {",
+            "      updater = new CuboidUpdater();",
+            "    }",
+            "    updater.height = cube.height();",
+            "    updater.length = cube.length();",
+            "    updater.width = cube.width();",
+            "    return updater;",
+            "  }",
+            "  public static CuboidBuilder.Height cuboidBuilder() {",
+            "    CuboidBuilderImpl cuboidBuilderImpl = cuboidBuilderImplPool.poll();",
+            "    if (cuboidBuilderImpl == null) {",
+            "      cuboidBuilderImpl = new CuboidBuilderImpl();",
+            "    }",
+            "    return cuboidBuilderImpl;",
+            "  }",
+            "  public static final class CuboidUpdater {",
+            "    private double height;",
+            "    private List<String> length;",
+            "    private String width;",
+            "    private CuboidUpdater() {",
+            "    }",
+            "    public CuboidUpdater height(double height) {",
+            "      this.height = height;",
+            "      return this;",
+            "    }",
+            "    public CuboidUpdater length(List<String> length) {",
+            "      this.length = length;",
+            "      return this;",
+            "    }",
+            "    public CuboidUpdater emptyLength() {",
+            "      this.length = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "    public CuboidUpdater width(String width) {",
+            "      if (width == null) {",
+            "        throw new NullPointerException(\"width\");",
+            "      }",
+            "      this.width = width;",
+            "      return this;",
+            "    }",
+            "    public Cube done() {",
+            "      try {",
+            "        return Cube.create(height, length, width);",
+            "      } finally {",
+            "        cuboidUpdaterPool.offer(this);",
+            "      }",
+            "    }",
+            "  }",
+            "  static final class CuboidBuilderImpl implements CuboidBuilder.Height, CuboidBuilder.Length, CuboidBuilder.Width {",
+            "    private double height;",
+            "    private List<String> length;",
+            "    private CuboidBuilderImpl() {",
+            "    }",
+            "    @Override",
+            "    public CuboidBuilder.Length height(double height) {",
+            "      this.height = height;",
+            "      return this;",
+            "    }",
+            "    @Override",
+            "    public CuboidBuilder.Width length(List<String> length) {",
+            "      this.length = length;",
+            "      return this;",
+            "    }",
+            "    @Override",
+            "    public CuboidBuilder.Width emptyLength() {",
+            "      this.length = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "    @Override",
+            "    public Cube width(String width) {",
+            "      try {",
+            "        if (width == null) {",
+            "          throw new NullPointerException(\"width\");",
+            "        }",
+            "        return Cube.create(height, length, width);",
+            "      } finally {",
+            "        cuboidBuilderImplPool.offer(this);",
+            "      }",
+            "    }",
+            "  }",
+            "  public static final class CuboidBuilder {",
+            "    private CuboidBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "    public interface Height {",
+            "      Length height(double height);",
+            "    }",
+            "    public interface Length {",
+            "      Width length(List<String> length);",
+            "      Width emptyLength();",
+            "    }",
+            "    public interface Width {",
+            "      Cube width(String width);",
+            "    }",
+            "  }",
+            "  private static final class Pool<E> {",
+            "    private static final int SIZE = 2 * Runtime.getRuntime().availableProcessors();",
+            "    private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<E>(SIZE);",
+            "    E poll() {",
+            "      for (int i = 0; i < slots.length(); i++) {",
+            "        E instance = slots.get(i);",
+            "        if (instance != null && slots.compareAndSet(i, instance, null)) {",
+            "          return instance;",
+            "        }",
+            "      }",
+            "      return null;",
+            "    }",
+            "    void offer(E instance) {",
+            "      for (int i = 0; i < slots.length(); i++) {",
+            "        if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) {",
+            "          return;",
+            "        }",
+            "      }",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+
+}
@@ -35,42 +35,39 @@ public class RecyclingBeanTest {
     JavaFileObject expected =
         forSourceLines("beans.BusinessAnalystBuilders",
             "package beans;",
+            "import java.util.Collection;",
             "import javax.annotation.Generated;",
             "",
             GENERATED_ANNOTATION,
             "public final class BusinessAnalystBuilders {",
-            "  private static final ThreadLocal<BusinessAnalystBuilders> INSTANCE = new ThreadLocal<BusinessAnalystBuilders>() {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
             "    @Override",
-            "    protected BusinessAnalystBuilders initialValue() {",
-            "      return new BusinessAnalystBuilders();",
+            "    protected Session initialValue() {",
+            "      return new Session();",
             "    }",
             "  }",
             "",
-            "  private final BusinessAnalystUpdater businessAnalystUpdater = new BusinessAnalystUpdater();",
-            "  private final BusinessAnalystBuilderImpl businessAnalystBuilderImpl = new BusinessAnalystBuilderImpl();",
-            "  private BusinessAnalystBuilders() {}",
+            "  private BusinessAnalystBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
             "",
             "  public static BusinessAnalystUpdater businessAnalystUpdater(BusinessAnalyst businessAnalyst) {",
-            "    if (businessAnalyst.getNotes() == null) {",
-            "      throw new NullPointerException(\"notes\");",
-            "    }",
-            "    BusinessAnalystUpdater updater = INSTANCE.get().businessAnalystUpdater;",
-            "    updater.businessAnalyst = new BusinessAnalyst();",
-            "    updater.businessAnalyst.setName(businessAnalyst.getName());",
-            "    for (String string : businessAnalyst.getNotes()) {",
-            "      updater.businessAnalyst.getNotes().add(string);",
-            "    }",
-            "    return updater;",
+            "    Session session = INSTANCE.get();",
+            "    return session.businessAnalystUpdater(businessAnalyst);",
             "  }",
             "",
             "  static BusinessAnalystBuilder.Name businessAnalystBuilder() {",
-            "    BusinessAnalystBuilderImpl businessAnalystBuilderImpl = INSTANCE.get().businessAnalystBuilderImpl;",
-            "    businessAnalystBuilderImpl.businessAnalyst = new BusinessAnalyst();",
-            "    return businessAnalystBuilderImpl;",
+            "    Session session = INSTANCE.get();",
+            "    return session.businessAnalystBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
             "  }",
             "",
             "  public static final class BusinessAnalystUpdater {",
             "    private BusinessAnalyst businessAnalyst;",
+            "    private boolean _inUse;",
             "    private BusinessAnalystUpdater() {}",
             "",
             "    public BusinessAnalystUpdater name(String name) {",
@@ -83,8 +80,12 @@ public class RecyclingBeanTest {
             "        throw new NullPointerException(\"notes\");",
             "      }",
             "      this.businessAnalyst.getNotes().clear();",
-            "      for (String string : notes) {",
-            "        this.businessAnalyst.getNotes().add(string);",
+            "      if (notes instanceof Collection) {",
+            "        this.businessAnalyst.getNotes().addAll((Collection<? extends String>) notes);",
+            "      } else {",
+            "        for (String string : notes) {",
+            "          this.businessAnalyst.getNotes().add(string);",
+            "        }",
             "      }",
             "      return this;",
             "    }",
@@ -94,12 +95,19 @@ public class RecyclingBeanTest {
             "      return this;",
             "    }",
             "",
-            "    public BusinessAnalyst done() { return this.businessAnalyst; }",
+            "    public BusinessAnalyst done() {",
+            "      try {",
+            "        return this.businessAnalyst;",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
             "  }",
             "",
             "  static final class BusinessAnalystBuilderImpl",
             "        implements BusinessAnalystBuilder.Name, BusinessAnalystBuilder.Notes {",
             "    private BusinessAnalyst businessAnalyst;",
+            "    private boolean _inUse;",
             "    private BusinessAnalystBuilderImpl() {}",
             "",
             "    @Override public BusinessAnalystBuilder.Notes name(String name) {",
@@ -108,17 +116,29 @@ public class RecyclingBeanTest {
             "    }",
             "",
             "    @Override public BusinessAnalyst notes(Iterable<? extends String> notes) {",
-            "      if (notes == null) {",
-            "        throw new NullPointerException(\"notes\");",
+            "      try {",
+            "        if (notes == null) {",
+            "          throw new NullPointerException(\"notes\");",
+            "        }",
+            "        if (notes instanceof Collection) {",
+            "          this.businessAnalyst.getNotes().addAll((Collection<? extends String>) notes);",
+            "        } else {",
+            "          for (String string : notes) {",
+            "            this.businessAnalyst.getNotes().add(string);",
+            "          }",
+            "        }",
+            "        return this.businessAnalyst;",
+            "      } finally {",
+            "        this._inUse = false;",
             "      }",
-            "      for (String string : notes) {",
-            "        this.businessAnalyst.getNotes().add(string);",
-            "      }",
-            "      return this.businessAnalyst;",
             "    }",
             "",
             "    @Override public BusinessAnalyst emptyNotes() {",
-            "      return this.businessAnalyst;",
+            "      try {",
+            "        return this.businessAnalyst;",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
             "    }",
             "  }",
             "",
@@ -132,6 +152,37 @@ public class RecyclingBeanTest {
             "      BusinessAnalyst emptyNotes();",
             "    }",
             "  }",
+            "",
+            "  public static final class Session {",
+            "    private BusinessAnalystUpdater businessAnalystUpdater;",
+            "    private BusinessAnalystBuilderImpl businessAnalystBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    public BusinessAnalystUpdater businessAnalystUpdater(BusinessAnalyst businessAnalyst) {",
+            "      if (businessAnalyst.getNotes() == null) {",
+            "        throw new NullPointerException(\"notes\");",
+            "      }",
+            "      BusinessAnalystUpdater updater = this.businessAnalystUpdater;",
+            "      if (updater == null || updater._inUse) {",
+            "        updater = this.businessAnalystUpdater = new BusinessAnalystUpdater();",
+            "      }",
+            "      updater._inUse = true;",
+            "      updater.businessAnalyst = new BusinessAnalyst();",
+            "      updater.businessAnalyst.setName(businessAnalyst.getName());",
+            "      updater.businessAnalyst.getNotes().addAll(businessAnalyst.getNotes());",
+            "      return updater;",
+            "    }",
+            "",
+            "    BusinessAnalystBuilder.Name businessAnalystBuilder() {",
+            "      BusinessAnalystBuilderImpl businessAnalystBuilderImpl = this.businessAnalystBuilderImpl;",
+            "      if (businessAnalystBuilderImpl == null || businessAnalystBuilderImpl._inUse) {",
+            "        businessAnalystBuilderImpl = this.businessAnalystBuilderImpl = new BusinessAnalystBuilderImpl();",
+            "      }",
+            "      businessAnalystBuilderImpl._inUse = true;",
+            "      businessAnalystBuilderImpl.businessAnalyst = new BusinessAnalyst();",
+            "      return businessAnalystBuilderImpl;",
+            "    }",
+            "  }",
             "}");
     assertAbout(javaSources()).that(ImmutableList.of(businessAnalyst))
         .processedWith(new ZeroProcessor())
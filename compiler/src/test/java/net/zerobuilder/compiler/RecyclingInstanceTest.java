@@ -31,28 +31,36 @@ public class RecyclingInstanceTest {
             "",
             GENERATED_ANNOTATION,
             "public final class SumBuilders {",
-            "  private static final ThreadLocal<SumBuilders> INSTANCE = new ThreadLocal<SumBuilders>() {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
             "    @Override",
-            "    protected SumBuilders initialValue() {",
-            "      return new SumBuilders();",
+            "    protected Session initialValue() {",
+            "      return new Session();",
             "    }",
             "  }",
             "",
-            "  private final SumBuilderImpl sumBuilderImpl = new SumBuilderImpl();",
-            "",
-            "  private SumBuilders() {}",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
             "",
             "  public static SumBuilder.B sumBuilder(Sum sum) {",
-            "    SumBuilderImpl sumBuilderImpl = INSTANCE.get().sumBuilderImpl;",
-            "    sumBuilderImpl._sum = sum;",
-            "    return sumBuilderImpl;",
+            "    Session session = INSTANCE.get();",
+            "    return session.sumBuilder(sum);",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
             "  }",
             "",
             "  static final class SumBuilderImpl implements SumBuilder.B {",
             "    private Sum _sum;",
+            "    private boolean _inUse;",
             "    private StepsImpl() {}",
             "    @Override public int b(int b) {",
-            "      return this._sum.sum( b );",
+            "      try {",
+            "        return this._sum.sum( b );",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
             "    }",
             "  }",
             "",
@@ -62,10 +70,205 @@ public class RecyclingInstanceTest {
             "    }",
             "    public interface B { int b(int b); }",
             "  }",
+            "",
+            "  public static final class Session {",
+            "    private SumBuilderImpl sumBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    public SumBuilder.B sumBuilder(Sum sum) {",
+            "      SumBuilderImpl sumBuilderImpl = this.sumBuilderImpl;",
+            "      if (sumBuilderImpl == null || sumBuilderImpl._inUse) {",
+            "        sumBuilderImpl = this.sumBuilderImpl = new SumBuilderImpl();",
+            "      }",
+            "      sumBuilderImpl._inUse = true;",
+            "      sumBuilderImpl._sum = sum;",
+            "      return sumBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+
+  @Test
+  public void clearReferences() {
+    JavaFileObject cube = forSourceLines("cube.Sum",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true, clearReferences = true)",
+        "final class Sum {",
+        "  private final int a;",
+        "  @Goal(name = \"sum\") int sum(int b, String c) { return a  + b; };",
+        "  Sum (int a) { this.a = a; }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.SumBuilders",
+            "package cube;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SumBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  }",
+            "",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static SumBuilder.B sumBuilder(Sum sum) {",
+            "    Session session = INSTANCE.get();",
+            "    return session.sumBuilder(sum);",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  static final class SumBuilderImpl implements SumBuilder.B, SumBuilder.C {",
+            "    private Sum _sum;",
+            "    private int b;",
+            "    private boolean _inUse;",
+            "    private StepsImpl() {}",
+            "    @Override public SumBuilder.C b(int b) {",
+            "      this.b = b;",
+            "      return this;",
+            "    }",
+            "    @Override public int c(String c) {",
+            "      try {",
+            "        return this._sum.sum( b, c );",
+            "      } finally {",
+            "        this._sum = null;",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class SumBuilder {",
+            "    private SumBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "    public interface B { C b(int b); }",
+            "    public interface C { int c(String c); }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private SumBuilderImpl sumBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    public SumBuilder.B sumBuilder(Sum sum) {",
+            "      SumBuilderImpl sumBuilderImpl = this.sumBuilderImpl;",
+            "      if (sumBuilderImpl == null || sumBuilderImpl._inUse) {",
+            "        sumBuilderImpl = this.sumBuilderImpl = new SumBuilderImpl();",
+            "      }",
+            "      sumBuilderImpl._inUse = true;",
+            "      sumBuilderImpl._sum = sum;",
+            "      return sumBuilderImpl;",
+            "    }",
+            "  }",
             "}");
     assertAbout(javaSources()).that(ImmutableList.of(cube))
         .processedWith(new ZeroProcessor())
         .compilesWithoutError()
         .and().generatesSources(expected);
   }
+
+  @Test
+  public void softReference() {
+    JavaFileObject cube = forSourceLines("cube.Sum",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true, cacheReference = CacheReference.SOFT)",
+        "final class Sum {",
+        "  private final int a;",
+        "  @Goal(name = \"sum\") int sum(int b) { return a  + b; };",
+        "  Sum (int a) { this.a = a; }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.SumBuilders",
+            "package cube;",
+            "",
+            "import java.lang.ref.SoftReference;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SumBuilders {",
+            "  private static final ThreadLocal<SoftReference<Session>> INSTANCE = new ThreadLocal<SoftReference<Session>>();",
+            "",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static SumBuilder.B sumBuilder(Sum sum) {",
+            "    SoftReference<Session> reference = INSTANCE.get();",
+            "    Session session = reference == null ? null : reference.get();",
+            "    if (session == null) {",
+            "      session = new Session();",
+            "      INSTANCE.set(new SoftReference<Session>(session));",
+            "    }",
+            "    return session.sumBuilder(sum);",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  static final class SumBuilderImpl implements SumBuilder.B {",
+            "    private Sum _sum;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private SumBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public int b(int b) {",
+            "      try {",
+            "        return this._sum.sum(b);",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class SumBuilder {",
+            "    private SumBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface B {",
+            "      int b(int b);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private SumBuilderImpl sumBuilderImpl;",
+            "",
+            "    public Session() {",
+            "    }",
+            "",
+            "    public SumBuilder.B sumBuilder(Sum sum) {",
+            "      SumBuilderImpl sumBuilderImpl = this.sumBuilderImpl;",
+            "      if (sumBuilderImpl == null || sumBuilderImpl._inUse) {",
+            "        sumBuilderImpl = this.sumBuilderImpl = new SumBuilderImpl();",
+            "      }",
+            "      sumBuilderImpl._inUse = true;",
+            "      sumBuilderImpl._sum = sum;",
+            "      return sumBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
 }
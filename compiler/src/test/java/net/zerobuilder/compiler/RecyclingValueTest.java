@@ -38,37 +38,36 @@ public class RecyclingValueTest {
             "",
             GENERATED_ANNOTATION,
             "public final class CubeBuilders {",
-            "  private static final ThreadLocal<CubeBuilders> INSTANCE = new ThreadLocal<CubeBuilders>() {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
             "    @Override",
-            "    protected CubeBuilders initialValue() {",
-            "      return new CubeBuilders();",
+            "    protected Session initialValue() {",
+            "      return new Session();",
             "    }",
             "  }",
             "",
-            "  private final CuboidUpdater cuboidUpdater = new CuboidUpdater();",
-            "  private final CuboidBuilderImpl cuboidBuilderImpl = new CuboidBuilderImpl();",
-            "  private CubeBuilders() {}",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
             "",
             "  static CuboidUpdater cuboidUpdater(Cube cube) {",
-            "    if (cube.width() == null) {",
-            "      throw new NullPointerException(\"width\");",
-            "    }",
-            "    CuboidUpdater updater = INSTANCE.get().cuboidUpdater;",
-            "    updater.height = cube.height();",
-            "    updater.length = cube.length(),",
-            "    updater.width = cube.width();",
-            "    return updater;",
+            "    Session session = INSTANCE.get();",
+            "    return session.cuboidUpdater(cube);",
             "  }",
             "",
             "  public static CuboidBuilder.Height cuboidBuilder() {",
-            "    CuboidBuilderImpl cuboidBuilderImpl = INSTANCE.get().cuboidBuilderImpl;",
-            "    return cuboidBuilderImpl;",
+            "    Session session = INSTANCE.get();",
+            "    return session.cuboidBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
             "  }",
             "",
             "  public static final class CuboidUpdater {",
             "    private double height;",
             "    private List<String> length;",
             "    private String width;",
+            "    private boolean _inUse;",
             "    private CuboidUpdater() {}",
             "    public CuboidUpdater height(double height) { this.height = height; return this; }",
             "    public CuboidUpdater length(List<String> length) { this.length = length; return this; }",
@@ -83,13 +82,20 @@ public class RecyclingValueTest {
             "      this.width = width;",
             "      return this;",
             "    }",
-            "    public Cube done() { return Cube.create( height, length, width ); }",
+            "    public Cube done() {",
+            "      try {",
+            "        return Cube.create( height, length, width );",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
             "  }",
             "",
             "  static final class CuboidBuilderImpl implements",
             "        CuboidBuilder.Height, CuboidBuilder.Length, CuboidBuilder.Width {",
             "    private double height;",
             "    private List<String> length;",
+            "    private boolean _inUse;",
             "    private StepsImpl() {}",
             "    @Override public CuboidBuilder.Length height(double height) { this.height = height; return this; }",
             "    @Override public CuboidBuilder.Width length(List<String> length) { this.length = length; return this; }",
@@ -98,10 +104,14 @@ public class RecyclingValueTest {
             "      return this;",
             "    }",
             "    @Override public Cube width(String width) {",
-            "      if (width == null) {",
-            "        throw new NullPointerException(\"width\");",
+            "      try {",
+            "        if (width == null) {",
+            "          throw new NullPointerException(\"width\");",
+            "        }",
+            "        return Cube.create( height, length, width );",
+            "      } finally {",
+            "        this._inUse = false;",
             "      }",
-            "      return Cube.create( height, length, width );",
             "    }",
             "  }",
             "",
@@ -116,6 +126,36 @@ public class RecyclingValueTest {
             "    }",
             "    public interface Width { Cube width(String width); }",
             "  }",
+            "",
+            "  public static final class Session {",
+            "    private CuboidUpdater cuboidUpdater;",
+            "    private CuboidBuilderImpl cuboidBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    CuboidUpdater cuboidUpdater(Cube cube) {",
+            "      if (cube.width() == null) {",
+            "        throw new NullPointerException(\"width\");",
+            "      }",
+            "      CuboidUpdater updater = this.cuboidUpdater;",
+            "      if (updater == null || updater._inUse) {",
+            "        updater = this.cuboidUpdater = new CuboidUpdater();",
+            "      }",
+            "      updater._inUse = true;",
+            "      updater.height = cube.height();",
+            "      updater.length = cube.length(),",
+            "      updater.width = cube.width();",
+            "      return updater;",
+            "    }",
+            "",
+            "    public CuboidBuilder.Height cuboidBuilder() {",
+            "      CuboidBuilderImpl cuboidBuilderImpl = this.cuboidBuilderImpl;",
+            "      if (cuboidBuilderImpl == null || cuboidBuilderImpl._inUse) {",
+            "        cuboidBuilderImpl = this.cuboidBuilderImpl = new CuboidBuilderImpl();",
+            "      }",
+            "      cuboidBuilderImpl._inUse = true;",
+            "      return cuboidBuilderImpl;",
+            "    }",
+            "  }",
             "}");
     assertAbout(javaSources()).that(ImmutableList.of(cube))
         .processedWith(new ZeroProcessor())
@@ -123,4 +163,308 @@ public class RecyclingValueTest {
         .and().generatesSources(expected);
   }
 
+  @Test
+  public void checkOwner() {
+    JavaFileObject sum = forSourceLines("cube.Sum",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true, checkOwner = true)",
+        "final class Sum {",
+        "  private final int a;",
+        "  @Goal(name = \"sum\", updater = true) static Sum sum(int a, String b) { return null; }",
+        "  int getA() { return a; }",
+        "  String getB() { return null; }",
+        "  Sum (int a) { this.a = a; }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.SumBuilders",
+            "package cube;",
+            "",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SumBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  };",
+            "",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static SumUpdater sumUpdater(Sum sum) {",
+            "    Session session = INSTANCE.get();",
+            "    return session.sumUpdater(sum);",
+            "  }",
+            "",
+            "  public static SumBuilder.A sumBuilder() {",
+            "    Session session = INSTANCE.get();",
+            "    return session.sumBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  public static final class SumUpdater {",
+            "    private int a;",
+            "",
+            "    private String b;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private Thread _owner;",
+            "",
+            "    private SumUpdater() {",
+            "    }",
+            "",
+            "    public SumUpdater a(int a) {",
+            "      if (this._owner != Thread.currentThread()) {",
+            "        throw new IllegalStateException(\"This builder was used by another thread, or after its goal was invoked\");",
+            "      }",
+            "      this.a = a;",
+            "      return this;",
+            "    }",
+            "",
+            "    public SumUpdater b(String b) {",
+            "      if (this._owner != Thread.currentThread()) {",
+            "        throw new IllegalStateException(\"This builder was used by another thread, or after its goal was invoked\");",
+            "      }",
+            "      this.b = b;",
+            "      return this;",
+            "    }",
+            "",
+            "    public Sum done() {",
+            "      if (this._owner != Thread.currentThread()) {",
+            "        throw new IllegalStateException(\"This builder was used by another thread, or after its goal was invoked\");",
+            "      }",
+            "      try {",
+            "        return Sum.sum(a, b);",
+            "      } finally {",
+            "        this._owner = null;",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  static final class SumBuilderImpl implements SumBuilder.A, SumBuilder.B {",
+            "    private int a;",
+            "",
+            "    private boolean _inUse;",
+            "",
+            "    private Thread _owner;",
+            "",
+            "    private SumBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public SumBuilder.B a(int a) {",
+            "      if (this._owner != Thread.currentThread()) {",
+            "        throw new IllegalStateException(\"This builder was used by another thread, or after its goal was invoked\");",
+            "      }",
+            "      this.a = a;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Sum b(String b) {",
+            "      if (this._owner != Thread.currentThread()) {",
+            "        throw new IllegalStateException(\"This builder was used by another thread, or after its goal was invoked\");",
+            "      }",
+            "      try {",
+            "        return Sum.sum(a, b);",
+            "      } finally {",
+            "        this._owner = null;",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class SumBuilder {",
+            "    private SumBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface A {",
+            "      B a(int a);",
+            "    }",
+            "",
+            "    public interface B {",
+            "      Sum b(String b);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private SumUpdater sumUpdater;",
+            "",
+            "    private SumBuilderImpl sumBuilderImpl;",
+            "",
+            "    public Session() {",
+            "    }",
+            "",
+            "    public SumUpdater sumUpdater(Sum sum) {",
+            "      SumUpdater updater = this.sumUpdater;",
+            "      if (updater == null || updater._inUse) {",
+            "        updater = this.sumUpdater = new SumUpdater();",
+            "      }",
+            "      updater._inUse = true;",
+            "      updater._owner = Thread.currentThread();",
+            "      updater.a = sum.getA();",
+            "      updater.b = sum.getB();",
+            "      return updater;",
+            "    }",
+            "",
+            "    public SumBuilder.A sumBuilder() {",
+            "      SumBuilderImpl sumBuilderImpl = this.sumBuilderImpl;",
+            "      if (sumBuilderImpl == null || sumBuilderImpl._inUse) {",
+            "        sumBuilderImpl = this.sumBuilderImpl = new SumBuilderImpl();",
+            "      }",
+            "      sumBuilderImpl._inUse = true;",
+            "      sumBuilderImpl._owner = Thread.currentThread();",
+            "      return sumBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+
+    assertAbout(javaSources()).that(ImmutableList.of(sum))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+
+  @Test
+  public void twoCapitals() {
+    JavaFileObject bPoint = forSourceLines("v.BPoint",
+        "package v;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true)",
+        "final class BPoint {",
+        "  final int x;",
+        "  final int y;",
+        "  @Goal(updater = true)",
+        "  BPoint(int x, int y) {",
+        "    this.x = x;",
+        "    this.y = y;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("v.BPointBuilders",
+            "package v;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class BPointBuilders {",
+            "  private static final ThreadLocal<Session> INSTANCE = new ThreadLocal<Session>() {",
+            "    @Override",
+            "    protected Session initialValue() {",
+            "      return new Session();",
+            "    }",
+            "  };",
+            "",
+            "  private BPointBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static BPointUpdater BPointUpdater(BPoint BPoint) {",
+            "    Session session = INSTANCE.get();",
+            "    return session.BPointUpdater(BPoint);",
+            "  }",
+            "",
+            "  public static BPointBuilder.X BPointBuilder() {",
+            "    Session session = INSTANCE.get();",
+            "    return session.BPointBuilder();",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    INSTANCE.remove();",
+            "  }",
+            "",
+            "  public static final class BPointUpdater {",
+            "    private int x;",
+            "    private int y;",
+            "    private boolean _inUse;",
+            "    private BPointUpdater() {}",
+            "",
+            "    public BPointUpdater x(int x) {",
+            "      this.x = x;",
+            "      return this;",
+            "    }",
+            "",
+            "    public BPointUpdater y(int y) {",
+            "      this.y = y;",
+            "      return this;",
+            "    }",
+            "",
+            "    public BPoint done() {",
+            "      try {",
+            "        return new BPoint(x, y);",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  static final class BPointBuilderImpl implements BPointBuilder.X, BPointBuilder.Y {",
+            "    private int x;",
+            "    private boolean _inUse;",
+            "    private BPointBuilderImpl() {}",
+            "",
+            "    @Override public BPointBuilder.Y x(int x) {",
+            "      this.x = x;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override public BPoint y(int y) {",
+            "      try {",
+            "        return new BPoint(x, y);",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class BPointBuilder {",
+            "    private BPointBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "    public interface X { Y x(int x); }",
+            "    public interface Y { BPoint y(int y); }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private BPointUpdater bPointUpdater;",
+            "    private BPointBuilderImpl bPointBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    public BPointUpdater BPointUpdater(BPoint BPoint) {",
+            "      BPointUpdater updater = this.bPointUpdater;",
+            "      if (updater == null || updater._inUse) {",
+            "        updater = this.bPointUpdater = new BPointUpdater();",
+            "      }",
+            "      updater._inUse = true;",
+            "      updater.x = BPoint.x;",
+            "      updater.y = BPoint.y;",
+            "      return updater;",
+            "    }",
+            "",
+            "    public BPointBuilder.X BPointBuilder() {",
+            "      BPointBuilderImpl bPointBuilderImpl = this.bPointBuilderImpl;",
+            "      if (bPointBuilderImpl == null || bPointBuilderImpl._inUse) {",
+            "        bPointBuilderImpl = this.bPointBuilderImpl = new BPointBuilderImpl();",
+            "      }",
+            "      bPointBuilderImpl._inUse = true;",
+            "      return bPointBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(bPoint))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
 }
@@ -0,0 +1,137 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class RegistryTest {
+
+  @Test
+  public void registry() {
+    JavaFileObject cube = forSourceLines("cube.Sum",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders(recycle = true)",
+        "final class Sum {",
+        "  private final int a;",
+        "  @Goal(name = \"sum\") int sum(int b) { return a  + b; };",
+        "  Sum (int a) { this.a = a; }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.SumBuilders",
+            "package cube;",
+            "import javax.annotation.Generated;",
+            "import registry.Registry;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class SumBuilders {",
+            "  private static final int SLOT = Registry.slot();",
+            "",
+            "  private SumBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static SumBuilder.B sumBuilder(Sum sum) {",
+            "    Session session = Registry.get(SLOT);",
+            "    if (session == null) {",
+            "      session = Registry.set(SLOT, new Session());",
+            "    }",
+            "    return session.sumBuilder(sum);",
+            "  }",
+            "",
+            "  public static void releaseThreadCache() {",
+            "    Registry.set(SLOT, null);",
+            "  }",
+            "",
+            "  static final class SumBuilderImpl implements SumBuilder.B {",
+            "    private Sum _sum;",
+            "    private boolean _inUse;",
+            "    private StepsImpl() {}",
+            "    @Override public int b(int b) {",
+            "      try {",
+            "        return this._sum.sum( b );",
+            "      } finally {",
+            "        this._inUse = false;",
+            "      }",
+            "    }",
+            "  }",
+            "",
+            "  public static final class SumBuilder {",
+            "    private SumBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "    public interface B { int b(int b); }",
+            "  }",
+            "",
+            "  public static final class Session {",
+            "    private SumBuilderImpl sumBuilderImpl;",
+            "    public Session() {}",
+            "",
+            "    public SumBuilder.B sumBuilder(Sum sum) {",
+            "      SumBuilderImpl sumBuilderImpl = this.sumBuilderImpl;",
+            "      if (sumBuilderImpl == null || sumBuilderImpl._inUse) {",
+            "        sumBuilderImpl = this.sumBuilderImpl = new SumBuilderImpl();",
+            "      }",
+            "      sumBuilderImpl._inUse = true;",
+            "      sumBuilderImpl._sum = sum;",
+            "      return sumBuilderImpl;",
+            "    }",
+            "  }",
+            "}");
+    JavaFileObject registry =
+        forSourceLines("registry.Registry",
+            "package registry;",
+            "",
+            "import java.util.Arrays;",
+            "import java.util.concurrent.atomic.AtomicInteger;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class Registry {",
+            "  private static final AtomicInteger NEXT = new AtomicInteger();",
+            "",
+            "  private static final ThreadLocal<Object[]> SLOTS = new ThreadLocal<Object[]>() {",
+            "    @Override",
+            "    protected Object[] initialValue() {",
+            "      return new Object[16];",
+            "    }",
+            "  };",
+            "",
+            "  private Registry() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static int slot() {",
+            "    return NEXT.getAndIncrement();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  public static <T> T get(int slot) {",
+            "    Object[] slots = SLOTS.get();",
+            "    return slot < slots.length ? (T) slots[slot] : null;",
+            "  }",
+            "",
+            "  public static <T> T set(int slot, T instance) {",
+            "    Object[] slots = SLOTS.get();",
+            "    if (slot >= slots.length) {",
+            "      slots = Arrays.copyOf(slots, Math.max(2 * slots.length, slot + 1));",
+            "      SLOTS.set(slots);",
+            "    }",
+            "    slots[slot] = instance;",
+            "    return instance;",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .withCompilerOptions("-Azerobuilder.registry=registry.Registry")
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected, registry);
+  }
+}
@@ -0,0 +1,174 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class VarargsTest {
+
+  @Test
+  public void varargs() {
+    JavaFileObject message = forSourceLines("tags.Message",
+        "package tags;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "",
+        "@Builders(varargs = true)",
+        "final class Message {",
+        "  @Goal(name = \"message\")",
+        "  static Message create(Iterable<? extends Number> ids,",
+        "                        @Step(nullPolicy = NullPolicy.REJECT) List<String> tags,",
+        "                        List<List<String>> nested, List<String> recipients) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("tags.MessageBuilders",
+            "package tags;",
+            "",
+            "import java.util.Arrays;",
+            "import java.util.Collections;",
+            "import java.util.List;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class MessageBuilders {",
+            "  private MessageBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static MessageBuilder.Ids messageBuilder() {",
+            "    MessageBuilderImpl messageBuilderImpl = new MessageBuilderImpl();",
+            "    return messageBuilderImpl;",
+            "  }",
+            "",
+            "  static final class MessageBuilderImpl implements MessageBuilder.Ids, MessageBuilder.Tags, MessageBuilder.Nested, MessageBuilder.Recipients {",
+            "    private Iterable<? extends Number> ids;",
+            "",
+            "    private List<String> tags;",
+            "",
+            "    private List<List<String>> nested;",
+            "",
+            "    private MessageBuilderImpl() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Tags ids(Iterable<? extends Number> ids) {",
+            "      this.ids = ids;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Tags emptyIds() {",
+            "      this.ids = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Tags ids(Number... ids) {",
+            "      this.ids = ids == null ? null : Arrays.asList(ids);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Nested tags(List<String> tags) {",
+            "      if (tags == null) {",
+            "        throw new NullPointerException(\"tags\");",
+            "      }",
+            "      this.tags = tags;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Nested emptyTags() {",
+            "      this.tags = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Nested tags(String... tags) {",
+            "      if (tags == null) {",
+            "        throw new NullPointerException(\"tags\");",
+            "      }",
+            "      this.tags = Arrays.asList(tags);",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Recipients nested(List<List<String>> nested) {",
+            "      this.nested = nested;",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public MessageBuilder.Recipients emptyNested() {",
+            "      this.nested = Collections.emptyList();",
+            "      return this;",
+            "    }",
+            "",
+            "    @Override",
+            "    public Message recipients(List<String> recipients) {",
+            "      return Message.create(ids, tags, nested, recipients);",
+            "    }",
+            "",
+            "    @Override",
+            "    public Message emptyRecipients() {",
+            "      List<String> recipients = Collections.emptyList();",
+            "      return Message.create(ids, tags, nested, recipients);",
+            "    }",
+            "",
+            "    @Override",
+            "    public Message recipients(String... recipientsArray) {",
+            "      List<String> recipients = recipientsArray == null ? null : Arrays.asList(recipientsArray);",
+            "      return Message.create(ids, tags, nested, recipients);",
+            "    }",
+            "  }",
+            "",
+            "  public static final class MessageBuilder {",
+            "    private MessageBuilder() {",
+            "      throw new UnsupportedOperationException(\"no instances\");",
+            "    }",
+            "",
+            "    public interface Ids {",
+            "      Tags ids(Iterable<? extends Number> ids);",
+            "",
+            "      Tags emptyIds();",
+            "",
+            "      Tags ids(Number... ids);",
+            "    }",
+            "",
+            "    public interface Tags {",
+            "      Nested tags(List<String> tags);",
+            "",
+            "      Nested emptyTags();",
+            "",
+            "      Nested tags(String... tags);",
+            "    }",
+            "",
+            "    public interface Nested {",
+            "      Recipients nested(List<List<String>> nested);",
+            "",
+            "      Recipients emptyNested();",
+            "    }",
+            "",
+            "    public interface Recipients {",
+            "      Message recipients(List<String> recipients);",
+            "",
+            "      Message emptyRecipients();",
+            "",
+            "      Message recipients(String... recipients);",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(message))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
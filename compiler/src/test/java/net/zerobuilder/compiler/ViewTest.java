@@ -0,0 +1,96 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class ViewTest {
+
+  @Test
+  public void view() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "",
+        "@Builders",
+        "abstract class Cube {",
+        "  abstract boolean solid();",
+        "  abstract int length();",
+        "  abstract double height();",
+        "  @Goal(view = true, builder = false)",
+        "  static Cube create(boolean solid, int length, double height) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.nio.ByteBuffer;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static CubeView cubeView() {",
+            "    return new CubeView();",
+            "  }",
+            "",
+            "  public static final class CubeView {",
+            "    /**",
+            "     * The size of a record in bytes.",
+            "     */",
+            "    public static final int SIZE = 16;",
+            "",
+            "    private ByteBuffer buffer;",
+            "",
+            "    private int offset;",
+            "",
+            "    private CubeView() {",
+            "    }",
+            "",
+            "    public CubeView wrap(ByteBuffer buffer, int offset) {",
+            "      this.buffer = buffer;",
+            "      this.offset = offset;",
+            "      return this;",
+            "    }",
+            "",
+            "    public boolean solid() {",
+            "      return this.buffer.get(this.offset + 12) != 0;",
+            "    }",
+            "",
+            "    public int length() {",
+            "      return this.buffer.getInt(this.offset + 8);",
+            "    }",
+            "",
+            "    public double height() {",
+            "      return this.buffer.getDouble(this.offset);",
+            "    }",
+            "",
+            "    public CubeView put(Cube cube) {",
+            "      this.buffer.put(this.offset + 12, (byte) (cube.solid() ? 1 : 0));",
+            "      this.buffer.putInt(this.offset + 8, cube.length());",
+            "      this.buffer.putDouble(this.offset, cube.height());",
+            "      return this;",
+            "    }",
+            "",
+            "    public Cube materialize() {",
+            "      return Cube.create(solid(), length(), height());",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
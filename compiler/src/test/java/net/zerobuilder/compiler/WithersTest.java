@@ -0,0 +1,65 @@
+package net.zerobuilder.compiler;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaFileObjects.forSourceLines;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+import static net.zerobuilder.compiler.GeneratedLines.GENERATED_ANNOTATION;
+
+public class WithersTest {
+
+  @Test
+  public void withers() {
+    JavaFileObject cube = forSourceLines("cube.Cube",
+        "package cube;",
+        "import net.zerobuilder.*;",
+        "import java.util.List;",
+        "",
+        "@Builders(recycle = true)",
+        "abstract class Cube {",
+        "  abstract double height();",
+        "  abstract List<String> length();",
+        "  abstract String width();",
+        "  @Goal(name = \"cuboid\", withers = true, builder = false)",
+        "  static Cube create(double height, List<String> length, @Step(nullPolicy = NullPolicy.REJECT) String width) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject expected =
+        forSourceLines("cube.CubeBuilders",
+            "package cube;",
+            "",
+            "import java.util.List;",
+            "import javax.annotation.Generated;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class CubeBuilders {",
+            "  private CubeBuilders() {",
+            "    throw new UnsupportedOperationException(\"no instances\");",
+            "  }",
+            "",
+            "  public static Cube withHeight(Cube cube, double height) {",
+            "    return Cube.create(height, cube.length(), cube.width());",
+            "  }",
+            "",
+            "  public static Cube withLength(Cube cube, List<String> length) {",
+            "    return Cube.create(cube.height(), length, cube.width());",
+            "  }",
+            "",
+            "  public static Cube withWidth(Cube cube, String width) {",
+            "    if (width == null) {",
+            "      throw new NullPointerException(\"width\");",
+            "    }",
+            "    return Cube.create(cube.height(), cube.length(), width);",
+            "  }",
+            "}");
+    assertAbout(javaSources()).that(ImmutableList.of(cube))
+        .processedWith(new ZeroProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(expected);
+  }
+}
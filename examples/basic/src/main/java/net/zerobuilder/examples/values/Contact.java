@@ -0,0 +1,24 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// streaming json
+@Builders
+final class Contact {
+
+  final String name;
+  final long id;
+  final double balance;
+  final Integer age;
+  final boolean verified;
+
+  @Goal(json = true)
+  Contact(String name, long id, double balance, Integer age, boolean verified) {
+    this.name = name;
+    this.id = id;
+    this.balance = balance;
+    this.age = age;
+    this.verified = verified;
+  }
+}
@@ -0,0 +1,33 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// binary encoding without reflection
+@Builders
+final class Encoded {
+
+  final long id;
+  final String name;
+  final double score;
+  final Integer rank;
+  final char grade;
+  final short level;
+  final byte flags;
+  final float weight;
+  final boolean active;
+
+  @Goal(codec = true)
+  Encoded(long id, String name, double score, Integer rank, char grade,
+          short level, byte flags, float weight, boolean active) {
+    this.id = id;
+    this.name = name;
+    this.score = score;
+    this.rank = rank;
+    this.grade = grade;
+    this.level = level;
+    this.flags = flags;
+    this.weight = weight;
+    this.active = active;
+  }
+}
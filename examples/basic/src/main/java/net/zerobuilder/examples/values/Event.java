@@ -0,0 +1,20 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// append-only log
+@Builders
+final class Event {
+
+  final long sequence;
+  final String payload;
+  final Integer priority;
+
+  @Goal(log = true)
+  Event(long sequence, String payload, Integer priority) {
+    this.sequence = sequence;
+    this.payload = payload;
+    this.priority = priority;
+  }
+}
@@ -0,0 +1,20 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// updaters that return the source if nothing changed
+@Builders(lazyUpdaters = true)
+final class Lazy {
+
+  final double x;
+  final float y;
+  final String label;
+
+  @Goal(updater = true)
+  Lazy(double x, float y, String label) {
+    this.x = x;
+    this.y = y;
+    this.label = label;
+  }
+}
@@ -0,0 +1,20 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// streaming json, float fields
+@Builders
+final class Measurement {
+
+  final String unit;
+  final float value;
+  final Float previous;
+
+  @Goal(json = true)
+  Measurement(String unit, float value, Float previous) {
+    this.unit = unit;
+    this.value = value;
+    this.previous = previous;
+  }
+}
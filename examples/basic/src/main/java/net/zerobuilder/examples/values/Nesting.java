@@ -2,6 +2,9 @@ package net.zerobuilder.examples.values;
 
 import net.zerobuilder.Builders;
 import net.zerobuilder.Goal;
+import net.zerobuilder.Step;
+
+import static net.zerobuilder.NullPolicy.REJECT;
 
 // nested classes
 final class Nesting {
@@ -40,4 +43,17 @@ final class Nesting {
     }
   }
 
+  // recycled builder, used recursively
+  @Builders(recycle = true)
+  static class Matryoshka {
+    final Matryoshka inner;
+    final String name;
+
+    @Goal(updater = true)
+    Matryoshka(Matryoshka inner, @Step(nullPolicy = REJECT) String name) {
+      this.inner = inner;
+      this.name = name;
+    }
+  }
+
 }
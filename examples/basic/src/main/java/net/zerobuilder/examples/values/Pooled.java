@@ -0,0 +1,19 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+import net.zerobuilder.Lifecycle;
+
+// builders that are recycled by all threads
+@Builders(lifecycle = Lifecycle.POOLED)
+final class Pooled {
+
+  final String label;
+  final int count;
+
+  @Goal(updater = true)
+  Pooled(String label, int count) {
+    this.label = label;
+    this.count = count;
+  }
+}
@@ -0,0 +1,20 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// parallel csv loading, float columns
+@Builders
+final class Reading {
+
+  final String sensor;
+  final float value;
+  final Float delta;
+
+  @Goal(csv = true)
+  Reading(String sensor, float value, Float delta) {
+    this.sensor = sensor;
+    this.value = value;
+    this.delta = delta;
+  }
+}
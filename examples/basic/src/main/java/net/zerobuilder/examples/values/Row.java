@@ -0,0 +1,24 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// parallel csv loading
+@Builders
+final class Row {
+
+  final long id;
+  final String name;
+  final double amount;
+  final Integer count;
+  final boolean flag;
+
+  @Goal(csv = true)
+  Row(long id, String name, double amount, Integer count, boolean flag) {
+    this.id = id;
+    this.name = name;
+    this.amount = amount;
+    this.count = count;
+    this.flag = flag;
+  }
+}
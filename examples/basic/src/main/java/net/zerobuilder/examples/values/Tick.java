@@ -0,0 +1,30 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.Builders;
+import net.zerobuilder.Goal;
+
+// flyweight over fixed-length records
+@Builders
+final class Tick {
+
+  final long time;
+  final int bid;
+  final short size;
+  final byte venue;
+  final char side;
+  final float ask;
+  final double mid;
+  final boolean last;
+
+  @Goal(view = true)
+  Tick(long time, int bid, short size, byte venue, char side, float ask, double mid, boolean last) {
+    this.time = time;
+    this.bid = bid;
+    this.size = size;
+    this.venue = venue;
+    this.side = side;
+    this.ask = ask;
+    this.mid = mid;
+    this.last = last;
+  }
+}
@@ -0,0 +1,154 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.examples.values.ContactBuilders.ContactJson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.zerobuilder.examples.values.ContactBuilders.contactJson;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ContactTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  private final ContactJson json = contactJson();
+
+  @Test
+  public void write() throws IOException {
+    Contact contact = new Contact("Ann", Long.MIN_VALUE, 1.5, 42, true);
+    assertThat(write(contact),
+        is("{\"name\":\"Ann\",\"id\":-9223372036854775808,\"balance\":1.5,\"age\":42,\"verified\":true}"));
+    Contact nulls = new Contact(null, 0, -0.25, null, false);
+    assertThat(write(nulls),
+        is("{\"name\":null,\"id\":0,\"balance\":-0.25,\"age\":null,\"verified\":false}"));
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    char[] chars = new char[1000];
+    Arrays.fill(chars, 'ß');
+    Contact[] contacts = {
+        new Contact("Zoë \"Z\" \\ 日本 😀 \n\t\u0001", Long.MAX_VALUE, 1e-300, Integer.MIN_VALUE, true),
+        new Contact(new String(chars), -1, Double.MAX_VALUE, Integer.MAX_VALUE, false),
+        new Contact("", 7, 0, 0, true),
+        new Contact(null, 8, -2.5e21, null, false)};
+    for (Contact contact : contacts) {
+      assertEqual(json.read(write(contact).getBytes(UTF_8)), contact);
+    }
+  }
+
+  @Test
+  public void readIgnoresOrderWhitespaceAndUnknownFields() {
+    Contact contact = read(" {\n\t\"verified\" : false , \"extra\": {\"a\": [1, \"}]\", {}]},"
+        + " \"age\": -3, \"balance\": 2E2, \"other\": \"x\\\"y\", \"id\": 12, \"name\": \"\\u00e9\\n\\/\\\\\", \"n\": null } ");
+    assertThat(contact.name, is("é\n/\\"));
+    assertThat(contact.id, is(12L));
+    assertThat(contact.balance, is(200.0));
+    assertThat(contact.age, is(-3));
+    assertThat(contact.verified, is(false));
+  }
+
+  @Test
+  public void readSurrogatePair() {
+    assertThat(read("{\"name\":\"\\ud83d\\ude00\",\"id\":1,\"balance\":1,\"age\":null,\"verified\":true}").name,
+        is("😀"));
+  }
+
+  @Test
+  public void update() {
+    Contact source = new Contact("Ann", 1, 1.5, 42, true);
+    Contact updated = json.update(source, "{\"age\":null,\"name\":\"Bob\"}".getBytes(UTF_8));
+    assertEqual(updated, new Contact("Bob", 1, 1.5, null, true));
+    assertEqual(json.update(source, "{}".getBytes(UTF_8)), source);
+  }
+
+  @Test
+  public void updateNull() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("contact");
+    json.update(null, "{}".getBytes(UTF_8));
+  }
+
+  @Test
+  public void missingField() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("missing field: verified");
+    read("{\"name\":\"Ann\",\"id\":1,\"balance\":1.5,\"age\":42}");
+  }
+
+  @Test
+  public void trailingInput() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("unexpected input at position 3");
+    read("{} {}");
+  }
+
+  @Test
+  public void unterminatedString() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("unexpected input");
+    read("{\"name\":\"Ann");
+  }
+
+  @Test
+  public void missingColon() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("unexpected input at position 8");
+    read("{\"name\" \"Ann\"}");
+  }
+
+  @Test
+  public void notABoolean() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("unexpected input at position 12");
+    read("{\"verified\":1}");
+  }
+
+  @Test
+  public void intOutOfRange() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("number out of range at position 7");
+    read("{\"age\":2147483648}");
+  }
+
+  @Test
+  public void longOutOfRange() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("number out of range");
+    read("{\"id\":9223372036854775808}");
+  }
+
+  @Test
+  public void writeNaN() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("not a JSON number: NaN");
+    write(new Contact("Ann", 1, Double.NaN, null, true));
+  }
+
+  private String write(Contact contact) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    json.write(contact, out);
+    return new String(out.toByteArray(), UTF_8);
+  }
+
+  private Contact read(String s) {
+    return json.read(s.getBytes(UTF_8));
+  }
+
+  private static void assertEqual(Contact actual, Contact expected) {
+    assertThat(actual.name, is(expected.name));
+    assertThat(actual.id, is(expected.id));
+    assertThat(actual.balance, is(expected.balance));
+    assertThat(actual.age, is(expected.age));
+    assertThat(actual.verified, is(expected.verified));
+  }
+}
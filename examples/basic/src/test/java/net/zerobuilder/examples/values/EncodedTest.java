@@ -0,0 +1,132 @@
+package net.zerobuilder.examples.values;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static net.zerobuilder.examples.values.EncodedBuilders.encodedDecode;
+import static net.zerobuilder.examples.values.EncodedBuilders.encodedEncode;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EncodedTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  private static final Encoded FIRST = new Encoded(Long.MIN_VALUE, "Zoë 日本 😀", 1.5,
+      Integer.MAX_VALUE, 'é', Short.MIN_VALUE, (byte) -1, -0.25f, true);
+  private static final Encoded SECOND = new Encoded(42L, "", -0.0, -7, 'x', (short) 7, (byte) 0x7f, Float.NaN, false);
+  private static final Encoded NULLS = new Encoded(0L, null, Double.MAX_VALUE, null, '\0', (short) 0, (byte) 0, 0f, false);
+
+  @Test
+  public void heapBuffer() {
+    roundTrip(ByteBuffer.allocate(256));
+  }
+
+  @Test
+  public void directBuffer() {
+    roundTrip(ByteBuffer.allocateDirect(256));
+  }
+
+  @Test
+  public void heapBufferWithArrayOffset() {
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    encodedEncode(FIRST, buffer);
+    byte[] array = new byte[buffer.position() + 10];
+    System.arraycopy(buffer.array(), 0, array, 10, buffer.position());
+    ByteBuffer slice = ByteBuffer.wrap(array, 10, array.length - 10).slice();
+    assertThat(slice.arrayOffset(), is(10));
+    assertEqual(encodedDecode(slice), FIRST);
+    assertThat(slice.hasRemaining(), is(false));
+  }
+
+  @Test
+  public void encodeOverflow() {
+    thrown.expect(BufferOverflowException.class);
+    encodedEncode(FIRST, ByteBuffer.allocate(16));
+  }
+
+  @Test
+  public void decodeTruncated() {
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    encodedEncode(FIRST, buffer);
+    buffer.flip();
+    buffer.limit(buffer.limit() - 1);
+    thrown.expect(BufferUnderflowException.class);
+    encodedDecode(buffer);
+  }
+
+  @Test
+  public void decodeTruncatedStringOnHeap() {
+    decodeTruncatedString(ByteBuffer.allocate(256));
+  }
+
+  @Test
+  public void decodeTruncatedStringDirect() {
+    decodeTruncatedString(ByteBuffer.allocateDirect(256));
+  }
+
+  @Test
+  public void decodeHugeStringLength() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+    buffer.putLong(1).putInt(Integer.MAX_VALUE).put(new byte[20]);
+    buffer.flip();
+    thrown.expect(BufferUnderflowException.class);
+    encodedDecode(buffer);
+  }
+
+  @Test
+  public void decodeNegativeStringLength() {
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    encodedEncode(NULLS, buffer);
+    buffer.putInt(8, -2);
+    buffer.flip();
+    thrown.expect(BufferUnderflowException.class);
+    encodedDecode(buffer);
+  }
+
+  /**
+   * The heap buffer still holds the rest of the string beyond its limit,
+   * which must not be read.
+   */
+  private void decodeTruncatedString(ByteBuffer buffer) {
+    encodedEncode(FIRST, buffer);
+    buffer.flip();
+    // id, the length of the name, and the first 3 bytes of the name
+    buffer.limit(8 + 4 + 3);
+    thrown.expect(BufferUnderflowException.class);
+    encodedDecode(buffer);
+  }
+
+  private static void roundTrip(ByteBuffer buffer) {
+    encodedEncode(FIRST, buffer);
+    encodedEncode(SECOND, buffer);
+    encodedEncode(NULLS, buffer);
+    buffer.flip();
+    assertEqual(encodedDecode(buffer), FIRST);
+    assertEqual(encodedDecode(buffer), SECOND);
+    Encoded nulls = encodedDecode(buffer);
+    assertEqual(nulls, NULLS);
+    assertThat(nulls.name, is(nullValue()));
+    assertThat(nulls.rank, is(nullValue()));
+    assertThat(buffer.hasRemaining(), is(false));
+  }
+
+  private static void assertEqual(Encoded actual, Encoded expected) {
+    assertThat(actual.id, is(expected.id));
+    assertThat(actual.name, is(expected.name));
+    assertThat(Double.doubleToRawLongBits(actual.score), is(Double.doubleToRawLongBits(expected.score)));
+    assertThat(actual.rank, is(expected.rank));
+    assertThat(actual.grade, is(expected.grade));
+    assertThat(actual.level, is(expected.level));
+    assertThat(actual.flags, is(expected.flags));
+    assertThat(Float.floatToRawIntBits(actual.weight), is(Float.floatToRawIntBits(expected.weight)));
+    assertThat(actual.active, is(expected.active));
+  }
+}
@@ -0,0 +1,245 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.examples.values.EventBuilders.EventLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static net.zerobuilder.examples.values.EventBuilders.eventLog;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EventTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void appendAndRead() throws IOException {
+    Path directory = folder.getRoot().toPath().resolve("log");
+    try (EventLog log = eventLog(directory)) {
+      for (int i = 0; i < 1000; i++) {
+        log.append(event(i));
+      }
+      assertThat(log.size(), is(1000));
+      assertEqual(log.get(0), event(0));
+      assertEqual(log.get(500), event(500));
+      assertEqual(log.get(999), event(999));
+      assertReplay(log, 1000);
+    }
+    Event nulls = nulls(directory);
+    assertThat(nulls.payload, is(nullValue()));
+    assertThat(nulls.priority, is(nullValue()));
+  }
+
+  @Test
+  public void reopen() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory)) {
+      for (int i = 0; i < 10; i++) {
+        log.append(event(i));
+      }
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertThat(log.size(), is(10));
+      assertReplay(log, 10);
+      for (int i = 10; i < 20; i++) {
+        log.append(event(i));
+      }
+      assertEqual(log.get(5), event(5));
+      assertEqual(log.get(15), event(15));
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertReplay(log, 20);
+    }
+  }
+
+  @Test
+  public void recoverTornRecord() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory)) {
+      for (int i = 0; i < 3; i++) {
+        log.append(event(i));
+      }
+    }
+    Path segment = directory.resolve("00000000.log");
+    long length = Files.size(segment);
+    // the length prefix of a record, and only part of its body
+    try (FileChannel channel = FileChannel.open(segment, APPEND)) {
+      channel.write(ByteBuffer.allocate(7).putInt(0, 100));
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertThat(log.size(), is(3));
+      assertThat(Files.size(segment), is(length));
+      log.append(event(3));
+      assertReplay(log, 4);
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertReplay(log, 4);
+    }
+  }
+
+  @Test
+  public void recoverZeroFilledTail() throws IOException {
+    recoverTail(new byte[4096]);
+  }
+
+  @Test
+  public void recoverRandomTail() throws IOException {
+    byte[] tail = new byte[4096];
+    new Random(1).nextBytes(tail);
+    recoverTail(tail);
+  }
+
+  @Test
+  public void recoverRecordWithWrongChecksum() throws IOException {
+    // a length that fits in the file, followed by a complete record body
+    ByteBuffer tail = ByteBuffer.allocate(8 + 17);
+    tail.putInt(0, 12345).putInt(4, 17);
+    recoverTail(tail.array());
+  }
+
+  @Test
+  public void closeTwice() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory)) {
+      log.append(event(0));
+      log.close();
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertReplay(log, 1);
+    }
+  }
+
+  @Test
+  public void segments() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory, 100, 7)) {
+      for (int i = 0; i < 50; i++) {
+        log.append(event(i));
+      }
+      assertEqual(log.get(0), event(0));
+      assertEqual(log.get(25), event(25));
+      assertEqual(log.get(49), event(49));
+      assertReplay(log, 50);
+    }
+    List<String> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path file : stream) {
+        files.add(file.getFileName().toString());
+        assertThat(file.toString(), Files.size(file) <= 100, is(true));
+      }
+    }
+    assertThat(files.size() > 1, is(true));
+    assertThat(files.contains("00000001.log"), is(true));
+    try (EventLog log = eventLog(directory, 100, 0)) {
+      assertThat(log.size(), is(50));
+      assertEqual(log.get(1), event(1));
+      assertReplay(log, 50);
+    }
+  }
+
+  @Test
+  public void largeRecords() throws IOException {
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'x');
+    String large = new String(chars);
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory, 1000, 0)) {
+      log.append(event(0));
+      log.append(new Event(1, large, 1));
+      log.append(event(2));
+      assertThat(log.get(1).payload, is(large));
+    }
+    try (EventLog log = eventLog(directory, 1000, 0)) {
+      List<Event> events = new ArrayList<>();
+      log.replay(events::add);
+      assertThat(events.size(), is(3));
+      assertEqual(events.get(0), event(0));
+      assertThat(events.get(1).payload, is(large));
+      assertEqual(events.get(2), event(2));
+    }
+  }
+
+  @Test
+  public void indexOutOfBounds() throws IOException {
+    try (EventLog log = eventLog(folder.getRoot().toPath())) {
+      log.append(event(0));
+      thrown.expect(IndexOutOfBoundsException.class);
+      log.get(1);
+    }
+  }
+
+  @Test
+  public void segmentSizeNotPositive() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("segmentSize");
+    eventLog(folder.getRoot().toPath(), 0, 0);
+  }
+
+  private void recoverTail(byte[] tail) throws IOException {
+    Path directory = folder.getRoot().toPath();
+    try (EventLog log = eventLog(directory)) {
+      for (int i = 0; i < 3; i++) {
+        log.append(event(i));
+      }
+    }
+    Path segment = directory.resolve("00000000.log");
+    long length = Files.size(segment);
+    try (FileChannel channel = FileChannel.open(segment, APPEND)) {
+      channel.write(ByteBuffer.wrap(tail));
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertThat(log.size(), is(3));
+      assertThat(Files.size(segment), is(length));
+      assertReplay(log, 3);
+      log.append(event(3));
+    }
+    try (EventLog log = eventLog(directory)) {
+      assertReplay(log, 4);
+    }
+  }
+
+  private static Event nulls(Path directory) throws IOException {
+    try (EventLog log = eventLog(directory)) {
+      log.append(new Event(-1, null, null));
+      return log.get(log.size() - 1);
+    }
+  }
+
+  private static Event event(int i) {
+    return new Event(i, "event " + i + " ü", i % 3 == 0 ? null : i);
+  }
+
+  private static void assertReplay(EventLog log, int size) throws IOException {
+    List<Event> events = new ArrayList<>();
+    log.replay(events::add);
+    assertThat(events.size(), is(size));
+    for (int i = 0; i < size; i++) {
+      assertEqual(events.get(i), event(i));
+    }
+  }
+
+  private static void assertEqual(Event actual, Event expected) {
+    assertThat(actual.sequence, is(expected.sequence));
+    assertThat(actual.payload, is(expected.payload));
+    assertThat(actual.priority, is(expected.priority));
+  }
+}
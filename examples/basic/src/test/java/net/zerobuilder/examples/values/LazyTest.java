@@ -0,0 +1,55 @@
+package net.zerobuilder.examples.values;
+
+import org.junit.Test;
+
+import static net.zerobuilder.examples.values.LazyBuilders.lazyUpdater;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class LazyTest {
+
+  @Test
+  public void unchanged() {
+    Lazy lazy = new Lazy(1.5, 2.5f, "a");
+    assertSame(lazy, lazyUpdater(lazy).done());
+    assertSame(lazy, lazyUpdater(lazy).x(1.5).y(2.5f).label("a").done());
+  }
+
+  @Test
+  public void changed() {
+    Lazy lazy = new Lazy(1.5, 2.5f, "a");
+    Lazy updated = lazyUpdater(lazy).y(3f).done();
+    assertNotSame(lazy, updated);
+    assertThat(updated.x, is(1.5));
+    assertThat(updated.y, is(3f));
+    assertThat(updated.label, is("a"));
+  }
+
+  @Test
+  public void negativeZero() {
+    Lazy lazy = new Lazy(0.0, 0.0f, "a");
+    Lazy x = lazyUpdater(lazy).x(-0.0).done();
+    assertNotSame(lazy, x);
+    assertThat(1 / x.x, is(Double.NEGATIVE_INFINITY));
+    Lazy y = lazyUpdater(lazy).y(-0.0f).done();
+    assertNotSame(lazy, y);
+    assertThat(1 / y.y, is(Float.NEGATIVE_INFINITY));
+  }
+
+  @Test
+  public void positiveZero() {
+    Lazy lazy = new Lazy(-0.0, -0.0f, "a");
+    Lazy updated = lazyUpdater(lazy).x(0.0).y(0.0f).done();
+    assertNotSame(lazy, updated);
+    assertThat(1 / updated.x, is(Double.POSITIVE_INFINITY));
+    assertThat(1 / updated.y, is(Float.POSITIVE_INFINITY));
+  }
+
+  @Test
+  public void nan() {
+    Lazy lazy = new Lazy(Double.NaN, Float.NaN, "a");
+    assertSame(lazy, lazyUpdater(lazy).x(Double.NaN).y(Float.NaN).done());
+  }
+}
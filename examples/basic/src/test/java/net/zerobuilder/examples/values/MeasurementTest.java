@@ -0,0 +1,62 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.examples.values.MeasurementBuilders.MeasurementJson;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.zerobuilder.examples.values.MeasurementBuilders.measurementJson;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MeasurementTest {
+
+  private final MeasurementJson json = measurementJson();
+
+  @Test
+  public void readFloatWithoutDoubleRounding() {
+    // rounds to 1.0000002f when parsed as a double first
+    String token = "1.00000017881393432617187499";
+    Measurement measurement = read("{\"unit\":\"m\",\"value\":" + token + ",\"previous\":" + token + "}");
+    assertThat(measurement.value, is(Float.parseFloat(token)));
+    assertThat(measurement.previous, is(Float.parseFloat(token)));
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      float value = Float.intBitsToFloat(random.nextInt());
+      if (Float.isNaN(value) || Float.isInfinite(value)) {
+        continue;
+      }
+      Measurement measurement = read(write(new Measurement("m", value, null)));
+      assertThat(Float.floatToRawIntBits(measurement.value), is(Float.floatToRawIntBits(value)));
+      assertThat(measurement.previous, is(nullValue()));
+    }
+  }
+
+  @Test
+  public void writeLoneSurrogates() throws IOException {
+    String unit = "\ud800a\udc00😀\ud83d";
+    String written = write(new Measurement(unit, 1, 2f));
+    assertThat(written, is("{\"unit\":\"\\ud800a\\udc00😀\\ud83d\",\"value\":1.0,\"previous\":2.0}"));
+    assertThat(read(written).unit, is(unit));
+  }
+
+  private Measurement read(String s) {
+    return json.read(s.getBytes(UTF_8));
+  }
+
+  private String write(Measurement measurement) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    json.write(measurement, out);
+    // fails on malformed UTF-8
+    return UTF_8.newDecoder().decode(ByteBuffer.wrap(out.toByteArray())).toString();
+  }
+}
@@ -1,5 +1,7 @@
 package net.zerobuilder.examples.values;
 
+import net.zerobuilder.examples.values.Nesting.Matryoshka;
+import net.zerobuilder.examples.values.Nesting_MatryoshkaBuilders.MatryoshkaBuilder;
 import org.junit.Test;
 
 import static net.zerobuilder.examples.values.Nesting_CrowsNestBuilders.crowsNestBuilder;
@@ -8,8 +10,14 @@ import static net.zerobuilder.examples.values.Nesting_CrowsNest_LizardsNestBuild
 import static net.zerobuilder.examples.values.Nesting_CrowsNest_LizardsNestBuilders.lizardsNestUpdater;
 import static net.zerobuilder.examples.values.Nesting_DovesNestBuilders.dovesNestBuilder;
 import static net.zerobuilder.examples.values.Nesting_DovesNestBuilders.dovesNestUpdater;
+import static net.zerobuilder.examples.values.Nesting_MatryoshkaBuilders.matryoshkaBuilder;
+import static net.zerobuilder.examples.values.Nesting_MatryoshkaBuilders.matryoshkaUpdater;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class NestingTest {
 
@@ -41,4 +49,60 @@ public class NestingTest {
     assertThat(crowsNest.spottedEgg, is(2));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testMatryoshka() {
+    Matryoshka matryoshka = matryoshkaBuilder()
+        .inner(matryoshkaBuilder()
+            .inner(matryoshkaBuilder().inner(null).name("small"))
+            .name("medium"))
+        .name("large");
+    assertThat(matryoshka.name, is("large"));
+    assertThat(matryoshka.inner.name, is("medium"));
+    assertThat(matryoshka.inner.inner.name, is("small"));
+    assertThat(matryoshka.inner.inner.inner, is(nullValue()));
+    matryoshka = matryoshkaUpdater(matryoshka)
+        .inner(matryoshkaUpdater(matryoshka.inner).name("middle").done())
+        .done();
+    assertThat(matryoshka.name, is("large"));
+    assertThat(matryoshka.inner.name, is("middle"));
+    assertThat(matryoshka.inner.inner.name, is("small"));
+  }
+
+  @Test
+  public void testMatryoshkaRecycled() {
+    MatryoshkaBuilder.Inner outer = matryoshkaBuilder();
+    MatryoshkaBuilder.Inner inner = matryoshkaBuilder();
+    assertNotSame(outer, inner);
+    Matryoshka small = inner.inner(null).name("small");
+    Matryoshka large = outer.inner(small).name("large");
+    assertSame(small, large.inner);
+    MatryoshkaBuilder.Inner first = matryoshkaBuilder();
+    first.inner(null).name("first");
+    MatryoshkaBuilder.Inner second = matryoshkaBuilder();
+    second.inner(null).name("second");
+    assertSame(first, second);
+  }
+
+  @Test
+  public void testMatryoshkaRecoversAfterFailedBuild() {
+    MatryoshkaBuilder.Inner failed = matryoshkaBuilder();
+    try {
+      failed.inner(null).name(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    MatryoshkaBuilder.Inner next = matryoshkaBuilder();
+    assertThat(next.inner(null).name("next").name, is("next"));
+    assertSame(failed, next);
+  }
+
+  @Test
+  public void testMatryoshkaRecoversAfterAbandonedBuild() {
+    matryoshkaBuilder().inner(null);
+    MatryoshkaBuilder.Inner first = matryoshkaBuilder();
+    first.inner(null).name("first");
+    MatryoshkaBuilder.Inner second = matryoshkaBuilder();
+    second.inner(null).name("second");
+    assertSame(first, second);
+  }
+}
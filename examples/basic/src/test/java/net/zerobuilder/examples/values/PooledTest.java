@@ -0,0 +1,69 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.examples.values.PooledBuilders.PooledBuilder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.zerobuilder.examples.values.PooledBuilders.pooledBuilder;
+import static net.zerobuilder.examples.values.PooledBuilders.pooledUpdater;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class PooledTest {
+
+  @Test
+  public void reuseAcrossThreads() throws Exception {
+    PooledBuilder.Label first = pooledBuilder();
+    first.label("main").count(1);
+    PooledBuilder.Label[] second = new PooledBuilder.Label[1];
+    Pooled[] pooled = new Pooled[1];
+    Thread thread = new Thread(() -> {
+      second[0] = pooledBuilder();
+      pooled[0] = second[0].label("other").count(2);
+    });
+    thread.start();
+    thread.join();
+    assertSame(first, second[0]);
+    assertThat(pooled[0].label, is("other"));
+    assertThat(pooled[0].count, is(2));
+  }
+
+  @Test
+  public void concurrentBuilds() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int task = 0; task < 8; task++) {
+        String label = "task" + task;
+        futures.add(executor.submit(builds(label)));
+      }
+      for (Future<Integer> future : futures) {
+        assertThat(future.get(), is(10000));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Callable<Integer> builds(String label) {
+    return () -> {
+      int count = 0;
+      for (int i = 0; i < 10000; i++) {
+        Pooled pooled = pooledUpdater(pooledBuilder().label(label).count(i))
+            .count(i + 1)
+            .done();
+        if (pooled.label.equals(label) && pooled.count == i + 1) {
+          count++;
+        }
+      }
+      return count;
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package net.zerobuilder.examples.values;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.zerobuilder.examples.values.ReadingBuilders.readingCsv;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ReadingTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void load() throws IOException {
+    List<Reading> readings = readingCsv(',', false).load(file(
+        "a,0.1,-2.5\n",
+        "b,3.4028235e38,\n",
+        "c,-0,1.4E-45"));
+    assertThat(readings.size(), is(3));
+    assertThat(readings.get(0).value, is(0.1f));
+    assertThat(readings.get(0).delta, is(-2.5f));
+    assertThat(readings.get(1).value, is(Float.MAX_VALUE));
+    assertThat(readings.get(1).delta, is(nullValue()));
+    assertThat(Float.floatToRawIntBits(readings.get(2).value), is(Float.floatToRawIntBits(-0f)));
+    assertThat(readings.get(2).delta, is(Float.MIN_VALUE));
+  }
+
+  @Test
+  public void noDoubleRounding() throws IOException {
+    // rounds to 1.0000002f when parsed as a double first
+    String token = "1.00000017881393432617187499";
+    Reading reading = readingCsv(',', false).load(file("x," + token + "," + token)).get(0);
+    assertThat(reading.value, is(Float.parseFloat(token)));
+    assertThat(reading.delta, is(Float.parseFloat(token)));
+  }
+
+  @Test
+  public void sameAsParseFloat() throws IOException {
+    Random random = new Random(5);
+    List<String> tokens = new ArrayList<>();
+    StringBuilder csv = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      // short decimals take the fast path, long ones the fallback
+      int digits = 1 + random.nextInt(17);
+      StringBuilder token = new StringBuilder();
+      for (int j = 0; j < digits; j++) {
+        token.append((char) ('0' + random.nextInt(10)));
+      }
+      token.insert(random.nextInt(digits + 1), '.');
+      if (token.length() == 1) {
+        token.append('0');
+      }
+      tokens.add(token.toString());
+      csv.append("s,").append(token).append(",\n");
+    }
+    List<Reading> readings = readingCsv(',', false).load(file(csv.toString()));
+    for (int i = 0; i < tokens.size(); i++) {
+      assertThat(tokens.get(i), readings.get(i).value, is(Float.parseFloat(tokens.get(i))));
+    }
+  }
+
+  private Path file(String... lines) throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, String.join("", lines).getBytes(UTF_8));
+    return file;
+  }
+}
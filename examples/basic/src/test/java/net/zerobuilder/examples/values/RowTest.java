@@ -0,0 +1,176 @@
+package net.zerobuilder.examples.values;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.zerobuilder.examples.values.RowBuilders.rowCsv;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RowTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void byPosition() throws IOException {
+    List<Row> rows = rowCsv(',', false).load(file(
+        "1,Ann,0.1,3,true\n",
+        "-9223372036854775808,Bob,-2.50,,false\n",
+        "3,,1e3,-7,true"));
+    assertThat(rows.size(), is(3));
+    assertEqual(rows.get(0), new Row(1, "Ann", 0.1, 3, true));
+    assertEqual(rows.get(1), new Row(Long.MIN_VALUE, "Bob", -2.5, null, false));
+    assertEqual(rows.get(2), new Row(3, "", 1000, -7, true));
+    assertThat(rows.get(1).count, is(nullValue()));
+  }
+
+  @Test
+  public void byHeader() throws IOException {
+    List<Row> rows = rowCsv(',', true).load(file(
+        "\"flag\",count,extra,amount,name,id\n",
+        "true,3,ignored,0.5,Ann,1\n",
+        "false,4,,1.25,Bob,2\n"));
+    assertThat(rows.size(), is(2));
+    assertEqual(rows.get(0), new Row(1, "Ann", 0.5, 3, true));
+    assertEqual(rows.get(1), new Row(2, "Bob", 1.25, 4, false));
+  }
+
+  @Test
+  public void quoting() throws IOException {
+    List<Row> rows = rowCsv(',', false).load(file(
+        "1,\"Smith, Ann\",1,1,true\n",
+        "2,\"say \"\"hi\"\"\",2,2,false\n",
+        "3,\"\",3,3,true\n"));
+    assertThat(rows.get(0).name, is("Smith, Ann"));
+    assertThat(rows.get(1).name, is("say \"hi\""));
+    assertThat(rows.get(2).name, is(""));
+  }
+
+  @Test
+  public void crlf() throws IOException {
+    List<Row> rows = rowCsv(',', true).load(file(
+        "id,name,amount,count,flag\r\n",
+        "1,Ann,1.5,1,true\r\n",
+        "\r\n",
+        "2,\"Bob\",2.5,,false\r\n"));
+    assertThat(rows.size(), is(2));
+    assertEqual(rows.get(0), new Row(1, "Ann", 1.5, 1, true));
+    assertEqual(rows.get(1), new Row(2, "Bob", 2.5, null, false));
+  }
+
+  @Test
+  public void tabs() throws IOException {
+    List<Row> rows = rowCsv('\t', false).load(file("1\tA, B\t1.5\t2\tfalse\n"));
+    assertEqual(rows.get(0), new Row(1, "A, B", 1.5, 2, false));
+  }
+
+  @Test
+  public void chunksKeepTheOrderOfTheLines() throws IOException {
+    String[] lines = new String[10000];
+    for (int i = 0; i < lines.length; i++) {
+      lines[i] = i + ",name" + i + "," + i + ".25," + (i % 2 == 0 ? "" : i) + "," + (i % 3 == 0) + "\n";
+    }
+    // a line that is longer than a chunk
+    char[] chars = new char[500];
+    Arrays.fill(chars, 'x');
+    lines[5000] = "5000," + new String(chars) + ",5000.25,,false\n";
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<Row> rows = rowCsv(',', false, 64).load(file(lines), pool);
+      assertThat(rows.size(), is(lines.length));
+      for (int i = 0; i < lines.length; i++) {
+        Row row = rows.get(i);
+        assertThat(row.id, is((long) i));
+        assertThat(row.name, is(i == 5000 ? new String(chars) : "name" + i));
+        assertThat(row.amount, is(i + 0.25));
+        assertThat(row.count, is(i % 2 == 0 ? null : i));
+        assertThat(row.flag, is(i % 3 == 0));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void emptyFile() throws IOException {
+    assertThat(rowCsv(',', false).load(file()).isEmpty(), is(true));
+  }
+
+  @Test
+  public void missingColumn() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("missing column: amount");
+    rowCsv(',', true).load(file("id,name,count,flag\n", "1,Ann,1,true\n"));
+  }
+
+  @Test
+  public void missingColumnsInLine() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("missing columns in the line at byte 17");
+    rowCsv(',', false).load(file("1,Ann,1.5,1,true\n", "2,Bob,2.5\n"));
+  }
+
+  @Test
+  public void notANumber() throws IOException {
+    thrown.expect(NumberFormatException.class);
+    thrown.expectMessage("not a number: x");
+    rowCsv(',', false).load(file("x,Ann,1.5,1,true\n"));
+  }
+
+  @Test
+  public void intOutOfRange() throws IOException {
+    thrown.expect(NumberFormatException.class);
+    thrown.expectMessage("out of range: 2147483648");
+    rowCsv(',', false).load(file("1,Ann,1.5,2147483648,true\n"));
+  }
+
+  @Test
+  public void notABoolean() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("not a boolean: yes");
+    rowCsv(',', false).load(file("1,Ann,1.5,1,yes\n"));
+  }
+
+  @Test
+  public void invalidDelimiter() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("delimiter");
+    rowCsv('"', false);
+  }
+
+  @Test
+  public void noSuchFile() throws IOException {
+    thrown.expect(NoSuchFileException.class);
+    rowCsv(',', false).load(folder.getRoot().toPath().resolve("missing.csv"));
+  }
+
+  private Path file(String... lines) throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, String.join("", lines).getBytes(UTF_8));
+    return file;
+  }
+
+  private static void assertEqual(Row actual, Row expected) {
+    assertThat(actual.id, is(expected.id));
+    assertThat(actual.name, is(expected.name));
+    assertThat(actual.amount, is(expected.amount));
+    assertThat(actual.count, is(expected.count));
+    assertThat(actual.flag, is(expected.flag));
+  }
+}
@@ -0,0 +1,112 @@
+package net.zerobuilder.examples.values;
+
+import net.zerobuilder.examples.values.TickBuilders.TickView;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.zerobuilder.examples.values.TickBuilders.tickView;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class TickTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void heapBuffer() {
+    readAndWrite(ByteBuffer.allocate(4 * TickView.SIZE));
+  }
+
+  @Test
+  public void directBuffer() {
+    readAndWrite(ByteBuffer.allocateDirect(4 * TickView.SIZE));
+  }
+
+  @Test
+  public void littleEndian() {
+    readAndWrite(ByteBuffer.allocateDirect(4 * TickView.SIZE).order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  @Test
+  public void mappedFile() throws IOException {
+    Path file = folder.newFile("ticks").toPath();
+    try (FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 3 * TickView.SIZE);
+      TickView view = tickView();
+      for (int i = 0; i < 3; i++) {
+        view.wrap(buffer, i * TickView.SIZE).put(tick(i));
+      }
+      buffer.force();
+    }
+    try (FileChannel channel = FileChannel.open(file, READ)) {
+      assertThat(channel.size(), is(3L * TickView.SIZE));
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      TickView view = tickView();
+      for (int i = 0; i < 3; i++) {
+        assertEqual(view.wrap(buffer, i * TickView.SIZE).materialize(), tick(i));
+      }
+    }
+  }
+
+  @Test
+  public void recordOutOfBounds() {
+    ByteBuffer buffer = ByteBuffer.allocate(2 * TickView.SIZE);
+    TickView view = tickView().wrap(buffer, 2 * TickView.SIZE - 1);
+    thrown.expect(IndexOutOfBoundsException.class);
+    view.put(tick(0));
+  }
+
+  private static void readAndWrite(ByteBuffer buffer) {
+    TickView view = tickView();
+    for (int i = 0; i < 4; i++) {
+      assertThat(view.wrap(buffer, i * TickView.SIZE).put(tick(i)), is(view));
+    }
+    // moving the view to another record does not change the buffer
+    for (int i = 3; i >= 0; i--) {
+      view.wrap(buffer, i * TickView.SIZE);
+      Tick expected = tick(i);
+      assertThat(view.time(), is(expected.time));
+      assertThat(view.bid(), is(expected.bid));
+      assertThat(view.size(), is(expected.size));
+      assertThat(view.venue(), is(expected.venue));
+      assertThat(view.side(), is(expected.side));
+      assertThat(view.ask(), is(expected.ask));
+      assertThat(view.mid(), is(expected.mid));
+      assertThat(view.last(), is(expected.last));
+      assertEqual(view.materialize(), expected);
+    }
+    assertThat(buffer.position(), is(0));
+  }
+
+  private static Tick tick(int i) {
+    return new Tick(Long.MAX_VALUE - i, -i, (short) (1000 * i), (byte) (i - 2),
+        (char) ('a' + i), i + 0.5f, -i * 0.25, i % 2 == 0);
+  }
+
+  private static void assertEqual(Tick actual, Tick expected) {
+    assertThat(actual.time, is(expected.time));
+    assertThat(actual.bid, is(expected.bid));
+    assertThat(actual.size, is(expected.size));
+    assertThat(actual.venue, is(expected.venue));
+    assertThat(actual.side, is(expected.side));
+    assertThat(actual.ask, is(expected.ask));
+    assertThat(actual.mid, is(expected.mid));
+    assertThat(actual.last, is(expected.last));
+  }
+}